@@ -0,0 +1,323 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.benchmarks;
+
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerInstalledProduct;
+import org.candlepin.model.ConsumerType;
+import org.candlepin.model.Content;
+import org.candlepin.model.Entitlement;
+import org.candlepin.model.GuestId;
+import org.candlepin.model.Owner;
+import org.candlepin.model.Pool;
+import org.candlepin.model.Product;
+import org.candlepin.model.SourceSubscription;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+
+
+/**
+ * The BenchmarkFixtures class generates the in-memory model graphs used by the benchmarks. The
+ * generated data mirrors the shape of typical upstream data: engineering products carrying a few
+ * dozen content sets each, marketing SKUs providing a handful of engineering products, and
+ * systems with installed products, facts and entitlements.
+ * <p></p>
+ * Fixtures are generated from a fixed seed, so every run of a benchmark works against the same
+ * data.
+ */
+public class BenchmarkFixtures {
+
+    /** The seed used by default, making fixtures identical across runs */
+    public static final long DEFAULT_SEED = 8675309L;
+
+    private static final String[] ARCHES = { "x86_64", "ppc64le", "s390x", "aarch64" };
+
+    private static final String[] CONTENT_TYPES = { "yum", "yum", "yum", "file", "kickstart" };
+    private static final String[] REPO_KINDS = { "os", "debug", "source/SRPMS", "optional/os",
+        "supplementary/os", "extras/os" };
+
+    private final Random random;
+    private int sequence;
+
+    public BenchmarkFixtures() {
+        this(DEFAULT_SEED);
+    }
+
+    public BenchmarkFixtures(long seed) {
+        this.random = new Random(seed);
+        this.sequence = 0;
+    }
+
+    private String nextId(String prefix) {
+        return prefix + "-" + (++this.sequence);
+    }
+
+    /**
+     * Creates a new owner with a generated ID.
+     *
+     * @param key
+     *  the key of the owner to create
+     *
+     * @return
+     *  a new owner
+     */
+    public Owner createOwner(String key) {
+        Owner owner = new Owner(key, key + " Organization");
+        owner.setId(this.nextId("owner"));
+
+        return owner;
+    }
+
+    /**
+     * Creates a consumer type with a generated ID.
+     *
+     * @param type
+     *  the kind of consumer type to create
+     *
+     * @return
+     *  a new consumer type
+     */
+    public ConsumerType createConsumerType(ConsumerType.ConsumerTypeEnum type) {
+        ConsumerType ctype = new ConsumerType(type);
+        ctype.setId(this.nextId("ctype"));
+
+        return ctype;
+    }
+
+    /**
+     * Creates a content set in the style of a Red Hat CDN repository.
+     *
+     * @param productId
+     *  the ID of the product to which the content belongs; used to build the content path
+     *
+     * @return
+     *  a new content instance
+     */
+    public Content createContent(String productId) {
+        String id = String.valueOf(1000000 + this.random.nextInt(9000000));
+        String kind = REPO_KINDS[this.random.nextInt(REPO_KINDS.length)];
+        String label = "rhel-" + productId + "-" + kind.replace('/', '-') + "-" + id;
+
+        Content content = new Content(id, label.toUpperCase(), CONTENT_TYPES[this.random.nextInt(
+            CONTENT_TYPES.length)], label, "Red Hat");
+
+        content.setContentUrl("/content/dist/" + productId + "/$releasever/$basearch/" + kind);
+        content.setGpgUrl("file:///etc/pki/rpm-gpg/RPM-GPG-KEY-redhat-release");
+        content.setArches(ARCHES[this.random.nextInt(ARCHES.length)]);
+        content.setRequiredTags(this.random.nextInt(4) == 0 ? "rhel-7-server" : null);
+        content.setMetadataExpiration(86400L);
+
+        if (this.random.nextInt(5) == 0) {
+            content.addModifiedProductId(String.valueOf(100 + this.random.nextInt(400)));
+        }
+
+        return content;
+    }
+
+    /**
+     * Creates an engineering product providing the given number of content sets.
+     *
+     * @param contentCount
+     *  the number of content sets to add to the product
+     *
+     * @return
+     *  a new engineering product
+     */
+    public Product createEngineeringProduct(int contentCount) {
+        String id = String.valueOf(100 + (++this.sequence));
+
+        Product product = new Product(id, "Red Hat Enterprise Linux Component " + id);
+        product.setAttribute(Product.Attributes.ARCHITECTURE, "x86_64,ppc64le,s390x");
+        product.setAttribute(Product.Attributes.VERSION, "7." + this.random.nextInt(10));
+        product.setAttribute(Product.Attributes.BRANDING_TYPE, "OS");
+
+        for (int i = 0; i < contentCount; ++i) {
+            product.addContent(this.createContent(id), this.random.nextInt(3) != 0);
+        }
+
+        return product;
+    }
+
+    /**
+     * Creates the given number of engineering products, each providing the given number of
+     * content sets.
+     *
+     * @param productCount
+     *  the number of products to create
+     *
+     * @param contentCount
+     *  the number of content sets to add to each product
+     *
+     * @return
+     *  a list of new engineering products
+     */
+    public List<Product> createEngineeringProducts(int productCount, int contentCount) {
+        List<Product> products = new ArrayList<>(productCount);
+
+        for (int i = 0; i < productCount; ++i) {
+            products.add(this.createEngineeringProduct(contentCount));
+        }
+
+        return products;
+    }
+
+    /**
+     * Creates a stackable, socket-based marketing SKU.
+     *
+     * @param stackId
+     *  the stacking ID of the SKU
+     *
+     * @return
+     *  a new marketing SKU
+     */
+    public Product createSku(String stackId) {
+        String id = this.nextId("RH00");
+
+        Product sku = new Product(id, "Red Hat Enterprise Linux Server, Premium " + id);
+        sku.setAttribute(Product.Attributes.SOCKETS, "2");
+        sku.setAttribute(Product.Attributes.ARCHITECTURE, "x86_64,ppc64le");
+        sku.setAttribute(Product.Attributes.STACKING_ID, stackId);
+        sku.setAttribute(Pool.Attributes.MULTI_ENTITLEMENT, "yes");
+        sku.setAttribute(Product.Attributes.SUPPORT_LEVEL, "Premium");
+        sku.setAttribute(Product.Attributes.SUPPORT_TYPE, "L1-L3");
+        sku.setAttribute(Product.Attributes.VIRT_LIMIT, "2");
+        sku.setAttribute(Product.Attributes.WARNING_PERIOD, "30");
+        sku.setAttribute(Product.Attributes.TYPE, "MKT");
+
+        return sku;
+    }
+
+    /**
+     * Creates a pool of the given SKU, providing the given engineering products.
+     *
+     * @param owner
+     *  the owner of the pool
+     *
+     * @param sku
+     *  the marketing SKU of the pool
+     *
+     * @param providedProducts
+     *  the engineering products provided by the pool
+     *
+     * @param quantity
+     *  the quantity of the pool
+     *
+     * @return
+     *  a new pool
+     */
+    public Pool createPool(Owner owner, Product sku, Collection<Product> providedProducts, long quantity) {
+        Calendar start = Calendar.getInstance();
+        start.add(Calendar.MONTH, -6);
+
+        Calendar end = Calendar.getInstance();
+        end.add(Calendar.YEAR, 1);
+
+        String id = this.nextId("pool");
+        String subscriptionId = "SUB" + id;
+
+        Pool pool = new Pool(owner, sku, new HashSet<>(providedProducts), quantity, start.getTime(),
+            end.getTime(), "CONTRACT-" + id, "ACCOUNT-" + owner.getKey(), "ORDER-" + id);
+
+        pool.setId(id);
+        pool.setSourceSubscription(new SourceSubscription(subscriptionId, "master"));
+        pool.setConsumed(quantity / 4);
+
+        return pool;
+    }
+
+    /**
+     * Creates a physical system with the given products installed.
+     *
+     * @param owner
+     *  the owner of the consumer
+     *
+     * @param type
+     *  the type of the consumer
+     *
+     * @param installedProducts
+     *  the products installed on the consumer
+     *
+     * @param guestCount
+     *  the number of guests reported by the consumer
+     *
+     * @return
+     *  a new consumer
+     */
+    public Consumer createConsumer(Owner owner, ConsumerType type, Collection<Product> installedProducts,
+        int guestCount) {
+
+        String id = this.nextId("consumer");
+
+        Consumer consumer = new Consumer("host-" + id + ".example.com", "admin", owner, type);
+        consumer.setId(id);
+        consumer.setUuid("uuid-" + id);
+        consumer.setCreated(new Date());
+        consumer.setUpdated(new Date());
+
+        consumer.setFact("cpu.cpu_socket(s)", "4");
+        consumer.setFact("cpu.core(s)_per_socket", "8");
+        consumer.setFact("memory.memtotal", "65842740");
+        consumer.setFact("uname.machine", "x86_64");
+        consumer.setFact("virt.is_guest", "false");
+        consumer.setFact("distribution.name", "Red Hat Enterprise Linux Server");
+        consumer.setFact("distribution.version", "7.9");
+        consumer.setFact("system.certificate_version", "3.4");
+        consumer.setFact("network.hostname", consumer.getName());
+
+        for (Product product : installedProducts) {
+            consumer.addInstalledProduct(new ConsumerInstalledProduct(product.getId(), product.getName()));
+        }
+
+        for (int i = 0; i < guestCount; ++i) {
+            consumer.addGuestId(new GuestId("guest-" + id + "-" + i, consumer));
+        }
+
+        return consumer;
+    }
+
+    /**
+     * Creates an entitlement of the given pool for the given consumer, and attaches it to the
+     * consumer.
+     *
+     * @param consumer
+     *  the consumer to entitle
+     *
+     * @param pool
+     *  the pool from which the entitlement is drawn
+     *
+     * @param quantity
+     *  the quantity of the entitlement
+     *
+     * @return
+     *  a new entitlement
+     */
+    public Entitlement createEntitlement(Consumer consumer, Pool pool, int quantity) {
+        Entitlement entitlement = new Entitlement(pool, consumer, consumer.getOwner(), quantity);
+        entitlement.setId(this.nextId("ent"));
+        entitlement.setCreated(new Date());
+        entitlement.setUpdated(new Date());
+
+        consumer.addEntitlement(entitlement);
+
+        return entitlement;
+    }
+}
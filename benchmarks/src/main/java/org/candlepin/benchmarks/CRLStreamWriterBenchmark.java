@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.benchmarks;
+
+import org.candlepin.util.CRLEntryValidator;
+import org.candlepin.util.JSSX509CRLStreamWriter;
+import org.candlepin.util.X509CRLStreamWriter;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AuthorityKeyIdentifier;
+import org.bouncycastle.asn1.x509.CRLNumber;
+import org.bouncycastle.asn1.x509.CRLReason;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.cert.X509v2CRLBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+
+
+/**
+ * Measures the rewriting of a certificate revocation list by the JSS CRL stream writer, as
+ * performed by the CRL update job: appending newly revoked serials to an existing CRL and,
+ * optionally, dropping the entries of expired certificates while doing so.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CRLStreamWriterBenchmark {
+
+    private static final int NEW_ENTRY_COUNT = 100;
+    private static final int EXPIRED_ENTRY_INTERVAL = 10;
+
+    @Param({ "1000", "50000" })
+    public int existingEntryCount;
+
+    private KeyPair keyPair;
+    private byte[] crl;
+
+    private final CRLEntryValidator expiredEntryValidator = entry ->
+        entry.getSerialNumber().mod(BigInteger.valueOf(EXPIRED_ENTRY_INTERVAL)).signum() == 0;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        this.keyPair = generator.generateKeyPair();
+
+        ContentSigner signer = new JcaContentSignerBuilder("SHA256withRSA")
+            .build(this.keyPair.getPrivate());
+
+        Date now = new Date();
+        X509v2CRLBuilder builder = new X509v2CRLBuilder(new X500Name("CN=Benchmark CA"), now);
+
+        AuthorityKeyIdentifier identifier = new JcaX509ExtensionUtils()
+            .createAuthorityKeyIdentifier(this.keyPair.getPublic());
+        builder.addExtension(Extension.authorityKeyIdentifier, false, identifier);
+        builder.addExtension(Extension.cRLNumber, false, new CRLNumber(BigInteger.valueOf(127)));
+
+        for (int i = 1; i <= this.existingEntryCount; ++i) {
+            builder.addCRLEntry(BigInteger.valueOf(i), now, CRLReason.privilegeWithdrawn);
+        }
+
+        this.crl = builder.build(signer).getEncoded();
+    }
+
+    private byte[] rewrite(CRLEntryValidator validator) throws IOException {
+        X509CRLStreamWriter writer = new JSSX509CRLStreamWriter(new ByteArrayInputStream(this.crl),
+            (RSAPrivateKey) this.keyPair.getPrivate(), (RSAPublicKey) this.keyPair.getPublic());
+
+        Date now = new Date();
+        for (int i = 1; i <= NEW_ENTRY_COUNT; ++i) {
+            writer.add(BigInteger.valueOf(this.existingEntryCount + i), now, CRLReason.privilegeWithdrawn);
+        }
+
+        writer.preScan(new ByteArrayInputStream(this.crl), validator).lock();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(this.crl.length + NEW_ENTRY_COUNT * 64);
+        writer.write(out);
+
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] appendEntries() throws IOException {
+        return this.rewrite(null);
+    }
+
+    @Benchmark
+    public byte[] appendAndExpireEntries() throws IOException {
+        return this.rewrite(this.expiredEntryValidator);
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.benchmarks;
+
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerType;
+import org.candlepin.model.Owner;
+import org.candlepin.model.Pool;
+import org.candlepin.model.Product;
+import org.candlepin.policy.js.compliance.ComplianceStatus;
+import org.candlepin.policy.js.compliance.hash.ComplianceStatusHasher;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+
+/**
+ * Measures the hashing of a compliance status, which is performed on every status calculation to
+ * decide whether a compliance event must be sent. The status hashed is the one the rules calculate
+ * for a system with the given number of entitlements.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ComplianceStatusHasherBenchmark {
+
+    @Param({ "1", "20", "100" })
+    public int entitlementCount;
+
+    private Consumer consumer;
+    private ComplianceStatus status;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkFixtures fixtures = new BenchmarkFixtures();
+
+        Owner owner = fixtures.createOwner("hasher-owner");
+        ConsumerType ctype = fixtures.createConsumerType(ConsumerType.ConsumerTypeEnum.SYSTEM);
+
+        List<Product> installed = fixtures.createEngineeringProducts(12, 5);
+        this.consumer = fixtures.createConsumer(owner, ctype, installed, 2);
+
+        for (int i = 0; i < this.entitlementCount; ++i) {
+            Pool pool = fixtures.createPool(owner, fixtures.createSku("stack-" + (i % 4)),
+                installed.subList(i % 10, i % 10 + 2), 100);
+
+            fixtures.createEntitlement(this.consumer, pool, 1);
+        }
+
+        this.status = new RulesFixture(owner, ctype).createComplianceRules()
+            .getStatus(this.consumer, null, new Date(), false, false, false, false);
+    }
+
+    @Benchmark
+    public String hash() {
+        return new ComplianceStatusHasher(this.consumer, this.status).hash();
+    }
+}
@@ -0,0 +1,266 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.benchmarks;
+
+import org.candlepin.common.config.Configuration;
+import org.candlepin.common.config.MapConfiguration;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.DatabaseConfigFactory;
+import org.candlepin.guice.CandlepinRequestScope;
+import org.candlepin.guice.CandlepinRequestScoped;
+import org.candlepin.model.CPRestrictions;
+import org.candlepin.model.Consumer;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.xnap.commons.i18n.I18n;
+import org.xnap.commons.i18n.I18nFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.persistence.Entity;
+import javax.persistence.EntityManager;
+
+
+
+/**
+ * The DatabaseFixture provides an in-memory HSQLDB with a schema generated from the entity
+ * mappings, and the curators to work against it.
+ * <p></p>
+ * Curators are created through an injector which hands them the session of the transaction
+ * started with {@link #begin()}. As in the server, a transaction also spans a request scope.
+ * Since each transaction is bound to the fixture rather than to a thread, a fixture should be used
+ * from a single benchmark thread.
+ */
+public class DatabaseFixture {
+
+    private final SessionFactory sessionFactory;
+    private final Injector injector;
+    private final CandlepinRequestScope requestScope;
+
+    private Session session;
+
+    /**
+     * Creates a new fixture backed by a fresh in-memory database with the given name.
+     *
+     * @param name
+     *  the name of the in-memory database
+     */
+    public DatabaseFixture(String name) throws IOException, URISyntaxException {
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+            .applySetting(AvailableSettings.DIALECT, "org.hibernate.dialect.HSQLDialect")
+            .applySetting(AvailableSettings.DRIVER, "org.hsqldb.jdbcDriver")
+            .applySetting(AvailableSettings.URL, "jdbc:hsqldb:mem:" + name)
+            .applySetting(AvailableSettings.USER, "sa")
+            .applySetting(AvailableSettings.PASS, "")
+            .applySetting(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+            .applySetting(AvailableSettings.USE_SECOND_LEVEL_CACHE, "false")
+            .applySetting(AvailableSettings.JPA_VALIDATION_MODE, "none")
+            .build();
+
+        MetadataSources sources = new MetadataSources(registry);
+        for (Class<?> entityClass : this.findEntityClasses()) {
+            sources.addAnnotatedClass(entityClass);
+        }
+
+        this.sessionFactory = sources.buildMetadata().buildSessionFactory();
+
+        // The block sizes the server uses on PostgreSQL, over the server defaults
+        Map<String, String> settings = new HashMap<>(ConfigProperties.DEFAULT_PROPERTIES);
+        settings.putAll(DatabaseConfigFactory.POSTGRESQL_CONFIG);
+        Configuration config = new MapConfiguration(settings);
+        I18n i18n = I18nFactory.getI18n(DatabaseFixture.class, Locale.US, I18nFactory.FALLBACK);
+
+        this.requestScope = new CandlepinRequestScope();
+        this.injector = Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bindScope(CandlepinRequestScoped.class, requestScope);
+                bind(Configuration.class).toInstance(config);
+                bind(I18n.class).toInstance(i18n);
+                bind(EntityManager.class).toProvider(DatabaseFixture.this::getSession);
+
+                requestStaticInjection(CPRestrictions.class);
+            }
+        });
+    }
+
+    /**
+     * Finds the entity classes packaged alongside the Candlepin model.
+     */
+    private List<Class<?>> findEntityClasses() throws IOException, URISyntaxException {
+        File location = new File(Consumer.class.getProtectionDomain().getCodeSource().getLocation()
+            .toURI());
+        List<String> classFiles = new ArrayList<>();
+
+        if (location.isDirectory()) {
+            Path root = location.toPath();
+
+            try (Stream<Path> paths = Files.walk(root)) {
+                classFiles.addAll(paths.map(path -> root.relativize(path).toString())
+                    .collect(Collectors.toList()));
+            }
+        }
+        else {
+            try (JarFile jar = new JarFile(location)) {
+                for (Enumeration<JarEntry> entries = jar.entries(); entries.hasMoreElements();) {
+                    classFiles.add(entries.nextElement().getName());
+                }
+            }
+        }
+
+        List<Class<?>> entityClasses = new ArrayList<>();
+
+        for (String classFile : classFiles) {
+            String name = classFile.replace(File.separatorChar, '/');
+
+            if (!name.startsWith("org/candlepin/model/") || !name.endsWith(".class")) {
+                continue;
+            }
+
+            try {
+                String className = name.substring(0, name.length() - 6).replace('/', '.');
+                Class<?> candidate = Class.forName(className, false, Consumer.class.getClassLoader());
+
+                if (candidate.isAnnotationPresent(Entity.class)) {
+                    entityClasses.add(candidate);
+                }
+            }
+            catch (ClassNotFoundException | LinkageError e) {
+                // Not an entity we can map; skip it
+            }
+        }
+
+        return entityClasses;
+    }
+
+    public SessionFactory getSessionFactory() {
+        return this.sessionFactory;
+    }
+
+    /**
+     * Fetches an instance of the given curator, operating on the session of the current
+     * transaction.
+     *
+     * @param curatorClass
+     *  the class of the curator to fetch
+     *
+     * @return
+     *  an instance of the given curator
+     */
+    public <T> T getCurator(Class<T> curatorClass) {
+        return this.injector.getInstance(curatorClass);
+    }
+
+    /**
+     * Opens a session, starts a transaction and enters a new request scope.
+     *
+     * @return
+     *  the session of the new transaction
+     */
+    public Session begin() {
+        if (this.session != null) {
+            throw new IllegalStateException("A transaction is already in progress");
+        }
+
+        this.session = this.sessionFactory.openSession();
+        this.session.beginTransaction();
+        this.requestScope.enter();
+
+        return this.session;
+    }
+
+    /**
+     * Commits the current transaction and exits its request scope.
+     */
+    public void commit() {
+        this.end(true);
+    }
+
+    /**
+     * Rolls back the current transaction, discarding any changes made since it was started, and
+     * exits its request scope.
+     */
+    public void rollback() {
+        this.end(false);
+    }
+
+    private void end(boolean commit) {
+        if (this.session == null) {
+            throw new IllegalStateException("No transaction is in progress");
+        }
+
+        try {
+            this.requestScope.exit();
+
+            if (commit) {
+                this.session.getTransaction().commit();
+            }
+            else {
+                this.session.getTransaction().rollback();
+            }
+        }
+        finally {
+            this.session.close();
+            this.session = null;
+        }
+    }
+
+    /**
+     * Fetches the session of the current transaction.
+     *
+     * @throws IllegalStateException
+     *  if no transaction is in progress
+     *
+     * @return
+     *  the session of the current transaction
+     */
+    public Session getSession() {
+        if (this.session == null) {
+            throw new IllegalStateException("No transaction is in progress");
+        }
+
+        return this.session;
+    }
+
+    /**
+     * Closes the session factory, dropping the database.
+     */
+    public void close() {
+        this.sessionFactory.close();
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.benchmarks;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.candlepin.common.config.Configuration;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerType;
+import org.candlepin.model.EntitlementCurator;
+import org.candlepin.model.Owner;
+import org.candlepin.model.Pool;
+import org.candlepin.model.Product;
+import org.candlepin.util.X509V3ExtensionUtil;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+
+
+/**
+ * Measures the generation of the compressed entitlement data payload of a v3 entitlement
+ * certificate in its two steps: the mapping of a pool's products and content to the certificate's
+ * product models, and the serialization and deflation of those models into the payload written
+ * into the certificate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EntitlementPayloadBenchmark {
+
+    @Param({ "1", "10", "50" })
+    public int productCount;
+
+    @Param({ "10", "100" })
+    public int contentPerProduct;
+
+    private X509V3ExtensionUtil extensionUtil;
+    private Product sku;
+    private Set<Product> providedProducts;
+    private List<org.candlepin.model.dto.Product> productModels;
+    private Consumer consumer;
+    private Pool pool;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkFixtures fixtures = new BenchmarkFixtures();
+
+        Owner owner = fixtures.createOwner("payload-owner");
+        ConsumerType ctype = fixtures.createConsumerType(ConsumerType.ConsumerTypeEnum.SYSTEM);
+
+        List<Product> provided = fixtures
+            .createEngineeringProducts(this.productCount, this.contentPerProduct);
+        this.sku = fixtures.createSku("payload-stack");
+        this.providedProducts = new HashSet<>(provided);
+
+        this.pool = fixtures.createPool(owner, this.sku, provided, 100);
+        this.consumer = fixtures.createConsumer(owner, ctype, provided, 0);
+
+        Set<String> entitledProductIds = new HashSet<>();
+        provided.forEach(product -> entitledProductIds.add(product.getId()));
+
+        EntitlementCurator entitlementCurator = mock(EntitlementCurator.class);
+        when(entitlementCurator.listEntitledProductIds(any(Consumer.class), any(Pool.class)))
+            .thenReturn(entitledProductIds);
+
+        Configuration config = mock(Configuration.class);
+        when(config.getBoolean(ConfigProperties.ENV_CONTENT_FILTERING)).thenReturn(false);
+
+        // Configured as the server configures its X509V3ExtensionUtilObjectMapper
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        mapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+
+        this.extensionUtil = new X509V3ExtensionUtil(config, entitlementCurator, mapper);
+        this.productModels = this.createProductModels();
+    }
+
+    @Benchmark
+    public List<org.candlepin.model.dto.Product> createProductModels() {
+        return this.extensionUtil.createProducts(this.sku, this.providedProducts, "/prefix",
+            Collections.emptyMap(), this.consumer, this.pool);
+    }
+
+    @Benchmark
+    public byte[] createEntitlementDataPayload() throws IOException {
+        return this.extensionUtil.createEntitlementDataPayload(this.productModels, this.consumer,
+            this.pool, 1);
+    }
+}
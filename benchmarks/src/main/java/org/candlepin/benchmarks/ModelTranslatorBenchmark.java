@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.benchmarks;
+
+import org.candlepin.dto.ModelTranslator;
+import org.candlepin.dto.api.v1.ConsumerDTO;
+import org.candlepin.dto.api.v1.EntitlementDTO;
+import org.candlepin.dto.api.v1.PoolDTO;
+import org.candlepin.dto.api.v1.ProductDTO;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerType;
+import org.candlepin.model.Entitlement;
+import org.candlepin.model.Owner;
+import org.candlepin.model.Pool;
+import org.candlepin.model.Product;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+
+/**
+ * Measures the translation of model entities to the API and rules DTOs by the standard model
+ * translator, for entities of a typical size: a product with a few dozen content sets, a pool
+ * providing several such products, and a system with installed products, guests and entitlements.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ModelTranslatorBenchmark {
+
+    private ModelTranslator translator;
+
+    private Product product;
+    private Pool pool;
+    private Consumer consumer;
+    private Entitlement entitlement;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkFixtures fixtures = new BenchmarkFixtures();
+
+        Owner owner = fixtures.createOwner("translator-owner");
+        ConsumerType ctype = fixtures.createConsumerType(ConsumerType.ConsumerTypeEnum.SYSTEM);
+
+        List<Product> products = fixtures.createEngineeringProducts(5, 40);
+
+        this.product = products.get(0);
+        this.pool = fixtures.createPool(owner, fixtures.createSku("translator-stack"), products, 100);
+        this.consumer = fixtures.createConsumer(owner, ctype, products, 10);
+        this.entitlement = fixtures.createEntitlement(this.consumer, this.pool, 2);
+
+        this.translator = new RulesFixture(owner, ctype).getTranslator();
+    }
+
+    @Benchmark
+    public ProductDTO translateProduct() {
+        return this.translator.translate(this.product, ProductDTO.class);
+    }
+
+    @Benchmark
+    public PoolDTO translatePool() {
+        return this.translator.translate(this.pool, PoolDTO.class);
+    }
+
+    @Benchmark
+    public ConsumerDTO translateConsumer() {
+        return this.translator.translate(this.consumer, ConsumerDTO.class);
+    }
+
+    @Benchmark
+    public EntitlementDTO translateEntitlement() {
+        return this.translator.translate(this.entitlement, EntitlementDTO.class);
+    }
+
+    @Benchmark
+    public org.candlepin.dto.rules.v1.PoolDTO translatePoolForRules() {
+        return this.translator.translate(this.pool, org.candlepin.dto.rules.v1.PoolDTO.class);
+    }
+
+    @Benchmark
+    public org.candlepin.dto.rules.v1.ConsumerDTO translateConsumerForRules() {
+        return this.translator.translate(this.consumer, org.candlepin.dto.rules.v1.ConsumerDTO.class);
+    }
+}
@@ -0,0 +1,165 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.benchmarks;
+
+import org.candlepin.model.CandlepinQuery;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerType;
+import org.candlepin.model.DetachedCandlepinQuery;
+import org.candlepin.model.Owner;
+import org.candlepin.model.ResultIterator;
+
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.criterion.DetachedCriteria;
+import org.hibernate.criterion.Restrictions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.concurrent.TimeUnit;
+
+
+
+/**
+ * Measures streaming an owner's consumers the way the CandlepinQueryInterceptor does: through a
+ * dedicated session, clearing it periodically, either with the default session settings or with
+ * read-only entities, manual flushing and a fetch size.
+ * <p></p>
+ * This suite needs a database. It uses the in-memory HSQLDB of a {@link DatabaseFixture}, so it
+ * measures the work done by Hibernate and the JVM rather than the database. Run it with the GC
+ * profiler to compare the allocation of both modes:
+ * <pre>
+ *     ./gradlew :candlepin-benchmarks:jmh -Pjmh_include=QueryStreamingBenchmark -Pjmh_args="-prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class QueryStreamingBenchmark {
+
+    /** Mirrors CandlepinQueryInterceptor.SESSION_CLEAR_INTERVAL */
+    private static final int SESSION_CLEAR_INTERVAL = 500;
+
+    /** Mirrors CandlepinQueryInterceptor.STREAM_FETCH_SIZE */
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private static final int FACT_COUNT = 40;
+
+    @Param({ "1000", "10000" })
+    public int consumerCount;
+
+    @Param({ "false", "true" })
+    public boolean readOnly;
+
+    private DatabaseFixture database;
+    private SessionFactory sessionFactory;
+    private String ownerId;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, URISyntaxException {
+        this.database = new DatabaseFixture("query-streaming");
+        this.sessionFactory = this.database.getSessionFactory();
+        this.populate();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.database.close();
+    }
+
+    /**
+     * Creates an owner with the configured number of consumers, each reporting a typical number of
+     * facts.
+     */
+    private void populate() {
+        try (Session session = this.sessionFactory.openSession()) {
+            session.beginTransaction();
+
+            Owner owner = new Owner("streaming-owner", "Streaming Owner");
+            ConsumerType ctype = new ConsumerType(ConsumerType.ConsumerTypeEnum.SYSTEM);
+            session.persist(owner);
+            session.persist(ctype);
+
+            for (int i = 0; i < this.consumerCount; ++i) {
+                Consumer consumer = new Consumer("consumer-" + i, "admin", owner, ctype);
+
+                for (int f = 0; f < FACT_COUNT; ++f) {
+                    consumer.setFact("fact.name." + f, "fact value " + f + " for consumer " + i);
+                }
+
+                session.persist(consumer);
+
+                if (i % SESSION_CLEAR_INTERVAL == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+
+            session.getTransaction().commit();
+            this.ownerId = owner.getId();
+        }
+    }
+
+    @Benchmark
+    public void streamConsumers(Blackhole blackhole) {
+        try (Session session = this.sessionFactory.openSession()) {
+            if (this.readOnly) {
+                session.setDefaultReadOnly(true);
+                session.setHibernateFlushMode(FlushMode.MANUAL);
+            }
+
+            DetachedCriteria criteria = DetachedCriteria.forClass(Consumer.class)
+                .add(Restrictions.eq("ownerId", this.ownerId));
+
+            CandlepinQuery<Consumer> query = new DetachedCandlepinQuery<>(session, criteria);
+            if (this.readOnly) {
+                query.setFetchSize(STREAM_FETCH_SIZE);
+            }
+
+            try (ResultIterator<Consumer> iterator = query.iterate()) {
+                int count = 0;
+
+                while (iterator.hasNext()) {
+                    Consumer consumer = iterator.next();
+
+                    // Initialize the facts, as serializing the consumer would
+                    blackhole.consume(consumer.getFacts().size());
+
+                    if (++count % SESSION_CLEAR_INTERVAL == 0) {
+                        session.clear();
+                    }
+                }
+            }
+        }
+    }
+}
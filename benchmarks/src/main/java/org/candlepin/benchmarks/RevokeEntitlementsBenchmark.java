@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.benchmarks;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import org.candlepin.audit.EventFactory;
+import org.candlepin.audit.EventSink;
+import org.candlepin.common.config.Configuration;
+import org.candlepin.controller.CandlepinPoolManager;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerCurator;
+import org.candlepin.model.ConsumerType;
+import org.candlepin.model.Entitlement;
+import org.candlepin.model.EntitlementCurator;
+import org.candlepin.model.Owner;
+import org.candlepin.model.Pool;
+import org.candlepin.model.PoolCurator;
+import org.candlepin.policy.js.entitlement.Enforcer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+
+
+/**
+ * Measures a batch revocation of entitlements drawn from a single popular pool, as performed by
+ * the unmapped guest revocation and by pool deletions, without status recalculation.
+ * <p></p>
+ * The curators are stubbed, so the benchmark measures the work the pool manager itself performs
+ * for the revoked entitlements: aggregating the pool and consumer quantities, applying the consumer
+ * counts once per consumer, filtering stacked entitlements and building the deletion events. The
+ * database statements issued by the curators are not measured; their number no longer depends on
+ * the number of entitlements, but only on the number of ID blocks and consumer batches.
+ * {@link RevokeEntitlementsDatabaseBenchmark} measures the same revocation with those statements.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RevokeEntitlementsBenchmark {
+
+    @Param({ "1000", "10000", "50000" })
+    public int entitlementCount;
+
+    @Param({ "1", "10" })
+    public int entitlementsPerConsumer;
+
+    private CandlepinPoolManager poolManager;
+    private List<Entitlement> entitlements;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkFixtures fixtures = new BenchmarkFixtures();
+
+        Owner owner = fixtures.createOwner("revoke-owner");
+        ConsumerType ctype = fixtures.createConsumerType(ConsumerType.ConsumerTypeEnum.SYSTEM);
+        Pool pool = fixtures.createPool(owner, fixtures.createSku("stack-revoke"),
+            fixtures.createEngineeringProducts(2, 5), this.entitlementCount * 2L);
+
+        this.entitlements = new ArrayList<>(this.entitlementCount);
+        Consumer consumer = null;
+
+        for (int i = 0; i < this.entitlementCount; ++i) {
+            if (i % this.entitlementsPerConsumer == 0) {
+                consumer = fixtures.createConsumer(owner, ctype, Collections.emptyList(), 0);
+            }
+
+            this.entitlements.add(fixtures.createEntitlement(consumer, pool, 1));
+        }
+
+        // Stub-only mocks don't record invocations, which would otherwise accumulate across the
+        // benchmark's invocations
+        PoolCurator poolCurator = mock(PoolCurator.class, withSettings().stubOnly());
+        when(poolCurator.listBySourceEntitlements(anyList())).thenAnswer(iom -> new HashSet<>());
+
+        EntitlementCurator entitlementCurator = mock(EntitlementCurator.class, withSettings().stubOnly());
+        when(entitlementCurator.getDistinctConsumers(anyList())).thenCallRealMethod();
+
+        EventSink sink = mock(EventSink.class, withSettings().stubOnly());
+        EventFactory eventFactory = mock(EventFactory.class, withSettings().stubOnly());
+        Configuration config = mock(Configuration.class, withSettings().stubOnly());
+        Enforcer enforcer = mock(Enforcer.class, withSettings().stubOnly());
+        ConsumerCurator consumerCurator = mock(ConsumerCurator.class, withSettings().stubOnly());
+
+        // Only the collaborators used by a revocation without status recalculation are provided
+        this.poolManager = new CandlepinPoolManager(poolCurator, sink, eventFactory, config, enforcer, null,
+            entitlementCurator, consumerCurator, null, null, null, null, null, null, null, null, null, null,
+            null, null, null, null, null, null, null);
+    }
+
+    @Benchmark
+    public Set<Pool> revokeEntitlements() {
+        return this.poolManager.revokeEntitlements(this.entitlements, null, false);
+    }
+}
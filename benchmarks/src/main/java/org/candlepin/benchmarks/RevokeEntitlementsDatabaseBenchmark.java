@@ -0,0 +1,193 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.benchmarks;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+import org.candlepin.audit.EventFactory;
+import org.candlepin.audit.EventSink;
+import org.candlepin.common.config.Configuration;
+import org.candlepin.controller.CandlepinPoolManager;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerCurator;
+import org.candlepin.model.ConsumerType;
+import org.candlepin.model.Entitlement;
+import org.candlepin.model.EntitlementCurator;
+import org.candlepin.model.Owner;
+import org.candlepin.model.Pool;
+import org.candlepin.model.PoolCurator;
+import org.candlepin.model.Product;
+import org.candlepin.policy.js.entitlement.Enforcer;
+import org.candlepin.util.Util;
+
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+
+
+/**
+ * Measures the same batch revocation as {@link RevokeEntitlementsBenchmark}, but with the real
+ * curators working against an in-memory HSQLDB, so the aggregated pool updates, the consumer
+ * updates and the entitlement deletes are included.
+ * <p></p>
+ * Each invocation revokes the entitlements within its own transaction, which is rolled back
+ * afterwards, so every invocation starts from the same data. Loading the entitlements is part of
+ * the per-invocation setup and is not measured. As with {@link QueryStreamingBenchmark}, the
+ * database is in memory, so the results reflect the number of statements and the work done by
+ * Hibernate rather than the latency of a real database server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RevokeEntitlementsDatabaseBenchmark {
+
+    private static final int SESSION_CLEAR_INTERVAL = 500;
+
+    @Param({ "1000", "10000" })
+    public int entitlementCount;
+
+    @Param({ "1", "10" })
+    public int entitlementsPerConsumer;
+
+    private DatabaseFixture database;
+    private CandlepinPoolManager poolManager;
+    private String poolId;
+
+    private List<Entitlement> entitlements;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, URISyntaxException {
+        this.database = new DatabaseFixture("revoke-entitlements");
+        this.populate();
+
+        EventSink sink = mock(EventSink.class, withSettings().stubOnly());
+        EventFactory eventFactory = mock(EventFactory.class, withSettings().stubOnly());
+        Configuration config = mock(Configuration.class, withSettings().stubOnly());
+        Enforcer enforcer = mock(Enforcer.class, withSettings().stubOnly());
+
+        PoolCurator poolCurator = this.database.getCurator(PoolCurator.class);
+        EntitlementCurator entitlementCurator = this.database.getCurator(EntitlementCurator.class);
+        ConsumerCurator consumerCurator = this.database.getCurator(ConsumerCurator.class);
+
+        // Only the collaborators used by a revocation without status recalculation are provided
+        this.poolManager = new CandlepinPoolManager(poolCurator, sink, eventFactory, config, enforcer, null,
+            entitlementCurator, consumerCurator, null, null, null, null, null, null, null, null, null, null,
+            null, null, null, null, null, null, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.database.close();
+    }
+
+    /**
+     * Creates a popular pool of a stackable SKU, and the configured number of entitlements drawn
+     * from it.
+     */
+    private void populate() {
+        Session session = this.database.begin();
+
+        Owner owner = new Owner("revoke-owner", "Revoke Owner");
+        ConsumerType ctype = new ConsumerType(ConsumerType.ConsumerTypeEnum.SYSTEM);
+        session.persist(owner);
+        session.persist(ctype);
+
+        Product sku = new Product("RH00001", "Red Hat Enterprise Linux Server, Premium");
+        sku.setAttribute(Product.Attributes.STACKING_ID, "stack-revoke");
+        sku.setAttribute(Pool.Attributes.MULTI_ENTITLEMENT, "yes");
+        session.persist(sku);
+
+        Calendar start = Calendar.getInstance();
+        start.add(Calendar.MONTH, -6);
+        Calendar end = Calendar.getInstance();
+        end.add(Calendar.YEAR, 1);
+
+        Pool pool = new Pool(owner, sku, Collections.emptySet(), this.entitlementCount * 2L,
+            start.getTime(), end.getTime(), "CONTRACT-1", "ACCOUNT-1", "ORDER-1");
+        pool.setConsumed((long) this.entitlementCount);
+        session.persist(pool);
+
+        Consumer consumer = null;
+
+        for (int i = 0; i < this.entitlementCount; ++i) {
+            if (i % this.entitlementsPerConsumer == 0) {
+                consumer = new Consumer("host-" + i + ".example.com", "admin", owner, ctype);
+                consumer.setEntitlementCount(this.entitlementsPerConsumer);
+                session.persist(consumer);
+            }
+
+            // Entitlement IDs are assigned by the caller, as the bind process does
+            Entitlement entitlement = new Entitlement(pool, consumer, owner, 1);
+            entitlement.setId(Util.generateDbUUID());
+            session.persist(entitlement);
+
+            if (i % SESSION_CLEAR_INTERVAL == 0) {
+                session.flush();
+                session.clear();
+
+                owner = session.get(Owner.class, owner.getId());
+                pool = session.get(Pool.class, pool.getId());
+                consumer = session.get(Consumer.class, consumer.getId());
+            }
+        }
+
+        this.poolId = pool.getId();
+        this.database.commit();
+    }
+
+    @Setup(Level.Invocation)
+    public void startTransaction() {
+        Session session = this.database.begin();
+
+        this.entitlements = session
+            .createQuery("SELECT e FROM Entitlement e WHERE e.pool.id = :pool_id", Entitlement.class)
+            .setParameter("pool_id", this.poolId)
+            .getResultList();
+    }
+
+    @TearDown(Level.Invocation)
+    public void rollbackTransaction() {
+        this.database.rollback();
+    }
+
+    @Benchmark
+    public Set<Pool> revokeEntitlements() {
+        return this.poolManager.revokeEntitlements(this.entitlements, null, false);
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.benchmarks;
+
+import org.candlepin.common.util.RpmVersionComparator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+
+/**
+ * Measures the RPM version comparison used for version checks of clients and of the rules, both
+ * for single comparisons of typical version strings and for sorting a list of mixed versions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RpmVersionComparatorBenchmark {
+
+    private static final String[] TEMPLATES = {
+        "%d.%d.%d-%d.el7", "%d.%d.%d-%d.el8_%d", "%d:%d.%d-%d", "%d.%d~rc%d-%d", "%d.%d.%dbeta-%d",
+        "%d.%d.%d.%d-%d.fc31", "%d.%d^git%d-%d"
+    };
+
+    private static final int VERSION_COUNT = 500;
+
+    private final RpmVersionComparator comparator = new RpmVersionComparator();
+
+    private String[] versions;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(BenchmarkFixtures.DEFAULT_SEED);
+
+        this.versions = new String[VERSION_COUNT];
+        for (int i = 0; i < VERSION_COUNT; ++i) {
+            String template = TEMPLATES[i % TEMPLATES.length];
+
+            this.versions[i] = String.format(template, random.nextInt(4), random.nextInt(20),
+                random.nextInt(30), random.nextInt(12), random.nextInt(5), random.nextInt(3));
+        }
+    }
+
+    @Benchmark
+    public int compareEqual() {
+        return this.comparator.compare("1.20.3-14.el7_9", "1.20.3-14.el7_9");
+    }
+
+    @Benchmark
+    public int compareRelease() {
+        return this.comparator.compare("3.2.21-1.el7", "3.2.21-10.el7");
+    }
+
+    @Benchmark
+    public int compareEpoch() {
+        return this.comparator.compare("1:2.0.1-3", "2.10.0-1");
+    }
+
+    @Benchmark
+    public String[] sortVersions() {
+        String[] sorted = this.versions.clone();
+        Arrays.sort(sorted, this.comparator);
+
+        return sorted;
+    }
+}
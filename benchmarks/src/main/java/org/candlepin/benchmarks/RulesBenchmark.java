@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.benchmarks;
+
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerType;
+import org.candlepin.model.Owner;
+import org.candlepin.model.Pool;
+import org.candlepin.model.PoolQuantity;
+import org.candlepin.model.Product;
+import org.candlepin.policy.ValidationResult;
+import org.candlepin.policy.js.autobind.AutobindRules;
+import org.candlepin.policy.js.compliance.ComplianceRules;
+import org.candlepin.policy.js.compliance.ComplianceStatus;
+import org.candlepin.policy.js.entitlement.Enforcer.CallerType;
+import org.candlepin.policy.js.entitlement.EntitlementRules;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+
+
+/**
+ * Measures the rules invocations made on the hot paths of registration, auto-attach and status
+ * checks: compliance status calculation (get_status), pool selection for auto-attach
+ * (select_pools) and pre-entitlement validation (validate_pools_batch). Each invocation includes
+ * the translation and serialization of its arguments and the parsing of the rules' results.
+ * Each invocation runs as its own request, with pools translated at most once per request.
+ * <p></p>
+ * The fragmentCaching parameter compares the plain JSON serialization of the rules arguments
+ * with the serialization of each pool DTO once per rules call, however many entitlements or
+ * compliance entries reference it.
+ * <p></p>
+ * The rules runners keep a warmed scope per thread, shared by the rules classes created on that
+ * thread and cleared after each rules call, so the state is kept per benchmark thread.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RulesBenchmark {
+
+    private static final int INSTALLED_PRODUCT_COUNT = 12;
+    private static final int PRODUCTS_PER_POOL = 3;
+
+    @Param({ "1", "20" })
+    public int entitlementCount;
+
+    @Param({ "10", "100" })
+    public int poolCount;
+
+    @Param({ "false", "true" })
+    public boolean fragmentCaching;
+
+    private RulesFixture rules;
+    private ComplianceRules complianceRules;
+    private AutobindRules autobindRules;
+    private EntitlementRules entitlementRules;
+
+    private Consumer consumer;
+    private ComplianceStatus complianceStatus;
+    private String[] productIds;
+    private List<Pool> pools;
+    private List<PoolQuantity> poolQuantities;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkFixtures fixtures = new BenchmarkFixtures();
+
+        Owner owner = fixtures.createOwner("rules-owner");
+        ConsumerType ctype = fixtures.createConsumerType(ConsumerType.ConsumerTypeEnum.SYSTEM);
+
+        List<Product> installed = fixtures.createEngineeringProducts(INSTALLED_PRODUCT_COUNT, 5);
+        this.consumer = fixtures.createConsumer(owner, ctype, installed, 2);
+
+        this.productIds = installed.stream()
+            .map(Product::getId)
+            .toArray(String[]::new);
+
+        // Existing entitlements cover a rotating subset of the installed products, leaving the
+        // consumer partially compliant
+        for (int i = 0; i < this.entitlementCount; ++i) {
+            Pool pool = fixtures.createPool(owner, fixtures.createSku("stack-" + (i % 4)),
+                this.slice(installed, i), 100);
+
+            fixtures.createEntitlement(this.consumer, pool, 1);
+        }
+
+        this.pools = new ArrayList<>(this.poolCount);
+        this.poolQuantities = new ArrayList<>(this.poolCount);
+
+        for (int i = 0; i < this.poolCount; ++i) {
+            Pool pool = fixtures.createPool(owner, fixtures.createSku("stack-" + (i % 8)),
+                this.slice(installed, i + 1), 1000);
+
+            this.pools.add(pool);
+            this.poolQuantities.add(new PoolQuantity(pool, 1));
+        }
+
+        this.rules = new RulesFixture(owner, ctype);
+        this.rules.getRulesObjectMapper().setFragmentCaching(this.fragmentCaching);
+
+        this.complianceRules = this.rules.createComplianceRules();
+        this.autobindRules = this.rules.createAutobindRules();
+        this.entitlementRules = this.rules.createEntitlementRules();
+
+        this.complianceStatus = this.getStatus();
+    }
+
+    private List<Product> slice(List<Product> products, int offset) {
+        List<Product> slice = new ArrayList<>(PRODUCTS_PER_POOL);
+
+        for (int i = 0; i < PRODUCTS_PER_POOL; ++i) {
+            slice.add(products.get((offset * PRODUCTS_PER_POOL + i) % products.size()));
+        }
+
+        return slice;
+    }
+
+    @Benchmark
+    public ComplianceStatus getStatus() {
+        this.rules.startRequest();
+        return this.complianceRules.getStatus(this.consumer, null, new Date(), false, false, false, false);
+    }
+
+    @Benchmark
+    public List<PoolQuantity> selectPools() {
+        this.rules.startRequest();
+        return this.autobindRules.selectBestPools(this.consumer, this.productIds, this.pools,
+            this.complianceStatus, null, Collections.emptySet(), false);
+    }
+
+    @Benchmark
+    public Map<String, ValidationResult> preEntitlement() {
+        this.rules.startRequest();
+        return this.entitlementRules.preEntitlement(this.consumer, null, this.poolQuantities,
+            CallerType.BIND);
+    }
+}
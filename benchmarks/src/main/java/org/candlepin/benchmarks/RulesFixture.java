@@ -0,0 +1,176 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.benchmarks;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.candlepin.audit.EventFactory;
+import org.candlepin.audit.EventSink;
+import org.candlepin.common.config.Configuration;
+import org.candlepin.controller.ProductManager;
+import org.candlepin.dto.ModelTranslator;
+import org.candlepin.dto.StandardTranslator;
+import org.candlepin.dto.TranslationCache;
+import org.candlepin.jackson.ProductCachedSerializationModule;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerCurator;
+import org.candlepin.model.ConsumerType;
+import org.candlepin.model.ConsumerTypeCurator;
+import org.candlepin.model.EntitlementCurator;
+import org.candlepin.model.EnvironmentCurator;
+import org.candlepin.model.Owner;
+import org.candlepin.model.OwnerCurator;
+import org.candlepin.model.OwnerProductCurator;
+import org.candlepin.model.ProductCurator;
+import org.candlepin.model.Rules;
+import org.candlepin.model.RulesCurator;
+import org.candlepin.policy.js.JsRunner;
+import org.candlepin.policy.js.JsRunnerProvider;
+import org.candlepin.policy.js.JsRunnerRequestCache;
+import org.candlepin.policy.js.RulesObjectMapper;
+import org.candlepin.policy.js.autobind.AutobindRules;
+import org.candlepin.policy.js.compliance.ComplianceRules;
+import org.candlepin.policy.js.compliance.StatusReasonMessageGenerator;
+import org.candlepin.policy.js.entitlement.EntitlementRules;
+import org.candlepin.util.DateSourceImpl;
+import org.candlepin.util.Util;
+
+import org.xnap.commons.i18n.I18n;
+import org.xnap.commons.i18n.I18nFactory;
+
+import java.io.InputStream;
+import java.util.Date;
+import java.util.Locale;
+
+
+
+/**
+ * The RulesFixture wires up the rules engine and the rules classes the way the server does, but
+ * with the curators they consult replaced by stubs, so the rules can be invoked without a
+ * database. The production rules are loaded from the server's classpath.
+ * <p></p>
+ * Like the server, the fixture memoizes the translation of unchanged pools for the duration of a
+ * request; {@link #startRequest()} discards the memoized translations, as a new request would.
+ * <p></p>
+ * A JsRunner keeps a warmed execution scope for the thread which fetched it, so a fixture should
+ * be created by, and used from, a single benchmark thread.
+ */
+public class RulesFixture {
+
+    private final ConsumerTypeCurator consumerTypeCurator;
+    private final OwnerCurator ownerCurator;
+    private final ProductCurator productCurator;
+
+    private final JsRunnerProvider jsRunnerProvider;
+    private final StandardTranslator translator;
+    private TranslationCache translationCache;
+    private final RulesObjectMapper mapper;
+    private final I18n i18n;
+
+    /**
+     * Creates a new rules fixture serving the given owner and consumer type to the rules.
+     *
+     * @param owner
+     *  the owner to return for any owner lookup performed by the rules classes
+     *
+     * @param consumerType
+     *  the consumer type to return for any consumer type lookup performed by the rules classes
+     */
+    public RulesFixture(Owner owner, ConsumerType consumerType) {
+        this.consumerTypeCurator = mock(ConsumerTypeCurator.class);
+        this.ownerCurator = mock(OwnerCurator.class);
+        this.productCurator = mock(ProductCurator.class);
+
+        when(this.consumerTypeCurator.getConsumerType(any(Consumer.class))).thenReturn(consumerType);
+        when(this.ownerCurator.findOwnerById(anyString())).thenReturn(owner);
+
+        RulesCurator rulesCurator = mock(RulesCurator.class);
+        InputStream is = RulesCurator.class.getResourceAsStream(RulesCurator.DEFAULT_RULES_FILE);
+        Rules rules = new Rules(Util.readFile(is));
+        Date updated = new Date();
+
+        when(rulesCurator.getRules()).thenReturn(rules);
+        when(rulesCurator.getUpdated()).thenReturn(updated);
+
+        JsRunnerRequestCache cache = new JsRunnerRequestCache();
+        this.jsRunnerProvider = new JsRunnerProvider(rulesCurator, () -> cache);
+
+        this.translator = new StandardTranslator(this.consumerTypeCurator, mock(EnvironmentCurator.class),
+            this.ownerCurator);
+        this.translationCache = new TranslationCache();
+        this.translator.setTranslationCacheProvider(() -> this.translationCache);
+        this.mapper = new RulesObjectMapper(new ProductCachedSerializationModule(this.productCurator));
+        this.i18n = I18nFactory.getI18n(RulesFixture.class, Locale.US, I18nFactory.FALLBACK);
+    }
+
+    /**
+     * Discards the translations memoized by the fixture's translator, as the start of a new
+     * request would.
+     */
+    public void startRequest() {
+        this.translationCache = new TranslationCache();
+    }
+
+    public JsRunner getJsRunner() {
+        return this.jsRunnerProvider.get();
+    }
+
+    public ModelTranslator getTranslator() {
+        return this.translator;
+    }
+
+    public RulesObjectMapper getRulesObjectMapper() {
+        return this.mapper;
+    }
+
+    /**
+     * Creates the compliance rules, which back the rules' get_status function.
+     *
+     * @return
+     *  a new ComplianceRules instance
+     */
+    public ComplianceRules createComplianceRules() {
+        return new ComplianceRules(this.getJsRunner(), mock(EntitlementCurator.class),
+            new StatusReasonMessageGenerator(this.i18n), mock(EventSink.class), mock(ConsumerCurator.class),
+            this.consumerTypeCurator, this.mapper, this.translator);
+    }
+
+    /**
+     * Creates the autobind rules, which back the rules' select_pools function.
+     *
+     * @return
+     *  a new AutobindRules instance
+     */
+    public AutobindRules createAutobindRules() {
+        return new AutobindRules(this.getJsRunner(), this.productCurator, this.consumerTypeCurator,
+            this.ownerCurator, this.mapper, this.translator);
+    }
+
+    /**
+     * Creates the entitlement rules, which back the rules' pre-entitlement validation functions.
+     *
+     * @return
+     *  a new EntitlementRules instance
+     */
+    public EntitlementRules createEntitlementRules() {
+        return new EntitlementRules(new DateSourceImpl(), this.getJsRunner(), this.i18n,
+            mock(Configuration.class), mock(ConsumerCurator.class), this.consumerTypeCurator,
+            this.productCurator, this.mapper, this.ownerCurator, mock(OwnerProductCurator.class),
+            mock(ProductManager.class), mock(EventSink.class), mock(EventFactory.class), this.translator);
+    }
+}
@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.benchmarks;
+
+import static org.mockito.Mockito.mock;
+
+import org.candlepin.dto.ModelTranslator;
+import org.candlepin.dto.rules.v1.ConsumerDTO;
+import org.candlepin.dto.rules.v1.EntitlementDTO;
+import org.candlepin.dto.rules.v1.PoolDTO;
+import org.candlepin.jackson.ProductCachedSerializationModule;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerType;
+import org.candlepin.model.Entitlement;
+import org.candlepin.model.Owner;
+import org.candlepin.model.Pool;
+import org.candlepin.model.Product;
+import org.candlepin.model.ProductCurator;
+import org.candlepin.policy.js.RulesObjectMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+
+
+/**
+ * Measures the serialization of rules arguments by the RulesObjectMapper, comparing plain JSON
+ * serialization against serializing each pool DTO once per call. The arguments mirror those of
+ * select_pools: a list of pools, and the consumer's entitlements drawn from those same pools, so
+ * each pool DTO appears several times within a call.
+ * <p></p>
+ * This isolates the serialization; RulesBenchmark compares both modes on the complete rules
+ * calls.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RulesObjectMapperBenchmark {
+
+    private static final int ENTITLEMENTS_PER_POOL = 2;
+
+    @Param({ "10", "100", "1000" })
+    public int poolCount;
+
+    private RulesObjectMapper jsonMapper;
+    private RulesObjectMapper cachedMapper;
+
+    private Map<String, Object> arguments;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkFixtures fixtures = new BenchmarkFixtures();
+
+        Owner owner = fixtures.createOwner("mapper-owner");
+        ConsumerType ctype = fixtures.createConsumerType(ConsumerType.ConsumerTypeEnum.SYSTEM);
+
+        List<Product> products = fixtures.createEngineeringProducts(20, 5);
+        Consumer consumer = fixtures.createConsumer(owner, ctype, products, 0);
+
+        // Translations are memoized per request, so the entitlements reference the pool DTOs
+        ModelTranslator translator = new RulesFixture(owner, ctype).getTranslator();
+
+        PoolDTO[] pools = new PoolDTO[this.poolCount];
+        EntitlementDTO[] entitlements = new EntitlementDTO[this.poolCount * ENTITLEMENTS_PER_POOL];
+
+        for (int i = 0; i < this.poolCount; ++i) {
+            Pool pool = fixtures.createPool(owner, fixtures.createSku("stack-" + (i % 8)),
+                products.subList(i % 17, i % 17 + 3), 1000);
+
+            pools[i] = translator.translate(pool, PoolDTO.class);
+
+            for (int e = 0; e < ENTITLEMENTS_PER_POOL; ++e) {
+                Entitlement entitlement = fixtures.createEntitlement(consumer, pool, 1);
+                entitlements[i * ENTITLEMENTS_PER_POOL + e] = translator.translate(entitlement,
+                    EntitlementDTO.class);
+            }
+        }
+
+        this.arguments = new HashMap<>();
+        this.arguments.put("consumer", translator.translate(consumer, ConsumerDTO.class));
+        this.arguments.put("pools", pools);
+        this.arguments.put("entitlements", entitlements);
+
+        ProductCurator productCurator = mock(ProductCurator.class);
+
+        this.jsonMapper = new RulesObjectMapper(new ProductCachedSerializationModule(productCurator));
+        this.jsonMapper.setFragmentCaching(false);
+
+        this.cachedMapper = new RulesObjectMapper(new ProductCachedSerializationModule(productCurator));
+    }
+
+    @Benchmark
+    public String serializeJson() {
+        return this.jsonMapper.toJsonString(this.arguments);
+    }
+
+    @Benchmark
+    public String serializeCached() {
+        return this.cachedMapper.toJsonString(this.arguments);
+    }
+}
@@ -26,6 +26,11 @@ import org.candlepin.controller.mode.CandlepinModeManager.Mode;
 import org.candlepin.controller.mode.ModeChangeListener;
 import org.candlepin.guice.CandlepinRequestScope;
 import org.candlepin.guice.PrincipalProvider;
+import org.candlepin.metrics.Counter;
+import org.candlepin.metrics.Gauge;
+import org.candlepin.metrics.MetricFamily;
+import org.candlepin.metrics.MetricRegistry;
+import org.candlepin.metrics.Timer;
 import org.candlepin.model.AsyncJobStatus;
 import org.candlepin.model.AsyncJobStatus.JobState;
 import org.candlepin.model.AsyncJobStatusCurator;
@@ -337,6 +342,11 @@ public class JobManager implements ModeChangeListener {
     private final PrincipalProvider principalProvider;
     private final Injector injector;
 
+    private final MetricFamily<Counter> queuedJobCounters;
+    private final MetricFamily<Counter> failedJobCounters;
+    private final MetricFamily<Timer> jobTimers;
+    private final MetricFamily<Gauge> pendingJobGauges;
+
     private ManagerState state;
     private JobMessageSynchronizer synchronizer;
     private QuartzJobExecutor qrtzExecutor;
@@ -364,7 +374,8 @@ public class JobManager implements ModeChangeListener {
         JobMessageReceiver receiver,
         PrincipalProvider principalProvider,
         CandlepinRequestScope scope,
-        Injector injector) {
+        Injector injector,
+        MetricRegistry metricRegistry) {
 
         this.configuration = Objects.requireNonNull(configuration);
         this.schedulerFactory = Objects.requireNonNull(schedulerFactory);
@@ -377,6 +388,17 @@ public class JobManager implements ModeChangeListener {
         this.principalProvider = Objects.requireNonNull(principalProvider);
         this.injector = Objects.requireNonNull(injector);
 
+        Objects.requireNonNull(metricRegistry);
+        this.queuedJobCounters = metricRegistry.counters("candlepin_jobs_queued_total",
+            "Jobs queued for execution", "job_key");
+        this.failedJobCounters = metricRegistry.counters("candlepin_job_failures_total",
+            "Job executions which failed", "job_key");
+        this.jobTimers = metricRegistry.timers("candlepin_job_execution_seconds",
+            "Time spent executing jobs", "job_key");
+        this.pendingJobGauges = metricRegistry.gauges("candlepin_jobs_pending",
+            "Jobs which have not yet reached a terminal state", "job_key", "state");
+        metricRegistry.addCollector(registry -> this.collectPendingJobCounts());
+
         this.state = ManagerState.CREATED;
         this.qrtzExecutor = new QuartzJobExecutor(this);
         this.mdcState = new ThreadLocal<>();
@@ -1121,6 +1143,7 @@ public class JobManager implements ModeChangeListener {
             if (blockingJobIds.isEmpty()) {
                 // Build and send the job message and update the job state accordingly
                 status = this.postJobStatusMessage(status);
+                this.queuedJobCounters.labels(status.getJobKey()).inc();
                 log.info("Job queued: {}", status);
             }
             else {
@@ -1318,6 +1341,8 @@ public class JobManager implements ModeChangeListener {
                 log.info("Starting job \"{}\" using class: {}", status.getName(), jobClass.getName());
             }
 
+            long executionStart = System.nanoTime();
+
             try {
                 job.execute(new JobExecutionContext(status));
 
@@ -1326,17 +1351,24 @@ public class JobManager implements ModeChangeListener {
                 this.checkPostJobExecutionTransactionStatus(status);
             }
             catch (JobExecutionException e) {
+                this.failedJobCounters.labels(status.getJobKey()).inc();
+
                 boolean retry = !e.isTerminal() && status.getAttempts() < status.getMaxAttempts();
                 status = this.processJobFailure(status, eventSink, e, retry);
 
                 throw e;
             }
             catch (Exception e) {
+                this.failedJobCounters.labels(status.getJobKey()).inc();
+
                 boolean retry = status.getAttempts() < status.getMaxAttempts();
                 status = this.processJobFailure(status, eventSink, e, retry);
 
                 throw new JobExecutionException(e);
             }
+            finally {
+                this.jobTimers.labels(status.getJobKey()).recordSince(executionStart);
+            }
 
             eventSink.sendEvents();
             status.setEndTime(new Date());
@@ -1353,6 +1385,23 @@ public class JobManager implements ModeChangeListener {
         }
     }
 
+    /**
+     * Updates the pending job gauges with the number of jobs currently in each non-terminal state.
+     * Gauges for job keys and states which no longer have any jobs are reset to zero rather than
+     * removed, so scrapers see the transition.
+     */
+    private void collectPendingJobCounts() {
+        Set<JobState> states = Stream.of(JobState.values())
+            .filter(state -> !state.isTerminal())
+            .collect(Collectors.toSet());
+
+        Map<String, Map<JobState, Long>> counts = this.jobCurator.getJobCountsByKeyAndState(states);
+
+        this.pendingJobGauges.getChildren().values().forEach(gauge -> gauge.set(0));
+        counts.forEach((jobKey, stateCounts) -> stateCounts.forEach((state, count) ->
+            this.pendingJobGauges.labels(jobKey, state.name()).set(count)));
+    }
+
     /**
      * Configures the job's runtime environment, performing the following operations:
      *
@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.async.tasks;
+
+import org.candlepin.async.AsyncJob;
+import org.candlepin.async.JobArguments;
+import org.candlepin.async.JobConfig;
+import org.candlepin.async.JobConstraints;
+import org.candlepin.async.JobException;
+import org.candlepin.async.JobExecutionContext;
+import org.candlepin.async.JobExecutionException;
+import org.candlepin.async.JobManager;
+import org.candlepin.controller.PoolManager;
+import org.candlepin.model.ConsumerCurator;
+import org.candlepin.model.Owner;
+import org.candlepin.model.OwnerCurator;
+
+import com.google.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Objects;
+
+
+
+/**
+ * The ConsumerStatusRecalculationJob recalculates the compliance and system purpose status of
+ * consumers which have been flagged for deferred recalculation.
+ *
+ * When run without an owner, as it is on its schedule, the job looks up the owners with flagged
+ * consumers and queues a separate job for each of them, allowing the owners to be processed in
+ * parallel by any node in the cluster. At most one job may be queued or running for a given owner;
+ * consumers flagged while that job is running are picked up on the next scheduled run.
+ */
+public class ConsumerStatusRecalculationJob implements AsyncJob {
+    private static Logger log = LoggerFactory.getLogger(ConsumerStatusRecalculationJob.class);
+
+    public static final String JOB_KEY = "ConsumerStatusRecalculationJob";
+    public static final String JOB_NAME = "Consumer Status Recalculation";
+    public static final String DEFAULT_SCHEDULE = "0 0/5 * * * ?"; // Every five minutes
+
+    public static final String OWNER_KEY = "org";
+
+    private PoolManager poolManager;
+    private ConsumerCurator consumerCurator;
+    private OwnerCurator ownerCurator;
+    private JobManager jobManager;
+
+    @Inject
+    public ConsumerStatusRecalculationJob(PoolManager poolManager, ConsumerCurator consumerCurator,
+        OwnerCurator ownerCurator, JobManager jobManager) {
+
+        this.poolManager = Objects.requireNonNull(poolManager);
+        this.consumerCurator = Objects.requireNonNull(consumerCurator);
+        this.ownerCurator = Objects.requireNonNull(ownerCurator);
+        this.jobManager = Objects.requireNonNull(jobManager);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void execute(JobExecutionContext context) throws JobExecutionException {
+        JobArguments arguments = context.getJobArguments();
+        String ownerKey = arguments != null ? arguments.getAsString(OWNER_KEY) : null;
+
+        if (ownerKey == null) {
+            this.queueOwnerJobs(context);
+            return;
+        }
+
+        Owner owner = this.ownerCurator.getByKey(ownerKey);
+        if (owner == null) {
+            // The owner has been deleted since the job was queued, taking its consumers with it
+            context.setJobResult("Nothing to do. Owner does not exist: %s", ownerKey);
+            return;
+        }
+
+        int count = this.poolManager.recalculateFlaggedConsumerStatuses(owner.getId());
+        context.setJobResult("Status recalculated for %d consumers of owner %s", count, ownerKey);
+    }
+
+    private void queueOwnerJobs(JobExecutionContext context) throws JobExecutionException {
+        List<String> ownerIds = this.consumerCurator.getOwnerIdsWithComplianceDirtyConsumers();
+        int queued = 0;
+
+        for (String ownerId : ownerIds) {
+            Owner owner = this.ownerCurator.findOwnerById(ownerId);
+            if (owner == null) {
+                continue;
+            }
+
+            try {
+                this.jobManager.queueJob(createJobConfig().setOwner(owner));
+                ++queued;
+            }
+            catch (JobException e) {
+                // Leave the consumers flagged; they will be picked up on the next run
+                log.error("Unable to queue status recalculation for owner: {}", owner.getKey(), e);
+            }
+        }
+
+        context.setJobResult("Status recalculation requested for %d of %d owners", queued,
+            ownerIds.size());
+    }
+
+    /**
+     * Creates a JobConfig configured to execute the consumer status recalculation job. Callers may
+     * further manipulate the JobConfig as necessary before queuing it.
+     *
+     * @return
+     *  a JobConfig instance configured to execute the consumer status recalculation job
+     */
+    public static ConsumerStatusRecalculationJobConfig createJobConfig() {
+        return new ConsumerStatusRecalculationJobConfig();
+    }
+
+    /**
+     * Job configuration object for the consumer status recalculation job
+     */
+    public static class ConsumerStatusRecalculationJobConfig
+        extends JobConfig<ConsumerStatusRecalculationJobConfig> {
+
+        public ConsumerStatusRecalculationJobConfig() {
+            this.setJobKey(JOB_KEY)
+                .setJobName(JOB_NAME)
+                .addConstraint(JobConstraints.uniqueByArguments(OWNER_KEY));
+        }
+
+        /**
+         * Sets the owner for which to recalculate flagged consumer statuses.
+         *
+         * @param owner
+         *  the owner for which to recalculate flagged consumer statuses
+         *
+         * @return
+         *  a reference to this job config
+         */
+        public ConsumerStatusRecalculationJobConfig setOwner(Owner owner) {
+            if (owner == null) {
+                throw new IllegalArgumentException("owner is null");
+            }
+
+            this.setContextOwner(owner)
+                .setJobArgument(OWNER_KEY, owner.getKey());
+
+            return this;
+        }
+    }
+}
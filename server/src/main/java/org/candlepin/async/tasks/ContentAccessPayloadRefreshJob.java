@@ -0,0 +1,173 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.async.tasks;
+
+import org.candlepin.async.AsyncJob;
+import org.candlepin.async.JobArguments;
+import org.candlepin.async.JobConfig;
+import org.candlepin.async.JobConstraints;
+import org.candlepin.async.JobException;
+import org.candlepin.async.JobExecutionContext;
+import org.candlepin.async.JobExecutionException;
+import org.candlepin.async.JobManager;
+import org.candlepin.controller.ContentAccessManager;
+import org.candlepin.model.Owner;
+import org.candlepin.model.OwnerCurator;
+import org.candlepin.model.OwnerEnvContentAccessCurator;
+
+import com.google.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+
+
+
+/**
+ * The ContentAccessPayloadRefreshJob rebuilds the simple content access payloads which have been
+ * flagged as stale by content changes, replacing each payload once its replacement is built.
+ * Consumers continue to receive the stale payloads in the meantime, so certificate requests never
+ * wait on a rebuild.
+ *
+ * A job is queued for an owner whenever its content changes. When run without an owner, as it is
+ * on its schedule, the job looks up the owners with stale payloads and queues a separate job for
+ * each of them, picking up any rebuilds which could not be queued or were flagged again while
+ * running. At most one job may be queued or running for a given owner.
+ */
+public class ContentAccessPayloadRefreshJob implements AsyncJob {
+    private static Logger log = LoggerFactory.getLogger(ContentAccessPayloadRefreshJob.class);
+
+    public static final String JOB_KEY = "ContentAccessPayloadRefreshJob";
+    public static final String JOB_NAME = "Content Access Payload Refresh";
+    public static final String DEFAULT_SCHEDULE = "0 0/5 * * * ?"; // Every five minutes
+
+    public static final String OWNER_KEY = "org";
+
+    private ContentAccessManager contentAccessManager;
+    private OwnerEnvContentAccessCurator ownerEnvContentAccessCurator;
+    private OwnerCurator ownerCurator;
+    private JobManager jobManager;
+
+    @Inject
+    public ContentAccessPayloadRefreshJob(ContentAccessManager contentAccessManager,
+        OwnerEnvContentAccessCurator ownerEnvContentAccessCurator, OwnerCurator ownerCurator,
+        JobManager jobManager) {
+
+        this.contentAccessManager = Objects.requireNonNull(contentAccessManager);
+        this.ownerEnvContentAccessCurator = Objects.requireNonNull(ownerEnvContentAccessCurator);
+        this.ownerCurator = Objects.requireNonNull(ownerCurator);
+        this.jobManager = Objects.requireNonNull(jobManager);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void execute(JobExecutionContext context) throws JobExecutionException {
+        JobArguments arguments = context.getJobArguments();
+        String ownerKey = arguments != null ? arguments.getAsString(OWNER_KEY) : null;
+
+        if (ownerKey == null) {
+            this.queueOwnerJobs(context);
+            return;
+        }
+
+        Owner owner = this.ownerCurator.getByKey(ownerKey);
+        if (owner == null) {
+            // The owner has been deleted since the job was queued, taking its payloads with it
+            context.setJobResult("Nothing to do. Owner does not exist: %s", ownerKey);
+            return;
+        }
+
+        try {
+            int count = this.contentAccessManager.rebuildStaleContentAccess(owner);
+            context.setJobResult("Rebuilt %d content access payloads for owner %s", count, ownerKey);
+        }
+        catch (IOException e) {
+            throw new JobExecutionException(e);
+        }
+    }
+
+    private void queueOwnerJobs(JobExecutionContext context) throws JobExecutionException {
+        List<String> ownerIds = this.ownerEnvContentAccessCurator.getOwnerIdsWithStaleContentAccess();
+        int queued = 0;
+
+        for (String ownerId : ownerIds) {
+            Owner owner = this.ownerCurator.findOwnerById(ownerId);
+            if (owner == null) {
+                continue;
+            }
+
+            try {
+                this.jobManager.queueJob(createJobConfig().setOwner(owner));
+                ++queued;
+            }
+            catch (JobException e) {
+                // Leave the payloads flagged; they will be picked up on the next run
+                log.error("Unable to queue content access payload refresh for owner: {}", owner.getKey(), e);
+            }
+        }
+
+        context.setJobResult("Content access payload refresh requested for %d of %d owners", queued,
+            ownerIds.size());
+    }
+
+    /**
+     * Creates a JobConfig configured to execute the content access payload refresh job. Callers may
+     * further manipulate the JobConfig as necessary before queuing it.
+     *
+     * @return
+     *  a JobConfig instance configured to execute the content access payload refresh job
+     */
+    public static ContentAccessPayloadRefreshJobConfig createJobConfig() {
+        return new ContentAccessPayloadRefreshJobConfig();
+    }
+
+    /**
+     * Job configuration object for the content access payload refresh job
+     */
+    public static class ContentAccessPayloadRefreshJobConfig
+        extends JobConfig<ContentAccessPayloadRefreshJobConfig> {
+
+        public ContentAccessPayloadRefreshJobConfig() {
+            this.setJobKey(JOB_KEY)
+                .setJobName(JOB_NAME)
+                .addConstraint(JobConstraints.uniqueByArguments(OWNER_KEY));
+        }
+
+        /**
+         * Sets the owner for which to rebuild stale content access payloads.
+         *
+         * @param owner
+         *  the owner for which to rebuild stale content access payloads
+         *
+         * @return
+         *  a reference to this job config
+         */
+        public ContentAccessPayloadRefreshJobConfig setOwner(Owner owner) {
+            if (owner == null) {
+                throw new IllegalArgumentException("owner is null");
+            }
+
+            this.setContextOwner(owner)
+                .setJobArgument(OWNER_KEY, owner.getKey());
+
+            return this;
+        }
+    }
+}
@@ -53,7 +53,7 @@ public class ExpiredPoolsCleanupJob implements AsyncJob {
      */
     @Override
     public void execute(JobExecutionContext context) throws JobExecutionException {
-        this.poolManager.cleanupExpiredPools();
-        context.setJobResult("Expired pools cleanup completed successfully");
+        int deleted = this.poolManager.cleanupExpiredPools();
+        context.setJobResult("Expired pools cleanup completed successfully; %d pools deleted", deleted);
     }
 }
@@ -0,0 +1,207 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.async.tasks;
+
+import org.candlepin.async.AsyncJob;
+import org.candlepin.async.JobArguments;
+import org.candlepin.async.JobConfig;
+import org.candlepin.async.JobConstraints;
+import org.candlepin.async.JobException;
+import org.candlepin.async.JobExecutionContext;
+import org.candlepin.async.JobExecutionException;
+import org.candlepin.async.JobManager;
+import org.candlepin.common.config.Configuration;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.model.Owner;
+import org.candlepin.model.OwnerCurator;
+import org.candlepin.model.OwnerInfo;
+import org.candlepin.model.OwnerInfoCurator;
+import org.candlepin.model.OwnerInfoSnapshotCurator;
+import org.candlepin.util.Util;
+
+import com.google.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+
+
+
+/**
+ * The OwnerInfoRefreshJob computes the owner info of an owner and stores it as the owner's
+ * snapshot, from which the owner info is served.
+ *
+ * A job is queued for an owner when its info is requested and it does not yet have a snapshot.
+ * When run without an owner, as it is on its schedule, the job looks up the owners whose snapshots
+ * have been flagged as stale by the OwnerInfoListener, or have reached the maximum snapshot age
+ * (default: 60 minutes), and queues a separate job for each of them. The age limit reconciles the
+ * values which change without an event, such as pools becoming active, and any events which were
+ * missed. At most one job may be queued or running for a given owner.
+ */
+public class OwnerInfoRefreshJob implements AsyncJob {
+    private static Logger log = LoggerFactory.getLogger(OwnerInfoRefreshJob.class);
+
+    public static final String JOB_KEY = "OwnerInfoRefreshJob";
+    public static final String JOB_NAME = "Owner Info Refresh";
+    public static final String DEFAULT_SCHEDULE = "0 0/5 * * * ?"; // Every five minutes
+
+    public static final String CFG_MAX_SNAPSHOT_AGE = "max_snapshot_age";
+    public static final int CFG_DEFAULT_MAX_SNAPSHOT_AGE = 60; // 1 hour
+
+    public static final String OWNER_KEY = "org";
+
+    private Configuration config;
+    private OwnerInfoCurator ownerInfoCurator;
+    private OwnerInfoSnapshotCurator ownerInfoSnapshotCurator;
+    private OwnerCurator ownerCurator;
+    private JobManager jobManager;
+
+    @Inject
+    public OwnerInfoRefreshJob(Configuration config, OwnerInfoCurator ownerInfoCurator,
+        OwnerInfoSnapshotCurator ownerInfoSnapshotCurator, OwnerCurator ownerCurator,
+        JobManager jobManager) {
+
+        this.config = Objects.requireNonNull(config);
+        this.ownerInfoCurator = Objects.requireNonNull(ownerInfoCurator);
+        this.ownerInfoSnapshotCurator = Objects.requireNonNull(ownerInfoSnapshotCurator);
+        this.ownerCurator = Objects.requireNonNull(ownerCurator);
+        this.jobManager = Objects.requireNonNull(jobManager);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void execute(JobExecutionContext context) throws JobExecutionException {
+        JobArguments arguments = context.getJobArguments();
+        String ownerKey = arguments != null ? arguments.getAsString(OWNER_KEY) : null;
+
+        if (ownerKey == null) {
+            this.queueOwnerJobs(context);
+            return;
+        }
+
+        Owner owner = this.ownerCurator.getByKey(ownerKey);
+        if (owner == null) {
+            // The owner has been deleted since the job was queued, taking its snapshot with it
+            context.setJobResult("Nothing to do. Owner does not exist: %s", ownerKey);
+            return;
+        }
+
+        // Claim the generation before computing the info, so events received in the meantime flag
+        // the snapshot again
+        int generation = this.ownerInfoSnapshotCurator.claimGeneration(owner.getId());
+
+        try {
+            OwnerInfo info = this.ownerInfoCurator.getByOwner(owner);
+            boolean stored = this.ownerInfoSnapshotCurator.storeOwnerInfo(owner.getId(), generation, info);
+
+            context.setJobResult(stored ?
+                "Owner info snapshot refreshed for owner %s" :
+                "Owner info snapshot for owner %s was refreshed concurrently", ownerKey);
+        }
+        catch (IOException e) {
+            // Flag the snapshot again, so the next scheduled run tries again
+            this.ownerInfoSnapshotCurator.markStale(owner.getId());
+            throw new JobExecutionException(e);
+        }
+        catch (RuntimeException e) {
+            this.ownerInfoSnapshotCurator.markStale(owner.getId());
+            throw e;
+        }
+    }
+
+    private void queueOwnerJobs(JobExecutionContext context) throws JobExecutionException {
+        String fqcn = ConfigProperties.jobConfig(JOB_KEY, CFG_MAX_SNAPSHOT_AGE);
+        int maxAge = this.config.getInt(fqcn, CFG_DEFAULT_MAX_SNAPSHOT_AGE);
+
+        if (maxAge < 1) {
+            String errmsg = String.format(
+                "Invalid value for configuration \"%s\", must be a positive integer: %s", fqcn, maxAge);
+
+            log.error(errmsg);
+            throw new JobExecutionException(errmsg, true);
+        }
+
+        Date cutoff = Util.addMinutesToDt(maxAge * -1);
+        List<String> ownerIds = this.ownerInfoSnapshotCurator.getOwnerIdsToRefresh(cutoff);
+        int queued = 0;
+
+        for (String ownerId : ownerIds) {
+            Owner owner = this.ownerCurator.findOwnerById(ownerId);
+            if (owner == null) {
+                continue;
+            }
+
+            try {
+                this.jobManager.queueJob(createJobConfig().setOwner(owner));
+                ++queued;
+            }
+            catch (JobException e) {
+                // Leave the snapshot as is; it will be picked up on the next run
+                log.error("Unable to queue owner info refresh for owner: {}", owner.getKey(), e);
+            }
+        }
+
+        context.setJobResult("Owner info refresh requested for %d of %d owners", queued, ownerIds.size());
+    }
+
+    /**
+     * Creates a JobConfig configured to execute the owner info refresh job. Callers may further
+     * manipulate the JobConfig as necessary before queuing it.
+     *
+     * @return
+     *  a JobConfig instance configured to execute the owner info refresh job
+     */
+    public static OwnerInfoRefreshJobConfig createJobConfig() {
+        return new OwnerInfoRefreshJobConfig();
+    }
+
+    /**
+     * Job configuration object for the owner info refresh job
+     */
+    public static class OwnerInfoRefreshJobConfig extends JobConfig<OwnerInfoRefreshJobConfig> {
+
+        public OwnerInfoRefreshJobConfig() {
+            this.setJobKey(JOB_KEY)
+                .setJobName(JOB_NAME)
+                .addConstraint(JobConstraints.uniqueByArguments(OWNER_KEY));
+        }
+
+        /**
+         * Sets the owner for which to refresh the owner info snapshot.
+         *
+         * @param owner
+         *  the owner for which to refresh the owner info snapshot
+         *
+         * @return
+         *  a reference to this job config
+         */
+        public OwnerInfoRefreshJobConfig setOwner(Owner owner) {
+            if (owner == null) {
+                throw new IllegalArgumentException("owner is null");
+            }
+
+            this.setContextOwner(owner)
+                .setJobArgument(OWNER_KEY, owner.getKey());
+
+            return this;
+        }
+    }
+}
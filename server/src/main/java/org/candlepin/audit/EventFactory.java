@@ -150,6 +150,34 @@ public class EventFactory {
             .buildEvent();
     }
 
+    /**
+     * Builds a pool deletion event from the pool's identifying details, for use when the pool
+     * was deleted without being loaded. The resulting event is equivalent to one built from the
+     * pool entity itself.
+     *
+     * @param poolId
+     *  the ID of the deleted pool
+     *
+     * @param ownerId
+     *  the ID of the owner of the deleted pool
+     *
+     * @param poolName
+     *  the name of the deleted pool
+     *
+     * @return
+     *  a pool deletion event
+     */
+    public Event poolDeleted(String poolId, String ownerId, String poolName) {
+        Event event = getEventBuilder(Target.POOL, Type.DELETED)
+            .buildEvent();
+
+        event.setEntityId(poolId);
+        event.setOwnerId(ownerId);
+        event.setTargetName(poolName);
+
+        return event;
+    }
+
     public Event exportCreated(Consumer consumer) {
         return getEventBuilder(Target.EXPORT, Type.CREATED)
             .setEventData(consumer)
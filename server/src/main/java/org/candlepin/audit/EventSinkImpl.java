@@ -20,6 +20,10 @@ import org.candlepin.controller.mode.CandlepinModeManager;
 import org.candlepin.controller.mode.CandlepinModeManager.Mode;
 import org.candlepin.dto.manifest.v1.SubscriptionDTO;
 import org.candlepin.guice.CandlepinRequestScoped;
+import org.candlepin.metrics.Counter;
+import org.candlepin.metrics.MetricFamily;
+import org.candlepin.metrics.MetricRegistry;
+import org.candlepin.metrics.Timer;
 import org.candlepin.model.Consumer;
 import org.candlepin.model.Owner;
 import org.candlepin.model.Pool;
@@ -65,10 +69,15 @@ public class EventSinkImpl implements EventSink {
     private ActiveMQSessionFactory sessionFactory;
     private EventMessageSender messageSender;
 
+    private MetricFamily<Counter> queuedEventCounters;
+    private Counter publishedEventCounter;
+    private Counter rolledBackEventCounter;
+    private Timer commitTimer;
+
     @Inject
     public EventSinkImpl(EventFilter eventFilter, EventFactory eventFactory,
         ObjectMapper mapper, Configuration config, ActiveMQSessionFactory sessionFactory,
-        CandlepinModeManager modeManager) throws ActiveMQException {
+        CandlepinModeManager modeManager, MetricRegistry metricRegistry) throws ActiveMQException {
 
         this.eventFactory = eventFactory;
         this.mapper = mapper;
@@ -76,6 +85,15 @@ public class EventSinkImpl implements EventSink {
         this.modeManager = modeManager;
         this.config = config;
         this.sessionFactory = sessionFactory;
+
+        this.queuedEventCounters = metricRegistry.counters("candlepin_events_queued_total",
+            "Events queued for dispatch to the message broker", "type", "target");
+        this.publishedEventCounter = metricRegistry.counter("candlepin_events_published_total",
+            "Queued events committed to the message broker");
+        this.rolledBackEventCounter = metricRegistry.counter("candlepin_events_rolled_back_total",
+            "Queued events discarded by a rollback");
+        this.commitTimer = metricRegistry.timer("candlepin_events_commit_seconds",
+            "Time spent committing queued events to the message broker");
     }
 
     // FIXME This method really does not belong here. It should probably be moved
@@ -131,6 +149,10 @@ public class EventSinkImpl implements EventSink {
             }
 
             messageSender.queueMessage(mapper.writeValueAsString(event), event.getType(), event.getTarget());
+
+            this.queuedEventCounters.labels(
+                event.getType() != null ? event.getType().name() : "",
+                event.getTarget() != null ? event.getTarget().name() : "").inc();
         }
         catch (Exception e) {
             log.error("Error while trying to send event", e);
@@ -238,6 +260,7 @@ public class EventSinkImpl implements EventSink {
         private ActiveMQSessionFactory sessionFactory;
         private ClientSession session;
         private ClientProducer producer;
+        private int pending;
 
         public EventMessageSender(ActiveMQSessionFactory sessionFactory) {
             try {
@@ -284,19 +307,27 @@ public class EventSinkImpl implements EventSink {
 
             // NOTE: not actually sent until we commit the session.
             producer.send(message);
+            ++this.pending;
         }
 
         public void sendMessages() {
             log.debug("Committing ActiveMQ transaction.");
             if (!session.isClosed()) {
+                long start = System.nanoTime();
+
                 try (ClientSession toClose = session) {
                     toClose.commit();
+                    publishedEventCounter.inc(this.pending);
                 }
                 catch (Exception e) {
                     // This would be pretty bad, but we always try not to let event errors
                     // interfere with the operation of the overall application.
                     log.error("Error committing ActiveMQ transaction", e);
                 }
+                finally {
+                    commitTimer.recordSince(start);
+                    this.pending = 0;
+                }
             }
         }
 
@@ -305,10 +336,14 @@ public class EventSinkImpl implements EventSink {
             if (!session.isClosed()) {
                 try (ClientSession toClose = session) {
                     toClose.rollback();
+                    rolledBackEventCounter.inc(this.pending);
                 }
                 catch (ActiveMQException e) {
                     log.error("Error rolling back ActiveMQ transaction", e);
                 }
+                finally {
+                    this.pending = 0;
+                }
             }
         }
 
@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.audit;
+
+import org.candlepin.model.OwnerInfoSnapshotCurator;
+
+import com.google.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+
+
+/**
+ * The OwnerInfoListener flags the owner info snapshot of an owner as stale whenever an event which
+ * may change its values is received, so the snapshot is rebuilt on the next scheduled run of the
+ * OwnerInfoRefreshJob.
+ *
+ * Only events changing the data the owner info is computed from are considered: consumers and
+ * their facts, compliance statuses, entitlements, pools and product attributes. Guest ID and
+ * subscription events never change that data directly; any resulting pool or entitlement changes
+ * produce events of their own.
+ */
+public class OwnerInfoListener implements EventListener {
+    private static Logger log = LoggerFactory.getLogger(OwnerInfoListener.class);
+
+    /** The types of events, by target, which may affect the values of the owner info */
+    private static final Map<Event.Target, Set<Event.Type>> EVENT_TYPES = new EnumMap<>(Event.Target.class);
+
+    static {
+        EVENT_TYPES.put(Event.Target.CONSUMER, EnumSet.allOf(Event.Type.class));
+        EVENT_TYPES.put(Event.Target.COMPLIANCE, EnumSet.allOf(Event.Type.class));
+        EVENT_TYPES.put(Event.Target.ENTITLEMENT, EnumSet.allOf(Event.Type.class));
+        EVENT_TYPES.put(Event.Target.POOL, EnumSet.allOf(Event.Type.class));
+
+        // New products only count once pools use them, and products can't be deleted while they do
+        EVENT_TYPES.put(Event.Target.PRODUCT, EnumSet.of(Event.Type.MODIFIED));
+    }
+
+    private OwnerInfoSnapshotCurator ownerInfoSnapshotCurator;
+
+    @Inject
+    public OwnerInfoListener(OwnerInfoSnapshotCurator ownerInfoSnapshotCurator) {
+        this.ownerInfoSnapshotCurator = Objects.requireNonNull(ownerInfoSnapshotCurator);
+    }
+
+    @Override
+    public void onEvent(Event e) {
+        Set<Event.Type> types = EVENT_TYPES.get(e.getTarget());
+        if (e.getOwnerId() == null || types == null || !types.contains(e.getType())) {
+            return;
+        }
+
+        try {
+            this.ownerInfoSnapshotCurator.markStale(e.getOwnerId());
+        }
+        catch (RuntimeException ex) {
+            // Not worth redelivering the event for; the snapshot is rebuilt once it reaches its
+            // maximum age regardless
+            log.warn("Unable to flag owner info snapshot as stale for owner: {}", e.getOwnerId(), ex);
+        }
+    }
+
+    @Override
+    public boolean requiresQpid() {
+        return false;
+    }
+}
@@ -14,12 +14,14 @@
  */
 package org.candlepin.auth;
 
+import org.candlepin.auth.permissions.Permission;
 import org.candlepin.auth.permissions.PermissionFactory;
 import org.candlepin.common.exceptions.CandlepinException;
 import org.candlepin.common.exceptions.NotAuthorizedException;
 import org.candlepin.common.exceptions.ServiceUnavailableException;
 import org.candlepin.common.resteasy.auth.AuthUtil;
 import org.candlepin.service.UserServiceAdapter;
+import org.candlepin.service.model.UserInfo;
 
 import com.google.inject.Inject;
 
@@ -29,6 +31,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xnap.commons.i18n.I18n;
 
+import java.util.Collection;
+
 import javax.inject.Provider;
 
 /**
@@ -38,11 +42,14 @@ public class BasicAuth extends UserAuth {
 
     private static Logger log = LoggerFactory.getLogger(BasicAuth.class);
 
+    private UserAuthCache userAuthCache;
+
     @Inject
     BasicAuth(UserServiceAdapter userServiceAdapter, Provider<I18n> i18nProvider,
-        PermissionFactory permissionFactory) {
+        PermissionFactory permissionFactory, UserAuthCache userAuthCache) {
 
         super(userServiceAdapter, i18nProvider, permissionFactory);
+        this.userAuthCache = userAuthCache;
     }
 
     @Override
@@ -65,9 +72,23 @@ public class BasicAuth extends UserAuth {
                     log.debug("check for: {} - password of length {}", username, length);
                 }
 
+                Principal principal = this.userAuthCache.getPrincipal(username, password);
+                if (principal != null) {
+                    log.debug("cached principal found for user '{}'", username);
+                    return principal;
+                }
+
+                long generation = this.userAuthCache.getGeneration();
                 if (userServiceAdapter.validateUser(username, password)) {
-                    Principal principal = createPrincipal(username);
+                    UserInfo user = this.findUser(username);
+                    boolean admin = user.isSuperAdmin() != null && user.isSuperAdmin();
+                    Collection<Permission> permissions = admin ? null :
+                        this.permissionFactory.createUserPermissions(user);
+
+                    principal = new UserPrincipal(username, permissions, admin);
                     log.debug("principal created for user '{}'", username);
+
+                    this.userAuthCache.putPrincipal(generation, username, password, admin, permissions);
                     return principal;
                 }
                 else {
@@ -74,6 +74,9 @@ public abstract class ConsumerAuth implements AuthProvider {
 
         final Owner owner = this.ownerCurator.findOwnerById(consumer.getOwnerId());
         final ConsumerPrincipal principal = new ConsumerPrincipal(consumer, owner);
+
+        // A consumer always has access to itself; let the remainder of the request reuse it
+        this.consumerCurator.cacheIdentity(consumerUuid, consumer, principal);
         log.debug("principal created for consumer {}", principal.getConsumer().getUuid());
         return principal;
     }
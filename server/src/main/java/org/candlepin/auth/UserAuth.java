@@ -48,11 +48,7 @@ public abstract class UserAuth implements AuthProvider {
      * Creates a user principal for a given username
      */
     protected Principal createPrincipal(String username) {
-        UserInfo user = this.userServiceAdapter.findByLogin(username);
-
-        if (user == null) {
-            throw new BadRequestException(this.i18nProvider.get().tr("User not found: {0}", username));
-        }
+        UserInfo user = this.findUser(username);
 
         // TODO: This creates a lot of object churn. We should probably update this later in a way
         // that can do permission checking without creating piles of objects that we just throw away
@@ -62,4 +58,20 @@ public abstract class UserAuth implements AuthProvider {
             new UserPrincipal(username, this.permissionFactory.createUserPermissions(user), false);
     }
 
+    /**
+     * Fetches the user info for a given username
+     *
+     * @throws BadRequestException
+     *  if the user service does not know the user
+     */
+    protected UserInfo findUser(String username) {
+        UserInfo user = this.userServiceAdapter.findByLogin(username);
+
+        if (user == null) {
+            throw new BadRequestException(this.i18nProvider.get().tr("User not found: {0}", username));
+        }
+
+        return user;
+    }
+
 }
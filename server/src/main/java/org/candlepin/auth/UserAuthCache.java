@@ -0,0 +1,277 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.auth;
+
+import org.candlepin.auth.permissions.Permission;
+import org.candlepin.common.config.Configuration;
+import org.candlepin.config.ConfigProperties;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+
+/**
+ * The UserAuthCache holds the credentials and permissions of recently authenticated users.
+ * Authentication providers consult it to avoid asking the user service to validate the same
+ * credentials, and to avoid rebuilding the same permissions, on every request made by a user.
+ * <p></p>
+ * Credentials are never stored; only a salted SHA-256 digest is kept, using a salt generated when
+ * the cache is created. The permissions are built once per cached user and shared by the principals
+ * created from the entry; each request still receives its own principal. Entries expire after a
+ * short, configurable period and the least recently used entries are discarded once the cache is
+ * full. Operations which change a user's credentials, roles or permissions must invalidate the
+ * affected entries.
+ * <p></p>
+ * The cache is local to each node. Changes made through another node, or directly in the user
+ * service, remain unseen here until the entry expires, so the configured lifetime is the window in
+ * which old credentials and permissions may still be used.
+ */
+@Singleton
+public class UserAuthCache {
+    private static Logger log = LoggerFactory.getLogger(UserAuthCache.class);
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final int SALT_LENGTH = 32;
+
+    /**
+     * The digest of verified credentials, the permissions built for the user, and the time at which
+     * they expire
+     */
+    private static class Entry {
+        private final byte[] digest;
+        private final boolean admin;
+        private final List<Permission> permissions;
+        private final long expiration;
+
+        Entry(byte[] digest, boolean admin, List<Permission> permissions, long expiration) {
+            this.digest = digest;
+            this.admin = admin;
+            this.permissions = permissions;
+            this.expiration = expiration;
+        }
+    }
+
+    private final long ttl;
+    private final int maxEntries;
+    private final byte[] salt;
+    private final Map<String, Entry> entries;
+
+    private long generation;
+
+    @Inject
+    public UserAuthCache(Configuration config) {
+        this(config.getLong(ConfigProperties.USER_AUTH_CACHE_TTL, 30) * 1000,
+            config.getInt(ConfigProperties.USER_AUTH_CACHE_MAX_ENTRIES, 0));
+    }
+
+    /**
+     * Creates a new cache which holds up to the given number of entries for the given amount of
+     * time. If either value is not positive, the cache is disabled.
+     *
+     * @param ttl
+     *  the time, in milliseconds, for which an entry remains valid
+     *
+     * @param maxEntries
+     *  the maximum number of entries to hold
+     */
+    public UserAuthCache(long ttl, int maxEntries) {
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+
+        this.salt = new byte[SALT_LENGTH];
+        new SecureRandom().nextBytes(this.salt);
+
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return this.size() > UserAuthCache.this.maxEntries;
+            }
+        };
+
+        this.generation = 0;
+    }
+
+    /**
+     * Checks whether or not this cache is enabled. A disabled cache never returns a principal.
+     *
+     * @return
+     *  true if this cache is enabled; false otherwise
+     */
+    public boolean isEnabled() {
+        return this.ttl > 0 && this.maxEntries > 0;
+    }
+
+    /**
+     * Fetches the current generation of this cache. The generation changes whenever entries are
+     * invalidated, and must be fetched before the user service is asked to validate credentials
+     * which are to be cached; users authenticated before an invalidation will not be cached.
+     *
+     * @return
+     *  the current generation of this cache
+     */
+    public synchronized long getGeneration() {
+        return this.generation;
+    }
+
+    /**
+     * Creates a new principal for the given user from the cached permissions, if the given
+     * credentials match credentials which were recently verified by the user service and have not
+     * expired.
+     *
+     * @param username
+     *  the name of the user to check
+     *
+     * @param password
+     *  the password provided by the user; may be null
+     *
+     * @return
+     *  a new principal for the user if the credentials were recently verified; null otherwise
+     */
+    public UserPrincipal getPrincipal(String username, String password) {
+        if (!this.isEnabled() || username == null) {
+            return null;
+        }
+
+        byte[] digest = this.digest(username, password);
+        Entry entry;
+
+        synchronized (this) {
+            entry = this.entries.get(username);
+            if (entry == null) {
+                return null;
+            }
+
+            if (entry.expiration <= this.currentTimeMillis()) {
+                this.entries.remove(username);
+                return null;
+            }
+        }
+
+        if (!MessageDigest.isEqual(entry.digest, digest)) {
+            return null;
+        }
+
+        return new UserPrincipal(username, entry.permissions, entry.admin);
+    }
+
+    /**
+     * Caches the credentials and permissions of a user which has been successfully authenticated
+     * with the given password. If the cache has been invalidated since the given generation, nothing
+     * is cached.
+     *
+     * @param generation
+     *  the generation of the cache fetched before the user was authenticated
+     *
+     * @param username
+     *  the name of the authenticated user
+     *
+     * @param password
+     *  the password with which the user was authenticated; may be null
+     *
+     * @param admin
+     *  whether or not the user is a super admin
+     *
+     * @param permissions
+     *  the permissions built for the user; may be null
+     */
+    public void putPrincipal(long generation, String username, String password, boolean admin,
+        Collection<Permission> permissions) {
+
+        if (!this.isEnabled() || username == null) {
+            return;
+        }
+
+        byte[] digest = this.digest(username, password);
+        List<Permission> cached = permissions != null ?
+            Collections.unmodifiableList(new ArrayList<>(permissions)) :
+            Collections.emptyList();
+
+        synchronized (this) {
+            if (generation != this.generation) {
+                log.debug("User auth cache invalidated during authentication; not caching: {}", username);
+                return;
+            }
+
+            long expiration = this.currentTimeMillis() + this.ttl;
+            this.entries.put(username, new Entry(digest, admin, cached, expiration));
+        }
+    }
+
+    /**
+     * Removes the entry cached for the given user, if any.
+     *
+     * @param username
+     *  the name of the user for which to remove the cached entry
+     */
+    public synchronized void invalidate(String username) {
+        ++this.generation;
+        this.entries.remove(username);
+    }
+
+    /**
+     * Removes all cached entries. Should be used when a change may affect the permissions of users
+     * which cannot be readily determined, such as changes to a role or its permissions.
+     */
+    public synchronized void invalidateAll() {
+        ++this.generation;
+        this.entries.clear();
+    }
+
+    /**
+     * Fetches the current time in milliseconds. Exists to allow tests to control entry expiration.
+     *
+     * @return
+     *  the current time in milliseconds
+     */
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    private byte[] digest(String username, String password) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+
+            digest.update(this.salt);
+            digest.update(username.getBytes(StandardCharsets.UTF_8));
+
+            // Distinguish a null password from an empty one
+            if (password != null) {
+                digest.update((byte) ':');
+                digest.update(password.getBytes(StandardCharsets.UTF_8));
+            }
+
+            return digest.digest();
+        }
+        catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
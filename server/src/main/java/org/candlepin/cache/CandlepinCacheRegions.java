@@ -21,6 +21,20 @@ package org.candlepin.cache;
 public class CandlepinCacheRegions {
     public static final String FIVE_SECONDS_QUERY_CACHE = "query-5-seconds";
 
+    /**
+     * Second-level cache region for products, content and their collections. These entities are
+     * immutable once persisted -- changes produce a new entity version with a new UUID -- so cached
+     * entries never go stale on any node.
+     */
+    public static final String PRODUCT_DATA = "product-data";
+
+    /**
+     * Second-level cache region for small, rarely modified reference entities. As the cache is local
+     * to each node, entries are given a short time-to-live to bound how long a change made on one
+     * node may go unnoticed on the others.
+     */
+    public static final String REFERENCE_DATA = "reference-data";
+
     private CandlepinCacheRegions() {
 
     }
@@ -19,11 +19,14 @@ import static org.candlepin.common.config.ConfigurationPrefixes.JPA_CONFIG_PREFI
 
 import org.candlepin.async.tasks.ActiveEntitlementJob;
 import org.candlepin.async.tasks.CRLUpdateJob;
+import org.candlepin.async.tasks.ConsumerStatusRecalculationJob;
+import org.candlepin.async.tasks.ContentAccessPayloadRefreshJob;
 import org.candlepin.async.tasks.ExpiredPoolsCleanupJob;
 import org.candlepin.async.tasks.ImportRecordCleanerJob;
 import org.candlepin.async.tasks.JobCleaner;
 import org.candlepin.async.tasks.ManifestCleanerJob;
 import org.candlepin.async.tasks.OrphanCleanupJob;
+import org.candlepin.async.tasks.OwnerInfoRefreshJob;
 import org.candlepin.async.tasks.UnmappedGuestEntitlementCleanerJob;
 import org.candlepin.common.config.Configuration;
 
@@ -136,6 +139,11 @@ public class ConfigProperties {
     public static final String BASIC_AUTHENTICATION = "candlepin.auth.basic.enable";
     public static final String KEYCLOAK_AUTHENTICATION = "candlepin.auth.keycloak.enable";
 
+    // How long, in seconds, verified user credentials and permissions are cached; 0 disables caching.
+    // The cache is local to each node, so changes made on another node are seen here after up to this long
+    public static final String USER_AUTH_CACHE_TTL = "candlepin.auth.user_cache.ttl";
+    public static final String USER_AUTH_CACHE_MAX_ENTRIES = "candlepin.auth.user_cache.max_entries";
+
     /**
      * A possibility to enable Suspend Mode. By default, the suspend mode is enabled
      */
@@ -200,6 +208,14 @@ public class ConfigProperties {
      */
     public static final String CONSUMER_FACTS_MATCHER = "candlepin.consumer.facts.match_regex";
 
+    /**
+     *  The number of consumers affected by a bulk operation, such as a pool deletion or a batch
+     *  revocation, above which their status recalculation is deferred to the consumer status
+     *  recalculation job. Defaults to zero, which disables deferral and always recalculates
+     *  statuses immediately; deployments running the status job may opt in with a positive value.
+     */
+    public static final String CONSUMER_STATUS_DEFER_THRESHOLD = "candlepin.consumer.status.defer_threshold";
+
     public static final String SHARD_USERNAME = "candlepin.shard.username";
     public static final String SHARD_PASSWORD = "candlepin.shard.password";
     public static final String SHARD_WEBAPP = "candlepin.shard.webapp";
@@ -217,6 +233,9 @@ public class ConfigProperties {
 
     public static final String PRODUCT_CACHE_MAX = "candlepin.cache.product_cache_max";
 
+    // The maximum number of recently imported product and content versions to index; 0 disables the index
+    public static final String SHARED_ENTITY_INDEX_MAX = "candlepin.cache.shared_entity_index_max";
+
     public static final String INTEGER_FACTS = "candlepin.integer_facts";
     private static final String INTEGER_FACT_LIST = "";
 
@@ -267,6 +286,21 @@ public class ConfigProperties {
      */
     public static final String CRL_SERIAL_BATCH_SIZE = "candlepin.crl.update_serial_batch_size";
 
+    /**
+     * The number of RSA key pairs to keep pre-generated for new consumers. Set to zero to generate
+     * every key pair on demand.
+     */
+    public static final String KEYPAIR_POOL_SIZE = "candlepin.pki.keypair_pool.size";
+
+    /**
+     * The pool depth at or below which background threads begin generating key pairs to refill the
+     * key pair pool
+     */
+    public static final String KEYPAIR_POOL_REFILL_THRESHOLD = "candlepin.pki.keypair_pool.refill_threshold";
+
+    /** The number of background threads used to refill the key pair pool */
+    public static final String KEYPAIR_POOL_THREADS = "candlepin.pki.keypair_pool.threads";
+
     public static final String IDENTITY_CERT_YEAR_ADDENDUM = "candlepin.identityCert.yr.addendum";
     /**
      * Identity certificate expiry threshold in days
@@ -275,6 +309,12 @@ public class ConfigProperties {
 
     public static final String SWAGGER_ENABLED = "candlepin.swagger.enabled";
 
+    /**
+     * Whether or not to instrument curators, rules, certificate generation, jobs, events and
+     * resources with timers and counters, exported in the Prometheus text format at /metrics
+     */
+    public static final String METRICS_ENABLED = "candlepin.metrics.enabled";
+
     /** Enabled dev page used to interactively login to a Keycloak instance and generate offline token. */
     public static final String TOKENPAGE_ENABLED = "candlepin.tokenpage.enabled";
 
@@ -303,11 +343,14 @@ public class ConfigProperties {
     public static final String[] ASYNC_JOBS_TRIGGERABLE_JOBS_LIST = new String[] {
         ActiveEntitlementJob.JOB_KEY,
         CRLUpdateJob.JOB_KEY,
+        ConsumerStatusRecalculationJob.JOB_KEY,
+        ContentAccessPayloadRefreshJob.JOB_KEY,
         ExpiredPoolsCleanupJob.JOB_KEY,
         ImportRecordCleanerJob.JOB_KEY,
         JobCleaner.JOB_KEY,
         ManifestCleanerJob.JOB_KEY,
         OrphanCleanupJob.JOB_KEY,
+        OwnerInfoRefreshJob.JOB_KEY,
         UnmappedGuestEntitlementCleanerJob.JOB_KEY
     };
 
@@ -401,7 +444,8 @@ public class ConfigProperties {
 
             this.put(AUDIT_LISTENERS,
                 "org.candlepin.audit.LoggingListener," +
-                "org.candlepin.audit.ActivationListener");
+                "org.candlepin.audit.ActivationListener," +
+                "org.candlepin.audit.OwnerInfoListener");
             this.put(AUDIT_FILTER_ENABLED, "false");
 
             this.put(ENTITLER_BULK_SIZE, "1000");
@@ -427,15 +471,21 @@ public class ConfigProperties {
             this.put(CRL_FILE_PATH, "/var/lib/candlepin/candlepin-crl.crl");
             this.put(CRL_NEXT_UPDATE_DELTA, "1");
             this.put(CRL_SERIAL_BATCH_SIZE, "1000000");
+            this.put(KEYPAIR_POOL_SIZE, "50");
+            this.put(KEYPAIR_POOL_REFILL_THRESHOLD, "25");
+            this.put(KEYPAIR_POOL_THREADS, "1");
 
             this.put(SYNC_WORK_DIR, "/var/cache/candlepin/sync");
             this.put(CONSUMER_FACTS_MATCHER, ".*");
+            this.put(CONSUMER_STATUS_DEFER_THRESHOLD, "0");
             this.put(TRUSTED_AUTHENTICATION, "false");
             this.put(SSL_AUTHENTICATION, "true");
             this.put(OAUTH_AUTHENTICATION, "false");
             this.put(KEYCLOAK_AUTHENTICATION, "false");
             this.put(BASIC_AUTHENTICATION, "true");
             this.put(AUTH_OVER_HTTP, "false");
+            this.put(USER_AUTH_CACHE_TTL, "30");
+            this.put(USER_AUTH_CACHE_MAX_ENTRIES, "100");
             // By default, environments should be hidden so clients do not need to
             // submit one when registering.
             this.put(HIDDEN_RESOURCES, "environments");
@@ -476,6 +526,7 @@ public class ConfigProperties {
              *  a larger memory footprint as the cache fills up.
              */
             this.put(PRODUCT_CACHE_MAX, "100");
+            this.put(SHARED_ENTITY_INDEX_MAX, "10000");
 
             /** As we do math on some facts and attributes, we need to constrain some values */
             this.put(INTEGER_FACTS, INTEGER_FACT_LIST);
@@ -487,6 +538,7 @@ public class ConfigProperties {
             this.put(BOOLEAN_ATTRIBUTES, BOOLEAN_ATTRIBUTE_LIST);
 
             this.put(SWAGGER_ENABLED, Boolean.toString(true));
+            this.put(METRICS_ENABLED, Boolean.toString(true));
             this.put(TOKENPAGE_ENABLED, Boolean.toString(true));
 
             // Async job defaults and scheduling
@@ -505,6 +557,10 @@ public class ConfigProperties {
                 ActiveEntitlementJob.DEFAULT_SCHEDULE);
             this.put(jobConfig(CRLUpdateJob.JOB_KEY, ASYNC_JOBS_JOB_SCHEDULE),
                 CRLUpdateJob.DEFAULT_SCHEDULE);
+            this.put(jobConfig(ConsumerStatusRecalculationJob.JOB_KEY, ASYNC_JOBS_JOB_SCHEDULE),
+                ConsumerStatusRecalculationJob.DEFAULT_SCHEDULE);
+            this.put(jobConfig(ContentAccessPayloadRefreshJob.JOB_KEY, ASYNC_JOBS_JOB_SCHEDULE),
+                ContentAccessPayloadRefreshJob.DEFAULT_SCHEDULE);
             this.put(jobConfig(ExpiredPoolsCleanupJob.JOB_KEY, ASYNC_JOBS_JOB_SCHEDULE),
                 ExpiredPoolsCleanupJob.DEFAULT_SCHEDULE);
             this.put(jobConfig(ImportRecordCleanerJob.JOB_KEY, ASYNC_JOBS_JOB_SCHEDULE),
@@ -515,6 +571,8 @@ public class ConfigProperties {
                 ManifestCleanerJob.DEFAULT_SCHEDULE);
             this.put(jobConfig(OrphanCleanupJob.JOB_KEY, ASYNC_JOBS_JOB_SCHEDULE),
                 OrphanCleanupJob.DEFAULT_SCHEDULE);
+            this.put(jobConfig(OwnerInfoRefreshJob.JOB_KEY, ASYNC_JOBS_JOB_SCHEDULE),
+                OwnerInfoRefreshJob.DEFAULT_SCHEDULE);
             this.put(jobConfig(UnmappedGuestEntitlementCleanerJob.JOB_KEY, ASYNC_JOBS_JOB_SCHEDULE),
                 UnmappedGuestEntitlementCleanerJob.DEFAULT_SCHEDULE);
 
@@ -106,6 +106,7 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import javax.persistence.EntityTransaction;
 import javax.ws.rs.core.MediaType;
 
 
@@ -120,6 +121,7 @@ public class CandlepinPoolManager implements PoolManager {
     private static Logger log = LoggerFactory.getLogger(CandlepinPoolManager.class);
 
     private static final int MAX_ENTITLE_RETRIES = 3;
+    private static final int STATUS_RECALCULATION_BLOCK_SIZE = 1000;
 
     private EventSink sink;
     private EventFactory eventFactory;
@@ -416,51 +418,104 @@ public class CandlepinPoolManager implements PoolManager {
      * revocation and consumer compliance recalculation.
      * <p></p>
      * This method will delete pools in blocks, using a new transaction for each block unless a
-     * transaction was already started before this method is called.
+     * transaction was already started before this method is called. When each block runs in its
+     * own transaction, the events generated for the block are sent as soon as it is committed.
+     *
+     * @return
+     *  the number of expired pools deleted
      */
-    public void cleanupExpiredPools() {
+    public int cleanupExpiredPools() {
         int count = 0;
+        int blocks = 0;
         boolean loop;
 
         log.debug("Beginning cleanup expired pools job");
 
+        EntityTransaction transaction = this.poolCurator.getTransaction();
+        boolean sendPerBlock = transaction != null && !transaction.isActive();
+
         do {
             // This call is run within a new transaction if we're not already in a transaction
             int blockSize = this.cleanupExpiredPoolsImpl();
             count += blockSize;
 
+            if (blockSize > 0) {
+                ++blocks;
+                log.info("Expired pool cleanup progress: {} pools deleted in {} blocks", count, blocks);
+
+                if (sendPerBlock) {
+                    this.sink.sendEvents();
+                }
+            }
+
             loop = blockSize >= PoolCurator.EXPIRED_POOL_BLOCK_SIZE;
         } while (loop);
 
         if (count > 0) {
             log.info("Cleaned up {} expired pools", count);
         }
+
+        return count;
     }
 
     /**
      * Performs the cleanup of a block of expired pools.
+     * <p></p>
+     * Expired pools which have no entitlements and no derived pools cannot affect any consumer,
+     * so they are removed using bulk statements, without being loaded. The remaining pools are
+     * deleted through the regular pool deletion path, which revokes their entitlements and
+     * recalculates the status of the affected consumers.
      *
      * @return
      *  the number of expired pools deleted as a result of this method
      */
     @Transactional
     protected int cleanupExpiredPoolsImpl() {
-        List<Pool> pools = poolCurator.listExpiredPools(PoolCurator.EXPIRED_POOL_BLOCK_SIZE);
+        List<String> expiredPoolIds = this.poolCurator.getExpiredPoolIds(PoolCurator.EXPIRED_POOL_BLOCK_SIZE);
+        if (expiredPoolIds.isEmpty()) {
+            return 0;
+        }
 
-        if (log.isDebugEnabled()) {
-            for (Pool pool : pools) {
-                log.debug("Cleaning up expired pool: {} (expired: {})",
-                    pool.getId(), pool.getEndDate());
+        log.debug("Cleaning up expired pools: {}", expiredPoolIds);
+
+        Set<String> dependentPoolIds = this.poolCurator.getPoolIdsWithDependents(expiredPoolIds);
+        List<String> unreferencedPoolIds = new ArrayList<>(expiredPoolIds.size());
+
+        for (String poolId : expiredPoolIds) {
+            if (!dependentPoolIds.contains(poolId)) {
+                unreferencedPoolIds.add(poolId);
+            }
+        }
+
+        if (!unreferencedPoolIds.isEmpty()) {
+            // The events have to be built before the pools are gone
+            List<Event> events = new ArrayList<>(unreferencedPoolIds.size());
+            for (Object[] details : this.poolCurator.getPoolEventDetails(unreferencedPoolIds)) {
+                events.add(this.eventFactory.poolDeleted((String) details[0], (String) details[1],
+                    (String) details[2]));
+            }
+
+            int deleted = this.poolCurator.bulkDeleteByIds(unreferencedPoolIds);
+            log.debug("Deleted {} expired pools without entitlements", deleted);
+
+            for (Event event : events) {
+                this.sink.queueEvent(event);
             }
         }
 
-        // Delete the block of pools & flush the results to tell Hibernate to evict the objects
-        // (we hope). Even if it doesn't, and even if the transaction completion is going to
-        // flush the objects anyway, it should not hurt and is an explicit call.
-        this.deletePools(pools);
+        if (!dependentPoolIds.isEmpty()) {
+            log.debug("Deleting {} expired pools with entitlements or derived pools",
+                dependentPoolIds.size());
+
+            this.deletePoolsByIds(dependentPoolIds, new HashSet<>());
+        }
+
+        // Flush the results to tell Hibernate to evict the objects (we hope). Even if it doesn't,
+        // and even if the transaction completion is going to flush the objects anyway, it should
+        // not hurt and is an explicit call.
         this.poolCurator.flush();
 
-        return pools.size();
+        return expiredPoolIds.size();
     }
 
     /**
@@ -1847,6 +1902,7 @@ public class CandlepinPoolManager implements PoolManager {
      * choose to set this to false.
      * @return the pools that are deleted as a consequence of revoking entitlements
      */
+    @Override
     @Transactional
     @Traceable
     public Set<Pool> revokeEntitlements(List<Entitlement> entsToRevoke, Set<String> alreadyDeletedPools,
@@ -1868,10 +1924,7 @@ public class CandlepinPoolManager implements PoolManager {
             log.trace("Additional pool IDs: {}", getPoolIds(poolsToDelete));
         }
 
-        Set<Pool> poolsToLock = new HashSet<>(poolsToDelete);
         for (Entitlement ent: entsToRevoke) {
-            poolsToLock.add(ent.getPool());
-
             // If we are deleting a developer entitlement, be sure to delete the
             // associated pool as well.
             if (ent.getPool() != null && ent.getPool().isDevelopmentPool()) {
@@ -1879,8 +1932,11 @@ public class CandlepinPoolManager implements PoolManager {
             }
         }
 
-        this.poolCurator.lock(poolsToLock);
-        this.poolCurator.refresh(poolsToLock);
+        // Only the pools we're deleting need to be locked. The consumed and exported quantities of
+        // the remaining pools are adjusted below with relative updates, which the database applies
+        // atomically.
+        this.poolCurator.lock(poolsToDelete);
+        this.poolCurator.refresh(poolsToDelete);
 
         log.info("Batch revoking {} entitlements", entsToRevoke.size());
         entsToRevoke = new ArrayList<>(entsToRevoke);
@@ -1893,7 +1949,8 @@ public class CandlepinPoolManager implements PoolManager {
         }
 
         log.debug("Adjusting consumed quantities on pools");
-        List<Pool> poolsToSave = new ArrayList<>();
+        Set<Pool> affectedPools = new HashSet<>();
+        Map<Consumer, Long> consumerQuantities = new HashMap<>();
         Set<String> entIdsToRevoke = new HashSet<>();
         for (Entitlement ent : entsToRevoke) {
             // TODO: Should we throw an exception if we find a malformed/incomplete entitlement
@@ -1904,26 +1961,26 @@ public class CandlepinPoolManager implements PoolManager {
 
             // Collect the entitlement IDs to revoke seeing as we are iterating over them anyway.
             entIdsToRevoke.add(ent.getId());
+            affectedPools.add(ent.getPool());
 
-            //We need to trigger lazy load of provided products
-            //to have access to those products later in this method.
-            Pool pool = ent.getPool();
-            int entQuantity = ent.getQuantity() != null ? ent.getQuantity() : 0;
+            long entQuantity = ent.getQuantity() != null ? ent.getQuantity() : 0;
+            consumerQuantities.merge(ent.getConsumer(), entQuantity, Long::sum);
+        }
 
-            pool.setConsumed(pool.getConsumed() - entQuantity);
-            Consumer consumer = ent.getConsumer();
-            ConsumerType ctype = this.consumerTypeCurator.getConsumerType(consumer);
+        // Pool quantities are updated with one aggregated statement per block of entitlements,
+        // after which the surviving pools are resynced with the database.
+        this.poolCurator.decrementConsumedForEntitlements(entIdsToRevoke);
+        affectedPools.removeAll(poolsToDelete);
+        this.poolCurator.refresh(affectedPools);
 
-            if (ctype != null  && ctype.isManifest()) {
-                pool.setExported(pool.getExported() - entQuantity);
-            }
-
-            consumer.setEntitlementCount(consumer.getEntitlementCount() - entQuantity);
-            consumerCurator.update(consumer);
-            poolsToSave.add(pool);
+        // Consumer counts are applied once per consumer, and written out in batches rather than
+        // with one update per entitlement.
+        for (Entry<Consumer, Long> entry : consumerQuantities.entrySet()) {
+            Consumer consumer = entry.getKey();
+            consumer.setEntitlementCount(consumer.getEntitlementCount() - entry.getValue());
         }
 
-        poolCurator.updateAll(poolsToSave, false, false);
+        this.consumerCurator.updateAll(consumerQuantities.keySet(), true, false);
 
         /*
          * Before deleting the entitlements, we need to find out if there are any
@@ -1963,10 +2020,18 @@ public class CandlepinPoolManager implements PoolManager {
             return poolsToDelete;
         }
 
+        if (this.deferStatusRecalculation(consumerSortedEntitlements.size())) {
+            consumerCurator.flush();
+            this.deferConsumerStatuses(consumerSortedEntitlements.keySet());
+
+            sendDeletedEvents(entsToRevoke);
+            return poolsToDelete;
+        }
+
         log.info("Recomputing status for {} consumers.", consumerSortedEntitlements.size());
         int i = 1;
         for (Consumer consumer : consumerSortedEntitlements.keySet()) {
-            if (i++ % 1000 == 0) {
+            if (i++ % STATUS_RECALCULATION_BLOCK_SIZE == 0) {
                 consumerCurator.flush();
             }
 
@@ -1982,6 +2047,119 @@ public class CandlepinPoolManager implements PoolManager {
         return poolsToDelete;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recalculateConsumerStatuses(Collection<String> consumerIds) {
+        if (consumerIds == null || consumerIds.isEmpty()) {
+            return;
+        }
+
+        Set<String> uniqueIds = consumerIds instanceof Set ? (Set<String>) consumerIds :
+            new HashSet<>(consumerIds);
+
+        log.info("Recomputing status for {} consumers", uniqueIds.size());
+
+        for (List<String> block : Iterables.partition(uniqueIds, STATUS_RECALCULATION_BLOCK_SIZE)) {
+            this.recalculateConsumerStatusBlock(block);
+        }
+
+        log.info("All statuses recomputed");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recalculateConsumerStatuses(Collection<String> consumerIds, boolean deferred) {
+        if (!deferred) {
+            this.recalculateConsumerStatuses(consumerIds);
+            return;
+        }
+
+        if (consumerIds == null || consumerIds.isEmpty()) {
+            return;
+        }
+
+        int flagged = this.consumerCurator.markComplianceDirty(consumerIds);
+        log.info("Deferred status recalculation for {} consumers", flagged);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int recalculateFlaggedConsumerStatuses(String ownerId) {
+        EntityTransaction transaction = this.consumerCurator.getTransaction();
+        boolean sendPerBlock = transaction != null && !transaction.isActive();
+
+        int count = 0;
+        String lastId = null;
+        List<String> block;
+
+        do {
+            block = this.consumerCurator.getComplianceDirtyConsumerIds(ownerId, lastId,
+                STATUS_RECALCULATION_BLOCK_SIZE);
+
+            if (!block.isEmpty()) {
+                // This call is run within a new transaction if we're not already in a transaction
+                this.recalculateConsumerStatusBlock(block);
+
+                count += block.size();
+                lastId = block.get(block.size() - 1);
+                log.info("Deferred status recalculation progress for owner {}: {} consumers", ownerId, count);
+
+                // Send the compliance events for the block once it has been committed
+                if (sendPerBlock) {
+                    this.sink.sendEvents();
+                }
+            }
+        }
+        while (block.size() >= STATUS_RECALCULATION_BLOCK_SIZE);
+
+        return count;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean deferStatusRecalculation(int consumerCount) {
+        int threshold = this.config.getInt(ConfigProperties.CONSUMER_STATUS_DEFER_THRESHOLD, 0);
+        return threshold > 0 && consumerCount > threshold;
+    }
+
+    private void deferConsumerStatuses(Collection<Consumer> consumers) {
+        Set<String> consumerIds = consumers.stream()
+            .map(Consumer::getId)
+            .collect(Collectors.toSet());
+
+        this.recalculateConsumerStatuses(consumerIds, true);
+    }
+
+    @Transactional
+    protected void recalculateConsumerStatusBlock(List<String> consumerIds) {
+        // Clear the deferred recalculation flag in the same transaction as the recalculation, so a
+        // consumer flagged again by a concurrent change remains flagged once that change commits.
+        this.consumerCurator.clearComplianceDirty(consumerIds);
+
+        Collection<Consumer> consumers = this.consumerCurator.getConsumers(consumerIds);
+
+        for (Consumer consumer : consumers) {
+            this.complianceRules.getStatus(consumer);
+            this.systemPurposeComplianceRules.getStatus(consumer, consumer.getEntitlements(), null, true);
+        }
+
+        this.consumerCurator.flush();
+
+        // Detach the consumers once their updates are flushed to keep memory use constant across
+        // blocks. See BZ 1584259 for details
+        for (Consumer consumer : consumers) {
+            this.consumerCurator.detach(consumer);
+        }
+    }
+
     private void sendDeletedEvents(List<Entitlement> entsToRevoke) {
         // for each deleted entitlement, create an event
         for (Entitlement entitlement : entsToRevoke) {
@@ -2131,7 +2309,6 @@ public class CandlepinPoolManager implements PoolManager {
     @Override
     @Transactional
     @Traceable
-    @SuppressWarnings("checkstyle:methodlength")
     public void deletePools(Collection<Pool> pools, Collection<String> alreadyDeletedPoolIds) {
         if (pools == null || pools.isEmpty()) {
             return;
@@ -2146,20 +2323,32 @@ public class CandlepinPoolManager implements PoolManager {
             alreadyDeletedPoolIds = new HashSet<>();
         }
 
-        Set<String> poolIds = new HashSet<>();
-        Set<String> entitlementIds = new HashSet<>();
-        Owner owner = null;
-
         // Convert pools to pool IDs.
-        log.info("Fetching related pools and entitlements...");
+        Set<String> poolIds = new HashSet<>();
         for (Pool pool : pools) {
-            if (owner == null) {
-                owner = pool.getOwner();
-            }
-
             poolIds.add(pool.getId());
         }
 
+        this.deletePoolsByIds(poolIds, alreadyDeletedPoolIds);
+    }
+
+    /**
+     * Deletes the pools represented by the given pool IDs, along with any pools derived from them,
+     * revoking their entitlements and updating the affected consumers.
+     *
+     * @param poolIds
+     *  A mutable set of IDs of the pools to delete
+     *
+     * @param alreadyDeletedPoolIds
+     *  A collection of IDs of pools which have already been deleted and should be skipped
+     */
+    @Transactional
+    @SuppressWarnings("checkstyle:methodlength")
+    protected void deletePoolsByIds(Set<String> poolIds, Collection<String> alreadyDeletedPoolIds) {
+        Set<String> entitlementIds = new HashSet<>();
+
+        log.info("Fetching related pools and entitlements...");
+
         // Fetch pools which are derived from the pools we're going to delete...
         poolIds.addAll(this.poolCurator.getDerivedPoolIdsForPools(poolIds));
 
@@ -2197,7 +2386,7 @@ public class CandlepinPoolManager implements PoolManager {
         }
 
         // Lock pools we're going to delete (also, fetch them for event generation/slow deletes)
-        pools = this.poolCurator.lockAndLoad(poolIds);
+        Collection<Pool> pools = this.poolCurator.lockAndLoad(poolIds);
 
         if (!pools.isEmpty()) {
             log.info("Locked {} pools for deletion...", pools.size());
@@ -2367,27 +2556,35 @@ public class CandlepinPoolManager implements PoolManager {
                     this.enforcer.postUnbind(entitlement.getConsumer(), this, entitlement);
                 }
 
-                log.info("Recomputing status for {} consumers", consumerStackedEnts.keySet().size());
-
-                // Recalculate status for affected consumers
-                for (List<Consumer> subList : Iterables.partition(consumerStackedEnts.keySet(), 1000)) {
-                    for (Consumer consumer : subList) {
-                        this.complianceRules.getStatus(consumer);
-                        this.systemPurposeComplianceRules.getStatus(consumer, consumer.getEntitlements(),
-                            null, true);
-
-                        // Detach the consumer object (and its children that receive cascaded detaches),
-                        // otherwise during the status calculations, the facts proxy objects objects will be
-                        // resolved and the memory use will grow linearly with the number of consumers
-                        // instead of remaining constant as we calculate the status of each consumer.
-                        //
-                        // See BZ 1584259 for details
-                        this.consumerCurator.detach(consumer);
-                    }
-                    this.consumerCurator.flush();
+                if (this.deferStatusRecalculation(consumerStackedEnts.size())) {
+                    this.deferConsumerStatuses(consumerStackedEnts.keySet());
                 }
+                else {
+                    log.info("Recomputing status for {} consumers", consumerStackedEnts.keySet().size());
+
+                    // Recalculate status for affected consumers
+                    for (List<Consumer> subList : Iterables.partition(consumerStackedEnts.keySet(),
+                        STATUS_RECALCULATION_BLOCK_SIZE)) {
+
+                        for (Consumer consumer : subList) {
+                            this.complianceRules.getStatus(consumer);
+                            this.systemPurposeComplianceRules.getStatus(consumer, consumer.getEntitlements(),
+                                null, true);
+
+                            // Detach the consumer object (and its children that receive cascaded
+                            // detaches), otherwise during the status calculations, the facts proxy
+                            // objects objects will be resolved and the memory use will grow linearly
+                            // with the number of consumers instead of remaining constant as we
+                            // calculate the status of each consumer.
+                            //
+                            // See BZ 1584259 for details
+                            this.consumerCurator.detach(consumer);
+                        }
+                        this.consumerCurator.flush();
+                    }
 
-                log.info("All statuses recomputed");
+                    log.info("All statuses recomputed");
+                }
             }
 
             // Impl note:
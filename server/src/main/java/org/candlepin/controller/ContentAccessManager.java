@@ -14,6 +14,8 @@
  */
 package org.candlepin.controller;
 
+import org.candlepin.async.JobManager;
+import org.candlepin.async.tasks.ContentAccessPayloadRefreshJob;
 import org.candlepin.audit.EventSink;
 import org.candlepin.common.config.Configuration;
 import org.candlepin.config.ConfigProperties;
@@ -198,6 +200,7 @@ public class ContentAccessManager {
     private ContentAccessCertificateCurator contentAccessCertCurator;
     private OwnerProductCurator ownerProductCurator;
     private EventSink eventSink;
+    private JobManager jobManager;
 
     private boolean standalone;
 
@@ -216,7 +219,8 @@ public class ContentAccessManager {
         EnvironmentCurator environmentCurator,
         ContentAccessCertificateCurator contentAccessCertCurator,
         OwnerProductCurator ownerProductCurator,
-        EventSink eventSink) {
+        EventSink eventSink,
+        JobManager jobManager) {
 
         this.config = Objects.requireNonNull(config);
         this.pki = Objects.requireNonNull(pki);
@@ -232,6 +236,7 @@ public class ContentAccessManager {
         this.contentAccessCertCurator = Objects.requireNonNull(contentAccessCertCurator);
         this.eventSink = Objects.requireNonNull(eventSink);
         this.ownerProductCurator = Objects.requireNonNull(ownerProductCurator);
+        this.jobManager = Objects.requireNonNull(jobManager);
         this.standalone = this.config.getBoolean(ConfigProperties.STANDALONE, true);
     }
 
@@ -257,11 +262,90 @@ public class ContentAccessManager {
             return null;
         }
 
-        ContentAccessCertificate existing = consumer.getContentAccessCert();
+        ContentAccessCertificate existing = this.getOrCreateContentAccessCert(consumer, owner);
         ContentAccessCertificate result = new ContentAccessCertificate();
-        String pem = "";
+        String pem = existing.getCert();
+
+        Environment env = this.environmentCurator.getConsumerEnvironment(consumer);
+
+        // we need to see if this is newer than the previous result
+        OwnerEnvContentAccess oeca = ownerEnvContentAccessCurator
+            .getContentAccess(owner.getId(), env == null ? null : env.getId());
+
+        if (oeca == null) {
+            // Only built on request when no payload exists yet; stale payloads are replaced by the
+            // ContentAccessPayloadRefreshJob
+            Product container = this.buildContentAccessContainer(owner);
+            String contentJson = createPayloadAndSignature(owner, env, container);
+            oeca = new OwnerEnvContentAccess(owner, env, contentJson);
+            oeca = ownerEnvContentAccessCurator.saveOrUpdate(oeca);
+        }
+
+        pem += oeca.getContentJson();
+
+        result.setCert(pem);
+        result.setCreated(existing.getCreated());
+        result.setUpdated(existing.getUpdated());
+        result.setId(existing.getId());
+        result.setConsumer(existing.getConsumer());
+        result.setKey(existing.getKey());
+        result.setSerial(existing.getSerial());
+
+        return result;
+    }
+
+    /**
+     * Fetches the serial of the content access certificate of the given consumer, without
+     * assembling the certificate payload. If the consumer has a current certificate, its serial is
+     * read from the stored serial metadata; otherwise a new certificate is generated so that the
+     * serial reported matches the certificate the client will later download. The content payload
+     * is only assembled once the certificate itself is requested via getCertificate.
+     *
+     * @param consumer
+     *  the consumer for which to fetch the content access certificate serial
+     *
+     * @throws IOException
+     *  if a new certificate is required and could not be encoded
+     *
+     * @throws GeneralSecurityException
+     *  if a new certificate is required and could not be generated
+     *
+     * @return
+     *  the serial of the consumer's content access certificate, or null if the consumer does not
+     *  use a content access certificate
+     */
+    @Transactional
+    public CertificateSerial getCertificateSerial(Consumer consumer)
+        throws GeneralSecurityException, IOException {
+
+        Owner owner = ownerCurator.findOwnerById(consumer.getOwnerId());
+        if (!owner.isContentAccessEnabled() || !this.consumerIsCertV3Capable(consumer)) {
+            return null;
+        }
+
+        CertificateSerial serial = this.contentAccessCertificateCurator.getSerialForConsumer(consumer);
+        if (serial != null && !isExpired(serial)) {
+            return serial;
+        }
+
+        return this.getOrCreateContentAccessCert(consumer, owner).getSerial();
+    }
+
+    private static boolean isExpired(CertificateSerial serial) {
+        return serial.getExpiration().getTime() < System.currentTimeMillis();
+    }
+
+    /**
+     * Fetches the stored content access certificate of the given consumer, replacing it with a
+     * newly generated certificate if it is missing or has expired. The returned certificate does
+     * not include the content payload.
+     */
+    private ContentAccessCertificate getOrCreateContentAccessCert(Consumer consumer, Owner owner)
+        throws GeneralSecurityException, IOException {
 
-        if (existing != null && existing.getSerial().getExpiration().getTime() < (new Date()).getTime()) {
+        ContentAccessCertificate existing = consumer.getContentAccessCert();
+
+        if (existing != null && isExpired(existing.getSerial())) {
             consumer.setContentAccessCert(null);
             contentAccessCertificateCurator.delete(existing);
             existing = null;
@@ -291,45 +375,19 @@ public class ContentAccessManager {
             existing.setConsumer(consumer);
 
             log.info("Setting PEM encoded cert.");
-            pem = new String(this.pki.getPemEncoded(x509Cert));
-            existing.setCert(pem);
+            existing.setCert(new String(this.pki.getPemEncoded(x509Cert)));
             consumer.setContentAccessCert(existing);
             contentAccessCertificateCurator.create(existing);
-            consumer = consumerCurator.merge(consumer);
-        }
-        else {
-            pem = existing.getCert();
-        }
-
-        Environment env = this.environmentCurator.getConsumerEnvironment(consumer);
-
-        // we need to see if this is newer than the previous result
-        OwnerEnvContentAccess oeca = ownerEnvContentAccessCurator
-            .getContentAccess(owner.getId(), env == null ? null : env.getId());
-
-        if (oeca == null) {
-            String contentJson = createPayloadAndSignature(owner, env);
-            oeca = new OwnerEnvContentAccess(owner, env, contentJson);
-            oeca = ownerEnvContentAccessCurator.saveOrUpdate(oeca);
+            consumerCurator.merge(consumer);
         }
 
-        pem += oeca.getContentJson();
-
-        result.setCert(pem);
-        result.setCreated(existing.getCreated());
-        result.setUpdated(existing.getUpdated());
-        result.setId(existing.getId());
-        result.setConsumer(existing.getConsumer());
-        result.setKey(existing.getKey());
-        result.setSerial(existing.getSerial());
-
-        return result;
+        return existing;
     }
 
-    private String createPayloadAndSignature(Owner owner, Environment environment)
+    private String createPayloadAndSignature(Owner owner, Environment environment, Product container)
         throws IOException {
 
-        byte[] payloadBytes = createContentAccessDataPayload(owner, environment);
+        byte[] payloadBytes = createContentAccessDataPayload(owner, environment, container);
 
         String payload = "-----BEGIN ENTITLEMENT DATA-----\n";
         payload += Util.toBase64(payloadBytes);
@@ -506,22 +564,15 @@ public class ContentAccessManager {
         return result;
     }
 
-    private byte[] createContentAccessDataPayload(Owner owner, Environment environment) throws IOException {
+    /**
+     * Builds the container product holding all of the content of the given owner. The container only
+     * depends on the owner, so it may be shared when building the payloads of several environments.
+     */
+    private Product buildContentAccessContainer(Owner owner) {
         // fake a product dto as a container for the org content
-        Set<Product> containerSet = new HashSet<>();
         CandlepinQuery<Product> ownerProduct = ownerProductCurator.getProductsByOwner(owner);
-        Set<String> entitledProductIds = new HashSet<>();
-        List<org.candlepin.model.dto.Product> productModels = new ArrayList<>();
-        Map<String, EnvironmentContent> promotedContent = getPromotedContent(environment);
-        String contentPrefix = this.getContentPrefix(owner, environment);
         Product container = new Product();
-        Entitlement emptyEnt = new Entitlement();
-        Pool emptyPool = new Pool();
-        Product skuProduct = new Product();
-        Consumer emptyConsumer = new Consumer();
-        emptyConsumer.setOwner(owner);
 
-        containerSet.add(container);
         container.setId("content_access");
         container.setName(" Content Access");
         Map<String, Boolean> contentEnabledMap = new HashMap<>();
@@ -540,6 +591,22 @@ public class ContentAccessManager {
             }
         }
 
+        return container;
+    }
+
+    private byte[] createContentAccessDataPayload(Owner owner, Environment environment, Product container)
+        throws IOException {
+
+        Set<String> entitledProductIds = new HashSet<>();
+        List<org.candlepin.model.dto.Product> productModels = new ArrayList<>();
+        Map<String, EnvironmentContent> promotedContent = getPromotedContent(environment);
+        String contentPrefix = this.getContentPrefix(owner, environment);
+        Entitlement emptyEnt = new Entitlement();
+        Pool emptyPool = new Pool();
+        Product skuProduct = new Product();
+        Consumer emptyConsumer = new Consumer();
+        emptyConsumer.setOwner(owner);
+
         emptyConsumer.setEnvironment(environment);
         emptyEnt.setPool(emptyPool);
         emptyEnt.setConsumer(emptyConsumer);
@@ -718,11 +785,76 @@ public class ContentAccessManager {
 
         if (!owner.isContentAccessEnabled()) {
             this.contentAccessCertCurator.deleteForOwner(owner);
+
+            // removed cached versions of content access cert data
+            this.ownerEnvContentAccessCurator.removeAllForOwner(owner.getId());
+        }
+        else if (this.ownerEnvContentAccessCurator.markStaleForOwner(owner.getId()) > 0) {
+            // Consumers keep receiving the current payloads until they are rebuilt in the background
+            this.queueContentAccessRefresh(owner);
         }
 
-        // removed cached versions of content access cert data
-        this.ownerEnvContentAccessCurator.removeAllForOwner(owner.getId());
         ownerCurator.flush();
     }
 
+    /**
+     * Queues a background rebuild of the stale content access payloads of the given owner. If the
+     * job cannot be queued, the payloads remain flagged and are rebuilt on the next scheduled run of
+     * the refresh job.
+     *
+     * @param owner
+     *  the owner for which to rebuild stale content access payloads
+     */
+    public void queueContentAccessRefresh(Owner owner) {
+        try {
+            this.jobManager.queueJob(ContentAccessPayloadRefreshJob.createJobConfig().setOwner(owner));
+        }
+        catch (Exception e) {
+            log.warn("Unable to queue content access payload refresh for owner: {}; stale payloads " +
+                "will be rebuilt on the next scheduled refresh", owner.getKey(), e);
+        }
+    }
+
+    /**
+     * Rebuilds the stale content access payloads of the given owner, replacing each one as soon as
+     * it is built. The owner's content is gathered once and shared by all of its environments.
+     * Payloads which are flagged again while being rebuilt remain stale, to be picked up by a later
+     * refresh.
+     *
+     * @param owner
+     *  the owner for which to rebuild stale content access payloads
+     *
+     * @throws IOException
+     *  if a payload could not be encoded
+     *
+     * @return
+     *  the number of payloads replaced
+     */
+    public int rebuildStaleContentAccess(Owner owner) throws IOException {
+        if (owner == null) {
+            throw new IllegalArgumentException("owner is null");
+        }
+
+        List<OwnerEnvContentAccess> stale = this.ownerEnvContentAccessCurator
+            .getStaleContentAccess(owner.getId());
+
+        if (stale.isEmpty()) {
+            return 0;
+        }
+
+        Product container = this.buildContentAccessContainer(owner);
+        int rebuilt = 0;
+
+        for (OwnerEnvContentAccess oeca : stale) {
+            String contentJson = this.createPayloadAndSignature(owner, oeca.getEnvironment(), container);
+
+            if (this.ownerEnvContentAccessCurator.swapContentJson(oeca.getId(), oeca.getGeneration(),
+                contentJson)) {
+                ++rebuilt;
+            }
+        }
+
+        return rebuilt;
+    }
+
 }
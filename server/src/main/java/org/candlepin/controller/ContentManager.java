@@ -70,12 +70,14 @@ public class ContentManager {
     private ProductCurator productCurator;
     private ProductManager productManager;
     private ModelTranslator modelTranslator;
+    private SharedEntityIndex sharedEntityIndex;
 
     @Inject
     public ContentManager(
         ContentCurator contentCurator, EntitlementCertificateGenerator entitlementCertGenerator,
         OwnerContentCurator ownerContentCurator, ProductCurator productCurator,
-        ProductManager productManager, ModelTranslator modelTranslator) {
+        ProductManager productManager, ModelTranslator modelTranslator,
+        SharedEntityIndex sharedEntityIndex) {
 
         this.contentCurator = contentCurator;
         this.entitlementCertGenerator = entitlementCertGenerator;
@@ -83,6 +85,7 @@ public class ContentManager {
         this.productCurator = productCurator;
         this.productManager = productManager;
         this.modelTranslator = modelTranslator;
+        this.sharedEntityIndex = sharedEntityIndex;
     }
 
     /**
@@ -126,8 +129,7 @@ public class ContentManager {
 
         // Check if we have an alternate version we can use instead.
         List<Content> alternateVersions = this.ownerContentCurator.getContentByVersions(
-            owner, Collections.<String, Integer>singletonMap(entity.getId(), entity.getEntityVersion()))
-            .list();
+            owner, Collections.singletonMap(entity.getId(), entity.getEntityVersion()));
 
         log.debug("Checking {} alternate content versions", alternateVersions.size());
         for (Content alt : alternateVersions) {
@@ -233,8 +235,7 @@ public class ContentManager {
         Content updated = this.applyContentChanges((Content) entity.clone(), update);
 
         List<Content> alternateVersions = this.ownerContentCurator.getContentByVersions(
-            owner, Collections.<String, Integer>singletonMap(updated.getId(), updated.getEntityVersion()))
-            .list();
+            owner, Collections.singletonMap(updated.getId(), updated.getEntityVersion()));
 
         log.debug("Checking {} alternate content versions", alternateVersions.size());
         for (Content alt : alternateVersions) {
@@ -367,13 +368,14 @@ public class ContentManager {
             return importResult;
         }
 
+        ImportTimer timer = new ImportTimer();
+
         Map<String, Content> skippedContent = importResult.getSkippedEntities();
         Map<String, Content> createdContent = importResult.getCreatedEntities();
         Map<String, Content> updatedContent = importResult.getUpdatedEntities();
 
-        Map<String, Integer> contentVersions = new HashMap<>();
+        Map<String, Long> contentVersions = new HashMap<>();
         Map<String, Content> sourceContent = new HashMap<>();
-        Map<String, List<Content>> existingVersions = new HashMap<>();
         List<OwnerContent> ownerContentBuffer = new LinkedList<>();
 
         // - Divide imported products into sets of updates and creates
@@ -400,6 +402,8 @@ public class ContentManager {
             contentVersions.put(content.getId(), content.getEntityVersion());
         }
 
+        timer.endPhase("fetch");
+
         log.debug("Validating new content...");
         for (ContentInfo update : contentData.values()) {
             if (!skippedContent.containsKey(update.getId()) && !updatedContent.containsKey(update.getId())) {
@@ -419,19 +423,17 @@ public class ContentManager {
             }
         }
 
-        log.debug("Checking for existing content versions...");
-        for (Content alt : this.ownerContentCurator.getContentByVersions(owner, contentVersions)) {
-            List<Content> alternates = existingVersions.get(alt.getId());
-            if (alternates == null) {
-                alternates = new LinkedList<>();
-                existingVersions.put(alt.getId(), alternates);
-            }
+        timer.endPhase("validate");
 
-            alternates.add(alt);
-        }
+        // Recently imported versions can be resolved through the shared entity index; only those
+        // it cannot resolve need to be looked up by version.
+        Map<String, Long> unresolvedVersions = new HashMap<>(contentVersions);
+        Map<String, Content> indexedContent = this.getIndexedContent(unresolvedVersions, createdContent,
+            updatedContent, sourceContent);
+        Map<String, List<Content>> existingVersions = this.getExistingContentVersions(owner, indexedContent,
+            unresolvedVersions);
 
-        contentVersions.clear();
-        contentVersions = null;
+        timer.endPhase("version lookup");
 
         // We're about to start modifying the maps, so we need to clone the created set before we
         // start adding the update forks to it.
@@ -471,6 +473,7 @@ public class ContentManager {
         updatedContentLoop: for (Map.Entry<String, Content> entry : updatedContent.entrySet()) {
             Content updated = entry.getValue();
             List<Content> alternates = existingVersions.get(updated.getId());
+
             if (alternates != null) {
                 for (Content alt : alternates) {
                     if (!updated.getUuid().equals(alt.getUuid()) && updated.equals(alt)) {
@@ -496,6 +499,12 @@ public class ContentManager {
         this.contentCurator.saveAll(stagedEntities.values(), true, false);
         this.ownerContentCurator.saveAll(ownerContentBuffer, true, true);
 
+        // Index the imported versions so further imports of the same content can use them directly
+        this.indexContent(createdContent.values(), contentVersions);
+        this.indexContent(updatedContent.values(), contentVersions);
+
+        timer.endPhase("persist");
+
         // Fetch collection of products affected by this import that aren't being imported themselves
         log.debug("Updating non-imported, affected products...");
         List<Product> affectedProducts = this.productCurator
@@ -541,6 +550,8 @@ public class ContentManager {
             this.productManager.importProducts(owner, affectedProductData, affectedProductsContent);
         }
 
+        timer.endPhase("affected products");
+
         // Perform bulk reference update
         Map<String, String> contentUuidMap = new HashMap<>();
         for (Content update : updatedContent.values()) {
@@ -551,10 +562,140 @@ public class ContentManager {
 
         this.ownerContentCurator.updateOwnerContentReferences(owner, contentUuidMap);
 
+        timer.endPhase("references");
+
+        log.info("Imported {} content for owner {} ({} created, {} updated, {} unchanged, {} shared " +
+            "versions from index) in {}", contentData.size(), owner.getKey(), createdContent.size(),
+            updatedContent.size(), skippedContent.size(), indexedContent.size(), timer);
+
         // Return
         return importResult;
     }
 
+    /**
+     * Fetches the existing versions of the imported content, starting with those resolved through the
+     * shared entity index, followed by other owners' content matching the versions the index could not
+     * resolve.
+     *
+     * @param owner
+     *  The owner for which content is being imported
+     *
+     * @param indexedContent
+     *  A mapping of Red Hat content IDs to the existing content resolved through the index
+     *
+     * @param unresolvedVersions
+     *  A mapping of Red Hat content IDs to the content versions the index could not resolve
+     *
+     * @return
+     *  A mapping of Red Hat content IDs to the candidate versions of the imported content
+     */
+    private Map<String, List<Content>> getExistingContentVersions(Owner owner,
+        Map<String, Content> indexedContent, Map<String, Long> unresolvedVersions) {
+
+        log.debug("Checking for existing content versions...");
+        Map<String, List<Content>> existingVersions = new HashMap<>();
+
+        for (Content alt : indexedContent.values()) {
+            existingVersions.put(alt.getId(), new LinkedList<>(Collections.singletonList(alt)));
+        }
+
+        if (!unresolvedVersions.isEmpty()) {
+            for (Content alt : this.ownerContentCurator.getContentByVersions(owner, unresolvedVersions)) {
+                List<Content> alternates = existingVersions.get(alt.getId());
+                if (alternates == null) {
+                    alternates = new LinkedList<>();
+                    existingVersions.put(alt.getId(), alternates);
+                }
+
+                alternates.add(alt);
+            }
+        }
+
+        return existingVersions;
+    }
+
+    /**
+     * Resolves the given content versions against the shared entity index, removing resolved
+     * versions from the map. Indexed content which no longer exists, or which does not equal the
+     * imported content, is evicted from the index and left for a lookup by version. The source
+     * content of an update is never returned, as an update must resolve to another owner's version
+     * of the content, if any.
+     *
+     * @param contentVersions
+     *  A mapping of Red Hat content IDs to the content versions to resolve
+     *
+     * @param createdContent
+     *  A mapping of Red Hat content IDs to the content being created
+     *
+     * @param updatedContent
+     *  A mapping of Red Hat content IDs to the content being updated
+     *
+     * @param sourceContent
+     *  A mapping of Red Hat content IDs to the existing content being updated
+     *
+     * @return
+     *  A mapping of Red Hat content IDs to the existing content matching the given versions
+     */
+    private Map<String, Content> getIndexedContent(Map<String, Long> contentVersions,
+        Map<String, Content> createdContent, Map<String, Content> updatedContent,
+        Map<String, Content> sourceContent) {
+
+        Map<String, Content> resolved = new HashMap<>();
+
+        if (!this.sharedEntityIndex.isEnabled()) {
+            return resolved;
+        }
+
+        Map<String, Content> importedContent = new HashMap<>(createdContent);
+        importedContent.putAll(updatedContent);
+
+        Map<String, String> indexedUuids = new HashMap<>();
+        for (Map.Entry<String, Long> entry : contentVersions.entrySet()) {
+            String uuid = this.sharedEntityIndex.getUuid(Content.class, entry.getKey(), entry.getValue());
+            Content source = sourceContent.get(entry.getKey());
+
+            if (uuid != null && (source == null || !uuid.equals(source.getUuid()))) {
+                indexedUuids.put(entry.getKey(), uuid);
+            }
+        }
+
+        if (!indexedUuids.isEmpty()) {
+            for (Content content : this.contentCurator.listAllByIds(indexedUuids.values()).list()) {
+                if (content.getUuid().equals(indexedUuids.get(content.getId())) &&
+                    content.equals(importedContent.get(content.getId()))) {
+                    resolved.put(content.getId(), content);
+                    contentVersions.remove(content.getId());
+                }
+            }
+
+            indexedUuids.keySet().removeAll(resolved.keySet());
+            for (String id : indexedUuids.keySet()) {
+                this.sharedEntityIndex.evict(Content.class, id, contentVersions.get(id));
+            }
+        }
+
+        return resolved;
+    }
+
+    /**
+     * Adds the given content to the shared entity index, using the versions it was imported with.
+     *
+     * @param contents
+     *  The imported content to index
+     *
+     * @param contentVersions
+     *  A mapping of Red Hat content IDs to the versions of the imported content
+     */
+    private void indexContent(Collection<Content> contents, Map<String, Long> contentVersions) {
+        for (Content content : contents) {
+            Long version = contentVersions.get(content.getId());
+
+            if (version != null) {
+                this.sharedEntityIndex.put(Content.class, content.getId(), version, content.getUuid());
+            }
+        }
+    }
+
     /**
      * Removes the specified content from the given owner.
      *
@@ -61,10 +61,12 @@ import java.util.Calendar;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 /**
  * entitler
@@ -519,8 +521,84 @@ public class Entitler {
         return Iterables.partition(entsToDelete, config.getInt(ConfigProperties.ENTITLER_BULK_SIZE));
     }
 
+    /**
+     * Revokes all expired unmapped guest entitlements across all owners.
+     * <p></p>
+     * The expired entitlements are selected by the database and revoked owner by owner, in blocks
+     * no larger than the entitler bulk size, with each block revoked in its own transaction. The
+     * status recalculation of the affected consumers is not performed by the blocks; instead, each
+     * block flags its consumers in the same transaction as the revocation, so each consumer is
+     * recalculated once, outside of these transactions, no matter how many blocks it appeared in.
+     * Once an owner's blocks are revoked, its flagged consumers are recalculated immediately, unless
+     * their number exceeds the configured deferral threshold, in which case they are left to the
+     * consumer status recalculation job.
+     * <p></p>
+     * Blocks are selected in entitlement ID order, using the last ID of the previous block as the
+     * checkpoint for the next. As each committed block has both revoked its entitlements and
+     * flagged their consumers, a failed run can be restarted and will resume with the entitlements
+     * that remain, without losing any pending status recalculation.
+     *
+     * @return
+     *  the number of unmapped guest entitlements revoked
+     */
     public int revokeUnmappedGuestEntitlements() {
-        return revokeUnmappedGuestEntitlements(null);
+        int blockSize = config.getInt(ConfigProperties.ENTITLER_BULK_SIZE);
+        Date now = new Date();
+        int total = 0;
+
+        for (String ownerId : entitlementCurator.getOwnerIdsWithExpiredUnmappedGuestEntitlements(now)) {
+            total += this.revokeUnmappedGuestEntitlements(ownerId, now, blockSize);
+        }
+
+        return total;
+    }
+
+    private int revokeUnmappedGuestEntitlements(String ownerId, Date date, int blockSize) {
+        Set<String> consumerIds = new HashSet<>();
+        String lastEntitlementId = null;
+        int total = 0;
+        List<String> block;
+
+        do {
+            block = entitlementCurator.getExpiredUnmappedGuestEntitlementIds(ownerId, date,
+                lastEntitlementId, blockSize);
+
+            if (!block.isEmpty()) {
+                total += this.revokeEntitlementBlock(block, consumerIds);
+                lastEntitlementId = block.get(block.size() - 1);
+            }
+        }
+        while (block.size() >= blockSize);
+
+        log.info("Revoked {} expired unmapped guest entitlements for owner: {}", total, ownerId);
+
+        if (!consumerIds.isEmpty() && !poolManager.deferStatusRecalculation(consumerIds.size())) {
+            poolManager.recalculateFlaggedConsumerStatuses(ownerId);
+        }
+
+        return total;
+    }
+
+    @Transactional
+    protected int revokeEntitlementBlock(List<String> entitlementIds, Set<String> affectedConsumerIds) {
+        List<Entitlement> entitlements = entitlementCurator.listAllByIds(entitlementIds).list();
+        Set<String> consumerIds = new HashSet<>();
+
+        for (Entitlement entitlement : entitlements) {
+            consumerIds.add(entitlement.getConsumer().getId());
+        }
+
+        // Status recalculation is skipped by the revocation below, so we have to take care of
+        // marking any dependent entitlements ourselves
+        entitlementCurator.markDependentEntitlementsDirty(entitlementIds);
+        poolManager.revokeEntitlements(entitlements, null, false);
+
+        // Flag the consumers in the same transaction, so the revocation and the pending status
+        // recalculation are committed together
+        poolManager.recalculateConsumerStatuses(consumerIds, true);
+        affectedConsumerIds.addAll(consumerIds);
+
+        return entitlements.size();
     }
 
     public void sendEvents(List<Entitlement> entitlements) {
@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+
+
+/**
+ * The ImportTimer records the time spent in each phase of an import operation, so the cost of an
+ * import can be reported phase by phase. Phases are recorded in the order they are first ended;
+ * ending the same phase more than once accumulates its time.
+ */
+class ImportTimer {
+
+    private final long start;
+    private final Map<String, Long> phases;
+    private long mark;
+
+    ImportTimer() {
+        this.start = System.nanoTime();
+        this.mark = this.start;
+        this.phases = new LinkedHashMap<>();
+    }
+
+    /**
+     * Ends the named phase, attributing to it the time elapsed since the previous phase ended or,
+     * for the first phase, since this timer was created.
+     *
+     * @param phase
+     *  the name of the phase to end
+     */
+    void endPhase(String phase) {
+        long now = System.nanoTime();
+
+        this.phases.merge(phase, now - this.mark, Long::sum);
+        this.mark = now;
+    }
+
+    /**
+     * Fetches the time, in milliseconds, spent in each of the phases ended so far, in the order
+     * they were first ended.
+     *
+     * @return
+     *  a mapping of phase names to the time spent in each phase
+     */
+    Map<String, Long> getPhaseTimes() {
+        Map<String, Long> times = new LinkedHashMap<>();
+        this.phases.forEach((phase, nanos) -> times.put(phase, TimeUnit.NANOSECONDS.toMillis(nanos)));
+
+        return times;
+    }
+
+    /**
+     * Fetches the time, in milliseconds, elapsed since this timer was created.
+     *
+     * @return
+     *  the total time elapsed
+     */
+    long getTotalTime() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.start);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder()
+            .append(this.getTotalTime())
+            .append("ms");
+
+        String separator = " (";
+        for (Map.Entry<String, Long> entry : this.getPhaseTimes().entrySet()) {
+            builder.append(separator)
+                .append(entry.getKey())
+                .append(": ")
+                .append(entry.getValue())
+                .append("ms");
+
+            separator = ", ";
+        }
+
+        return this.phases.isEmpty() ? builder.toString() : builder.append(')').toString();
+    }
+}
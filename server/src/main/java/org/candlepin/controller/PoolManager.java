@@ -145,8 +145,60 @@ public interface PoolManager {
     int revokeAllEntitlements(Consumer consumer, boolean regenCertsAndStatuses);
 
     Set<Pool> revokeEntitlements(List<Entitlement> ents);
+    Set<Pool> revokeEntitlements(List<Entitlement> ents, Set<String> alreadyDeletedPools,
+        boolean regenCertsAndStatuses);
     void revokeEntitlement(Entitlement entitlement);
 
+    /**
+     * Recalculates the compliance and system purpose status of the consumers represented by the
+     * given consumer IDs. The status of each consumer is calculated once, regardless of how many
+     * times its ID appears in the collection.
+     *
+     * @param consumerIds
+     *  a collection of IDs of the consumers for which to recalculate status
+     */
+    void recalculateConsumerStatuses(Collection<String> consumerIds);
+
+    /**
+     * Recalculates the compliance and system purpose status of the consumers represented by the
+     * given consumer IDs, either immediately or deferred. Deferred recalculation flags the consumers
+     * and returns immediately; the flagged consumers are recalculated later by the consumer status
+     * recalculation job, once per consumer regardless of how many times it was flagged.
+     *
+     * @param consumerIds
+     *  a collection of IDs of the consumers for which to recalculate status
+     *
+     * @param deferred
+     *  whether or not the recalculation should be deferred to the consumer status recalculation job
+     */
+    void recalculateConsumerStatuses(Collection<String> consumerIds, boolean deferred);
+
+    /**
+     * Recalculates the compliance and system purpose status of the consumers of the given owner
+     * which have been flagged for deferred recalculation, clearing the flag as each consumer is
+     * processed.
+     *
+     * @param ownerId
+     *  the ID of the owner for which to process flagged consumers
+     *
+     * @return
+     *  the number of consumers for which status was recalculated
+     */
+    int recalculateFlaggedConsumerStatuses(String ownerId);
+
+    /**
+     * Determines whether or not the status recalculation for the given number of consumers should be
+     * deferred to the consumer status recalculation job, as configured by the
+     * {@link org.candlepin.config.ConfigProperties#CONSUMER_STATUS_DEFER_THRESHOLD} property.
+     *
+     * @param consumerCount
+     *  the number of consumers requiring status recalculation
+     *
+     * @return
+     *  true if the status recalculation should be deferred; false otherwise
+     */
+    boolean deferStatusRecalculation(int consumerCount);
+
     Pool setPoolQuantity(Pool pool, long set);
 
     void setPoolQuantity(Map<Pool, Long> poolQuantities);
@@ -161,8 +213,11 @@ public interface PoolManager {
     /**
      * Search for any expired pools on the server, cleanup their subscription,
      * entitlements, and the pool itself.
+     *
+     * @return
+     *  the number of expired pools deleted
      */
-    void cleanupExpiredPools();
+    int cleanupExpiredPools();
 
 
     /**
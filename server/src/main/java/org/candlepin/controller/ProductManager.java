@@ -69,16 +69,18 @@ public class ProductManager {
     private OwnerContentCurator ownerContentCurator;
     private OwnerProductCurator ownerProductCurator;
     private ProductCurator productCurator;
+    private SharedEntityIndex sharedEntityIndex;
 
     @Inject
     public ProductManager(EntitlementCertificateGenerator entitlementCertGenerator,
         OwnerContentCurator ownerContentCurator, OwnerProductCurator ownerProductCurator,
-        ProductCurator productCurator) {
+        ProductCurator productCurator, SharedEntityIndex sharedEntityIndex) {
 
         this.entitlementCertGenerator = entitlementCertGenerator;
         this.ownerContentCurator = ownerContentCurator;
         this.ownerProductCurator = ownerProductCurator;
         this.productCurator = productCurator;
+        this.sharedEntityIndex = sharedEntityIndex;
     }
 
     /**
@@ -123,8 +125,7 @@ public class ProductManager {
 
         // Check if we have an alternate version we can use instead.
         List<Product> alternateVersions = this.ownerProductCurator.getProductsByVersions(
-            owner, Collections.singletonMap(entity.getId(), entity.getEntityVersion()))
-            .list();
+            owner, Collections.singletonMap(entity.getId(), entity.getEntityVersion()));
 
         for (Product alt : alternateVersions) {
             if (alt.equals(entity)) {
@@ -204,8 +205,7 @@ public class ProductManager {
         // their own version.
         // This is probably going to be a very expensive operation, though.
         List<Product> alternateVersions = this.ownerProductCurator.getProductsByVersions(
-            owner, Collections.singletonMap(updated.getId(), updated.getEntityVersion()))
-            .list();
+            owner, Collections.singletonMap(updated.getId(), updated.getEntityVersion()));
 
         log.debug("Checking {} alternate product versions", alternateVersions.size());
         for (Product alt : alternateVersions) {
@@ -304,13 +304,14 @@ public class ProductManager {
             return importResult;
         }
 
+        ImportTimer timer = new ImportTimer();
+
         Map<String, Product> skippedProducts = importResult.getSkippedEntities();
         Map<String, Product> createdProducts = importResult.getCreatedEntities();
         Map<String, Product> updatedProducts = importResult.getUpdatedEntities();
 
-        Map<String, Integer> productVersions = new HashMap<>();
+        Map<String, Long> productVersions = new HashMap<>();
         Map<String, Product> sourceProducts = new HashMap<>();
-        Map<String, List<Product>> existingVersions = new HashMap<>();
         List<OwnerProduct> ownerProductBuffer = new LinkedList<>();
 
         // - Divide imported products into sets of updates and creates
@@ -334,6 +335,8 @@ public class ProductManager {
             productVersions.put(product.getId(), product.getEntityVersion());
         }
 
+        timer.endPhase("fetch");
+
         log.debug("Validating new products...");
         for (ProductInfo update : productData.values()) {
             if (!skippedProducts.containsKey(update.getId()) &&
@@ -355,19 +358,17 @@ public class ProductManager {
             }
         }
 
-        log.debug("Checking for existing product versions...");
-        for (Product alt : this.ownerProductCurator.getProductsByVersions(owner, productVersions)) {
-            List<Product> alternates = existingVersions.get(alt.getId());
-            if (alternates == null) {
-                alternates = new LinkedList<>();
-                existingVersions.put(alt.getId(), alternates);
-            }
+        timer.endPhase("validate");
 
-            alternates.add(alt);
-        }
+        // Recently imported versions can be resolved through the shared entity index; only those
+        // it cannot resolve need to be looked up by version.
+        Map<String, Long> unresolvedVersions = new HashMap<>(productVersions);
+        Map<String, Product> indexedProducts = this.getIndexedProducts(unresolvedVersions, createdProducts,
+            updatedProducts, sourceProducts);
+        Map<String, List<Product>> existingVersions = this.getExistingProductVersions(owner, indexedProducts,
+            unresolvedVersions);
 
-        productVersions.clear();
-        productVersions = null;
+        timer.endPhase("version lookup");
 
         // We're about to start modifying the maps, so we need to clone the created set before we
         // start adding the update forks to it.
@@ -433,6 +434,13 @@ public class ProductManager {
         this.productCurator.saveAll(stagedEntities.values(), true, false);
         this.ownerProductCurator.saveAll(ownerProductBuffer, true, true);
 
+        // Index the imported versions so further imports of the same products can use them
+        // directly
+        this.indexProducts(createdProducts.values(), productVersions);
+        this.indexProducts(updatedProducts.values(), productVersions);
+
+        timer.endPhase("persist");
+
         // Perform bulk reference update
         Map<String, String> productUuidMap = new HashMap<>();
         for (Product update : updatedProducts.values()) {
@@ -443,10 +451,141 @@ public class ProductManager {
 
         this.ownerProductCurator.updateOwnerProductReferences(owner, productUuidMap);
 
+        timer.endPhase("references");
+
+        log.info("Imported {} products for owner {} ({} created, {} updated, {} unchanged, {} shared " +
+            "versions from index) in {}", productData.size(), owner.getKey(), createdProducts.size(),
+            updatedProducts.size(), skippedProducts.size(), indexedProducts.size(), timer);
+
         // Return
         return importResult;
     }
 
+    /**
+     * Fetches the existing versions of the imported products, starting with those resolved through the
+     * shared entity index, followed by other owners' product matching the versions the index could not
+     * resolve.
+     *
+     * @param owner
+     *  The owner for which products are being imported
+     *
+     * @param indexedProducts
+     *  A mapping of Red Hat product IDs to the existing products resolved through the index
+     *
+     * @param unresolvedVersions
+     *  A mapping of Red Hat product IDs to the product versions the index could not resolve
+     *
+     * @return
+     *  A mapping of Red Hat product IDs to the candidate versions of the imported products
+     */
+    private Map<String, List<Product>> getExistingProductVersions(Owner owner,
+        Map<String, Product> indexedProducts, Map<String, Long> unresolvedVersions) {
+
+        log.debug("Checking for existing product versions...");
+        Map<String, List<Product>> existingVersions = new HashMap<>();
+
+        for (Product alt : indexedProducts.values()) {
+            existingVersions.put(alt.getId(), new LinkedList<>(Collections.singletonList(alt)));
+        }
+
+        if (!unresolvedVersions.isEmpty()) {
+            for (Product alt : this.ownerProductCurator.getProductsByVersions(owner, unresolvedVersions)) {
+                List<Product> alternates = existingVersions.get(alt.getId());
+                if (alternates == null) {
+                    alternates = new LinkedList<>();
+                    existingVersions.put(alt.getId(), alternates);
+                }
+
+                alternates.add(alt);
+            }
+        }
+
+        return existingVersions;
+    }
+
+    /**
+     * Resolves the given product versions against the shared entity index, removing resolved
+     * versions from the map. Indexed products which no longer exist, or which do not equal the
+     * imported product, are evicted from the index and left for a lookup by version. The source
+     * product of an update is never returned, as an update must resolve to another owner's version
+     * of the product, if any.
+     *
+     * @param productVersions
+     *  A mapping of Red Hat product IDs to the product versions to resolve
+     *
+     * @param createdProducts
+     *  A mapping of Red Hat product IDs to the products being created
+     *
+     * @param updatedProducts
+     *  A mapping of Red Hat product IDs to the products being updated
+     *
+     * @param sourceProducts
+     *  A mapping of Red Hat product IDs to the existing products being updated
+     *
+     * @return
+     *  A mapping of Red Hat product IDs to the existing products matching the given versions
+     */
+    private Map<String, Product> getIndexedProducts(Map<String, Long> productVersions,
+        Map<String, Product> createdProducts, Map<String, Product> updatedProducts,
+        Map<String, Product> sourceProducts) {
+
+        Map<String, Product> resolved = new HashMap<>();
+
+        if (!this.sharedEntityIndex.isEnabled()) {
+            return resolved;
+        }
+
+        Map<String, Product> importedProducts = new HashMap<>(createdProducts);
+        importedProducts.putAll(updatedProducts);
+
+        Map<String, String> indexedUuids = new HashMap<>();
+        for (Map.Entry<String, Long> entry : productVersions.entrySet()) {
+            String uuid = this.sharedEntityIndex.getUuid(Product.class, entry.getKey(), entry.getValue());
+            Product source = sourceProducts.get(entry.getKey());
+
+            if (uuid != null && (source == null || !uuid.equals(source.getUuid()))) {
+                indexedUuids.put(entry.getKey(), uuid);
+            }
+        }
+
+        if (!indexedUuids.isEmpty()) {
+            for (Product product : this.productCurator.listAllByUuids(indexedUuids.values()).list()) {
+                if (product.getUuid().equals(indexedUuids.get(product.getId())) &&
+                    product.equals(importedProducts.get(product.getId()))) {
+                    resolved.put(product.getId(), product);
+                    productVersions.remove(product.getId());
+                }
+            }
+
+            indexedUuids.keySet().removeAll(resolved.keySet());
+            for (String id : indexedUuids.keySet()) {
+                this.sharedEntityIndex.evict(Product.class, id, productVersions.get(id));
+            }
+        }
+
+        return resolved;
+    }
+
+    /**
+     * Adds the given products to the shared entity index, using the versions they were imported
+     * with.
+     *
+     * @param products
+     *  The imported products to index
+     *
+     * @param productVersions
+     *  A mapping of Red Hat product IDs to the versions of the imported products
+     */
+    private void indexProducts(Collection<Product> products, Map<String, Long> productVersions) {
+        for (Product product : products) {
+            Long version = productVersions.get(product.getId());
+
+            if (version != null) {
+                this.sharedEntityIndex.put(Product.class, product.getId(), version, product.getUuid());
+            }
+        }
+    }
+
     /**
      * Removes the specified product from the given owner. If the product is in use by multiple
      * owners, the product will not actually be deleted, but, instead, will simply by removed from
@@ -0,0 +1,202 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.controller;
+
+import org.candlepin.common.config.Configuration;
+import org.candlepin.config.ConfigProperties;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+
+
+/**
+ * The SharedEntityIndex maps the Red Hat ID and entity version of recently imported products and
+ * content to the UUID of the shared entity holding that state. Since an entity version is derived
+ * from the full state of an entity, including, for products, the versions of its content, an
+ * indexed product stands in for the entire graph of content it references.
+ * <p></p>
+ * When many organizations import the same upstream data, the import managers consult this index
+ * before searching the database for existing versions, so the second and subsequent imports of a
+ * product set mostly reduce to writing owner references to entities which already exist.
+ * <p></p>
+ * The index is only a hint: entries are never validated against the database when they are added,
+ * and may refer to entities which were rolled back or have since been removed as orphans. Callers
+ * must verify that an indexed entity still exists, and evict the entry if it does not.
+ */
+@Singleton
+public class SharedEntityIndex {
+
+    /**
+     * The key of an indexed entity: its type, Red Hat ID and entity version
+     */
+    private static class Key {
+        private final Class<?> type;
+        private final String id;
+        private final long version;
+
+        Key(Class<?> type, String id, long version) {
+            this.type = type;
+            this.id = id;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+
+            Key that = (Key) obj;
+            return this.type == that.type && this.version == that.version && this.id.equals(that.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.type, this.id, this.version);
+        }
+    }
+
+    private final int maxEntries;
+    private final Map<Key, String> entries;
+
+    @Inject
+    public SharedEntityIndex(Configuration config) {
+        this(config.getInt(ConfigProperties.SHARED_ENTITY_INDEX_MAX, 0));
+    }
+
+    /**
+     * Creates a new index which holds up to the given number of entries. If the maximum number of
+     * entries is not positive, the index is disabled.
+     *
+     * @param maxEntries
+     *  the maximum number of entries to hold
+     */
+    public SharedEntityIndex(int maxEntries) {
+        this.maxEntries = maxEntries;
+
+        this.entries = new LinkedHashMap<Key, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, String> eldest) {
+                return this.size() > SharedEntityIndex.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Checks whether or not this index is enabled. A disabled index never returns a UUID.
+     *
+     * @return
+     *  true if this index is enabled; false otherwise
+     */
+    public boolean isEnabled() {
+        return this.maxEntries > 0;
+    }
+
+    /**
+     * Fetches the UUID of the shared entity of the given type with the specified ID and version.
+     *
+     * @param type
+     *  the type of the entity to look up
+     *
+     * @param id
+     *  the Red Hat ID of the entity
+     *
+     * @param version
+     *  the entity version of the entity
+     *
+     * @return
+     *  the UUID of the indexed entity, or null if no matching entity has been indexed
+     */
+    public String getUuid(Class<?> type, String id, long version) {
+        if (!this.isEnabled() || type == null || id == null) {
+            return null;
+        }
+
+        synchronized (this) {
+            return this.entries.get(new Key(type, id, version));
+        }
+    }
+
+    /**
+     * Indexes the shared entity of the given type with the specified ID and version. If an entity
+     * with the same ID and version has already been indexed, it is replaced.
+     *
+     * @param type
+     *  the type of the entity to index
+     *
+     * @param id
+     *  the Red Hat ID of the entity
+     *
+     * @param version
+     *  the entity version of the entity
+     *
+     * @param uuid
+     *  the UUID of the entity
+     */
+    public void put(Class<?> type, String id, long version, String uuid) {
+        if (!this.isEnabled() || type == null || id == null || uuid == null) {
+            return;
+        }
+
+        synchronized (this) {
+            this.entries.put(new Key(type, id, version), uuid);
+        }
+    }
+
+    /**
+     * Removes the entity of the given type with the specified ID and version from this index, if
+     * present.
+     *
+     * @param type
+     *  the type of the entity to remove
+     *
+     * @param id
+     *  the Red Hat ID of the entity
+     *
+     * @param version
+     *  the entity version of the entity
+     */
+    public void evict(Class<?> type, String id, long version) {
+        if (type == null || id == null) {
+            return;
+        }
+
+        synchronized (this) {
+            this.entries.remove(new Key(type, id, version));
+        }
+    }
+
+    /**
+     * Removes all indexed entities.
+     */
+    public synchronized void clear() {
+        this.entries.clear();
+    }
+
+    /**
+     * Fetches the number of entities currently indexed.
+     *
+     * @return
+     *  the number of indexed entities
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+}
@@ -17,6 +17,10 @@ package org.candlepin.dto;
 import org.candlepin.model.CandlepinQuery;
 import org.candlepin.util.ElementTransformer;
 
+import com.google.inject.Inject;
+import com.google.inject.OutOfScopeException;
+import com.google.inject.Provider;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,6 +28,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 
@@ -32,6 +37,11 @@ import java.util.function.Function;
  * The SimpleModelTranslator class provides the basic functionality required for building DTOs from
  * model entities. The factory works by delegating the translation work to one or more
  * ObjectTranslator instances, which are registered to a given ModelTranslator instance.
+ * <p></p>
+ * Translators resolved for a given class pair are cached until the registered translators
+ * change. Additionally, translations between specific classes may be memoized for the duration
+ * of a request through the {@link TranslationCache}; see
+ * {@link #registerMemoization(Class, Class, Function)}.
  */
 public class SimpleModelTranslator implements ModelTranslator {
     private static Logger log = LoggerFactory.getLogger(ModelTranslator.class);
@@ -39,12 +49,94 @@ public class SimpleModelTranslator implements ModelTranslator {
     // output => input => translator
     protected Map<Class, Map<Class, ObjectTranslator>> translators;
 
+    // output => input => source version function
+    protected Map<Class, Map<Class, Function>> versionFunctions;
+
+    // output => concrete input => resolved translation
+    private Map<Class, Map<Class, Resolution>> resolutions;
+
+    private Provider<TranslationCache> translationCacheProvider;
+
+    /**
+     * The translator and optional version function resolved for a given pair of concrete input
+     * and output classes
+     */
+    private static class Resolution {
+        private final ObjectTranslator translator;
+        private final Function versionFunction;
+
+        Resolution(ObjectTranslator translator, Function versionFunction) {
+            this.translator = translator;
+            this.versionFunction = versionFunction;
+        }
+    }
+
 
     /**
      * Initializes a new ModelTranslator instance.
      */
     public SimpleModelTranslator() {
         this.translators = new HashMap<>();
+        this.versionFunctions = new HashMap<>();
+        this.resolutions = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Sets the provider of the request scoped cache used to memoize translations registered via
+     * {@link #registerMemoization(Class, Class, Function)}. If no provider is set, translations
+     * are never memoized.
+     *
+     * @param translationCacheProvider
+     *  the provider of the translation cache, or null to disable memoization
+     */
+    @Inject
+    public void setTranslationCacheProvider(Provider<TranslationCache> translationCacheProvider) {
+        this.translationCacheProvider = translationCacheProvider;
+    }
+
+    /**
+     * Enables memoization of translations from the given input class to the given output class.
+     * Within a single request, translating the same, unchanged input object to the output class
+     * again will return the previously translated output object. The version function is used to
+     * determine whether or not the input object has changed since it was last translated, and
+     * should be considerably cheaper than the translation itself. Versions are compared using
+     * equals, so the version should capture the translated values themselves, rather than a hash
+     * of them which may collide for different values.
+     * <p></p>
+     * Only translations whose output objects are never modified by their recipients should be
+     * memoized.
+     *
+     * @param inputClass
+     *  the input class of the translation to memoize
+     *
+     * @param outputClass
+     *  the output class of the translation to memoize
+     *
+     * @param versionFunction
+     *  a function calculating the current version of an input object
+     *
+     * @throws IllegalArgumentException
+     *  if any of the provided arguments are null
+     */
+    public <I, O> void registerMemoization(Class<I> inputClass, Class<O> outputClass,
+        Function<? super I, ?> versionFunction) {
+
+        if (inputClass == null) {
+            throw new IllegalArgumentException("inputClass is null");
+        }
+
+        if (outputClass == null) {
+            throw new IllegalArgumentException("outputClass is null");
+        }
+
+        if (versionFunction == null) {
+            throw new IllegalArgumentException("versionFunction is null");
+        }
+
+        this.versionFunctions.computeIfAbsent(outputClass, key -> new HashMap<>())
+            .put(inputClass, versionFunction);
+
+        this.resolutions.clear();
     }
 
     /**
@@ -74,6 +166,7 @@ public class SimpleModelTranslator implements ModelTranslator {
 
         ObjectTranslator<I, O> existing = (ObjectTranslator<I, O>) inputMappings.get(inputClass);
         inputMappings.put(inputClass, translator);
+        this.resolutions.clear();
 
         return existing;
     }
@@ -92,6 +185,8 @@ public class SimpleModelTranslator implements ModelTranslator {
         }
 
         Map<Class, ObjectTranslator> inputMappings = this.translators.get(outputClass);
+        this.resolutions.clear();
+
         return inputMappings != null ? (ObjectTranslator<I, O>) inputMappings.remove(inputClass) : null;
     }
 
@@ -118,6 +213,7 @@ public class SimpleModelTranslator implements ModelTranslator {
             }
         }
 
+        this.resolutions.clear();
         return mappings;
     }
 
@@ -240,7 +336,36 @@ public class SimpleModelTranslator implements ModelTranslator {
             throw new IllegalArgumentException("outputClass is null");
         }
 
-        ObjectTranslator<I, O> translator = null;
+        return (ObjectTranslator<I, O>) this.resolve(inputClass, outputClass).translator;
+    }
+
+    /**
+     * Resolves the translator and version function to use for the given input and output
+     * classes, using the algorithm described by {@link #findTranslatorByClass(Class, Class)}.
+     * Resolutions are cached until the set of registered translators changes.
+     *
+     * @param inputClass
+     *  The input class for which to resolve a translation
+     *
+     * @param outputClass
+     *  The output class for which to resolve a translation
+     *
+     * @throws TranslationException
+     *  if a translator cannot be found for the given class map
+     *
+     * @return
+     *  the resolved translation for the given classes
+     */
+    private Resolution resolve(Class inputClass, Class outputClass) {
+        Map<Class, Resolution> inputResolutions = this.resolutions.get(outputClass);
+        Resolution resolution = inputResolutions != null ? inputResolutions.get(inputClass) : null;
+
+        if (resolution != null) {
+            return resolution;
+        }
+
+        ObjectTranslator translator = null;
+        Function versionFunction = null;
 
         // TODO: This is broken for finding nearest output. Output cannot be less specific than
         // specified; it can only get more specific.
@@ -250,7 +375,10 @@ public class SimpleModelTranslator implements ModelTranslator {
 
             Class inputKey = this.findNearestMappedClass(inputClass, inputMappings.keySet());
             if (inputKey != null) {
-                translator = (ObjectTranslator<I, O>) inputMappings.get(inputKey);
+                translator = inputMappings.get(inputKey);
+
+                Map<Class, Function> inputVersionFunctions = this.versionFunctions.get(outputKey);
+                versionFunction = inputVersionFunctions != null ? inputVersionFunctions.get(inputKey) : null;
             }
         }
 
@@ -261,7 +389,70 @@ public class SimpleModelTranslator implements ModelTranslator {
             throw new TranslationException(msg);
         }
 
-        return translator;
+        resolution = new Resolution(translator, versionFunction);
+        this.resolutions.computeIfAbsent(outputClass, key -> new ConcurrentHashMap<>())
+            .put(inputClass, resolution);
+
+        return resolution;
+    }
+
+    /**
+     * Translates the given input using the specified resolution, memoizing the output in the
+     * current request's translation cache if the translation has a version function.
+     *
+     * @param resolution
+     *  the resolved translation to perform
+     *
+     * @param input
+     *  the object to translate
+     *
+     * @param outputClass
+     *  the class of the output object
+     *
+     * @return
+     *  the translated object
+     */
+    private <I, O> O translate(Resolution resolution, I input, Class<O> outputClass) {
+        if (input == null) {
+            return null;
+        }
+
+        ObjectTranslator<I, O> translator = (ObjectTranslator<I, O>) resolution.translator;
+
+        TranslationCache cache = resolution.versionFunction != null ? this.getTranslationCache() : null;
+        if (cache == null) {
+            return translator.translate(this, input);
+        }
+
+        Object version = resolution.versionFunction.apply(input);
+        O output = cache.get(input, outputClass, version);
+
+        if (output == null) {
+            output = translator.translate(this, input);
+            cache.put(input, outputClass, version, output);
+        }
+
+        return output;
+    }
+
+    /**
+     * Fetches the translation cache of the current request, if available.
+     *
+     * @return
+     *  the translation cache for the current request, or null if translations cannot be memoized
+     */
+    private TranslationCache getTranslationCache() {
+        if (this.translationCacheProvider == null) {
+            return null;
+        }
+
+        try {
+            return this.translationCacheProvider.get();
+        }
+        catch (OutOfScopeException e) {
+            log.debug("Translation cache is not available outside of a request scope");
+            return null;
+        }
     }
 
     /**
@@ -308,10 +499,7 @@ public class SimpleModelTranslator implements ModelTranslator {
         O output = null;
 
         if (input != null) {
-            ObjectTranslator<I, O> translator = this.findTranslatorByClass(
-                (Class<I>) input.getClass(), outputClass);
-
-            output = translator.translate(this, input);
+            output = this.translate(this.resolve(input.getClass(), outputClass), input, outputClass);
         }
 
         return output;
@@ -330,8 +518,8 @@ public class SimpleModelTranslator implements ModelTranslator {
             throw new IllegalArgumentException("outputClass is null");
         }
 
-        ObjectTranslator<I, O> translator = this.findTranslatorByClass(inputClass, outputClass);
-        return (input) -> translator.translate(this, input);
+        Resolution resolution = this.resolve(inputClass, outputClass);
+        return (input) -> this.translate(resolution, input, outputClass);
     }
 
     /**
@@ -306,6 +306,11 @@ public class StandardTranslator extends SimpleModelTranslator {
         this.registerTranslator(
             new org.candlepin.dto.rules.v1.PoolTranslator(),
             Pool.class, org.candlepin.dto.rules.v1.PoolDTO.class);
+
+        // Pools are translated for the rules many times over during a single bind or compliance
+        // calculation, so unchanged pools reuse their rules DTO for the rest of the request
+        this.registerMemoization(Pool.class, org.candlepin.dto.rules.v1.PoolDTO.class,
+            org.candlepin.dto.rules.v1.PoolTranslator::getSourceVersion);
     }
 
     // Nothing else to do here.
@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.dto;
+
+import org.candlepin.guice.CandlepinRequestScoped;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+
+
+/**
+ * The TranslationCache is a request scoped identity map of translated objects. It allows a
+ * ModelTranslator to return the same output object when an unchanged source object is translated
+ * to the same output class several times within a single request or job.
+ * <p></p>
+ * Entries are keyed by the identity of the source object and validated against a version of
+ * the source provided by the caller, so a source modified since its previous translation is
+ * translated again. Output objects fetched from this cache are shared, and must not be modified
+ * by their recipients.
+ */
+@CandlepinRequestScoped
+public class TranslationCache {
+
+    /** The maximum number of translated objects retained per output class */
+    public static final int MAX_ENTRIES_PER_CLASS = 25000;
+
+    /**
+     * A translated object and the version of the source it was translated from
+     */
+    private static class Entry {
+        private final Object version;
+        private final Object output;
+
+        Entry(Object version, Object output) {
+            this.version = version;
+            this.output = output;
+        }
+    }
+
+    // output class => source => translation
+    private final Map<Class<?>, Map<Object, Entry>> translations;
+    private int hits;
+    private int misses;
+
+    public TranslationCache() {
+        this.translations = new HashMap<>();
+    }
+
+    /**
+     * Fetches the cached translation of the given source object to the specified output class.
+     * If the source has not yet been translated, or has changed since it was last translated,
+     * this method returns null.
+     *
+     * @param source
+     *  the source object
+     *
+     * @param outputClass
+     *  the class of the translated object
+     *
+     * @param version
+     *  the current version of the source object
+     *
+     * @return
+     *  the cached translation of the source object, or null if a valid translation is not cached
+     */
+    @SuppressWarnings("unchecked")
+    public <O> O get(Object source, Class<O> outputClass, Object version) {
+        Map<Object, Entry> entries = this.translations.get(outputClass);
+        Entry entry = entries != null ? entries.get(source) : null;
+
+        if (entry != null && Objects.equals(entry.version, version)) {
+            ++this.hits;
+            return (O) entry.output;
+        }
+
+        ++this.misses;
+        return null;
+    }
+
+    /**
+     * Caches the translation of the given source object.
+     *
+     * @param source
+     *  the source object
+     *
+     * @param outputClass
+     *  the class of the translated object
+     *
+     * @param version
+     *  the version of the source object at the time of its translation
+     *
+     * @param output
+     *  the translated object
+     */
+    public <O> void put(Object source, Class<O> outputClass, Object version, O output) {
+        Map<Object, Entry> entries = this.translations.computeIfAbsent(outputClass,
+            key -> new IdentityHashMap<>());
+
+        if (entries.size() < MAX_ENTRIES_PER_CLASS || entries.containsKey(source)) {
+            entries.put(source, new Entry(version, output));
+        }
+    }
+
+    public int getHits() {
+        return this.hits;
+    }
+
+    public int getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * Removes all cached translations.
+     */
+    public void clear() {
+        this.translations.clear();
+    }
+}
@@ -52,6 +52,9 @@ public class SystemPurposeAttributesDTO extends CandlepinDTO<SystemPurposeAttrib
     @JsonProperty(access = Access.READ_ONLY)
     protected Map<String, Set<String>> systemPurposeAttributes;
 
+    @JsonProperty(access = Access.READ_ONLY)
+    protected Map<String, Map<String, Long>> systemPurposeAttributeCounts;
+
     /**
      * Initializes a new instance with null values.
      */
@@ -95,10 +98,30 @@ public class SystemPurposeAttributesDTO extends CandlepinDTO<SystemPurposeAttrib
         return this;
     }
 
+    public Map<String, Map<String, Long>> getSystemPurposeAttributeCounts() {
+        return (this.systemPurposeAttributeCounts != null) ?
+            new MapView<>(this.systemPurposeAttributeCounts) :
+            null;
+    }
+
+    public SystemPurposeAttributesDTO setSystemPurposeAttributeCounts(Map<String, Map<String, Long>> counts) {
+        if (counts == null) {
+            this.systemPurposeAttributeCounts = null;
+        }
+        else {
+            this.systemPurposeAttributeCounts = new HashMap<>();
+
+            for (Map.Entry<String, Map<String, Long>> e : counts.entrySet()) {
+                this.systemPurposeAttributeCounts.put(e.getKey(), new HashMap<>(e.getValue()));
+            }
+        }
+        return this;
+    }
+
     @Override
     public String toString() {
-        return String.format("SystemPurposeAttributesDTO [owner: %s, attributes: %s", owner,
-            systemPurposeAttributes);
+        return String.format("SystemPurposeAttributesDTO [owner: %s, attributes: %s, counts: %s", owner,
+            systemPurposeAttributes, systemPurposeAttributeCounts);
     }
 
     @Override
@@ -112,7 +135,8 @@ public class SystemPurposeAttributesDTO extends CandlepinDTO<SystemPurposeAttrib
 
             EqualsBuilder builder = new EqualsBuilder()
                 .append(this.getOwner(), that.getOwner())
-                .append(this.getSystemPurposeAttributes(), that.getSystemPurposeAttributes());
+                .append(this.getSystemPurposeAttributes(), that.getSystemPurposeAttributes())
+                .append(this.getSystemPurposeAttributeCounts(), that.getSystemPurposeAttributeCounts());
             return builder.isEquals();
         }
         return false;
@@ -122,7 +146,8 @@ public class SystemPurposeAttributesDTO extends CandlepinDTO<SystemPurposeAttrib
     public int hashCode() {
         HashCodeBuilder builder = new HashCodeBuilder(65537, 13)
             .append(this.getOwner())
-            .append(this.getSystemPurposeAttributes());
+            .append(this.getSystemPurposeAttributes())
+            .append(this.getSystemPurposeAttributeCounts());
         return builder.toHashCode();
     }
 
@@ -132,6 +157,7 @@ public class SystemPurposeAttributesDTO extends CandlepinDTO<SystemPurposeAttrib
 
         this.setOwner(source.getOwner());
         this.setSystemPurposeAttributes(source.getSystemPurposeAttributes());
+        this.setSystemPurposeAttributeCounts(source.getSystemPurposeAttributeCounts());
         return this;
     }
 }
@@ -19,7 +19,14 @@ import org.candlepin.dto.ObjectTranslator;
 import org.candlepin.model.Pool;
 import org.candlepin.model.Product;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 
@@ -109,4 +116,55 @@ public class PoolTranslator implements ObjectTranslator<Pool, PoolDTO> {
 
         return dest;
     }
+
+    /**
+     * Captures a version of the given pool covering every field copied into a PoolDTO by this
+     * translator. The version holds copies of the values themselves rather than a hash of them,
+     * so two versions are only equal if the pool's rules representation is unchanged, allowing
+     * translations of unchanged pools to be reused within a request.
+     *
+     * @param source
+     *  the pool for which to capture a version
+     *
+     * @return
+     *  the version of the given pool's rules representation
+     */
+    public static List<Object> getSourceVersion(Pool source) {
+        return Arrays.asList(
+            source.getId(),
+            source.getQuantity(),
+            source.getConsumed(),
+            copyDate(source.getStartDate()),
+            copyDate(source.getEndDate()),
+            copyMap(source.getAttributes()),
+            source.getRestrictedToUsername(),
+            source.getProductId(),
+            copyMap(source.getProductAttributes()),
+            source.getDerivedProductId(),
+            getProductsVersion(source.getProvidedProducts()),
+            getProductsVersion(source.getDerivedProvidedProducts()));
+    }
+
+    private static Date copyDate(Date date) {
+        return date != null ? new Date(date.getTime()) : null;
+    }
+
+    private static Map<String, String> copyMap(Map<String, String> map) {
+        return map != null ? new HashMap<>(map) : null;
+    }
+
+    private static Set<List<String>> getProductsVersion(Collection<Product> products) {
+        Set<List<String>> version = new HashSet<>();
+
+        if (products != null) {
+            for (Product product : products) {
+                if (product != null) {
+                    // Order-independent, as the DTO stores the provided products in a set
+                    version.add(Arrays.asList(product.getId(), product.getName()));
+                }
+            }
+        }
+
+        return version;
+    }
 }
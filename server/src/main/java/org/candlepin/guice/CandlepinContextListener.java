@@ -33,6 +33,7 @@ import org.candlepin.controller.QpidStatusMonitor;
 import org.candlepin.controller.SuspendModeTransitioner;
 import org.candlepin.logging.LoggerContextListener;
 import org.candlepin.messaging.CPMContextListener;
+import org.candlepin.pki.KeyPairPool;
 import org.candlepin.pki.impl.JSSProviderLoader;
 import org.candlepin.resteasy.AnnotationLocator;
 import org.candlepin.swagger.CandlepinSwaggerModelConverter;
@@ -95,6 +96,7 @@ public class CandlepinContextListener extends GuiceResteasyBootstrapServletConte
 
     private ActiveMQContextListener activeMQContextListener;
     private JobManager jobManager;
+    private KeyPairPool keyPairPool;
     private LoggerContextListener loggerListener;
     private CrlFileUtil crlFileUtil;
 
@@ -215,6 +217,10 @@ public class CandlepinContextListener extends GuiceResteasyBootstrapServletConte
         this.jobManager.initialize();
         this.jobManager.start();
 
+        // Begin pre-generating key pairs for new consumers
+        this.keyPairPool = injector.getInstance(KeyPairPool.class);
+        this.keyPairPool.start();
+
         loggerListener = injector.getInstance(LoggerContextListener.class);
 
         // Custom ModelConverter to handle our specific serialization requirements
@@ -263,6 +269,11 @@ public class CandlepinContextListener extends GuiceResteasyBootstrapServletConte
         // Tear down the job system
         this.jobManager.shutdown();
 
+        // The pool is only created once the job system has started successfully
+        if (this.keyPairPool != null) {
+            this.keyPairPool.shutdown();
+        }
+
         // if amqp is enabled, close all connections.
         if (config.getBoolean(ConfigProperties.AMQP_INTEGRATION_ENABLED)) {
             Util.closeSafely(injector.getInstance(AMQPBusPublisher.class), "AMQPBusPublisher");
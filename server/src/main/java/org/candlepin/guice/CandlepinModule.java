@@ -19,6 +19,8 @@ import org.candlepin.async.JobMessageDispatcher;
 import org.candlepin.async.JobMessageReceiver;
 import org.candlepin.async.tasks.ActiveEntitlementJob;
 import org.candlepin.async.tasks.CRLUpdateJob;
+import org.candlepin.async.tasks.ConsumerStatusRecalculationJob;
+import org.candlepin.async.tasks.ContentAccessPayloadRefreshJob;
 import org.candlepin.async.tasks.EntitleByProductsJob;
 import org.candlepin.async.tasks.EntitlerJob;
 import org.candlepin.async.tasks.ExpiredPoolsCleanupJob;
@@ -31,6 +33,7 @@ import org.candlepin.async.tasks.ImportRecordCleanerJob;
 import org.candlepin.async.tasks.JobCleaner;
 import org.candlepin.async.tasks.ManifestCleanerJob;
 import org.candlepin.async.tasks.OrphanCleanupJob;
+import org.candlepin.async.tasks.OwnerInfoRefreshJob;
 import org.candlepin.async.tasks.RefreshPoolsForProductJob;
 import org.candlepin.async.tasks.RefreshPoolsJob;
 import org.candlepin.async.tasks.RegenEnvEntitlementCertsJob;
@@ -82,6 +85,7 @@ import org.candlepin.common.util.VersionUtil;
 import org.candlepin.common.validation.CandlepinMessageInterpolator;
 import org.candlepin.config.ConfigProperties;
 import org.candlepin.controller.CandlepinPoolManager;
+import org.candlepin.controller.EntitlementCertificateGenerator;
 import org.candlepin.controller.Entitler;
 import org.candlepin.controller.OwnerManager;
 import org.candlepin.controller.PoolManager;
@@ -98,6 +102,11 @@ import org.candlepin.messaging.impl.artemis.ArtemisSessionFactory;
 import org.candlepin.messaging.impl.artemis.ArtemisUtil;
 import org.candlepin.messaging.impl.noop.NoopContextListener;
 import org.candlepin.messaging.impl.noop.NoopSessionFactory;
+import org.candlepin.metrics.MethodTimingInterceptor;
+import org.candlepin.metrics.MetricFamily;
+import org.candlepin.metrics.MetricRegistry;
+import org.candlepin.metrics.Timer;
+import org.candlepin.model.AbstractHibernateCurator;
 import org.candlepin.model.CPRestrictions;
 import org.candlepin.model.UeberCertificateGenerator;
 import org.candlepin.pki.CertificateReader;
@@ -131,6 +140,7 @@ import org.candlepin.resource.EnvironmentResource;
 import org.candlepin.resource.GuestIdResource;
 import org.candlepin.resource.HypervisorResource;
 import org.candlepin.resource.JobResource;
+import org.candlepin.resource.MetricsResource;
 import org.candlepin.resource.OwnerContentResource;
 import org.candlepin.resource.OwnerProductResource;
 import org.candlepin.resource.OwnerResource;
@@ -152,6 +162,7 @@ import org.candlepin.resteasy.filter.AuthorizationFeature;
 import org.candlepin.resteasy.filter.CandlepinQueryInterceptor;
 import org.candlepin.resteasy.filter.CandlepinSuspendModeFilter;
 import org.candlepin.resteasy.filter.ConsumerCheckInFilter;
+import org.candlepin.resteasy.filter.ResourceMetricsFilter;
 import org.candlepin.resteasy.filter.SecurityHoleAuthorizationFilter;
 import org.candlepin.resteasy.filter.StoreFactory;
 import org.candlepin.resteasy.filter.SuperAdminAuthorizationFilter;
@@ -193,6 +204,7 @@ import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import com.google.inject.Singleton;
 import com.google.inject.assistedinject.FactoryModuleBuilder;
+import com.google.inject.matcher.Matchers;
 import com.google.inject.name.Named;
 import com.google.inject.name.Names;
 import com.google.inject.persist.jpa.JpaPersistModule;
@@ -358,6 +370,7 @@ public class CandlepinModule extends AbstractModule {
         configureAsyncJobs();
         configureExporter();
         configureSwagger();
+        configureMetrics();
         configureBindFactories();
     }
 
@@ -434,6 +447,10 @@ public class CandlepinModule extends AbstractModule {
 
         JobManager.registerJob(ActiveEntitlementJob.JOB_KEY, ActiveEntitlementJob.class);
         JobManager.registerJob(CRLUpdateJob.JOB_KEY, CRLUpdateJob.class);
+        JobManager.registerJob(ConsumerStatusRecalculationJob.JOB_KEY,
+            ConsumerStatusRecalculationJob.class);
+        JobManager.registerJob(ContentAccessPayloadRefreshJob.JOB_KEY,
+            ContentAccessPayloadRefreshJob.class);
         JobManager.registerJob(EntitlerJob.JOB_KEY, EntitlerJob.class);
         JobManager.registerJob(EntitleByProductsJob.JOB_KEY, EntitleByProductsJob.class);
         JobManager.registerJob(ExpiredPoolsCleanupJob.JOB_KEY, ExpiredPoolsCleanupJob.class);
@@ -446,6 +463,7 @@ public class CandlepinModule extends AbstractModule {
         JobManager.registerJob(JobCleaner.JOB_KEY, JobCleaner.class);
         JobManager.registerJob(ManifestCleanerJob.JOB_KEY, ManifestCleanerJob.class);
         JobManager.registerJob(OrphanCleanupJob.JOB_KEY, OrphanCleanupJob.class);
+        JobManager.registerJob(OwnerInfoRefreshJob.JOB_KEY, OwnerInfoRefreshJob.class);
         JobManager.registerJob(RefreshPoolsForProductJob.JOB_KEY, RefreshPoolsForProductJob.class);
         JobManager.registerJob(RefreshPoolsJob.JOB_KEY, RefreshPoolsJob.class);
         JobManager.registerJob(RegenEnvEntitlementCertsJob.JOB_KEY, RegenEnvEntitlementCertsJob.class);
@@ -488,6 +506,37 @@ public class CandlepinModule extends AbstractModule {
         beanConfig.setScan(true);
     }
 
+    private void configureMetrics() {
+        MetricRegistry registry = new MetricRegistry();
+        bind(MetricRegistry.class).toInstance(registry);
+
+        if (!config.getBoolean(ConfigProperties.METRICS_ENABLED, true)) {
+            return;
+        }
+
+        bind(MetricsResource.class);
+        bind(ResourceMetricsFilter.class);
+
+        // Time the hot paths which are otherwise invisible from the request timings: database
+        // access, key generation and signing, and entitlement certificate generation
+        MetricFamily<Timer> curatorTimers = registry.timers("candlepin_curator_seconds",
+            "Time spent in curator methods", "class", "method");
+        MetricFamily<Timer> pkiTimers = registry.timers("candlepin_pki_seconds",
+            "Time spent in key generation and signing", "class", "method");
+        MetricFamily<Timer> certTimers = registry.timers("candlepin_entitlement_certificate_seconds",
+            "Time spent generating entitlement certificates", "class", "method");
+
+        bindInterceptor(Matchers.subclassesOf(AbstractHibernateCurator.class),
+            MethodTimingInterceptor.publicMethods(), new MethodTimingInterceptor(curatorTimers));
+
+        bindInterceptor(Matchers.subclassesOf(PKIUtility.class),
+            MethodTimingInterceptor.publicMethodsNamed("createX509Certificate", "createX509CRL",
+            "generateNewKeyPair", "getSHA256WithRSAHash"), new MethodTimingInterceptor(pkiTimers));
+
+        bindInterceptor(Matchers.subclassesOf(EntitlementCertificateGenerator.class),
+            MethodTimingInterceptor.publicMethods(), new MethodTimingInterceptor(certTimers));
+    }
+
     private void configureAmqp() {
         // for lazy loading:
         bind(AMQPBusPublisher.class).in(Singleton.class);
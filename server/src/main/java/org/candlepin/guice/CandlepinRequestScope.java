@@ -20,6 +20,8 @@ import com.google.inject.Provider;
 import com.google.inject.Scope;
 
 import org.jboss.resteasy.core.ResteasyContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -34,6 +36,19 @@ import java.util.Map;
  * our Quartz jobs (standard Guice annotation RequestScoped doesn't).
  */
 public class CandlepinRequestScope implements Scope {
+    private static Logger log = LoggerFactory.getLogger(CandlepinRequestScope.class);
+
+    /**
+     * Implemented by scoped objects which need to be notified when the unit of work for which
+     * they were created ends, such as to report what they observed over its course.
+     */
+    public interface ExitListener {
+
+        /**
+         * Called when the scope in which this object was created is exited
+         */
+        void onScopeExit();
+    }
 
     public void enter() {
         CandlepinRequestScopeData data = new CandlepinRequestScopeData();
@@ -41,7 +56,20 @@ public class CandlepinRequestScope implements Scope {
     }
 
     public void exit() {
-        ResteasyContext.popContextData(CandlepinRequestScopeData.class);
+        CandlepinRequestScopeData data = ResteasyContext.popContextData(CandlepinRequestScopeData.class);
+
+        if (data != null) {
+            for (Object scoped : data.get().values()) {
+                if (scoped instanceof ExitListener) {
+                    try {
+                        ((ExitListener) scoped).onScopeExit();
+                    }
+                    catch (RuntimeException e) {
+                        log.warn("Exit listener failed: {}", scoped, e);
+                    }
+                }
+            }
+        }
     }
 
     public <T> Provider<T> scope(final Key<T> key, final Provider<T> unscoped) {
@@ -0,0 +1,435 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.liquibase;
+
+import org.candlepin.util.EntityVersionBuilder;
+
+import liquibase.database.Database;
+import liquibase.exception.DatabaseException;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+
+/**
+ * The EntityVersionUpgradeTask recalculates and stores the entity versions of every product and
+ * content, replacing versions calculated by the previous 32-bit algorithm.
+ * <p></p>
+ * Versions are calculated directly from the rows of each product and content, appending their
+ * values in the same order as the entities do, so the stored values are identical to those
+ * calculated at runtime. Entities are processed in blocks to bound the memory used on large
+ * databases.
+ */
+public class EntityVersionUpgradeTask extends LiquibaseCustomTask {
+
+    public static final int BLOCK_SIZE = 512;
+
+    private static final String CONTENT_TABLE = "cp2_content";
+    private static final String PRODUCT_TABLE = "cp2_products";
+
+    public EntityVersionUpgradeTask(Database database, CustomTaskLogger logger) {
+        super(database, logger);
+    }
+
+    /**
+     * Builds a comma-delimited list of parameter placeholders, suitable for use in an IN clause.
+     * MySQL's JDBC connector doesn't support arrays as parameters, so each value requires its own
+     * placeholder.
+     *
+     * @param count
+     *  the number of placeholders to generate
+     *
+     * @return
+     *  a list of placeholders
+     */
+    private String buildParameterList(int count) {
+        StringBuilder builder = new StringBuilder(3 * count);
+        builder.append('?');
+
+        for (int i = 1; i < count; ++i) {
+            builder.append(", ?");
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Executes a query with a single IN clause, denoted by the "(?)" token in the given SQL,
+     * expanded to hold the given values.
+     *
+     * @param sql
+     *  the SQL to execute
+     *
+     * @param values
+     *  the values to supply to the IN clause
+     *
+     * @return
+     *  a ResultSet instance representing the result of the query
+     */
+    private ResultSet executeInQuery(String sql, Collection<String> values)
+        throws DatabaseException, SQLException {
+
+        String expanded = sql.replace("(?)", "(" + this.buildParameterList(values.size()) + ")");
+        return this.executeQuery(expanded, values.toArray());
+    }
+
+    /**
+     * Fetches the UUIDs of every row in the given table.
+     *
+     * @param table
+     *  the table from which to fetch UUIDs
+     *
+     * @return
+     *  a list of UUIDs
+     */
+    private List<String> getUuids(String table) throws DatabaseException, SQLException {
+        List<String> uuids = new ArrayList<>();
+
+        try (ResultSet result = this.executeQuery("SELECT uuid FROM " + table)) {
+            while (result.next()) {
+                uuids.add(result.getString(1));
+            }
+        }
+
+        return uuids;
+    }
+
+    /**
+     * Calculates the versions of the content with the given UUIDs from their rows.
+     *
+     * @param uuids
+     *  the UUIDs of the content to version; must not be empty
+     *
+     * @return
+     *  a map of content UUIDs to content versions
+     */
+    private Map<String, Long> versionContent(Collection<String> uuids)
+        throws DatabaseException, SQLException {
+
+        Map<String, Long> versions = new HashMap<>();
+        Map<String, Set<String>> modifiedProductIds = new HashMap<>();
+
+        String sql = "SELECT content_uuid, element FROM cp2_content_modified_products " +
+            "WHERE content_uuid IN (?)";
+
+        try (ResultSet result = this.executeInQuery(sql, uuids)) {
+            while (result.next()) {
+                // Hibernate does not load null collection elements, so neither do we
+                if (result.getString(2) != null) {
+                    modifiedProductIds.computeIfAbsent(result.getString(1), key -> new HashSet<>())
+                        .add(result.getString(2));
+                }
+            }
+        }
+
+        sql = "SELECT uuid, content_id, type, label, name, vendor, contenturl, requiredtags, " +
+            "releasever, gpgurl, metadataexpire, arches FROM cp2_content WHERE uuid IN (?)";
+
+        try (ResultSet result = this.executeInQuery(sql, uuids)) {
+            while (result.next()) {
+                long metadataExpire = result.getLong(11);
+                Long metadataExpiration = result.wasNull() ? null : metadataExpire;
+
+                // This must match Content.getEntityVersion
+                long version = new EntityVersionBuilder()
+                    .append(result.getString(2))
+                    .append(result.getString(3))
+                    .append(result.getString(4))
+                    .append(result.getString(5))
+                    .append(result.getString(6))
+                    .append(result.getString(7))
+                    .append(result.getString(8))
+                    .append(result.getString(9))
+                    .append(result.getString(10))
+                    .append(metadataExpiration)
+                    .append(result.getString(12))
+                    .appendSet(modifiedProductIds.get(result.getString(1)))
+                    .build();
+
+                versions.put(result.getString(1), version);
+            }
+        }
+
+        return versions;
+    }
+
+    /**
+     * Calculates the versions of the products with the given UUIDs, and of the content they
+     * reference, from their rows.
+     *
+     * @param uuids
+     *  the UUIDs of the products to version; must not be empty
+     *
+     * @return
+     *  a map of product UUIDs to product versions
+     */
+    private Map<String, Long> versionProducts(Collection<String> uuids)
+        throws DatabaseException, SQLException {
+
+        Map<String, String[]> productRows = new HashMap<>();
+        Map<String, Map<String, String>> attributes = new HashMap<>();
+        Map<String, Set<String>> dependentProductIds = new HashMap<>();
+        Map<String, List<Long>> brandingVersions = new HashMap<>();
+
+        String sql = "SELECT uuid, product_id, name, multiplier FROM cp2_products WHERE uuid IN (?)";
+
+        try (ResultSet result = this.executeInQuery(sql, uuids)) {
+            while (result.next()) {
+                long multiplier = result.getLong(4);
+
+                // Multipliers are normalized the same way Product.setMultiplier does
+                productRows.put(result.getString(1), new String[] { result.getString(2), result.getString(3),
+                    String.valueOf(result.wasNull() ? 1L : Math.max(1L, multiplier)) });
+            }
+        }
+
+        sql = "SELECT product_uuid, name, value FROM cp2_product_attributes WHERE product_uuid IN (?)";
+
+        try (ResultSet result = this.executeInQuery(sql, uuids)) {
+            while (result.next()) {
+                // Hibernate does not load null collection elements, so neither do we
+                if (result.getString(3) != null) {
+                    attributes.computeIfAbsent(result.getString(1), key -> new HashMap<>())
+                        .put(result.getString(2), result.getString(3));
+                }
+            }
+        }
+
+        sql = "SELECT product_uuid, element FROM cp2_product_dependent_products WHERE product_uuid IN (?)";
+
+        try (ResultSet result = this.executeInQuery(sql, uuids)) {
+            while (result.next()) {
+                if (result.getString(2) != null) {
+                    dependentProductIds.computeIfAbsent(result.getString(1), key -> new HashSet<>())
+                        .add(result.getString(2));
+                }
+            }
+        }
+
+        sql = "SELECT product_uuid, product_id, name, type FROM cp2_product_branding " +
+            "WHERE product_uuid IN (?)";
+
+        try (ResultSet result = this.executeInQuery(sql, uuids)) {
+            while (result.next()) {
+                // This must match the branding versions in Product.getEntityVersion
+                long version = new EntityVersionBuilder()
+                    .append(result.getString(2))
+                    .append(result.getString(3))
+                    .append(result.getString(4))
+                    .build();
+
+                brandingVersions.computeIfAbsent(result.getString(1), key -> new ArrayList<>())
+                    .add(version);
+            }
+        }
+
+        List<String[]> productContent = new LinkedList<>();
+        Set<String> contentUuids = new HashSet<>();
+
+        sql = "SELECT product_uuid, content_uuid, enabled FROM cp2_product_content WHERE product_uuid IN (?)";
+
+        try (ResultSet result = this.executeInQuery(sql, uuids)) {
+            while (result.next()) {
+                productContent.add(new String[] { result.getString(1), result.getString(2),
+                    String.valueOf(result.getBoolean(3)) });
+
+                contentUuids.add(result.getString(2));
+            }
+        }
+
+        Map<String, Long> contentVersions = new HashMap<>();
+        List<String> block = new ArrayList<>(BLOCK_SIZE);
+
+        for (String contentUuid : contentUuids) {
+            block.add(contentUuid);
+
+            if (block.size() >= BLOCK_SIZE) {
+                contentVersions.putAll(this.versionContent(block));
+                block.clear();
+            }
+        }
+
+        if (!block.isEmpty()) {
+            contentVersions.putAll(this.versionContent(block));
+        }
+
+        // This must match the product content versions in Product.getEntityVersion
+        Map<String, List<Long>> productContentVersions = new HashMap<>();
+        for (String[] row : productContent) {
+            Long contentVersion = contentVersions.get(row[1]);
+
+            if (contentVersion != null) {
+                long version = new EntityVersionBuilder()
+                    .append(contentVersion)
+                    .append(Boolean.parseBoolean(row[2]))
+                    .build();
+
+                productContentVersions.computeIfAbsent(row[0], key -> new ArrayList<>())
+                    .add(version);
+            }
+        }
+
+        Map<String, Long> versions = new HashMap<>();
+
+        for (Map.Entry<String, String[]> entry : productRows.entrySet()) {
+            String uuid = entry.getKey();
+            String[] row = entry.getValue();
+
+            // This must match Product.getEntityVersion
+            long baseVersion = new EntityVersionBuilder()
+                .append(row[0])
+                .append(row[1])
+                .append(Long.valueOf(row[2]))
+                .appendMap(attributes.get(uuid))
+                .appendSet(dependentProductIds.get(uuid))
+                .appendSet(this.toArray(brandingVersions.get(uuid)))
+                .build();
+
+            long version = new EntityVersionBuilder()
+                .append(baseVersion)
+                .appendSet(this.toArray(productContentVersions.get(uuid)))
+                .build();
+
+            versions.put(uuid, version);
+        }
+
+        return versions;
+    }
+
+    /**
+     * Converts the given list of versions to an array.
+     *
+     * @param versions
+     *  the versions to convert; may be null
+     *
+     * @return
+     *  an array of versions
+     */
+    private long[] toArray(List<Long> versions) {
+        return versions != null ? versions.stream().mapToLong(Long::longValue).toArray() : new long[0];
+    }
+
+    /**
+     * Stores the given versions, mapped by entity UUID, in the specified table.
+     *
+     * @param table
+     *  the table in which to store the versions
+     *
+     * @param versions
+     *  a map of entity UUIDs to entity versions
+     *
+     * @return
+     *  the number of rows updated
+     */
+    private int storeVersions(String table, Map<String, Long> versions)
+        throws DatabaseException, SQLException {
+
+        PreparedStatement statement = this.prepareStatement(
+            "UPDATE " + table + " SET entity_version = ? WHERE uuid = ?");
+
+        for (Map.Entry<String, Long> entry : versions.entrySet()) {
+            this.fillStatementParameters(statement, entry.getValue(), entry.getKey());
+            statement.addBatch();
+        }
+
+        int count = 0;
+        for (int updated : statement.executeBatch()) {
+            count += Math.max(updated, 0);
+        }
+
+        return count;
+    }
+
+    /**
+     * Recalculates and stores the versions of every content.
+     */
+    private void upgradeContentVersions() throws DatabaseException, SQLException {
+        List<String> uuids = this.getUuids(CONTENT_TABLE);
+        this.logger.info(String.format("Versioning %d content...", uuids.size()));
+
+        int count = 0;
+
+        for (int offset = 0; offset < uuids.size(); offset += BLOCK_SIZE) {
+            List<String> block = uuids.subList(offset, Math.min(offset + BLOCK_SIZE, uuids.size()));
+            count += this.storeVersions(CONTENT_TABLE, this.versionContent(block));
+        }
+
+        this.logger.info(String.format("%d content versioned", count));
+    }
+
+    /**
+     * Recalculates and stores the versions of every product.
+     */
+    private void upgradeProductVersions() throws DatabaseException, SQLException {
+        List<String> uuids = this.getUuids(PRODUCT_TABLE);
+        this.logger.info(String.format("Versioning %d products...", uuids.size()));
+
+        int count = 0;
+
+        for (int offset = 0; offset < uuids.size(); offset += BLOCK_SIZE) {
+            List<String> block = uuids.subList(offset, Math.min(offset + BLOCK_SIZE, uuids.size()));
+            count += this.storeVersions(PRODUCT_TABLE, this.versionProducts(block));
+        }
+
+        this.logger.info(String.format("%d products versioned", count));
+    }
+
+    /**
+     * Executes the entity version upgrade task.
+     *
+     * @throws DatabaseException
+     *  if an error occurs while performing a database operation
+     *
+     * @throws SQLException
+     *  if an error occurs while executing an SQL statement
+     */
+    public void execute() throws DatabaseException, SQLException {
+        // Store the connection's auto commit setting, so we may temporarily clobber it.
+        boolean autocommit = this.connection.getAutoCommit();
+        this.connection.setAutoCommit(false);
+
+        try {
+            this.upgradeContentVersions();
+            this.upgradeProductVersions();
+
+            this.connection.commit();
+        }
+        catch (DatabaseException | SQLException | RuntimeException e) {
+            // Don't leave a partial upgrade behind, nor lose the original failure if the rollback
+            // fails as well
+            try {
+                this.connection.rollback();
+            }
+            catch (DatabaseException rollbackException) {
+                e.addSuppressed(rollbackException);
+            }
+
+            throw e;
+        }
+        finally {
+            this.connection.setAutoCommit(autocommit);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+
+
+/**
+ * A monotonically increasing count of events. Counters may be incremented from any number of
+ * threads concurrently without contention or allocation.
+ */
+public class Counter {
+
+    private final LongAdder value = new LongAdder();
+
+    /**
+     * Increments this counter by one.
+     */
+    public void inc() {
+        this.value.increment();
+    }
+
+    /**
+     * Increments this counter by the given amount.
+     *
+     * @param amount
+     *  the amount by which to increment this counter; must not be negative
+     *
+     * @throws IllegalArgumentException
+     *  if amount is negative
+     */
+    public void inc(long amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("counters cannot be decremented");
+        }
+
+        this.value.add(amount);
+    }
+
+    public long get() {
+        return this.value.sum();
+    }
+}
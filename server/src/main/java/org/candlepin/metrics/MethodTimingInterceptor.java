@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.metrics;
+
+import com.google.inject.matcher.AbstractMatcher;
+import com.google.inject.matcher.Matcher;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+
+
+/**
+ * A Guice method interceptor which times every intercepted invocation into a timer family
+ * labeled by the simple name of the intercepted class and the name of the invoked method. Timers
+ * are resolved once per class and method, so steady-state interception costs two map lookups and
+ * a timer update. Invocations are timed whether they complete normally or exceptionally.
+ * <p></p>
+ * Only the outermost intercepted invocation on a thread is recorded. Intercepted methods which
+ * call other methods intercepted by the same interceptor, such as curator methods delegating to
+ * other curator methods, are timed once as a whole, so the totals of a family are not inflated by
+ * nested calls.
+ */
+public class MethodTimingInterceptor implements MethodInterceptor {
+
+    /** The suffix Guice appends to the names of the classes it enhances for interception */
+    private static final String ENHANCER_MARKER = "$$EnhancerByGuice$$";
+
+    private final MetricFamily<Timer> family;
+    private final ClassValue<ConcurrentMap<Method, Timer>> timers;
+    private final ThreadLocal<int[]> depth;
+
+    /**
+     * Creates a new interceptor recording into the given timer family.
+     *
+     * @param family
+     *  the timer family into which invocations are recorded; must have exactly two labels, for the
+     *  class and the method
+     *
+     * @throws IllegalArgumentException
+     *  if family is null or does not have exactly two labels
+     */
+    public MethodTimingInterceptor(MetricFamily<Timer> family) {
+        if (family == null || family.getLabelNames().size() != 2) {
+            throw new IllegalArgumentException("family must have class and method labels");
+        }
+
+        this.family = family;
+        this.timers = new ClassValue<ConcurrentMap<Method, Timer>>() {
+            @Override
+            protected ConcurrentMap<Method, Timer> computeValue(Class<?> type) {
+                return new ConcurrentHashMap<>();
+            }
+        };
+
+        this.depth = ThreadLocal.withInitial(() -> new int[1]);
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        int[] depth = this.depth.get();
+
+        // Nested invocations are part of the outermost invocation's timing
+        if (depth[0] > 0) {
+            ++depth[0];
+
+            try {
+                return invocation.proceed();
+            }
+            finally {
+                --depth[0];
+            }
+        }
+
+        Object target = invocation.getThis();
+        Method method = invocation.getMethod();
+
+        Class<?> type = target.getClass();
+        ConcurrentMap<Method, Timer> classTimers = this.timers.get(type);
+
+        // Impl note: computeIfAbsent locks even when the mapping is present on Java 8, so the
+        // common case is checked first with a plain get
+        Timer timer = classTimers.get(method);
+        if (timer == null) {
+            timer = classTimers.computeIfAbsent(method,
+                key -> this.family.labels(getClassName(type), key.getName()));
+        }
+
+        long start = System.nanoTime();
+        depth[0] = 1;
+
+        try {
+            return invocation.proceed();
+        }
+        finally {
+            depth[0] = 0;
+            timer.recordSince(start);
+        }
+    }
+
+    /**
+     * Fetches the simple name of the given class, or of the class it enhances if it is a class
+     * generated by Guice.
+     */
+    private static String getClassName(Class<?> type) {
+        while (type.getName().contains(ENHANCER_MARKER) && type.getSuperclass() != null) {
+            type = type.getSuperclass();
+        }
+
+        return type.getSimpleName();
+    }
+
+    /**
+     * Builds a method matcher matching the public, non-synthetic methods which are not declared
+     * by Object.
+     *
+     * @return
+     *  a matcher matching public methods
+     */
+    public static Matcher<Method> publicMethods() {
+        return new AbstractMatcher<Method>() {
+            @Override
+            public boolean matches(Method method) {
+                return Modifier.isPublic(method.getModifiers()) && !method.isSynthetic() &&
+                    method.getDeclaringClass() != Object.class;
+            }
+        };
+    }
+
+    /**
+     * Builds a method matcher matching the public methods with the given names.
+     *
+     * @param names
+     *  the names of the methods to match
+     *
+     * @return
+     *  a matcher matching public methods with any of the given names
+     */
+    public static Matcher<Method> publicMethodsNamed(String... names) {
+        Set<String> nameSet = new HashSet<>(Arrays.asList(names));
+
+        return publicMethods().and(new AbstractMatcher<Method>() {
+            @Override
+            public boolean matches(Method method) {
+                return nameSet.contains(method.getName());
+            }
+        });
+    }
+}
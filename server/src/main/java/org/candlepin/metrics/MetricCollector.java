@@ -0,0 +1,34 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.metrics;
+
+
+
+/**
+ * A MetricCollector refreshes metrics whose values are not recorded as they change, but are
+ * instead sampled from their source, such as the number of pending jobs in the database.
+ * Collectors are invoked each time the metrics of a registry are exported.
+ */
+@FunctionalInterface
+public interface MetricCollector {
+
+    /**
+     * Updates the metrics maintained by this collector in the given registry.
+     *
+     * @param registry
+     *  the registry being exported
+     */
+    void collect(MetricRegistry registry);
+}
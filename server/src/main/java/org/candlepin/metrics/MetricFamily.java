@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.metrics;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+
+
+/**
+ * A named set of metrics of a single type, distinguished by the values of their labels. Children
+ * are created the first time a given combination of label values is requested; callers on hot
+ * paths should hold on to the children they use rather than resolving them for every update.
+ *
+ * @param <T>
+ *  the type of metric in this family
+ */
+public class MetricFamily<T> {
+
+    /**
+     * The Prometheus types of metric families
+     */
+    public enum Type {
+        COUNTER("counter"),
+        GAUGE("gauge"),
+        HISTOGRAM("histogram");
+
+        private final String name;
+
+        Type(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+    }
+
+    private final String name;
+    private final String help;
+    private final Type type;
+    private final List<String> labelNames;
+    private final Supplier<T> factory;
+    private final ConcurrentMap<List<String>, T> children;
+
+    MetricFamily(String name, String help, Type type, List<String> labelNames, Supplier<T> factory) {
+        this.name = name;
+        this.help = help;
+        this.type = type;
+        this.labelNames = Collections.unmodifiableList(labelNames);
+        this.factory = factory;
+        this.children = new ConcurrentHashMap<>();
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public String getHelp() {
+        return this.help;
+    }
+
+    public Type getType() {
+        return this.type;
+    }
+
+    public List<String> getLabelNames() {
+        return this.labelNames;
+    }
+
+    /**
+     * Fetches the child of this family with the given label values, creating it if necessary.
+     *
+     * @param labelValues
+     *  the values of the labels of the child, in the order in which the label names of this
+     *  family were defined
+     *
+     * @throws IllegalArgumentException
+     *  if the number of label values does not match the number of label names, or any label
+     *  value is null
+     *
+     * @return
+     *  the child with the given label values
+     */
+    public T labels(String... labelValues) {
+        if (labelValues == null || labelValues.length != this.labelNames.size()) {
+            throw new IllegalArgumentException(String.format("metric %s requires %d label values",
+                this.name, this.labelNames.size()));
+        }
+
+        List<String> key = Arrays.asList(labelValues);
+        T child = this.children.get(key);
+
+        if (child == null) {
+            if (key.contains(null)) {
+                throw new IllegalArgumentException("label values cannot be null");
+            }
+
+            // Copy the values so later changes to the caller's array do not corrupt the key
+            child = this.children.computeIfAbsent(Arrays.asList(labelValues.clone()),
+                k -> this.factory.get());
+        }
+
+        return child;
+    }
+
+    /**
+     * Fetches the children of this family.
+     *
+     * @return
+     *  an unmodifiable view of the children of this family, keyed by their label values
+     */
+    public Map<List<String>, T> getChildren() {
+        return Collections.unmodifiableMap(this.children);
+    }
+}
@@ -0,0 +1,382 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+
+
+/**
+ * The MetricRegistry holds the counters, gauges and timers exposed by Candlepin, and renders them
+ * in the Prometheus text exposition format (version 0.0.4).
+ * <p></p>
+ * Families are registered by name the first time they are requested; requesting a family which
+ * already exists returns the existing family, so components need not coordinate registration.
+ * Metric names should follow the Prometheus conventions: a "candlepin_" prefix, a "_total"
+ * suffix on counters and a "_seconds" suffix on timers.
+ */
+@Singleton
+public class MetricRegistry {
+    private static Logger log = LoggerFactory.getLogger(MetricRegistry.class);
+
+    /** The content type of the Prometheus text exposition format */
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final Pattern NAME_PATTERN = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+    private static final Pattern LABEL_PATTERN = Pattern.compile("[a-zA-Z_][a-zA-Z0-9_]*");
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final ConcurrentMap<String, MetricFamily<?>> families;
+    private final List<MetricCollector> collectors;
+
+    @Inject
+    public MetricRegistry() {
+        this.families = new ConcurrentHashMap<>();
+        this.collectors = new CopyOnWriteArrayList<>();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> MetricFamily<T> register(String name, String help, MetricFamily.Type type,
+        String[] labelNames, Supplier<T> factory) {
+
+        MetricFamily<?> family = this.families.get(name);
+
+        if (family == null) {
+            if (name == null || !NAME_PATTERN.matcher(name).matches()) {
+                throw new IllegalArgumentException("invalid metric name: " + name);
+            }
+
+            for (String label : labelNames) {
+                if (label == null || !LABEL_PATTERN.matcher(label).matches() || label.equals("le")) {
+                    throw new IllegalArgumentException("invalid label name: " + label);
+                }
+            }
+
+            family = this.families.computeIfAbsent(name, key -> new MetricFamily<>(name, help, type,
+                Arrays.asList(labelNames.clone()), factory));
+        }
+
+        if (family.getType() != type || !family.getLabelNames().equals(Arrays.asList(labelNames))) {
+            throw new IllegalStateException(String.format(
+                "metric %s is already registered as a %s with labels %s", name,
+                family.getType().getName(), family.getLabelNames()));
+        }
+
+        return (MetricFamily<T>) family;
+    }
+
+    /**
+     * Fetches the counter family with the given name, registering it if necessary.
+     *
+     * @param name
+     *  the name of the family
+     *
+     * @param help
+     *  a description of the family
+     *
+     * @param labelNames
+     *  the names of the labels which distinguish the counters of the family
+     *
+     * @throws IllegalArgumentException
+     *  if the name or any label name is not valid
+     *
+     * @throws IllegalStateException
+     *  if a family with the given name but a different type or labels is already registered
+     *
+     * @return
+     *  the counter family with the given name
+     */
+    public MetricFamily<Counter> counters(String name, String help, String... labelNames) {
+        return this.register(name, help, MetricFamily.Type.COUNTER, labelNames, Counter::new);
+    }
+
+    /**
+     * Fetches the gauge family with the given name, registering it if necessary.
+     *
+     * @param name
+     *  the name of the family
+     *
+     * @param help
+     *  a description of the family
+     *
+     * @param labelNames
+     *  the names of the labels which distinguish the gauges of the family
+     *
+     * @throws IllegalArgumentException
+     *  if the name or any label name is not valid
+     *
+     * @throws IllegalStateException
+     *  if a family with the given name but a different type or labels is already registered
+     *
+     * @return
+     *  the gauge family with the given name
+     */
+    public MetricFamily<Gauge> gauges(String name, String help, String... labelNames) {
+        return this.register(name, help, MetricFamily.Type.GAUGE, labelNames, Gauge::new);
+    }
+
+    /**
+     * Fetches the timer family with the given name, registering it if necessary.
+     *
+     * @param name
+     *  the name of the family
+     *
+     * @param help
+     *  a description of the family
+     *
+     * @param labelNames
+     *  the names of the labels which distinguish the timers of the family
+     *
+     * @throws IllegalArgumentException
+     *  if the name or any label name is not valid
+     *
+     * @throws IllegalStateException
+     *  if a family with the given name but a different type or labels is already registered
+     *
+     * @return
+     *  the timer family with the given name
+     */
+    public MetricFamily<Timer> timers(String name, String help, String... labelNames) {
+        return this.register(name, help, MetricFamily.Type.HISTOGRAM, labelNames, Timer::new);
+    }
+
+    /**
+     * Convenience method for fetching the unlabeled counter with the given name.
+     *
+     * @param name
+     *  the name of the counter
+     *
+     * @param help
+     *  a description of the counter
+     *
+     * @return
+     *  the counter with the given name
+     */
+    public Counter counter(String name, String help) {
+        return this.counters(name, help).labels();
+    }
+
+    /**
+     * Convenience method for fetching the unlabeled timer with the given name.
+     *
+     * @param name
+     *  the name of the timer
+     *
+     * @param help
+     *  a description of the timer
+     *
+     * @return
+     *  the timer with the given name
+     */
+    public Timer timer(String name, String help) {
+        return this.timers(name, help).labels();
+    }
+
+    /**
+     * Adds a collector to be invoked each time the metrics of this registry are exported.
+     *
+     * @param collector
+     *  the collector to add
+     */
+    public void addCollector(MetricCollector collector) {
+        if (collector == null) {
+            throw new IllegalArgumentException("collector is null");
+        }
+
+        this.collectors.add(collector);
+    }
+
+    /**
+     * Fetches the family with the given name.
+     *
+     * @param name
+     *  the name of the family to fetch
+     *
+     * @return
+     *  the family with the given name, or null if no such family has been registered
+     */
+    public MetricFamily<?> getFamily(String name) {
+        return this.families.get(name);
+    }
+
+    /**
+     * Runs the collectors of this registry, then writes every metric in the Prometheus text
+     * exposition format. Families are written in order of their names.
+     *
+     * @param writer
+     *  the writer to which the metrics are to be written
+     *
+     * @throws IOException
+     *  if the metrics could not be written
+     */
+    public void write(Writer writer) throws IOException {
+        for (MetricCollector collector : this.collectors) {
+            try {
+                collector.collect(this);
+            }
+            catch (Exception e) {
+                // A failed collector leaves its metrics stale; it should not break the export
+                log.warn("Unable to collect metrics from {}", collector, e);
+            }
+        }
+
+        StringBuilder builder = new StringBuilder(256);
+
+        for (MetricFamily<?> family : new TreeMap<>(this.families).values()) {
+            builder.setLength(0);
+
+            builder.append("# HELP ").append(family.getName()).append(' ');
+            escape(builder, family.getHelp() != null ? family.getHelp() : "", false);
+            builder.append('\n');
+            builder.append("# TYPE ").append(family.getName()).append(' ')
+                .append(family.getType().getName()).append('\n');
+
+            for (Map.Entry<List<String>, ?> entry : sortChildren(family).entrySet()) {
+                writeChild(builder, family, entry.getKey(), entry.getValue());
+            }
+
+            writer.write(builder.toString());
+        }
+
+        writer.flush();
+    }
+
+    private static Map<List<String>, ?> sortChildren(MetricFamily<?> family) {
+        Map<List<String>, Object> sorted = new TreeMap<>((lhs, rhs) -> {
+            for (int i = 0; i < lhs.size(); ++i) {
+                int result = lhs.get(i).compareTo(rhs.get(i));
+                if (result != 0) {
+                    return result;
+                }
+            }
+
+            return 0;
+        });
+
+        sorted.putAll(family.getChildren());
+        return sorted;
+    }
+
+    private static void writeChild(StringBuilder builder, MetricFamily<?> family, List<String> labelValues,
+        Object child) {
+
+        String name = family.getName();
+        List<String> labelNames = family.getLabelNames();
+
+        if (child instanceof Counter) {
+            writeSample(builder, name, labelNames, labelValues, null, null)
+                .append(((Counter) child).get()).append('\n');
+        }
+        else if (child instanceof Gauge) {
+            writeSample(builder, name, labelNames, labelValues, null, null)
+                .append(((Gauge) child).get()).append('\n');
+        }
+        else if (child instanceof Timer) {
+            Timer timer = (Timer) child;
+            long[] counts = timer.getCumulativeCounts();
+
+            for (int i = 0; i < Timer.BUCKETS.length; ++i) {
+                String bound = BigDecimal.valueOf(Timer.BUCKETS[i]).toPlainString();
+
+                writeSample(builder, name + "_bucket", labelNames, labelValues, "le", bound)
+                    .append(counts[i]).append('\n');
+            }
+
+            // Impl note: the count is taken from the +Inf bucket so that it is always consistent
+            // with the buckets, even while durations are being recorded concurrently.
+            long count = counts[counts.length - 1];
+
+            writeSample(builder, name + "_bucket", labelNames, labelValues, "le", "+Inf")
+                .append(count).append('\n');
+            writeSample(builder, name + "_sum", labelNames, labelValues, null, null)
+                .append(timer.getSum() / NANOS_PER_SECOND).append('\n');
+            writeSample(builder, name + "_count", labelNames, labelValues, null, null)
+                .append(count).append('\n');
+        }
+    }
+
+    private static StringBuilder writeSample(StringBuilder builder, String name, List<String> labelNames,
+        List<String> labelValues, String extraName, String extraValue) {
+
+        builder.append(name);
+
+        if (!labelNames.isEmpty() || extraName != null) {
+            List<String> names = new ArrayList<>(labelNames);
+            List<String> values = new ArrayList<>(labelValues);
+
+            if (extraName != null) {
+                names.add(extraName);
+                values.add(extraValue);
+            }
+
+            builder.append('{');
+            for (int i = 0; i < names.size(); ++i) {
+                if (i > 0) {
+                    builder.append(',');
+                }
+
+                builder.append(names.get(i)).append("=\"");
+                escape(builder, values.get(i), true);
+                builder.append('"');
+            }
+            builder.append('}');
+        }
+
+        return builder.append(' ');
+    }
+
+    private static void escape(StringBuilder builder, String value, boolean quotes) {
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+
+            switch (c) {
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+
+                case '\n':
+                    builder.append("\\n");
+                    break;
+
+                case '"':
+                    builder.append(quotes ? "\\\"" : "\"");
+                    break;
+
+                default:
+                    builder.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+
+
+/**
+ * Records the distribution of durations of an operation in a fixed set of buckets, exported as a
+ * Prometheus histogram in seconds. Recording a duration is a binary search over the bucket bounds
+ * and a few uncontended adder updates; no allocation is performed, so timers are cheap enough to
+ * leave enabled on the hottest paths.
+ */
+public class Timer {
+
+    /** The upper bounds of the histogram buckets, in seconds, excluding the implicit +Inf bucket */
+    public static final double[] BUCKETS = {
+        0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60, 300
+    };
+
+    private static final long[] BUCKET_NANOS = Arrays.stream(BUCKETS)
+        .mapToLong(bound -> (long) (bound * TimeUnit.SECONDS.toNanos(1)))
+        .toArray();
+
+    private final LongAdder[] buckets;
+    private final LongAdder count;
+    private final LongAdder sum;
+
+    public Timer() {
+        // The final bucket counts durations exceeding the largest bound
+        this.buckets = new LongAdder[BUCKET_NANOS.length + 1];
+        for (int i = 0; i < this.buckets.length; ++i) {
+            this.buckets[i] = new LongAdder();
+        }
+
+        this.count = new LongAdder();
+        this.sum = new LongAdder();
+    }
+
+    /**
+     * Records a single duration.
+     *
+     * @param nanos
+     *  the duration to record, in nanoseconds; negative durations are recorded as zero
+     */
+    public void record(long nanos) {
+        nanos = Math.max(nanos, 0);
+
+        int index = Arrays.binarySearch(BUCKET_NANOS, nanos);
+        this.buckets[index >= 0 ? index : -index - 1].increment();
+
+        this.count.increment();
+        this.sum.add(nanos);
+    }
+
+    /**
+     * Records the time elapsed since the given start time.
+     *
+     * @param startNanos
+     *  the start time of the operation, as returned by System.nanoTime
+     */
+    public void recordSince(long startNanos) {
+        this.record(System.nanoTime() - startNanos);
+    }
+
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    /**
+     * Fetches the total of all recorded durations.
+     *
+     * @return
+     *  the total of all recorded durations, in nanoseconds
+     */
+    public long getSum() {
+        return this.sum.sum();
+    }
+
+    /**
+     * Fetches the cumulative bucket counts of this timer: the number of recorded durations less
+     * than or equal to the bound of each bucket, followed by the total count for the +Inf bucket.
+     *
+     * @return
+     *  an array of cumulative bucket counts, one longer than the BUCKETS array
+     */
+    public long[] getCumulativeCounts() {
+        long[] counts = new long[this.buckets.length];
+        long total = 0;
+
+        for (int i = 0; i < this.buckets.length; ++i) {
+            total += this.buckets[i].sum();
+            counts[i] = total;
+        }
+
+        return counts;
+    }
+}
@@ -25,6 +25,7 @@ import org.candlepin.guice.PrincipalProvider;
 
 import com.google.common.collect.Iterables;
 import com.google.inject.Inject;
+import com.google.inject.OutOfScopeException;
 import com.google.inject.Provider;
 import com.google.inject.persist.Transactional;
 
@@ -40,6 +41,8 @@ import org.hibernate.criterion.Order;
 import org.hibernate.criterion.Projection;
 import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
 import org.hibernate.internal.CriteriaImpl;
 import org.hibernate.internal.SessionImpl;
 import org.hibernate.metadata.ClassMetadata;
@@ -79,11 +82,16 @@ import javax.persistence.criteria.Root;
 public abstract class AbstractHibernateCurator<E extends Persisted> {
     private static Logger log = LoggerFactory.getLogger(AbstractHibernateCurator.class);
 
+    /** The token replaced with the key restriction in queries executed by bulkSQLKeyLookup */
+    protected static final String KEY_RESTRICTION_TOKEN = "{keys}";
+
     @Inject protected CandlepinQueryFactory cpQueryFactory;
     @Inject protected Provider<EntityManager> entityManager;
     @Inject protected Provider<I18n> i18nProvider;
     @Inject protected Configuration config;
     @Inject private PrincipalProvider principalProvider;
+    @Inject private Provider<EntityIdentityCache> identityCacheProvider;
+    @Inject private Provider<EntityLookupMemo> lookupMemoProvider;
 
     private final Class<E> entityType;
     private NaturalIdLoadAccess<E> natIdLoader;
@@ -115,6 +123,124 @@ public abstract class AbstractHibernateCurator<E extends Persisted> {
         return config.getInt(DatabaseConfigFactory.QUERY_PARAMETER_LIMIT);
     }
 
+    /**
+     * Caches an entity resolved by the given external identifier for the given principal in the
+     * identity cache of the current request. Subsequent lookups by the same identifier performed
+     * by this curator on behalf of that principal may then reuse the entity rather than querying
+     * for it again. Outside of a request scope, this method does nothing.
+     *
+     * @param id
+     *  the external identifier of the entity, such as a consumer UUID or owner key
+     *
+     * @param entity
+     *  the entity to cache
+     *
+     * @param principal
+     *  the principal for which the entity was resolved
+     */
+    public void cacheIdentity(String id, E entity, Principal principal) {
+        EntityIdentityCache cache = this.getIdentityCache();
+
+        if (cache != null) {
+            cache.put(this.entityType, id, entity, principal);
+        }
+    }
+
+    /**
+     * Fetches the entity cached under the given external identifier for the current principal
+     * from the identity cache of the current request. If the entity has not been cached, or is no
+     * longer managed by the current session, this method returns null.
+     *
+     * @param id
+     *  the external identifier of the entity
+     *
+     * @return
+     *  the cached entity, or null if a usable entity has not been cached
+     */
+    protected E getCachedIdentity(String id) {
+        EntityIdentityCache cache = this.getIdentityCache();
+
+        if (cache != null && id != null) {
+            E entity = cache.get(this.entityType, id, this.principalProvider.get());
+
+            if (entity != null && this.currentSession().contains(entity)) {
+                return entity;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Removes the entity cached under the given external identifier from the identity cache of
+     * the current request, if present.
+     *
+     * @param id
+     *  the external identifier of the entity
+     */
+    protected void evictCachedIdentity(String id) {
+        EntityIdentityCache cache = this.getIdentityCache();
+
+        if (cache != null) {
+            cache.evict(this.entityType, id);
+        }
+    }
+
+    private EntityIdentityCache getIdentityCache() {
+        if (this.identityCacheProvider == null) {
+            return null;
+        }
+
+        try {
+            return this.identityCacheProvider.get();
+        }
+        catch (OutOfScopeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Fetches the entity with the given ID, reusing the instance memoized by an earlier lookup
+     * performed during the current request or job where it is still managed by the current
+     * session. Entities loaded by this method are memoized for subsequent lookups. Outside of a
+     * request scope, this method is equivalent to {@link #get(Serializable)}.
+     *
+     * @param id
+     *  the database ID of the entity to fetch
+     *
+     * @return
+     *  the entity with the given ID, or null if no such entity exists
+     */
+    protected E getMemoized(Serializable id) {
+        EntityLookupMemo memo = this.getLookupMemo();
+
+        if (memo == null || id == null) {
+            return this.get(id);
+        }
+
+        E entity = memo.get(this.entityType, id);
+
+        if (entity == null || !this.currentSession().contains(entity)) {
+            entity = this.get(id);
+            memo.put(this.entityType, id, entity);
+        }
+
+        return entity;
+    }
+
+    private EntityLookupMemo getLookupMemo() {
+        if (this.lookupMemoProvider == null) {
+            return null;
+        }
+
+        try {
+            return this.lookupMemoProvider.get();
+        }
+        catch (OutOfScopeException e) {
+            return null;
+        }
+    }
+
     /**
      * Get one or zero items.  Thanks http://stackoverflow.com/a/6378045/6124862
      * @param query
@@ -1413,6 +1539,200 @@ public abstract class AbstractHibernateCurator<E extends Persisted> {
         return query.executeUpdate();
     }
 
+    /**
+     * Executes the given native SQL query for a large collection of composite keys, returning the
+     * combined results. The query must contain a single <tt>{keys}</tt> token, which is replaced
+     * with a restriction matching rows whose key columns match any one of the keys.
+     * <p></p>
+     * The keys are split into blocks such that no single query exceeds the query parameter limit
+     * or the IN operator block size, and the query is executed once per block. Where supported by
+     * the database, each block is matched with a row value IN list; otherwise, it is matched with
+     * a disjunction of per-key conjunctions. Since the query is executed per block, callers must
+     * not rely on the query to aggregate, order or deduplicate results across blocks.
+     * <pre>
+     *  {@code
+     *  String sql = "SELECT p.uuid FROM cp2_products p WHERE {keys}";
+     *  List<String> uuids = this.bulkSQLKeyLookup(sql, new String[] { "p.product_id", "p.entity_version" },
+     *      keys, null);
+     *  }
+     * </pre>
+     *
+     * @param sql
+     *  The native SQL query to execute, containing a single {keys} token
+     *
+     * @param columns
+     *  The key columns to match, as they should be referenced in the query
+     *
+     * @param keys
+     *  A collection of keys to match; each key must contain one non-null value for each key column,
+     *  in the same order as the key columns
+     *
+     * @param parameters
+     *  A mapping of any additional named parameters used by the query; may be null
+     *
+     * @return
+     *  the combined results of the query
+     */
+    @SuppressWarnings("unchecked")
+    protected <T> List<T> bulkSQLKeyLookup(String sql, String[] columns, Collection<Object[]> keys,
+        Map<String, Object> parameters) {
+
+        if (sql == null || !sql.contains(KEY_RESTRICTION_TOKEN)) {
+            throw new IllegalArgumentException("sql does not contain a key restriction token");
+        }
+
+        if (columns == null || columns.length == 0) {
+            throw new IllegalArgumentException("no key columns provided");
+        }
+
+        List<T> results = new ArrayList<>();
+
+        if (keys == null || keys.isEmpty()) {
+            return results;
+        }
+
+        int paramCount = parameters != null ? parameters.size() : 0;
+        int blockSize = Math.min(this.getInBlockSize(),
+            Math.max(1, (this.getQueryParameterLimit() - paramCount) / columns.length));
+
+        boolean rowValues = columns.length > 1 && this.supportsRowValueInList();
+
+        Session session = this.currentSession();
+        NativeQuery query = null;
+        int lastBlock = -1;
+
+        for (List<Object[]> block : Iterables.partition(keys, blockSize)) {
+            if (block.size() != lastBlock) {
+                String restriction = this.buildKeyRestriction(columns, block.size(), rowValues);
+                query = session.createNativeQuery(sql.replace(KEY_RESTRICTION_TOKEN, restriction));
+
+                if (parameters != null) {
+                    for (Map.Entry<String, Object> entry : parameters.entrySet()) {
+                        query.setParameter(entry.getKey(), entry.getValue());
+                    }
+                }
+
+                lastBlock = block.size();
+            }
+
+            int k = 0;
+            for (Object[] key : block) {
+                if (key == null || key.length != columns.length) {
+                    throw new IllegalArgumentException("key does not match the key columns: " +
+                        Arrays.toString(key));
+                }
+
+                for (int c = 0; c < columns.length; ++c) {
+                    query.setParameter(keyParameterName(k, c), key[c]);
+                }
+
+                ++k;
+            }
+
+            results.addAll(query.getResultList());
+        }
+
+        return results;
+    }
+
+    /**
+     * Executes the given native SQL query for a large collection of values of a single key
+     * column, returning the combined results. This is a convenience method for using
+     * bulkSQLKeyLookup with non-composite keys.
+     *
+     * @param sql
+     *  The native SQL query to execute, containing a single {keys} token
+     *
+     * @param column
+     *  The key column to match, as it should be referenced in the query
+     *
+     * @param values
+     *  A collection of non-null values to match
+     *
+     * @param parameters
+     *  A mapping of any additional named parameters used by the query; may be null
+     *
+     * @return
+     *  the combined results of the query
+     */
+    protected <T> List<T> bulkSQLKeyLookup(String sql, String column, Collection<?> values,
+        Map<String, Object> parameters) {
+
+        List<Object[]> keys = new ArrayList<>(values != null ? values.size() : 0);
+        if (values != null) {
+            for (Object value : values) {
+                keys.add(new Object[] { value });
+            }
+        }
+
+        return this.bulkSQLKeyLookup(sql, new String[] { column }, keys, parameters);
+    }
+
+    private static String keyParameterName(int key, int column) {
+        return "key" + key + "_" + column;
+    }
+
+    private String buildKeyRestriction(String[] columns, int count, boolean rowValues) {
+        StringBuilder builder = new StringBuilder();
+
+        if (columns.length == 1 || rowValues) {
+            if (columns.length > 1) {
+                builder.append('(').append(String.join(", ", columns)).append(')');
+            }
+            else {
+                builder.append(columns[0]);
+            }
+
+            builder.append(" IN (");
+
+            for (int k = 0; k < count; ++k) {
+                builder.append(k > 0 ? ", " : "");
+
+                if (columns.length > 1) {
+                    builder.append('(');
+                }
+
+                for (int c = 0; c < columns.length; ++c) {
+                    builder.append(c > 0 ? ", :" : ":").append(keyParameterName(k, c));
+                }
+
+                if (columns.length > 1) {
+                    builder.append(')');
+                }
+            }
+
+            builder.append(')');
+        }
+        else {
+            builder.append('(');
+
+            for (int k = 0; k < count; ++k) {
+                builder.append(k > 0 ? " OR (" : "(");
+
+                for (int c = 0; c < columns.length; ++c) {
+                    builder.append(c > 0 ? " AND " : "").append(columns[c]).append(" = :")
+                        .append(keyParameterName(k, c));
+                }
+
+                builder.append(')');
+            }
+
+            builder.append(')');
+        }
+
+        return builder.toString();
+    }
+
+    private boolean supportsRowValueInList() {
+        Dialect dialect = this.currentSession()
+            .getSessionFactory()
+            .unwrap(SessionFactoryImplementor.class)
+            .getJdbcServices()
+            .getDialect();
+
+        return dialect.supportsRowValueConstructorSyntaxInInList();
+    }
+
     /**
      * Partitions the given collection using the value returned by the getInBlockSize() method as
      * the partition size. This method is provided as a utility method to avoid referencing a very
@@ -23,6 +23,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -335,6 +337,38 @@ public class AsyncJobStatusCurator extends AbstractHibernateCurator<AsyncJobStat
         return this.getJobsInState(states);
     }
 
+    /**
+     * Counts the jobs in each of the given states, grouped by job key. Job keys and states for
+     * which there are no jobs are omitted from the output.
+     *
+     * @param states
+     *  a collection of states in which to count jobs
+     *
+     * @return
+     *  a map of job keys to the number of jobs with that key in each of the given states
+     */
+    public Map<String, Map<JobState, Long>> getJobCountsByKeyAndState(Collection<JobState> states) {
+        Map<String, Map<JobState, Long>> counts = new HashMap<>();
+
+        if (states != null && !states.isEmpty()) {
+            String jpql = "SELECT aj.jobKey, aj.state, COUNT(aj) FROM AsyncJobStatus aj " +
+                "WHERE aj.state IN (:states) " +
+                "GROUP BY aj.jobKey, aj.state";
+
+            List<Object[]> rows = this.getEntityManager()
+                .createQuery(jpql, Object[].class)
+                .setParameter("states", states)
+                .getResultList();
+
+            for (Object[] row : rows) {
+                counts.computeIfAbsent((String) row[0], key -> new EnumMap<>(JobState.class))
+                    .put((JobState) row[1], (Long) row[2]);
+            }
+        }
+
+        return counts;
+    }
+
     /**
      * Fetches a collection of jobs based on the provided filter data in the query builder. If the
      * query builder is null or contains no arguments, this method will return all known async jobs.
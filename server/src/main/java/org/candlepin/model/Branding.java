@@ -14,10 +14,13 @@
  */
 package org.candlepin.model;
 
+import org.candlepin.cache.CandlepinCacheRegions;
 import org.candlepin.service.model.BrandingInfo;
 
 import org.apache.commons.lang.builder.EqualsBuilder;
 import org.apache.commons.lang.builder.HashCodeBuilder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.Immutable;
 
@@ -45,6 +48,7 @@ import javax.validation.constraints.Size;
  */
 @Entity
 @Immutable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = CandlepinCacheRegions.PRODUCT_DATA)
 @Table(name = Branding.DB_TABLE)
 public class Branding extends AbstractHibernateObject<Branding> implements BrandingInfo,
     Cloneable {
@@ -110,6 +114,7 @@ public class Branding extends AbstractHibernateObject<Branding> implements Brand
     }
 
     public void setProductId(String productId) {
+        this.clearProductEntityVersion();
         this.productId = productId;
     }
 
@@ -122,6 +127,7 @@ public class Branding extends AbstractHibernateObject<Branding> implements Brand
     }
 
     public void setName(String name) {
+        this.clearProductEntityVersion();
         this.name = name;
     }
 
@@ -136,6 +142,7 @@ public class Branding extends AbstractHibernateObject<Branding> implements Brand
     }
 
     public void setType(String type) {
+        this.clearProductEntityVersion();
         this.type = type;
     }
 
@@ -152,7 +159,18 @@ public class Branding extends AbstractHibernateObject<Branding> implements Brand
      * Sets the parent marketing product that this branding belongs to.
      */
     public void setProduct(Product product) {
+        this.clearProductEntityVersion();
         this.product = product;
+        this.clearProductEntityVersion();
+    }
+
+    /**
+     * Clears the memoized version of the parent product, if any, as it includes this branding.
+     */
+    private void clearProductEntityVersion() {
+        if (this.product != null) {
+            this.product.clearEntityVersionMemo();
+        }
     }
 
     @Override
@@ -100,6 +100,41 @@ public interface CandlepinQuery<T> extends Iterable<T> {
      */
     CandlepinQuery<T> setLockMode(LockModeType lockMode);
 
+    /**
+     * Sets whether or not entities fetched by this query should be loaded in read-only mode.
+     * Read-only entities are not dirty-checked or flushed, and the session does not retain a
+     * snapshot of their loaded state. Queries used for bulk reads, such as those streamed to
+     * clients or exported, should generally be read-only.
+     *
+     * @param readOnly
+     *  Whether or not to load the entities fetched by this query in read-only mode
+     *
+     * @return
+     *  this query instance
+     */
+    CandlepinQuery<T> setReadOnly(boolean readOnly);
+
+    /**
+     * Sets the number of rows the JDBC driver should fetch from the database at a time when
+     * iterating over the results of this query. The fetch size is only a hint, and whether it
+     * prevents the driver from reading the entire result set into memory depends on the driver:
+     * <ul>
+     *  <li>PostgreSQL honors it for forward-only results read within a transaction</li>
+     *  <li>MariaDB Connector/J streams the results for any positive fetch size</li>
+     *  <li>MySQL Connector/J ignores it unless the connection is configured with
+     *      useCursorFetch=true; otherwise it only streams results when given a fetch size of
+     *      Integer.MIN_VALUE, which this method does not apply</li>
+     * </ul>
+     *
+     * @param fetchSize
+     *  The number of rows to fetch per round trip when executing this query. Non-positive values
+     *  will clear any previously set fetch size.
+     *
+     * @return
+     *  this query instance
+     */
+    CandlepinQuery<T> setFetchSize(int fetchSize);
+
     /**
      * Returns a CandlepinQuery instance that transforms the results using the given element
      * transformer.
@@ -115,7 +150,6 @@ public interface CandlepinQuery<T> extends Iterable<T> {
 
     // TODO:
     // Add some other utility/passthrough methods as a need arises:
-    //  - setReadOnly
     //  - setFetchMode
     //  - setCacheMode/setCacheable
 
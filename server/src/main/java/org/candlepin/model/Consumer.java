@@ -264,6 +264,14 @@ public class Consumer extends AbstractHibernateObject implements Linkable, Owned
     @Column(name = "rh_cloud_profile_modified")
     private Date rhCloudProfileModified;
 
+    /**
+     * Whether or not the consumer's compliance and system purpose statuses are awaiting a deferred
+     * recalculation. This flag is only set and cleared through bulk updates in the ConsumerCurator,
+     * so flushing a stale consumer instance never resets it.
+     */
+    @Column(name = "compliance_dirty", insertable = false, updatable = false)
+    private Boolean complianceDirty;
+
     public Consumer(String name, String userName, Owner owner, ConsumerType type) {
         this();
 
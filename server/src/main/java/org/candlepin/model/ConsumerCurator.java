@@ -35,6 +35,9 @@ import org.hibernate.FetchMode;
 import org.hibernate.Hibernate;
 import org.hibernate.Query;
 import org.hibernate.ReplicationMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
 import org.hibernate.criterion.Criterion;
 import org.hibernate.criterion.DetachedCriteria;
 import org.hibernate.criterion.Disjunction;
@@ -121,6 +124,7 @@ public class ConsumerCurator extends AbstractHibernateCurator<Consumer> {
 
         // Actually delete the consumer
         super.delete(entity);
+        this.evictCachedIdentity(entity.getUuid());
 
         // Save our deletion record
         this.deletedConsumerCurator.saveOrUpdate(deletedConsumer);
@@ -328,6 +332,12 @@ public class ConsumerCurator extends AbstractHibernateCurator<Consumer> {
     // to bypass the authentication. Do not call it!
     // TODO: Come up with a better way to do this!
     public Consumer getConsumer(String uuid) {
+        // Reuse the consumer if it has already been resolved for this principal during the request
+        Consumer cached = this.getCachedIdentity(uuid);
+        if (cached != null) {
+            return cached;
+        }
+
         Criteria criteria = this.createSecureCriteria()
             .add(Restrictions.eq("uuid", uuid));
 
@@ -369,85 +379,120 @@ public class ConsumerCurator extends AbstractHibernateCurator<Consumer> {
     }
 
     /**
-     * Fetches all unique role attribute values set by all the consumers of the specified owner.
+     * Builds a native query which counts the consumers of an owner by each distinct value of each
+     * system purpose attribute, in a single pass. Each row of the query is a triple of the ordinal of
+     * the attribute's SystemPurposeAttributeType, the attribute value, and the number of consumers
+     * with that value, ordered by attribute.
+     * <p></p>
+     * The query is not restricted by the principal's permissions, and is only suitable for callers
+     * which have already verified access to the entire owner.
+     *
+     * @param session
+     *  the session in which to create the query
      *
      * @param owner
-     *  The owner the consumers belong to.
+     *  the owner of the consumers to count
+     *
      * @return
-     *  A list of the all the distinct values of the role attribute that the consumers belonging to the
-     *  specified owner have set.
+     *  a native query counting the consumers of the given owner by system purpose value
      */
-    @SuppressWarnings("unchecked")
-    @Transactional
-    public List<String> getDistinctSyspurposeRolesByOwner(Owner owner) {
-        return this.createSecureCriteria()
-            .add(Restrictions.eq("ownerId", owner.getId()))
-            .add(Restrictions.neOrIsNotNull("role", ""))
-            .setProjection(Projections.property("role"))
-            .setResultTransformer(Criteria.DISTINCT_ROOT_ENTITY)
-            .list();
+    private Query buildSyspurposeCountQuery(Session session, Owner owner) {
+        String sql = "SELECT " + SystemPurposeAttributeType.ROLES.ordinal() + ", sp_role, COUNT(*) " +
+            "FROM cp_consumer " +
+            "WHERE owner_id = :owner_id AND sp_role IS NOT NULL AND sp_role != '' " +
+            "GROUP BY sp_role " +
+            "UNION ALL " +
+            "SELECT " + SystemPurposeAttributeType.USAGE.ordinal() + ", sp_usage, COUNT(*) " +
+            "FROM cp_consumer " +
+            "WHERE owner_id = :owner_id AND sp_usage IS NOT NULL AND sp_usage != '' " +
+            "GROUP BY sp_usage " +
+            "UNION ALL " +
+            "SELECT " + SystemPurposeAttributeType.SERVICE_LEVEL.ordinal() + ", servicelevel, COUNT(*) " +
+            "FROM cp_consumer " +
+            "WHERE owner_id = :owner_id AND servicelevel IS NOT NULL AND servicelevel != '' " +
+            "GROUP BY servicelevel " +
+            "UNION ALL " +
+            "SELECT " + SystemPurposeAttributeType.ADDONS.ordinal() + ", add_on, COUNT(*) " +
+            "FROM cp_sp_add_on JOIN cp_consumer ON cp_consumer.id = cp_sp_add_on.consumer_id " +
+            "WHERE cp_consumer.owner_id = :owner_id AND add_on IS NOT NULL AND add_on != '' " +
+            "GROUP BY add_on " +
+            "ORDER BY 1";
+
+        return session.createSQLQuery(sql)
+            .setParameter("owner_id", owner.getId());
     }
 
     /**
-     * Fetches all unique usage attribute values set by all the consumers of the specified owner.
+     * Counts the consumers of the specified owner by each distinct value they have set for each of
+     * the system purpose attributes. The counts are aggregated by the database in a single query,
+     * rather than by loading the attributes of every consumer of the owner.
+     * <p></p>
+     * The counts are not restricted by the current principal's permissions; callers are expected to
+     * have verified that the principal has access to the entire owner.
      *
      * @param owner
      *  The owner the consumers belong to.
+     *
      * @return
-     *  A list of the all the distinct values of the usage attribute that the consumers belonging to the
-     *  specified owner have set.
+     *  A map of system purpose attribute names to maps of the values of that attribute set by the
+     *  owner's consumers to the number of consumers with each value. Every attribute is present in
+     *  the map, even if none of the consumers have set it.
      */
     @SuppressWarnings("unchecked")
     @Transactional
-    public List<String> getDistinctSyspurposeUsageByOwner(Owner owner) {
-        return this.createSecureCriteria()
-            .add(Restrictions.eq("ownerId", owner.getId()))
-            .add(Restrictions.neOrIsNotNull("usage", ""))
-            .setProjection(Projections.property("usage"))
-            .setResultTransformer(Criteria.DISTINCT_ROOT_ENTITY)
-            .list();
+    public Map<String, Map<String, Long>> getSyspurposeAttributeCountsByOwner(Owner owner) {
+        Map<String, Map<String, Long>> counts = new HashMap<>();
+        for (SystemPurposeAttributeType type : SystemPurposeAttributeType.values()) {
+            counts.put(type.toString(), new HashMap<>());
+        }
+
+        List<Object[]> rows = this.buildSyspurposeCountQuery(this.currentSession(), owner).list();
+        for (Object[] row : rows) {
+            String attribute = getSyspurposeAttributeName(row[0]);
+            counts.get(attribute).put((String) row[1], ((Number) row[2]).longValue());
+        }
+
+        return counts;
     }
 
     /**
-     * Fetches all unique serviceLevel attribute values set by all the consumers of the specified owner.
+     * Iterates over the consumer counts of each distinct value of each system purpose attribute set
+     * by the consumers of the specified owner, without materializing the full set of values. Each
+     * element is a triple of the attribute name, the attribute value and the number of consumers
+     * with that value; elements are grouped by attribute. Like getSyspurposeAttributeCountsByOwner,
+     * the counts are not restricted by the current principal's permissions.
+     * <p></p>
+     * The returned iterator holds an open cursor in the given session, and should be closed once
+     * iteration is complete.
+     *
+     * @param session
+     *  the session in which to run the query; typically a session opened for the purpose of
+     *  streaming the results
      *
      * @param owner
      *  The owner the consumers belong to.
+     *
      * @return
-     *  A list of the all the distinct values of the serviceLevel attribute that the consumers belonging
-     *  to the specified owner have set.
+     *  an iterator over the system purpose value counts of the owner's consumers
      */
-    @SuppressWarnings("unchecked")
-    @Transactional
-    public List<String> getDistinctSyspurposeServicelevelByOwner(Owner owner) {
-        return this.createSecureCriteria()
-            .add(Restrictions.eq("ownerId", owner.getId()))
-            .add(Restrictions.neOrIsNotNull("serviceLevel", ""))
-            .setProjection(Projections.property("serviceLevel"))
-            .setResultTransformer(Criteria.DISTINCT_ROOT_ENTITY)
-            .list();
+    public ResultIterator<Object[]> iterateSyspurposeAttributeCountsByOwner(Session session, Owner owner) {
+        ScrollableResults cursor = this.buildSyspurposeCountQuery(session, owner)
+            .setReadOnly(true)
+            .scroll(ScrollMode.FORWARD_ONLY);
+
+        return new RowResultIterator(cursor) {
+            @Override
+            public Object[] next() {
+                Object[] row = super.next();
+                String attribute = getSyspurposeAttributeName(row[0]);
+
+                return new Object[] { attribute, row[1], ((Number) row[2]).longValue() };
+            }
+        };
     }
 
-    /**
-     * Fetches all unique addon attribute values set by all the consumers of the specified owner.
-     *
-     * @param owner
-     *  The owner the consumers belong to.
-     * @return
-     *  A list of the all the distinct values of the addon attribute that the consumers belonging
-     *  to the specified owner have set.
-     */
-    @SuppressWarnings("unchecked")
-    @Transactional
-    public List<String> getDistinctSyspurposeAddonsByOwner(Owner owner) {
-        String sql = "SELECT DISTINCT add_on FROM cp_sp_add_on, cp_consumer " +
-            "WHERE cp_consumer.id = cp_sp_add_on.consumer_id " +
-            "AND cp_consumer.owner_id = :ownerid " +
-            "AND add_on IS NOT NULL " +
-            "AND add_on != ''";
-        Query query = this.currentSession().createSQLQuery(sql);
-        query.setParameter("ownerid", owner.getId());
-        return query.list();
+    private static String getSyspurposeAttributeName(Object ordinal) {
+        return SystemPurposeAttributeType.values()[((Number) ordinal).intValue()].toString();
     }
 
     @SuppressWarnings("unchecked")
@@ -1338,4 +1383,106 @@ public class ConsumerCurator extends AbstractHibernateCurator<Consumer> {
         return updated;
     }
 
+    /**
+     * Flags the specified consumers as requiring a recalculation of their compliance and system
+     * purpose statuses. Flagged consumers are processed by the ConsumerStatusRecalculationJob, which
+     * recalculates each flagged consumer once, regardless of how many times it has been flagged.
+     *
+     * @param consumerIds
+     *  the IDs of the consumers to flag
+     *
+     * @return
+     *  the number of consumers flagged by this operation
+     */
+    @Transactional
+    public int markComplianceDirty(Iterable<String> consumerIds) {
+        return this.setComplianceDirty(consumerIds, true);
+    }
+
+    /**
+     * Clears the status recalculation flag from the specified consumers. This should be performed in
+     * the same transaction as the recalculation itself, so a consumer flagged again by a concurrent
+     * change will remain flagged once that change commits.
+     *
+     * @param consumerIds
+     *  the IDs of the consumers to clear
+     *
+     * @return
+     *  the number of consumers cleared by this operation
+     */
+    @Transactional
+    public int clearComplianceDirty(Iterable<String> consumerIds) {
+        return this.setComplianceDirty(consumerIds, false);
+    }
+
+    private int setComplianceDirty(Iterable<String> consumerIds, boolean dirty) {
+        int updated = 0;
+
+        if (consumerIds != null) {
+            String jpql = "UPDATE Consumer c SET c.complianceDirty = :dirty WHERE c.id IN (:cids)";
+
+            for (List<String> block : Iterables.partition(consumerIds, this.getInBlockSize())) {
+                updated += this.getEntityManager()
+                    .createQuery(jpql)
+                    .setParameter("dirty", dirty)
+                    .setParameter("cids", block)
+                    .executeUpdate();
+            }
+        }
+
+        return updated;
+    }
+
+    /**
+     * Fetches the IDs of the owners which have at least one consumer flagged for status
+     * recalculation.
+     *
+     * @return
+     *  a list of owner IDs with consumers pending status recalculation
+     */
+    public List<String> getOwnerIdsWithComplianceDirtyConsumers() {
+        String jpql = "SELECT DISTINCT c.ownerId FROM Consumer c WHERE c.complianceDirty = true " +
+            "ORDER BY c.ownerId";
+
+        return this.getEntityManager()
+            .createQuery(jpql, String.class)
+            .getResultList();
+    }
+
+    /**
+     * Fetches a block of IDs of the consumers belonging to the given owner which are flagged for
+     * status recalculation. The consumer IDs are returned in ascending order, starting after the
+     * given consumer ID, allowing the caller to walk the consumers in blocks and resume from the
+     * last ID processed.
+     *
+     * @param ownerId
+     *  the ID of the owner for which to fetch flagged consumer IDs
+     *
+     * @param afterId
+     *  the consumer ID after which to start the block, or null to start from the beginning
+     *
+     * @param blockSize
+     *  the maximum number of consumer IDs to fetch
+     *
+     * @return
+     *  a list of flagged consumer IDs no larger than the specified block size
+     */
+    public List<String> getComplianceDirtyConsumerIds(String ownerId, String afterId, int blockSize) {
+        String jpql = "SELECT c.id FROM Consumer c WHERE c.ownerId = :owner_id " +
+            "AND c.complianceDirty = true" +
+            (afterId != null ? " AND c.id > :after_id" : "") +
+            " ORDER BY c.id";
+
+        TypedQuery<String> query = this.getEntityManager()
+            .createQuery(jpql, String.class)
+            .setParameter("owner_id", ownerId)
+            .setMaxResults(blockSize);
+
+        if (afterId != null) {
+            query.setParameter("after_id", afterId);
+        }
+
+        return query.getResultList();
+    }
+
 }
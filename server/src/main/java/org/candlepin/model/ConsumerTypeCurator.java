@@ -38,7 +38,8 @@ public class ConsumerTypeCurator extends AbstractHibernateCurator<ConsumerType>
 
     /**
      * Fetches the ConsumerType for the specified consumer. If the consumer does not have a defined
-     * type ID, or the type ID is invalid, this method throws an exception.
+     * type ID, or the type ID is invalid, this method throws an exception. The type is resolved
+     * at most once per request or job.
      *
      * @param consumer
      *  The consumer for which to fetch a ConsumerType object
@@ -57,7 +58,7 @@ public class ConsumerTypeCurator extends AbstractHibernateCurator<ConsumerType>
             throw new IllegalArgumentException("consumer is null or does not have a defined type ID");
         }
 
-        ConsumerType type = this.get(consumer.getTypeId());
+        ConsumerType type = this.getMemoized(consumer.getTypeId());
 
         if (type == null) {
             throw new IllegalStateException("consumer is not associated with a valid type: " + consumer);
@@ -14,8 +14,10 @@
  */
 package org.candlepin.model;
 
+import org.candlepin.cache.CandlepinCacheRegions;
 import org.candlepin.model.dto.ContentData;
 import org.candlepin.service.model.ContentInfo;
+import org.candlepin.util.EntityVersionBuilder;
 import org.candlepin.util.SetView;
 import org.candlepin.util.Util;
 
@@ -42,9 +44,11 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
+import javax.persistence.PostLoad;
 import javax.persistence.PrePersist;
 import javax.persistence.PreUpdate;
 import javax.persistence.Table;
+import javax.persistence.Transient;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 import javax.xml.bind.annotation.XmlAccessType;
@@ -60,7 +64,7 @@ import javax.xml.bind.annotation.XmlTransient;
 @XmlAccessorType(XmlAccessType.PROPERTY)
 @Entity
 @Immutable
-@Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = CandlepinCacheRegions.PRODUCT_DATA)
 @Table(name = Content.DB_TABLE)
 public class Content extends AbstractHibernateObject implements SharedEntity, Cloneable, ContentInfo {
 
@@ -127,7 +131,7 @@ public class Content extends AbstractHibernateObject implements SharedEntity, Cl
     @Column(name = "element")
     @Size(max = 255)
     @Immutable
-    @Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = CandlepinCacheRegions.PRODUCT_DATA)
     private Set<String> modifiedProductIds;
 
     @Column(nullable = true)
@@ -136,7 +140,12 @@ public class Content extends AbstractHibernateObject implements SharedEntity, Cl
 
     @XmlTransient
     @Column(name = "entity_version")
-    private Integer entityVersion;
+    private Long entityVersion;
+
+    /** The memoized version of this content; cleared by any operation which may change it */
+    @XmlTransient
+    @Transient
+    private Long memoizedEntityVersion;
 
     @XmlTransient
     @Column
@@ -297,6 +306,7 @@ public class Content extends AbstractHibernateObject implements SharedEntity, Cl
      *  The new content ID for this content.
      */
     public void setId(String id) {
+        this.memoizedEntityVersion = null;
         this.id = id;
     }
 
@@ -306,6 +316,7 @@ public class Content extends AbstractHibernateObject implements SharedEntity, Cl
     }
 
     public void setType(String type) {
+        this.memoizedEntityVersion = null;
         this.type = type;
     }
 
@@ -315,6 +326,7 @@ public class Content extends AbstractHibernateObject implements SharedEntity, Cl
     }
 
     public void setLabel(String label) {
+        this.memoizedEntityVersion = null;
         this.label = label;
     }
 
@@ -324,6 +336,7 @@ public class Content extends AbstractHibernateObject implements SharedEntity, Cl
     }
 
     public void setName(String name) {
+        this.memoizedEntityVersion = null;
         this.name = name;
     }
 
@@ -333,6 +346,7 @@ public class Content extends AbstractHibernateObject implements SharedEntity, Cl
     }
 
     public void setVendor(String vendor) {
+        this.memoizedEntityVersion = null;
         this.vendor = vendor;
     }
 
@@ -342,6 +356,7 @@ public class Content extends AbstractHibernateObject implements SharedEntity, Cl
     }
 
     public void setContentUrl(String contentUrl) {
+        this.memoizedEntityVersion = null;
         this.contentUrl = contentUrl;
     }
 
@@ -359,6 +374,7 @@ public class Content extends AbstractHibernateObject implements SharedEntity, Cl
      *        requires.
      */
     public void setRequiredTags(String requiredTags) {
+        this.memoizedEntityVersion = null;
         this.requiredTags = requiredTags;
     }
 
@@ -374,6 +390,7 @@ public class Content extends AbstractHibernateObject implements SharedEntity, Cl
      * @param releaseVer the releaseVer to set
      */
     public void setReleaseVersion(String releaseVer) {
+        this.memoizedEntityVersion = null;
         this.releaseVer = releaseVer;
     }
 
@@ -383,6 +400,7 @@ public class Content extends AbstractHibernateObject implements SharedEntity, Cl
     }
 
     public void setGpgUrl(String gpgUrl) {
+        this.memoizedEntityVersion = null;
         this.gpgUrl = gpgUrl;
     }
 
@@ -392,6 +410,7 @@ public class Content extends AbstractHibernateObject implements SharedEntity, Cl
     }
 
     public void setMetadataExpiration(Long metadataExpire) {
+        this.memoizedEntityVersion = null;
         this.metadataExpire = metadataExpire;
     }
 
@@ -403,7 +422,8 @@ public class Content extends AbstractHibernateObject implements SharedEntity, Cl
      *  the modified product IDs of the content
      */
     public Collection<String> getModifiedProductIds() {
-        return new SetView(this.modifiedProductIds);
+        // The view allows removal, so the modified product IDs may be changed through it
+        return new SetView<>(this.modifiedProductIds, this::clearEntityVersionMemo);
     }
 
     /**
@@ -432,6 +452,7 @@ public class Content extends AbstractHibernateObject implements SharedEntity, Cl
             throw new IllegalArgumentException("productId is null");
         }
 
+        this.memoizedEntityVersion = null;
         return this.modifiedProductIds.add(productId);
     }
 
@@ -453,6 +474,7 @@ public class Content extends AbstractHibernateObject implements SharedEntity, Cl
             throw new IllegalArgumentException("productId is null");
         }
 
+        this.memoizedEntityVersion = null;
         return this.modifiedProductIds != null ? this.modifiedProductIds.remove(productId) : false;
     }
 
@@ -469,6 +491,7 @@ public class Content extends AbstractHibernateObject implements SharedEntity, Cl
      *  a reference to this entity
      */
     public Content setModifiedProductIds(Collection<String> requiredProductIds) {
+        this.memoizedEntityVersion = null;
         this.modifiedProductIds.clear();
 
         if (requiredProductIds != null) {
@@ -479,6 +502,7 @@ public class Content extends AbstractHibernateObject implements SharedEntity, Cl
     }
 
     public void setArches(String arches) {
+        this.memoizedEntityVersion = null;
         this.arches = arches;
     }
 
@@ -543,43 +567,43 @@ public class Content extends AbstractHibernateObject implements SharedEntity, Cl
     }
 
     /**
-     * Calculates and returns a version hash for this entity. This method operates much like the
-     * hashCode method, except that it is more accurate and should have fewer collisions.
+     * Calculates and returns a version for this entity. The version is a 64-bit digest of the
+     * state of this content, such that two content with the same ID and version may be considered
+     * equal. The version is memoized, and is only recalculated after the content has been changed.
      *
      * @return
-     *  a version hash for this entity
+     *  a version for this entity
      */
-    public int getEntityVersion() {
+    public long getEntityVersion() {
         // This must always be a subset of equals
-        HashCodeBuilder builder = new HashCodeBuilder(37, 7)
-            .append(this.id)
-            .append(this.type)
-            .append(this.label)
-            .append(this.name)
-            .append(this.vendor)
-            .append(this.contentUrl)
-            .append(this.requiredTags)
-            .append(this.releaseVer)
-            .append(this.gpgUrl)
-            .append(this.metadataExpire)
-            .append(this.arches);
-
-        // Impl note:
-        // We need to be certain that the hash code is calculated in a way that's order
-        // independent and not subject to Hibernate's poor hashCode implementation on proxy
-        // collections. This calculation follows that defined by the Set.hashCode method.
-        int accumulator = 0;
-
-        if (!this.modifiedProductIds.isEmpty()) {
-            for (String pid : this.modifiedProductIds) {
-                accumulator += (pid != null ? pid.hashCode() : 0);
-            }
-
-            builder.append(accumulator);
+        if (this.memoizedEntityVersion == null) {
+            this.memoizedEntityVersion = new EntityVersionBuilder()
+                .append(this.id)
+                .append(this.type)
+                .append(this.label)
+                .append(this.name)
+                .append(this.vendor)
+                .append(this.contentUrl)
+                .append(this.requiredTags)
+                .append(this.releaseVer)
+                .append(this.gpgUrl)
+                .append(this.metadataExpire)
+                .append(this.arches)
+                .appendSet(this.modifiedProductIds)
+                .build();
         }
 
-        // Return
-        return builder.toHashCode();
+        return this.memoizedEntityVersion;
+    }
+
+    /**
+     * Clears the memoized version of this content. Invoked when the content is loaded or
+     * refreshed, as Hibernate populates its state without going through its mutators, and when its
+     * modified product IDs are changed through their view.
+     */
+    @PostLoad
+    void clearEntityVersionMemo() {
+        this.memoizedEntityVersion = null;
     }
 
     @Override
@@ -52,6 +52,34 @@ public class ContentAccessCertificateCurator extends AbstractHibernateCurator<Co
             .uniqueResult();
     }
 
+    /**
+     * Fetches the serial of the content access certificate of the given consumer without loading
+     * the certificate and key themselves.
+     *
+     * @param consumer
+     *  the consumer for which to fetch the content access certificate serial
+     *
+     * @return
+     *  the serial of the consumer's content access certificate, or null if the consumer does not
+     *  have a content access certificate
+     */
+    public CertificateSerial getSerialForConsumer(Consumer consumer) {
+        if (consumer == null || consumer.getId() == null) {
+            return null;
+        }
+
+        String jpql = "SELECT s FROM Consumer c JOIN c.contentAccessCert cac JOIN cac.serial s " +
+            "WHERE c.id = :consumer_id";
+
+        List<CertificateSerial> serials = this.getEntityManager()
+            .createQuery(jpql, CertificateSerial.class)
+            .setParameter("consumer_id", consumer.getId())
+            .setMaxResults(1)
+            .getResultList();
+
+        return serials.isEmpty() ? null : serials.get(0);
+    }
+
     /**
      * Delete unneeded content access certs.
      *
@@ -64,6 +64,8 @@ public class DetachedCandlepinQuery<T> implements CandlepinQuery<T> {
     protected int offset;
     protected int limit;
     protected LockMode lockMode;
+    protected boolean readOnly;
+    protected int fetchSize;
 
     /**
      * Creates a new DetachedCandlepinQuery instance using the specified criteria and session.
@@ -97,6 +99,8 @@ public class DetachedCandlepinQuery<T> implements CandlepinQuery<T> {
         this.offset = -1;
         this.limit = -1;
         this.lockMode = null;
+        this.readOnly = false;
+        this.fetchSize = -1;
     }
 
     /**
@@ -174,7 +178,17 @@ public class DetachedCandlepinQuery<T> implements CandlepinQuery<T> {
             executable.setLockMode(this.lockMode);
         }
 
-        // TODO: Add read-only when we have a requirement to do so.
+        // Only override the session's default read-only setting when explicitly requested
+        if (this.readOnly) {
+            executable.setReadOnly(true);
+        }
+
+        // Only positive fetch sizes are applied. MySQL's streaming value of Integer.MIN_VALUE is
+        // rejected by other drivers, and blocks any other statement on the connection, including
+        // lazy loads, until the results are exhausted.
+        if (this.fetchSize > 0) {
+            executable.setFetchSize(this.fetchSize);
+        }
 
         return executable;
     }
@@ -239,6 +253,24 @@ public class DetachedCandlepinQuery<T> implements CandlepinQuery<T> {
         return this;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CandlepinQuery<T> setReadOnly(boolean readOnly) {
+        this.readOnly = readOnly;
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CandlepinQuery<T> setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+        return this;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -27,6 +27,7 @@ import org.hibernate.Hibernate;
 import org.hibernate.ReplicationMode;
 import org.hibernate.criterion.DetachedCriteria;
 import org.hibernate.criterion.Order;
+import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -524,6 +525,26 @@ public class EntitlementCurator extends AbstractHibernateCurator<Entitlement> {
         return this.entityManager.get().createQuery(query).getSingleResult().intValue();
     }
 
+    /**
+     * Fetches the unexpired entitlements of the specified consumer. Unlike listByConsumer, the
+     * entitlements are not fetched until the returned query is executed, allowing callers reading
+     * a large number of entitlements, such as the exporter, to iterate over them in read-only mode.
+     *
+     * @param consumer
+     *  The consumer for which to fetch entitlements
+     *
+     * @return
+     *  A CandlepinQuery to iterate over the unexpired entitlements of the specified consumer
+     */
+    public CandlepinQuery<Entitlement> listUnexpiredByConsumer(Consumer consumer) {
+        DetachedCriteria criteria = DetachedCriteria.forClass(Entitlement.class)
+            .add(Restrictions.eq("consumer", consumer))
+            .createCriteria("pool")
+            .add(Restrictions.ge("endDate", new Date()));
+
+        return this.cpQueryFactory.buildQuery(this.currentSession(), criteria);
+    }
+
     public CandlepinQuery<Entitlement> listByOwner(Owner owner) {
         DetachedCriteria criteria = DetachedCriteria.forClass(Entitlement.class)
             .add(Restrictions.eq("owner", owner));
@@ -531,6 +552,22 @@ public class EntitlementCurator extends AbstractHibernateCurator<Entitlement> {
         return this.cpQueryFactory.buildQuery(this.currentSession(), criteria);
     }
 
+    /**
+     * Fetches the entitlements consuming the specified pool.
+     *
+     * @param pool
+     *  The pool for which to fetch entitlements
+     *
+     * @return
+     *  A CandlepinQuery to iterate over the entitlements of the specified pool
+     */
+    public CandlepinQuery<Entitlement> listByPool(Pool pool) {
+        DetachedCriteria criteria = DetachedCriteria.forClass(Entitlement.class)
+            .add(Restrictions.eq("pool", pool));
+
+        return this.cpQueryFactory.buildQuery(this.currentSession(), criteria);
+    }
+
     /**
      * Fetches a the entitlements used by consumers in the specified environment.
      *
@@ -1021,6 +1058,81 @@ public class EntitlementCurator extends AbstractHibernateCurator<Entitlement> {
         return findByPoolAttribute(null, attributeName, value);
     }
 
+    /**
+     * Fetches the IDs of the owners which have unmapped guest entitlements that are not valid on
+     * the given date, ordered by owner ID.
+     *
+     * @param date
+     *  the date on which to check entitlement validity
+     *
+     * @return
+     *  a list of IDs of owners with expired unmapped guest entitlements
+     */
+    @SuppressWarnings("unchecked")
+    public List<String> getOwnerIdsWithExpiredUnmappedGuestEntitlements(Date date) {
+        return this.createExpiredUnmappedGuestEntitlementCriteria(date)
+            .setProjection(Projections.distinct(Projections.property("ent.owner.id")))
+            .addOrder(Order.asc("ent.owner.id"))
+            .list();
+    }
+
+    /**
+     * Fetches a block of IDs of the unmapped guest entitlements belonging to the given owner which
+     * are not valid on the given date; that is, entitlements whose pool has not yet started, or
+     * whose end date (or end date override) has passed. The entitlement IDs are returned in
+     * ascending order, starting after the given entitlement ID, allowing the caller to walk the
+     * entitlements in blocks and resume from the last ID processed.
+     *
+     * @param ownerId
+     *  the ID of the owner for which to fetch expired unmapped guest entitlement IDs
+     *
+     * @param date
+     *  the date on which to check entitlement validity
+     *
+     * @param afterId
+     *  the entitlement ID after which to start the block, or null to start from the beginning
+     *
+     * @param blockSize
+     *  the maximum number of entitlement IDs to fetch
+     *
+     * @return
+     *  a list of expired unmapped guest entitlement IDs no larger than the specified block size
+     */
+    @SuppressWarnings("unchecked")
+    public List<String> getExpiredUnmappedGuestEntitlementIds(String ownerId, Date date, String afterId,
+        int blockSize) {
+
+        Criteria criteria = this.createExpiredUnmappedGuestEntitlementCriteria(date)
+            .add(Restrictions.eq("ent.owner.id", ownerId))
+            .setProjection(Projections.id())
+            .addOrder(Order.asc("ent.id"))
+            .setMaxResults(blockSize);
+
+        if (afterId != null) {
+            criteria.add(Restrictions.gt("ent.id", afterId));
+        }
+
+        return criteria.list();
+    }
+
+    @SuppressWarnings("checkstyle:indentation")
+    private Criteria createExpiredUnmappedGuestEntitlementCriteria(Date date) {
+        // Mirrors Entitlement.isValidOnDate, but evaluated by the database
+        return this.currentSession().createCriteria(Entitlement.class, "ent")
+            .createAlias("ent.pool", "ent_pool")
+            .createAlias("ent_pool.attributes", "attrs")
+            .add(Restrictions.eq("attrs.indices", Pool.Attributes.UNMAPPED_GUESTS_ONLY))
+            .add(Restrictions.eq("attrs.elements", "true"))
+            .add(Restrictions.or(
+                Restrictions.gt("ent_pool.startDate", date),
+                Restrictions.and(
+                    Restrictions.isNotNull("ent.endDateOverride"),
+                    Restrictions.lt("ent.endDateOverride", date)),
+                Restrictions.and(
+                    Restrictions.isNull("ent.endDateOverride"),
+                    Restrictions.lt("ent_pool.endDate", date))));
+    }
+
     /**
      * For a given stack, find the eldest active entitlement with a subscription ID.
      * This is used to look up the upstream subscription certificate to use to talk to
@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.model;
+
+import org.candlepin.auth.Principal;
+import org.candlepin.guice.CandlepinRequestScoped;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.util.HashMap;
+import java.util.Map;
+
+
+
+/**
+ * The EntityIdentityCache is a request scoped map of entities resolved by their external
+ * identifier (consumer UUID, owner key, etc.) during authentication and authorization. Curators
+ * consult it before querying for an entity by the same identifier, so an entity verified by the
+ * authorization layer is not loaded again by the resource handling the request.
+ * <p></p>
+ * Each entry is bound to the principal it was resolved for, and is only returned to lookups
+ * performed on behalf of that same principal. Callers are expected to verify that a cached
+ * entity is still managed by the current session before using it.
+ */
+@CandlepinRequestScoped
+public class EntityIdentityCache {
+
+    /**
+     * A cached entity and the principal for which it was resolved
+     */
+    private static class Entry {
+        private final Persisted entity;
+        private final Principal principal;
+
+        Entry(Persisted entity, Principal principal) {
+            this.entity = entity;
+            this.principal = principal;
+        }
+    }
+
+    private final Map<Pair<Class<?>, String>, Entry> entities;
+
+    public EntityIdentityCache() {
+        this.entities = new HashMap<>();
+    }
+
+    /**
+     * Fetches the entity of the given type cached under the specified identifier for the given
+     * principal. If no such entity has been cached, or it was cached for a different principal,
+     * this method returns null.
+     *
+     * @param type
+     *  the type of the entity to fetch
+     *
+     * @param id
+     *  the external identifier of the entity
+     *
+     * @param principal
+     *  the principal on whose behalf the entity is being fetched
+     *
+     * @return
+     *  the cached entity, or null if a matching entity has not been cached
+     */
+    public <E extends Persisted> E get(Class<E> type, String id, Principal principal) {
+        Entry entry = this.entities.get(new ImmutablePair<>(type, id));
+
+        if (entry != null && entry.principal == principal && type.isInstance(entry.entity)) {
+            return type.cast(entry.entity);
+        }
+
+        return null;
+    }
+
+    /**
+     * Caches an entity under the specified identifier for the given principal. Null entities are
+     * not cached.
+     *
+     * @param type
+     *  the type of the entity to cache
+     *
+     * @param id
+     *  the external identifier of the entity
+     *
+     * @param entity
+     *  the entity to cache
+     *
+     * @param principal
+     *  the principal for which the entity was resolved
+     */
+    public <E extends Persisted> void put(Class<E> type, String id, E entity, Principal principal) {
+        if (id != null && entity != null) {
+            this.entities.put(new ImmutablePair<>(type, id), new Entry(entity, principal));
+        }
+    }
+
+    /**
+     * Removes the entity cached under the specified identifier, if any.
+     *
+     * @param type
+     *  the type of the entity to remove
+     *
+     * @param id
+     *  the external identifier of the entity
+     */
+    public void evict(Class<?> type, String id) {
+        this.entities.remove(new ImmutablePair<>(type, id));
+    }
+
+    /**
+     * Removes all cached entities.
+     */
+    public void clear() {
+        this.entities.clear();
+    }
+}
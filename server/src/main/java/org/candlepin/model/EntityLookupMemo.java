@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.model;
+
+import org.candlepin.guice.CandlepinRequestScope;
+import org.candlepin.guice.CandlepinRequestScoped;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+
+/**
+ * The EntityLookupMemo is a request scoped map of entities resolved by their database ID, used
+ * by curators to memoize lookups of reference entities (consumer types, owners, etc.) which are
+ * requested repeatedly over the course of a single request or job.
+ * <p></p>
+ * The memo also counts the lookups and loads performed for each entity type, which are logged at
+ * debug level when the scope in which the memo was created is exited. Callers are expected to
+ * verify that a memoized entity is still managed by the current session before using it, and to
+ * store the entity again after reloading it.
+ */
+@CandlepinRequestScoped
+public class EntityLookupMemo implements CandlepinRequestScope.ExitListener {
+    private static Logger log = LoggerFactory.getLogger(EntityLookupMemo.class);
+
+    private final Map<Pair<Class<?>, Serializable>, Persisted> entities;
+    private final Map<Class<?>, Integer> lookups;
+    private final Map<Class<?>, Integer> loads;
+
+    public EntityLookupMemo() {
+        this.entities = new HashMap<>();
+        this.lookups = new LinkedHashMap<>();
+        this.loads = new HashMap<>();
+    }
+
+    /**
+     * Fetches the entity of the given type memoized under the specified ID, counting the lookup
+     * against the entity type.
+     *
+     * @param type
+     *  the type of the entity to fetch
+     *
+     * @param id
+     *  the database ID of the entity
+     *
+     * @return
+     *  the memoized entity, or null if a matching entity has not been memoized
+     */
+    public <E extends Persisted> E get(Class<E> type, Serializable id) {
+        this.lookups.merge(type, 1, Integer::sum);
+
+        Persisted entity = this.entities.get(new ImmutablePair<>(type, id));
+        return type.isInstance(entity) ? type.cast(entity) : null;
+    }
+
+    /**
+     * Memoizes an entity loaded from the database under the specified ID, counting the load
+     * against the entity type. Null entities are not memoized.
+     *
+     * @param type
+     *  the type of the entity to memoize
+     *
+     * @param id
+     *  the database ID of the entity
+     *
+     * @param entity
+     *  the entity to memoize
+     */
+    public <E extends Persisted> void put(Class<E> type, Serializable id, E entity) {
+        this.loads.merge(type, 1, Integer::sum);
+
+        if (id != null && entity != null) {
+            this.entities.put(new ImmutablePair<>(type, id), entity);
+        }
+    }
+
+    /**
+     * Fetches the number of lookups performed for the given entity type
+     *
+     * @param type
+     *  the entity type for which to fetch the lookup count
+     *
+     * @return
+     *  the number of lookups performed for the entity type
+     */
+    public int getLookups(Class<?> type) {
+        return this.lookups.getOrDefault(type, 0);
+    }
+
+    /**
+     * Fetches the number of lookups for the given entity type which had to be resolved by loading
+     * the entity from the database.
+     *
+     * @param type
+     *  the entity type for which to fetch the load count
+     *
+     * @return
+     *  the number of loads performed for the entity type
+     */
+    public int getLoads(Class<?> type) {
+        return this.loads.getOrDefault(type, 0);
+    }
+
+    public int size() {
+        return this.entities.size();
+    }
+
+    /**
+     * Removes all memoized entities. Lookup counts are retained.
+     */
+    public void clear() {
+        this.entities.clear();
+    }
+
+    @Override
+    public void onScopeExit() {
+        if (log.isDebugEnabled() && !this.lookups.isEmpty()) {
+            StringBuilder builder = new StringBuilder();
+
+            for (Map.Entry<Class<?>, Integer> entry : this.lookups.entrySet()) {
+                if (builder.length() > 0) {
+                    builder.append(", ");
+                }
+
+                builder.append(String.format("%s: %d lookups, %d loaded", entry.getKey().getSimpleName(),
+                    entry.getValue(), this.getLoads(entry.getKey())));
+            }
+
+            log.debug("Memoized entity lookups: {}", builder);
+        }
+    }
+}
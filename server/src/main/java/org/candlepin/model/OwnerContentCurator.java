@@ -16,21 +16,22 @@ package org.candlepin.model;
 
 import com.google.inject.persist.Transactional;
 
-import org.hibernate.Criteria;
 import org.hibernate.Session;
 import org.hibernate.criterion.DetachedCriteria;
-import org.hibernate.criterion.Disjunction;
 import org.hibernate.criterion.Order;
 import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.inject.Singleton;
 
@@ -327,9 +328,12 @@ public class OwnerContentCurator extends AbstractHibernateCurator<OwnerContent>
     }
 
     /**
-     * Retrieves a criteria which can be used to fetch a list of content with the specified Red Hat
-     * content ID and entity version belonging to owners other than the owner provided. If no
-     * content were found matching the given criteria, this method returns an empty list.
+     * Fetches the content with the specified Red Hat content IDs and entity versions belonging to
+     * owners other than the owner provided. If no content were found matching the given
+     * criteria, this method returns an empty list.
+     * <p></p>
+     * The lookup is performed in blocks sized to the query parameter limit, such that it remains
+     * efficient for imports of many thousands of content.
      *
      * @param owner
      *  The owner whose content should be excluded from the results. If an owner is not provided,
@@ -339,51 +343,63 @@ public class OwnerContentCurator extends AbstractHibernateCurator<OwnerContent>
      *  A mapping of Red Hat content IDs to content versions to fetch
      *
      * @return
-     *  a criteria for fetching content by version
+     *  a list of content matching the given IDs and versions
      */
-    @SuppressWarnings("checkstyle:indentation")
-    public CandlepinQuery<Content> getContentByVersions(Owner owner, Map<String, Integer> contentVersions) {
+    public List<Content> getContentByVersions(Owner owner, Map<String, Long> contentVersions) {
         if (contentVersions == null || contentVersions.isEmpty()) {
-            return this.cpQueryFactory.<Content>buildQuery();
+            return new ArrayList<>();
         }
 
         // Impl note:
-        // We perform this operation with two queries here to optimize out some unnecessary queries
-        // when pulling content information. Even when pulling content in a batch, Hibernate will
-        // pull the content collections (modified product IDs) as a separate query for each content
-        // (ugh). By breaking this into two queries -- one for getting the content UUIDs and one
-        // for pulling the actual content -- we will save upwards of two DB hits per content
-        // filtered. We will lose time in the cases where we don't filter any content, or the
-        // content we filter don't have any data in their collections; but we're only using one
-        // additional query in those cases, versus n additional in the normal case.
-
-        Disjunction disjunction = Restrictions.disjunction();
-        Criteria uuidCriteria = this.createSecureCriteria("oc")
-            .createAlias("oc.content", "c")
-            .add(disjunction)
-            .setProjection(Projections.distinct(Projections.property("c.uuid")));
-
-        for (Map.Entry<String, Integer> entry : contentVersions.entrySet()) {
-            disjunction.add(Restrictions.and(
-                Restrictions.eq("c.id", entry.getKey()),
-                Restrictions.eq("c.entityVersion", entry.getValue())
-            ));
-        }
+        // We fetch the UUIDs of the matching content first, and then the content themselves. Even
+        // when pulling content in a batch, Hibernate will pull the content collections as a separate
+        // query for each content, so filtering on UUIDs first saves us from pulling the collections of
+        // content we'd only throw away.
+
+        String sql = "SELECT DISTINCT c.uuid FROM " + Content.DB_TABLE + " c " +
+            "JOIN " + OwnerContent.DB_TABLE + " oc ON oc.content_uuid = c.uuid " +
+            "WHERE " + KEY_RESTRICTION_TOKEN + " %s";
+
+        Map<String, Object> params = null;
+        String ownerRestriction = "";
 
         if (owner != null) {
-            uuidCriteria.add(Restrictions.not(Restrictions.eq("oc.owner", owner)));
+            params = Collections.singletonMap("owner_id", owner.getId());
+            ownerRestriction = "AND oc.owner_id != :owner_id";
         }
 
-        List<String> uuids = uuidCriteria.list();
+        List<Object[]> keys = new ArrayList<>(contentVersions.size());
+        for (Map.Entry<String, Long> entry : contentVersions.entrySet()) {
+            keys.add(new Object[] { entry.getKey(), entry.getValue() });
+        }
 
-        if (uuids != null && !uuids.isEmpty()) {
-            DetachedCriteria criteria = this.createSecureDetachedCriteria(Content.class, null)
-                .add(CPRestrictions.in("uuid", uuids));
+        Set<String> uuids = new HashSet<>(this.bulkSQLKeyLookup(String.format(sql, ownerRestriction),
+            new String[] { "c.content_id", "c.entity_version" }, keys, params));
 
-            return this.cpQueryFactory.<Content>buildQuery(this.currentSession(), criteria);
+        return this.getContentByUuids(uuids);
+    }
+
+    /**
+     * Fetches the content with the given UUIDs, in blocks no larger than the IN operator block
+     * size.
+     *
+     * @param uuids
+     *  The UUIDs of the content to fetch
+     *
+     * @return
+     *  a list of the content with the given UUIDs
+     */
+    private List<Content> getContentByUuids(Collection<String> uuids) {
+        List<Content> contents = new ArrayList<>(uuids.size());
+
+        for (List<String> block : this.partition(uuids)) {
+            contents.addAll(this.currentSession()
+                .createCriteria(Content.class)
+                .add(Restrictions.in("uuid", block))
+                .list());
         }
 
-        return this.cpQueryFactory.<Content>buildQuery();
+        return contents;
     }
 
     /**
@@ -55,7 +55,7 @@ public class OwnerCurator extends AbstractHibernateCurator<Owner> {
 
     /**
      * Fetches the Owner for the specified ownerId. If the ownerId is null or owner was not found, this
-     * method throws an exception.
+     * method throws an exception. The owner is resolved at most once per request or job.
      *
      * @param ownerId
      *  The ownerId for which to fetch a Owner object
@@ -74,7 +74,7 @@ public class OwnerCurator extends AbstractHibernateCurator<Owner> {
             throw new IllegalArgumentException("ownerId is null");
         }
 
-        Owner owner = this.get(ownerId);
+        Owner owner = this.getMemoized(ownerId);
 
         if (owner == null) {
             throw new IllegalStateException("owner not found for the id: " + ownerId);
@@ -104,6 +104,12 @@ public class OwnerCurator extends AbstractHibernateCurator<Owner> {
      */
     @Transactional
     public Owner getByKeySecure(String key) {
+        // Reuse the owner if it has already been resolved for this principal during the request
+        Owner cached = this.getCachedIdentity(key);
+        if (cached != null) {
+            return cached;
+        }
+
         return (Owner) createSecureCriteria()
             .add(Restrictions.eq("key", key))
             .uniqueResult();
@@ -64,6 +64,20 @@ public class OwnerEnvContentAccess extends AbstractHibernateObject {
     @Column(name = "content_json")
     private String contentJson;
 
+    /**
+     * The number of content changes affecting this payload. Incremented through bulk updates in the
+     * OwnerEnvContentAccessCurator whenever the owner's or environment's content changes.
+     */
+    @Column(name = "generation", insertable = false, updatable = false)
+    private Integer generation;
+
+    /**
+     * The generation reflected by the current content JSON. The payload is stale, and due to be
+     * rebuilt in the background, while this is lower than the generation.
+     */
+    @Column(name = "built_generation", insertable = false, updatable = false)
+    private Integer builtGeneration;
+
     public OwnerEnvContentAccess() {
         // Intentionally left empty
     }
@@ -118,4 +132,23 @@ public class OwnerEnvContentAccess extends AbstractHibernateObject {
     public void setContentJson(String contentJson) {
         this.contentJson = contentJson;
     }
+
+    public Integer getGeneration() {
+        return this.generation;
+    }
+
+    public Integer getBuiltGeneration() {
+        return this.builtGeneration;
+    }
+
+    /**
+     * Checks whether this payload was built before the most recent content change affecting it.
+     *
+     * @return
+     *  true if the payload is due to be rebuilt; false otherwise
+     */
+    public boolean isStale() {
+        return this.generation != null && this.builtGeneration != null &&
+            this.builtGeneration < this.generation;
+    }
 }
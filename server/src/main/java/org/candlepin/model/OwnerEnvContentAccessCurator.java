@@ -19,6 +19,7 @@ import com.google.inject.persist.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Date;
 import java.util.List;
 
 import javax.inject.Singleton;
@@ -95,4 +96,107 @@ public class OwnerEnvContentAccessCurator extends AbstractHibernateCurator<Owner
                 .setParameter("environmentId", environmentId)
                 .executeUpdate();
     }
+
+    /**
+     * Flags the content access payloads of the given owner as stale, to be rebuilt in the
+     * background. Stale payloads continue to be served until their replacements are built.
+     *
+     * @param ownerId
+     *  the ID of the owner whose payloads are to be flagged
+     *
+     * @return
+     *  the number of payloads flagged
+     */
+    @Transactional
+    public int markStaleForOwner(String ownerId) {
+        return this.getEntityManager()
+            .createQuery("UPDATE OwnerEnvContentAccess SET generation = generation + 1 " +
+                "WHERE owner.id = :owner_id")
+            .setParameter("owner_id", ownerId)
+            .executeUpdate();
+    }
+
+    /**
+     * Flags the content access payload of the given environment as stale, to be rebuilt in the
+     * background. The stale payload continues to be served until its replacement is built.
+     *
+     * @param environmentId
+     *  the ID of the environment whose payload is to be flagged
+     *
+     * @return
+     *  the number of payloads flagged
+     */
+    @Transactional
+    public int markStaleForEnvironment(String environmentId) {
+        return this.getEntityManager()
+            .createQuery("UPDATE OwnerEnvContentAccess SET generation = generation + 1 " +
+                "WHERE environment.id = :environment_id")
+            .setParameter("environment_id", environmentId)
+            .executeUpdate();
+    }
+
+    /**
+     * Fetches the IDs of the owners which have at least one stale content access payload.
+     *
+     * @return
+     *  a list of owner IDs with stale content access payloads
+     */
+    public List<String> getOwnerIdsWithStaleContentAccess() {
+        return this.getEntityManager()
+            .createQuery("SELECT DISTINCT oeca.owner.id FROM OwnerEnvContentAccess oeca " +
+                "WHERE oeca.builtGeneration < oeca.generation", String.class)
+            .getResultList();
+    }
+
+    /**
+     * Fetches the stale content access payloads of the given owner.
+     *
+     * @param ownerId
+     *  the ID of the owner for which to fetch stale payloads
+     *
+     * @return
+     *  a list of the owner's stale content access payloads
+     */
+    public List<OwnerEnvContentAccess> getStaleContentAccess(String ownerId) {
+        return this.getEntityManager()
+            .createQuery("SELECT oeca FROM OwnerEnvContentAccess oeca " +
+                "WHERE oeca.owner.id = :owner_id AND oeca.builtGeneration < oeca.generation",
+                OwnerEnvContentAccess.class)
+            .setParameter("owner_id", ownerId)
+            .getResultList();
+    }
+
+    /**
+     * Replaces the content JSON of the given payload with a rebuilt payload reflecting the given
+     * generation. The replacement is skipped if the payload already reflects that generation or a
+     * later one, so a slow rebuild never overwrites a newer payload.
+     *
+     * @param id
+     *  the ID of the payload to replace
+     *
+     * @param generation
+     *  the generation of the payload when the rebuild began
+     *
+     * @param contentJson
+     *  the rebuilt content JSON
+     *
+     * @return
+     *  true if the payload was replaced; false otherwise
+     */
+    @Transactional
+    public boolean swapContentJson(String id, int generation, String contentJson) {
+        String jpql = "UPDATE OwnerEnvContentAccess SET contentJson = :content_json, " +
+            "builtGeneration = :generation, updated = :updated " +
+            "WHERE id = :id AND builtGeneration < :generation";
+
+        int updated = this.getEntityManager()
+            .createQuery(jpql)
+            .setParameter("content_json", contentJson)
+            .setParameter("generation", generation)
+            .setParameter("updated", new Date())
+            .setParameter("id", id)
+            .executeUpdate();
+
+        return updated > 0;
+    }
 }
@@ -15,13 +15,18 @@
 
 package org.candlepin.model;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
- * OwnerInfo NOTE: this class only contains dynamic values. it should *not* be
- * saved to the db.
+ * OwnerInfo NOTE: this class only contains dynamic values. It is not an entity, but a copy of it
+ * may be kept as JSON in an OwnerInfoSnapshot; the lastUpdated date records when the values were
+ * computed.
  */
 public class OwnerInfo {
 
@@ -32,6 +37,7 @@ public class OwnerInfo {
     private Map<String, Integer> enabledConsumerTypeCountByPool;
     private Map<String, Integer> consumerCountsByComplianceStatus;
     private Map<String, ConsumptionTypeCounts> entitlementsConsumedByFamily;
+    private Date lastUpdated;
 
     public static final String GUEST = "guest";
     public static final String PHYSICAL = "physical";
@@ -49,6 +55,21 @@ public class OwnerInfo {
         consumerGuestCounts.put(PHYSICAL, 0);
     }
 
+    /**
+     * Fetches the date at which the values of this info were computed. Info served from a snapshot
+     * may be somewhat behind the current state of the owner.
+     *
+     * @return
+     *  the date at which the values of this info were computed
+     */
+    public Date getLastUpdated() {
+        return this.lastUpdated;
+    }
+
+    public void setLastUpdated(Date lastUpdated) {
+        this.lastUpdated = lastUpdated;
+    }
+
     public Map<String, Integer> getConsumerCounts() {
         return consumerCounts;
     }
@@ -159,7 +180,9 @@ public class OwnerInfo {
         private int physical;
         private int guest;
 
-        public ConsumptionTypeCounts(int physical, int guest) {
+        @JsonCreator
+        public ConsumptionTypeCounts(@JsonProperty("physical") int physical,
+            @JsonProperty("guest") int guest) {
             this.physical = physical;
             this.guest = guest;
         }
@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.model;
+
+import org.hibernate.annotations.GenericGenerator;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+
+
+
+/**
+ * A precomputed copy of the OwnerInfo of an owner, stored as JSON so that it may be served with a
+ * single query. Snapshots are maintained in the background by the OwnerInfoRefreshJob: they are
+ * flagged as stale as consumer, entitlement and pool events for the owner are received, and
+ * rebuilt periodically.
+ */
+@Entity
+@Table(name = OwnerInfoSnapshot.DB_TABLE)
+public class OwnerInfoSnapshot extends AbstractHibernateObject<OwnerInfoSnapshot> {
+    private static final long serialVersionUID = 3781496104837719304L;
+
+    /** Name of the table backing this object in the database */
+    public static final String DB_TABLE = "cp_owner_info_snapshot";
+
+    @Id
+    @GeneratedValue(generator = "system-uuid")
+    @GenericGenerator(name = "system-uuid", strategy = "uuid")
+    @Column(length = 32)
+    @NotNull
+    private String id;
+
+    @Column(name = "owner_id", length = 32, nullable = false, updatable = false)
+    @NotNull
+    private String ownerId;
+
+    @Column(name = "info_json")
+    @NotNull
+    private String infoJson;
+
+    /**
+     * The number of events affecting this snapshot. Incremented through bulk updates in the
+     * OwnerInfoSnapshotCurator as events for the owner are received.
+     */
+    @Column(name = "generation", insertable = false, updatable = false)
+    private Integer generation;
+
+    /**
+     * The generation reflected by the current info JSON. The snapshot is stale while this is lower
+     * than the generation.
+     */
+    @Column(name = "built_generation", insertable = false, updatable = false)
+    private Integer builtGeneration;
+
+    public OwnerInfoSnapshot() {
+        // Intentionally left empty
+    }
+
+    public OwnerInfoSnapshot(String ownerId, String infoJson) {
+        this.setOwnerId(ownerId);
+        this.setInfoJson(infoJson);
+    }
+
+    @Override
+    public String getId() {
+        return this.id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getOwnerId() {
+        return this.ownerId;
+    }
+
+    public void setOwnerId(String ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    public String getInfoJson() {
+        return this.infoJson;
+    }
+
+    public void setInfoJson(String infoJson) {
+        this.infoJson = infoJson;
+    }
+
+    public Integer getGeneration() {
+        return this.generation;
+    }
+
+    public Integer getBuiltGeneration() {
+        return this.builtGeneration;
+    }
+
+    /**
+     * Checks whether this snapshot was built before the most recent event affecting it.
+     *
+     * @return
+     *  true if the snapshot is due to be rebuilt; false otherwise
+     */
+    public boolean isStale() {
+        return this.generation != null && this.builtGeneration != null &&
+            this.builtGeneration < this.generation;
+    }
+}
@@ -0,0 +1,215 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.model;
+
+import org.candlepin.util.ObjectMapperFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.persist.Transactional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+
+import javax.inject.Singleton;
+
+
+
+/**
+ * The OwnerInfoSnapshotCurator provides functionality for storing and fetching the precomputed
+ * OwnerInfo of owners.
+ */
+@Singleton
+public class OwnerInfoSnapshotCurator extends AbstractHibernateCurator<OwnerInfoSnapshot> {
+    private static Logger log = LoggerFactory.getLogger(OwnerInfoSnapshotCurator.class);
+
+    private static final ObjectMapper MAPPER = ObjectMapperFactory.getObjectMapper();
+
+    /**
+     * Default constructor
+     */
+    public OwnerInfoSnapshotCurator() {
+        super(OwnerInfoSnapshot.class);
+    }
+
+    /**
+     * Fetches the snapshot of the given owner's info.
+     *
+     * @param ownerId
+     *  the ID of the owner for which to fetch the snapshot
+     *
+     * @return
+     *  the snapshot of the owner's info, or null if the owner does not yet have a snapshot
+     */
+    public OwnerInfoSnapshot getByOwnerId(String ownerId) {
+        String jpql = "SELECT ois FROM OwnerInfoSnapshot ois WHERE ois.ownerId = :owner_id";
+
+        List<OwnerInfoSnapshot> snapshots = this.getEntityManager()
+            .createQuery(jpql, OwnerInfoSnapshot.class)
+            .setParameter("owner_id", ownerId)
+            .getResultList();
+
+        return snapshots.isEmpty() ? null : snapshots.get(0);
+    }
+
+    /**
+     * Fetches the owner info stored in the snapshot of the given owner. The last updated date of
+     * the returned info is set to the time the snapshot was built. The info is returned even if
+     * the snapshot is stale.
+     *
+     * @param ownerId
+     *  the ID of the owner for which to fetch the owner info
+     *
+     * @return
+     *  the stored owner info, or null if the owner does not have a readable snapshot
+     */
+    public OwnerInfo getOwnerInfo(String ownerId) {
+        OwnerInfoSnapshot snapshot = this.getByOwnerId(ownerId);
+        if (snapshot == null) {
+            return null;
+        }
+
+        try {
+            OwnerInfo info = MAPPER.readValue(snapshot.getInfoJson(), OwnerInfo.class);
+            info.setLastUpdated(snapshot.getUpdated());
+
+            return info;
+        }
+        catch (IOException e) {
+            // Treat it as missing; the snapshot will be overwritten by the next refresh
+            log.warn("Unable to read owner info snapshot for owner: {}", ownerId, e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores the given owner info as the snapshot of the given owner, reflecting the given
+     * generation. If the owner already has a snapshot built from a later generation, the snapshot
+     * is left as is, so a slow refresh never overwrites a newer snapshot.
+     *
+     * @param ownerId
+     *  the ID of the owner for which to store the owner info
+     *
+     * @param generation
+     *  the generation of the snapshot at the time the owner info was computed
+     *
+     * @param info
+     *  the owner info to store
+     *
+     * @throws IOException
+     *  if the owner info cannot be serialized
+     *
+     * @return
+     *  true if the snapshot was stored; false otherwise
+     */
+    @Transactional
+    public boolean storeOwnerInfo(String ownerId, int generation, OwnerInfo info) throws IOException {
+        String json = MAPPER.writeValueAsString(info);
+
+        OwnerInfoSnapshot snapshot = this.getByOwnerId(ownerId);
+        if (snapshot == null) {
+            this.create(new OwnerInfoSnapshot(ownerId, json));
+            return true;
+        }
+
+        // Unlike the content access payloads, snapshots are also rebuilt when nothing has changed,
+        // as some values depend on the current date, so a snapshot may replace one of the same
+        // generation
+        String jpql = "UPDATE OwnerInfoSnapshot SET infoJson = :info_json, " +
+            "builtGeneration = :generation, updated = :updated " +
+            "WHERE id = :id AND builtGeneration <= :generation";
+
+        int updated = this.getEntityManager()
+            .createQuery(jpql)
+            .setParameter("info_json", json)
+            .setParameter("generation", generation)
+            .setParameter("updated", new Date())
+            .setParameter("id", snapshot.getId())
+            .executeUpdate();
+
+        return updated > 0;
+    }
+
+    /**
+     * Flags the snapshot of the given owner as stale, to be rebuilt in the background. The stale
+     * snapshot continues to be served until it is rebuilt. A snapshot which is already stale is
+     * left as is, so a burst of events only writes to the snapshot once per rebuild.
+     *
+     * @param ownerId
+     *  the ID of the owner whose snapshot is to be flagged
+     *
+     * @return
+     *  the number of snapshots flagged
+     */
+    @Transactional
+    public int markStale(String ownerId) {
+        return this.getEntityManager()
+            .createQuery("UPDATE OwnerInfoSnapshot SET generation = generation + 1 " +
+                "WHERE ownerId = :owner_id AND builtGeneration >= generation")
+            .setParameter("owner_id", ownerId)
+            .executeUpdate();
+    }
+
+    /**
+     * Claims the current generation of the given owner's snapshot for a rebuild, flagging the
+     * snapshot as no longer stale. Events received after the claim flag the snapshot as stale
+     * again, so changes made while the snapshot is being rebuilt are picked up by the next
+     * rebuild. If the rebuild fails, the snapshot should be flagged as stale again.
+     *
+     * @param ownerId
+     *  the ID of the owner whose snapshot is to be rebuilt
+     *
+     * @return
+     *  the claimed generation, or zero if the owner does not yet have a snapshot
+     */
+    @Transactional
+    public int claimGeneration(String ownerId) {
+        this.getEntityManager()
+            .createQuery("UPDATE OwnerInfoSnapshot SET builtGeneration = generation " +
+                "WHERE ownerId = :owner_id")
+            .setParameter("owner_id", ownerId)
+            .executeUpdate();
+
+        String jpql = "SELECT ois.generation FROM OwnerInfoSnapshot ois WHERE ois.ownerId = :owner_id";
+
+        List<Integer> generations = this.getEntityManager()
+            .createQuery(jpql, Integer.class)
+            .setParameter("owner_id", ownerId)
+            .getResultList();
+
+        return generations.isEmpty() || generations.get(0) == null ? 0 : generations.get(0);
+    }
+
+    /**
+     * Fetches the IDs of the owners whose snapshots are due to be rebuilt: those which are stale,
+     * and those which were last built before the given date.
+     *
+     * @param cutoff
+     *  the date before which snapshots are rebuilt regardless of whether they are stale
+     *
+     * @return
+     *  a list of owner IDs whose snapshots are due to be rebuilt
+     */
+    public List<String> getOwnerIdsToRefresh(Date cutoff) {
+        return this.getEntityManager()
+            .createQuery("SELECT ois.ownerId FROM OwnerInfoSnapshot ois " +
+                "WHERE ois.builtGeneration < ois.generation OR ois.updated < :cutoff", String.class)
+            .setParameter("cutoff", cutoff)
+            .getResultList();
+    }
+}
@@ -18,10 +18,8 @@ import org.candlepin.model.activationkeys.ActivationKey;
 
 import com.google.inject.persist.Transactional;
 
-import org.hibernate.Criteria;
 import org.hibernate.Session;
 import org.hibernate.criterion.DetachedCriteria;
-import org.hibernate.criterion.Disjunction;
 import org.hibernate.criterion.Order;
 import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
@@ -29,10 +27,14 @@ import org.hibernate.sql.JoinType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -194,6 +196,65 @@ public class OwnerProductCurator extends AbstractHibernateCurator<OwnerProduct>
         return this.cpQueryFactory.<Product>buildQuery();
     }
 
+    /**
+     * Fetches the system purpose values declared by the products currently mapped to the given
+     * owner. Only the system purpose attributes of the products are read, in a single query, rather
+     * than loading each product and its collections. Attribute values are split on commas, and the
+     * service level of products exempt from support levels is omitted.
+     *
+     * @param owner
+     *  The owner for which to fetch system purpose values
+     *
+     * @return
+     *  a map of system purpose attribute names to the values declared by the owner's products;
+     *  every attribute is present in the map, even if none of the products declare it
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Set<String>> getSyspurposeAttributesByOwner(Owner owner) {
+        Map<String, Set<String>> values = new HashMap<>();
+        List<String> names = new ArrayList<>();
+
+        for (SystemPurposeAttributeType type : SystemPurposeAttributeType.values()) {
+            values.put(type.toString(), new LinkedHashSet<>());
+            names.add(type.toString());
+        }
+
+        names.add(Product.Attributes.SUPPORT_LEVEL_EXEMPT);
+
+        String sql = "SELECT attr.product_uuid, attr.name, attr.value FROM cp2_product_attributes attr " +
+            "JOIN " + OwnerProduct.DB_TABLE + " op ON op.product_uuid = attr.product_uuid " +
+            "WHERE op.owner_id = :owner_id AND attr.name IN (:attr_names)";
+
+        List<Object[]> rows = this.currentSession().createSQLQuery(sql)
+            .setParameter("owner_id", owner.getId())
+            .setParameterList("attr_names", names)
+            .list();
+
+        // Group the attributes by product, as a support level exemption only applies to the
+        // product declaring it
+        Map<String, Map<String, String>> productAttributes = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            productAttributes.computeIfAbsent((String) row[0], key -> new HashMap<>())
+                .put((String) row[1], (String) row[2]);
+        }
+
+        for (Map<String, String> attributes : productAttributes.values()) {
+            boolean slaExempt = Boolean.parseBoolean(attributes.get(Product.Attributes.SUPPORT_LEVEL_EXEMPT));
+
+            for (SystemPurposeAttributeType type : SystemPurposeAttributeType.values()) {
+                String value = attributes.get(type.toString());
+
+                if (value == null || (type == SystemPurposeAttributeType.SERVICE_LEVEL && slaExempt)) {
+                    continue;
+                }
+
+                values.get(type.toString()).addAll(Arrays.asList(value.split("\\s*,\\s*")));
+            }
+        }
+
+        return values;
+    }
+
     public CandlepinQuery<Product> getProductsByIds(Owner owner, Collection<String> productIds) {
         return this.getProductsByIds(owner.getId(), productIds);
     }
@@ -443,9 +504,12 @@ public class OwnerProductCurator extends AbstractHibernateCurator<OwnerProduct>
     }
 
     /**
-     * Retrieves a criteria which can be used to fetch a list of products with the specified Red Hat
-     * product ID and entity version belonging to owners other than the owner provided. If no
-     * products were found matching the given criteria, this method returns an empty list.
+     * Fetches the products with the specified Red Hat product IDs and entity versions belonging to
+     * owners other than the owner provided. If no products were found matching the given
+     * criteria, this method returns an empty list.
+     * <p></p>
+     * The lookup is performed in blocks sized to the query parameter limit, such that it remains
+     * efficient for imports of many thousands of products.
      *
      * @param owner
      *  The owner whose products should be excluded from the results. If an owner is not provided,
@@ -455,51 +519,63 @@ public class OwnerProductCurator extends AbstractHibernateCurator<OwnerProduct>
      *  A mapping of Red Hat product IDs to product versions to fetch
      *
      * @return
-     *  a criteria for fetching products by version
+     *  a list of products matching the given IDs and versions
      */
-    @SuppressWarnings("checkstyle:indentation")
-    public CandlepinQuery<Product> getProductsByVersions(Owner owner, Map<String, Integer> productVersions) {
+    public List<Product> getProductsByVersions(Owner owner, Map<String, Long> productVersions) {
         if (productVersions == null || productVersions.isEmpty()) {
-            return this.cpQueryFactory.<Product>buildQuery();
+            return new ArrayList<>();
         }
 
         // Impl note:
-        // We perform this operation with two queries here to optimize out some unnecessary queries
-        // when pulling product information. Even when pulling products in a batch, Hibernate will
-        // pull the product collections (attributes, content and dependent product IDs) as separate
-        // query for each product (ugh). By breaking this into two queries -- one for getting the
-        // product UUIDs and one for pulling the actual products -- we will save upwards of two DB
-        // hits per product filtered. We will lose time in the cases where we don't filter any
-        // products, or the products we filter don't have any data in their collections; but we're
-        // only using one additional query in those cases, versus (0-2)n in the normal case.
-
-        Disjunction disjunction = Restrictions.disjunction();
-        Criteria uuidCriteria = this.createSecureCriteria("op")
-            .createAlias("op.product", "p")
-            .add(disjunction)
-            .setProjection(Projections.distinct(Projections.property("p.uuid")));
-
-        for (Map.Entry<String, Integer> entry : productVersions.entrySet()) {
-            disjunction.add(Restrictions.and(
-                Restrictions.eq("p.id", entry.getKey()),
-                Restrictions.eq("p.entityVersion", entry.getValue())
-            ));
-        }
+        // We fetch the UUIDs of the matching products first, and then the products themselves. Even
+        // when pulling products in a batch, Hibernate will pull the product collections as a separate
+        // query for each product, so filtering on UUIDs first saves us from pulling the collections of
+        // products we'd only throw away.
+
+        String sql = "SELECT DISTINCT p.uuid FROM " + Product.DB_TABLE + " p " +
+            "JOIN " + OwnerProduct.DB_TABLE + " op ON op.product_uuid = p.uuid " +
+            "WHERE " + KEY_RESTRICTION_TOKEN + " %s";
+
+        Map<String, Object> params = null;
+        String ownerRestriction = "";
 
         if (owner != null) {
-            uuidCriteria.add(Restrictions.not(Restrictions.eq("op.owner", owner)));
+            params = Collections.singletonMap("owner_id", owner.getId());
+            ownerRestriction = "AND op.owner_id != :owner_id";
         }
 
-        List<String> uuids = uuidCriteria.list();
+        List<Object[]> keys = new ArrayList<>(productVersions.size());
+        for (Map.Entry<String, Long> entry : productVersions.entrySet()) {
+            keys.add(new Object[] { entry.getKey(), entry.getValue() });
+        }
 
-        if (uuids != null && !uuids.isEmpty()) {
-            DetachedCriteria criteria = this.createSecureDetachedCriteria(Product.class, null)
-                .add(CPRestrictions.in("uuid", uuids));
+        Set<String> uuids = new HashSet<>(this.bulkSQLKeyLookup(String.format(sql, ownerRestriction),
+            new String[] { "p.product_id", "p.entity_version" }, keys, params));
 
-            return this.cpQueryFactory.<Product>buildQuery(this.currentSession(), criteria);
+        return this.getProductsByUuids(uuids);
+    }
+
+    /**
+     * Fetches the products with the given UUIDs, in blocks no larger than the IN operator block
+     * size.
+     *
+     * @param uuids
+     *  The UUIDs of the products to fetch
+     *
+     * @return
+     *  a list of the products with the given UUIDs
+     */
+    private List<Product> getProductsByUuids(Collection<String> uuids) {
+        List<Product> products = new ArrayList<>(uuids.size());
+
+        for (List<String> block : this.partition(uuids)) {
+            products.addAll(this.currentSession()
+                .createCriteria(Product.class)
+                .add(Restrictions.in("uuid", block))
+                .list());
         }
 
-        return this.cpQueryFactory.<Product>buildQuery();
+        return products;
     }
 
     /**
@@ -41,7 +41,14 @@ import org.hibernate.criterion.Property;
 import org.hibernate.criterion.Restrictions;
 import org.hibernate.criterion.SimpleExpression;
 import org.hibernate.criterion.Subqueries;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
 import org.hibernate.internal.FilterImpl;
+import org.hibernate.persister.collection.AbstractCollectionPersister;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
 import org.hibernate.query.Query;
 import org.hibernate.sql.JoinType;
 import org.hibernate.type.StringType;
@@ -63,7 +70,10 @@ import java.util.Set;
 import java.util.TreeSet;
 
 import javax.inject.Singleton;
+import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
 
 
 
@@ -241,8 +251,39 @@ public class PoolCurator extends AbstractHibernateCurator<Pool> {
      *  a list of non-derived, expired pools no larger than the specified block size
      */
     @Transactional
-    @SuppressWarnings("checkstyle:indentation")
     public List<Pool> listExpiredPools(int blockSize) {
+        List<Pool> results = (List<Pool>) this.createExpiredPoolCriteria(blockSize).list();
+        return results != null ? results : new LinkedList<>();
+    }
+
+    /**
+     * Fetches the IDs of a block of expired pools from the database, using the specified block
+     * size. This method applies the same filtering as listExpiredPools, but does not load the
+     * pool entities themselves.
+     * <p></p>
+     * <strong>Note:</strong> As with listExpiredPools, this method does not set the offset for the
+     * block. The calling method must ensure that the pools are deleted between calls to this
+     * method to fetch all expired pool IDs in blocks.
+     *
+     * @param blockSize
+     *  The maximum number of pool IDs to fetch; if block size is less than 1, no limit will be
+     *  applied
+     *
+     * @return
+     *  a list of expired pool IDs no larger than the specified block size
+     */
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public List<String> getExpiredPoolIds(int blockSize) {
+        List<String> results = (List<String>) this.createExpiredPoolCriteria(blockSize)
+            .setProjection(Projections.id())
+            .list();
+
+        return results != null ? results : new LinkedList<>();
+    }
+
+    @SuppressWarnings("checkstyle:indentation")
+    private Criteria createExpiredPoolCriteria(int blockSize) {
         Date now = new Date();
 
         DetachedCriteria entCheck = DetachedCriteria.forClass(Pool.class, "entPool")
@@ -259,8 +300,7 @@ public class PoolCurator extends AbstractHibernateCurator<Pool> {
             criteria.setMaxResults(blockSize);
         }
 
-        List<Pool> results = (List<Pool>) criteria.list();
-        return results != null ? results : new LinkedList<>();
+        return criteria;
     }
 
     @SuppressWarnings("unchecked")
@@ -1213,6 +1253,246 @@ public class PoolCurator extends AbstractHibernateCurator<Pool> {
         return output;
     }
 
+    /**
+     * Fetches the IDs of the pools in the given collection which have other objects depending on
+     * them; that is, pools which have entitlements, or master pools which have derived pools
+     * created from the same subscription. Pools not present in the output can be deleted without
+     * revoking entitlements or affecting any other pool.
+     *
+     * @param poolIds
+     *  A collection of pool IDs to check for dependent objects
+     *
+     * @return
+     *  a set containing the IDs of the pools which have dependent entitlements or pools
+     */
+    @SuppressWarnings("unchecked")
+    public Set<String> getPoolIdsWithDependents(Iterable<String> poolIds) {
+        Set<String> output = new HashSet<>();
+
+        if (poolIds != null && poolIds.iterator().hasNext()) {
+            String jpql = "SELECT DISTINCT e.pool.id FROM Entitlement e WHERE e.pool.id IN (:pids)";
+            TypedQuery<String> entQuery = this.getEntityManager()
+                .createQuery(jpql, String.class);
+
+            // TODO: Update this query to use the pool hierarchy columns when they're available
+            String sql = "SELECT DISTINCT ss1.pool_id " +
+                "FROM cp2_pool_source_sub ss1 " +
+                "JOIN cp2_pool_source_sub ss2 ON ss2.subscription_id = ss1.subscription_id " +
+                "WHERE ss1.subscription_sub_key = 'master' " +
+                "  AND ss2.subscription_sub_key != 'master' " +
+                "  AND ss1.pool_id IN (:pool_ids)";
+            javax.persistence.Query derivedQuery = this.getEntityManager().createNativeQuery(sql);
+
+            for (List<String> block : this.partition(poolIds)) {
+                output.addAll(entQuery.setParameter("pids", block).getResultList());
+                output.addAll(derivedQuery.setParameter("pool_ids", block).getResultList());
+            }
+        }
+
+        return output;
+    }
+
+    /**
+     * Fetches the details required to generate pool deletion events for the pools represented by
+     * the given pool IDs, without loading the pool entities. Each row in the output contains the
+     * pool ID, the pool's owner ID and the pool's name (its product name), in that order.
+     *
+     * @param poolIds
+     *  A collection of pool IDs for which to fetch event details
+     *
+     * @return
+     *  a list of [pool ID, owner ID, pool name] rows for the existing pools
+     */
+    public List<Object[]> getPoolEventDetails(Iterable<String> poolIds) {
+        List<Object[]> output = new ArrayList<>();
+
+        if (poolIds != null && poolIds.iterator().hasNext()) {
+            String jpql = "SELECT p.id, p.owner.id, prod.name FROM Pool p JOIN p.product prod " +
+                "WHERE p.id IN (:pids)";
+            TypedQuery<Object[]> query = this.getEntityManager()
+                .createQuery(jpql, Object[].class);
+
+            for (List<String> block : this.partition(poolIds)) {
+                output.addAll(query.setParameter("pids", block).getResultList());
+            }
+        }
+
+        return output;
+    }
+
+    /**
+     * Builds the statements which delete the rows referencing the given pools, derived from the
+     * entity mappings. This includes the rows of the collections owned by the pool (attributes,
+     * provided products, etc.), and the entities which reference a pool, such as its source stack,
+     * source subscription and activation key references. Entitlements are deliberately excluded,
+     * as they must be revoked through the regular pool deletion path.
+     *
+     * @return
+     *  a list of statements to delete the rows referencing a set of pools, each taking a "pids"
+     *  parameter
+     */
+    private List<javax.persistence.Query> buildPoolReferenceDeletes() {
+        EntityManager entityManager = this.getEntityManager();
+        SessionFactoryImplementor factory = (SessionFactoryImplementor) this.currentSession()
+            .getSessionFactory();
+
+        List<javax.persistence.Query> statements = new ArrayList<>();
+
+        for (EntityType<?> entity : entityManager.getMetamodel().getEntities()) {
+            if (Entitlement.class.equals(entity.getJavaType())) {
+                continue;
+            }
+
+            for (SingularAttribute<?, ?> attribute : entity.getSingularAttributes()) {
+                if (attribute.isAssociation() && Pool.class.equals(attribute.getJavaType())) {
+                    String jpql = String.format("DELETE FROM %s e WHERE e.%s.id IN (:pids)",
+                        entity.getName(), attribute.getName());
+
+                    statements.add(entityManager.createQuery(jpql));
+                }
+            }
+        }
+
+        for (CollectionPersister persister : factory.getMetamodel().collectionPersisters().values()) {
+            if (persister.isInverse() || !(persister instanceof AbstractCollectionPersister) ||
+                !Pool.class.getName().equals(persister.getOwnerEntityPersister().getEntityName())) {
+                continue;
+            }
+
+            AbstractCollectionPersister collection = (AbstractCollectionPersister) persister;
+            String sql = String.format("DELETE FROM %s WHERE %s IN (:pids)", collection.getTableName(),
+                collection.getKeyColumnNames()[0]);
+
+            // Only invalidate the cache regions backed by the table we're changing
+            statements.add(entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(collection.getTableName()));
+        }
+
+        return statements;
+    }
+
+    /**
+     * Evicts the pools represented by the given pool IDs from the current session, along with
+     * any of their entitlements which have been loaded, without loading anything which isn't
+     * already in the session.
+     *
+     * @param poolIds
+     *  A collection of pool IDs representing the pools to evict
+     */
+    private void evictPools(Iterable<String> poolIds) {
+        SessionImplementor session = (SessionImplementor) this.currentSession();
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(Pool.class);
+        PersistenceContext context = session.getPersistenceContext();
+
+        for (String poolId : poolIds) {
+            Object entity = context.getEntity(session.generateEntityKey(poolId, persister));
+
+            if (entity instanceof Pool) {
+                Pool pool = (Pool) entity;
+
+                if (Hibernate.isInitialized(pool.getEntitlements())) {
+                    for (Entitlement entitlement : pool.getEntitlements()) {
+                        session.evict(entitlement);
+                    }
+                }
+
+                session.evict(pool);
+            }
+        }
+    }
+
+    /**
+     * Deletes the pools represented by the given pool IDs using bulk statements, without loading
+     * the pools or cascading through the entity model. The rows of the collections owned by the
+     * pools, and the entities referencing them, are removed along with the pools; both are derived
+     * from the entity mappings. Subscription certificates no longer used by any pool are removed,
+     * and their serials are revoked, as they would be by the regular pool deletion path.
+     * <p></p>
+     * Any of the deleted pools present in the current session are evicted from it once they have
+     * been deleted.
+     * <p></p>
+     * <strong>Warning:</strong> This method does not revoke entitlements or update derived pools,
+     * and will fail if any of the pools still have entitlements. It should only be used on pools
+     * which have no dependents, as determined by getPoolIdsWithDependents.
+     *
+     * @param poolIds
+     *  A collection of pool IDs representing the pools to delete
+     *
+     * @return
+     *  the number of pools deleted
+     */
+    public int bulkDeleteByIds(Iterable<String> poolIds) {
+        int deleted = 0;
+
+        if (poolIds != null && poolIds.iterator().hasNext()) {
+            EntityManager entityManager = this.getEntityManager();
+
+            // Rows referencing the pools must go first
+            List<javax.persistence.Query> referenceDeletes = this.buildPoolReferenceDeletes();
+
+            String certJpql = "SELECT cert.id, serial.id FROM Pool p JOIN p.cert cert " +
+                "LEFT JOIN cert.serial serial WHERE p.id IN (:pids)";
+            TypedQuery<Object[]> certQuery = entityManager.createQuery(certJpql, Object[].class);
+
+            Map<String, Long> certSerials = new HashMap<>();
+
+            for (List<String> block : this.partition(poolIds)) {
+                for (Object[] row : certQuery.setParameter("pids", block).getResultList()) {
+                    certSerials.put((String) row[0], (Long) row[1]);
+                }
+
+                for (javax.persistence.Query statement : referenceDeletes) {
+                    statement.setParameter("pids", block)
+                        .executeUpdate();
+                }
+
+                deleted += entityManager.createQuery("DELETE FROM Pool p WHERE p.id IN (:pids)")
+                    .setParameter("pids", block)
+                    .executeUpdate();
+            }
+
+            // Subscription certificates are removed with the pool, same as the cascade would do.
+            // However, derived pools share their certificate with the master pool, so we have to
+            // leave alone any certificate still in use by a pool we didn't delete.
+            if (!certSerials.isEmpty()) {
+                String refJpql = "SELECT DISTINCT p.cert.id FROM Pool p WHERE p.cert.id IN (:cids)";
+                TypedQuery<String> refQuery = entityManager.createQuery(refJpql, String.class);
+
+                for (List<String> block : this.partition(new ArrayList<>(certSerials.keySet()))) {
+                    certSerials.keySet().removeAll(refQuery.setParameter("cids", block).getResultList());
+                }
+
+                List<Long> serialIds = new ArrayList<>();
+                for (Long serialId : certSerials.values()) {
+                    if (serialId != null) {
+                        serialIds.add(serialId);
+                    }
+                }
+
+                for (List<String> block : this.partition(certSerials.keySet())) {
+                    entityManager.createQuery("DELETE FROM SubscriptionsCertificate c WHERE c.id IN (:cids)")
+                        .setParameter("cids", block)
+                        .executeUpdate();
+                }
+
+                // The serials are kept and revoked, so they remain on the CRL until they expire
+                for (List<Long> block : this.partition(serialIds)) {
+                    entityManager.createQuery("UPDATE CertificateSerial cs SET cs.revoked = true " +
+                        "WHERE cs.id IN (:csids)")
+                        .setParameter("csids", block)
+                        .executeUpdate();
+                }
+            }
+
+            this.evictPools(poolIds);
+
+            log.debug("{} pools deleted in bulk", deleted);
+        }
+
+        return deleted;
+    }
+
     /**
      * Fetches the entitlement IDs for the pools specified by the given pool IDs. If there are no
      * entitlements linked to the given pool IDs, this method returns an empty collection.
@@ -1584,6 +1864,53 @@ public class PoolCurator extends AbstractHibernateCurator<Pool> {
         q.executeUpdate();
     }
 
+    /**
+     * Decrements the consumed and exported quantities of the pools providing the entitlements
+     * represented by the given entitlement IDs, by the total quantity of those entitlements. Each
+     * affected pool receives a single aggregated update per block of entitlement IDs, rather than
+     * one update per entitlement.
+     * <p></p>
+     * This method must be called before the entitlements are deleted. Note that this operation does
+     * not update any fetched or cached Pool objects; such pools must be refreshed by the caller.
+     *
+     * @param entitlementIds
+     *  A collection of IDs of the entitlements being revoked
+     *
+     * @return
+     *  the number of pool rows updated
+     */
+    public int decrementConsumedForEntitlements(Iterable<String> entitlementIds) {
+        int updated = 0;
+
+        if (entitlementIds != null && entitlementIds.iterator().hasNext()) {
+            String consumedHql = "UPDATE Pool p SET p.consumed = p.consumed - coalesce(" +
+                "(SELECT sum(ent.quantity) FROM Entitlement ent " +
+                "WHERE ent.pool.id = p.id AND ent.id IN (:eids)), 0) " +
+                "WHERE p.id IN (SELECT ent2.pool.id FROM Entitlement ent2 WHERE ent2.id IN (:eids))";
+
+            String exportedHql = "UPDATE Pool p SET p.exported = p.exported - coalesce(" +
+                "(SELECT sum(ent.quantity) FROM Entitlement ent, Consumer cons, ConsumerType ctype " +
+                "WHERE ent.pool.id = p.id AND ent.consumer.id = cons.id AND cons.typeId = ctype.id " +
+                "AND ctype.manifest = 'Y' AND ent.id IN (:eids)), 0) " +
+                "WHERE p.id IN (SELECT ent2.pool.id FROM Entitlement ent2, Consumer cons2, " +
+                "ConsumerType ctype2 WHERE ent2.consumer.id = cons2.id AND cons2.typeId = ctype2.id " +
+                "AND ctype2.manifest = 'Y' AND ent2.id IN (:eids))";
+
+            Query consumedQuery = this.currentSession().createQuery(consumedHql);
+            Query exportedQuery = this.currentSession().createQuery(exportedHql);
+
+            // Each query binds the block twice, so it has to fit in half the parameter limit
+            int blockSize = Math.min(this.getInBlockSize(), this.getQueryParameterLimit() / 2);
+
+            for (List<String> block : Iterables.partition(entitlementIds, blockSize)) {
+                updated += consumedQuery.setParameterList("eids", block).executeUpdate();
+                exportedQuery.setParameterList("eids", block).executeUpdate();
+            }
+        }
+
+        return updated;
+    }
+
     public void markCertificatesDirtyForPoolsWithProducts(Owner owner, Collection<String> productIds) {
         for (List<String> batch : Iterables.partition(productIds, getInBlockSize())) {
             markCertificatesDirtyForPoolsWithNormalProducts(owner, batch);
@@ -14,10 +14,12 @@
  */
 package org.candlepin.model;
 
+import org.candlepin.cache.CandlepinCacheRegions;
 import org.candlepin.jackson.CandlepinAttributeDeserializer;
 import org.candlepin.jackson.CandlepinLegacyAttributeSerializer;
 import org.candlepin.model.dto.ProductData;
 import org.candlepin.service.model.ProductInfo;
+import org.candlepin.util.EntityVersionBuilder;
 import org.candlepin.util.ListView;
 import org.candlepin.util.MapView;
 import org.candlepin.util.SetView;
@@ -63,9 +65,11 @@ import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.MapKeyColumn;
 import javax.persistence.OneToMany;
+import javax.persistence.PostLoad;
 import javax.persistence.PrePersist;
 import javax.persistence.PreUpdate;
 import javax.persistence.Table;
+import javax.persistence.Transient;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 import javax.xml.bind.annotation.XmlAccessType;
@@ -86,7 +90,7 @@ import javax.xml.bind.annotation.XmlTransient;
 @Entity
 @Immutable
 @Table(name = Product.DB_TABLE)
-@Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = CandlepinCacheRegions.PRODUCT_DATA)
 public class Product extends AbstractHibernateObject implements SharedEntity, Linkable, Cloneable, Eventful,
     ProductInfo {
 
@@ -215,7 +219,7 @@ public class Product extends AbstractHibernateObject implements SharedEntity, Li
     @JsonSerialize(using = CandlepinLegacyAttributeSerializer.class)
     @JsonDeserialize(using = CandlepinAttributeDeserializer.class)
     @Immutable
-    @Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = CandlepinCacheRegions.PRODUCT_DATA)
     private Map<String, String> attributes;
 
     @OneToMany(mappedBy = "product")
@@ -223,7 +227,7 @@ public class Product extends AbstractHibernateObject implements SharedEntity, Li
     @Cascade({CascadeType.DELETE, CascadeType.PERSIST})
     @LazyCollection(LazyCollectionOption.EXTRA) // allows .size() without loading all data
     @Immutable
-    @Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = CandlepinCacheRegions.PRODUCT_DATA)
     private List<ProductContent> productContent;
 
     /*
@@ -237,13 +241,21 @@ public class Product extends AbstractHibernateObject implements SharedEntity, Li
     @Column(name = "element")
     @BatchSize(size = 32)
     @Immutable
-    @Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = CandlepinCacheRegions.PRODUCT_DATA)
     @LazyCollection(LazyCollectionOption.FALSE)
     private Set<String> dependentProductIds;
 
     @XmlTransient
     @Column(name = "entity_version")
-    private Integer entityVersion;
+    private Long entityVersion;
+
+    /**
+     * The memoized version of this product's own state, excluding its content, which is versioned
+     * separately. Cleared by any operation which may change that state.
+     */
+    @XmlTransient
+    @Transient
+    private Long baseEntityVersion;
 
     @XmlTransient
     @Column
@@ -253,7 +265,7 @@ public class Product extends AbstractHibernateObject implements SharedEntity, Li
     @OneToMany(mappedBy = "product")
     @Cascade({org.hibernate.annotations.CascadeType.ALL})
     @BatchSize(size = 1000)
-    @Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = CandlepinCacheRegions.PRODUCT_DATA)
     @Immutable
     private Set<Branding> branding;
 
@@ -487,6 +499,7 @@ public class Product extends AbstractHibernateObject implements SharedEntity, Li
      *  The new product ID for this product.
      */
     public void setId(String productId) {
+        this.baseEntityVersion = null;
         this.id = productId;
     }
 
@@ -503,6 +516,7 @@ public class Product extends AbstractHibernateObject implements SharedEntity, Li
      * @param name name of the product
      */
     public void setName(String name) {
+        this.baseEntityVersion = null;
         this.name = name;
     }
 
@@ -517,6 +531,8 @@ public class Product extends AbstractHibernateObject implements SharedEntity, Li
      * @param multiplier the multiplier to set
      */
     public void setMultiplier(Long multiplier) {
+        this.baseEntityVersion = null;
+
         if (multiplier == null) {
             this.multiplier = 1L;
         }
@@ -533,7 +549,8 @@ public class Product extends AbstractHibernateObject implements SharedEntity, Li
      *  a map containing the attributes for this product
      */
     public Map<String, String> getAttributes() {
-        return new MapView(this.attributes);
+        // The view allows removal, so the attributes may be changed through it
+        return new MapView<>(this.attributes, this::clearEntityVersionMemo);
     }
 
     /**
@@ -606,6 +623,7 @@ public class Product extends AbstractHibernateObject implements SharedEntity, Li
         // empty strings, and others have their own sential values. Unless we make a concerted
         // effort to fix all of these inconsistencies with a massive database update, we can't
         // perform any input sanitation/massaging.
+        this.baseEntityVersion = null;
         this.attributes.put(key, value);
         return this;
     }
@@ -629,6 +647,7 @@ public class Product extends AbstractHibernateObject implements SharedEntity, Li
 
         boolean present = this.attributes.containsKey(key);
 
+        this.baseEntityVersion = null;
         this.attributes.remove(key);
         return present;
     }
@@ -640,6 +659,7 @@ public class Product extends AbstractHibernateObject implements SharedEntity, Li
      *  a reference to this product
      */
     public Product clearAttributes() {
+        this.baseEntityVersion = null;
         this.attributes.clear();
         return this;
     }
@@ -655,6 +675,7 @@ public class Product extends AbstractHibernateObject implements SharedEntity, Li
      *  a reference to this product
      */
     public Product setAttributes(Map<String, String> attributes) {
+        this.baseEntityVersion = null;
         this.attributes.clear();
 
         if (attributes != null) {
@@ -672,7 +693,8 @@ public class Product extends AbstractHibernateObject implements SharedEntity, Li
      *  the brandings of this product
      */
     public Collection<Branding> getBranding() {
-        return new SetView<>(branding);
+        // The view allows removal, so the branding may be changed through it
+        return new SetView<>(this.branding, this::clearEntityVersionMemo);
     }
 
     /**
@@ -685,6 +707,7 @@ public class Product extends AbstractHibernateObject implements SharedEntity, Li
      *  a reference to this product
      */
     public Product setBranding(Collection<Branding> branding) {
+        this.baseEntityVersion = null;
         this.branding.clear();
 
         if (branding != null) {
@@ -714,6 +737,7 @@ public class Product extends AbstractHibernateObject implements SharedEntity, Li
             throw new IllegalArgumentException("branding is null");
         }
 
+        this.baseEntityVersion = null;
         branding.setProduct(this);
         return this.branding.add(branding);
     }
@@ -750,6 +774,7 @@ public class Product extends AbstractHibernateObject implements SharedEntity, Li
             }
         }
 
+        this.baseEntityVersion = null;
         return this.branding.removeAll(remove);
     }
 
@@ -1059,7 +1084,8 @@ public class Product extends AbstractHibernateObject implements SharedEntity, Li
      *  the dependent product IDs of this product
      */
     public Collection<String> getDependentProductIds() {
-        return new SetView(this.dependentProductIds);
+        // The view allows removal, so the dependent product IDs may be changed through it
+        return new SetView<>(this.dependentProductIds, this::clearEntityVersionMemo);
     }
 
     /**
@@ -1080,6 +1106,7 @@ public class Product extends AbstractHibernateObject implements SharedEntity, Li
             throw new IllegalArgumentException("productId is null");
         }
 
+        this.baseEntityVersion = null;
         return this.dependentProductIds.add(productId);
     }
 
@@ -1101,6 +1128,7 @@ public class Product extends AbstractHibernateObject implements SharedEntity, Li
             throw new IllegalArgumentException("productId is null");
         }
 
+        this.baseEntityVersion = null;
         return this.dependentProductIds.remove(productId);
     }
 
@@ -1111,6 +1139,7 @@ public class Product extends AbstractHibernateObject implements SharedEntity, Li
      *  a reference to this product
      */
     public Product clearDependentProductIds() {
+        this.baseEntityVersion = null;
         this.dependentProductIds.clear();
         return this;
     }
@@ -1126,6 +1155,7 @@ public class Product extends AbstractHibernateObject implements SharedEntity, Li
      *  a reference to this product
      */
     public Product setDependentProductIds(Collection<String> dependentProductIds) {
+        this.baseEntityVersion = null;
         this.dependentProductIds.clear();
 
         if (dependentProductIds != null) {
@@ -1210,55 +1240,61 @@ public class Product extends AbstractHibernateObject implements SharedEntity, Li
     }
 
     /**
-     * Calculates and returns a version hash for this entity. This method operates much like the
-     * hashCode method, except that it is more accurate and should have fewer collisions.
+     * Calculates and returns a version for this entity. The version is a 64-bit digest of the
+     * state of this product and its content, such that two products with the same ID and version
+     * may be considered equal.
+     * <p></p>
+     * The version of the product's own state is memoized, and is only recalculated after the
+     * product has been changed. The versions of its content are memoized by the content itself.
      *
      * @return
-     *  a version hash for this entity
+     *  a version for this entity
      */
-    public int getEntityVersion() {
+    public long getEntityVersion() {
         // This must always be a subset of equals
-        HashCodeBuilder builder = new HashCodeBuilder(37, 7)
-            .append(this.id)
-            .append(this.name)
-            .append(this.multiplier)
-            .append(this.attributes);
-
-        // Impl note:
-        // Stepping through the collections here is as painful as it looks, but Hibernate, once
-        // again, doesn't implement .hashCode reliably on the proxy collections. So, we have to
-        // manually step through these and add the elements to ensure the hash code is
-        // generated properly.
-        int accumulator;
-
-        if (!this.dependentProductIds.isEmpty()) {
-            accumulator = 0;
-            for (String pid : this.dependentProductIds) {
-                accumulator += (pid != null ? pid.hashCode() : 0);
-            }
-
-            builder.append(accumulator);
-        }
-
-        if (!this.productContent.isEmpty()) {
-            accumulator = 0;
-            for (ProductContent pc : this.productContent) {
-                accumulator += (pc != null ? pc.getEntityVersion() : 0);
-            }
-
-            builder.append(accumulator);
+        if (this.baseEntityVersion == null) {
+            long[] brandingVersions = this.branding.stream()
+                .filter(Objects::nonNull)
+                .mapToLong(brand -> new EntityVersionBuilder()
+                    .append(brand.getProductId())
+                    .append(brand.getName())
+                    .append(brand.getType())
+                    .build())
+                .toArray();
+
+            this.baseEntityVersion = new EntityVersionBuilder()
+                .append(this.id)
+                .append(this.name)
+                .append(this.multiplier)
+                .appendMap(this.attributes)
+                .appendSet(this.dependentProductIds)
+                .appendSet(brandingVersions)
+                .build();
         }
 
-        if (!this.branding.isEmpty()) {
-            accumulator = 0;
-            for (Branding branding : this.branding) {
-                accumulator += (branding != null ? branding.hashCode() : 0);
-            }
-
-            builder.append(accumulator);
-        }
+        // Impl note:
+        // Product content is versioned on every call, as the content entities may change
+        // independently of this product. Content versions are themselves memoized, so this only
+        // amounts to combining a handful of longs.
+        long[] contentVersions = this.productContent.stream()
+            .filter(Objects::nonNull)
+            .mapToLong(ProductContent::getEntityVersion)
+            .toArray();
+
+        return new EntityVersionBuilder()
+            .append(this.baseEntityVersion)
+            .appendSet(contentVersions)
+            .build();
+    }
 
-        return builder.toHashCode();
+    /**
+     * Clears the memoized version of this product's own state. Invoked when the product is loaded
+     * or refreshed, as Hibernate populates its state without going through its mutators, when one
+     * of its brandings is changed, and when its collections are changed through their views.
+     */
+    @PostLoad
+    void clearEntityVersionMemo() {
+        this.baseEntityVersion = null;
     }
 
     // TODO: Maybe remove these isChangedBy methods and move them to the translation bits?
@@ -14,8 +14,10 @@
  */
 package org.candlepin.model;
 
+import org.candlepin.cache.CandlepinCacheRegions;
 import org.candlepin.model.dto.ProductContentData;
 import org.candlepin.service.model.ProductContentInfo;
+import org.candlepin.util.EntityVersionBuilder;
 
 import org.apache.commons.lang.builder.EqualsBuilder;
 import org.apache.commons.lang.builder.HashCodeBuilder;
@@ -41,7 +43,7 @@ import javax.xml.bind.annotation.XmlTransient;
  */
 @Entity
 @Immutable
-@Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = CandlepinCacheRegions.PRODUCT_DATA)
 @Table(name = ProductContent.DB_TABLE)
 public class ProductContent extends AbstractHibernateObject implements ProductContentInfo {
 
@@ -166,19 +168,17 @@ public class ProductContent extends AbstractHibernateObject implements ProductCo
     }
 
     /**
-     * Calculates and returns a version hash for this entity. This method operates much like the
-     * hashCode method, except that it is more accurate and should have fewer collisions.
+     * Calculates and returns a version for this entity, derived from the version of its content
+     * and its enabled state.
      *
      * @return
-     *  a version hash for this entity
+     *  a version for this entity
      */
-    public int getEntityVersion() {
-        int hash = 17;
-
-        hash = 7 * hash + (this.content != null ? this.content.getEntityVersion() : 0);
-        hash = 7 * hash + (this.enabled ? 1 : 0);
-
-        return hash;
+    public long getEntityVersion() {
+        return new EntityVersionBuilder()
+            .append(this.content != null ? this.content.getEntityVersion() : null)
+            .append(this.enabled)
+            .build();
     }
 
     /**
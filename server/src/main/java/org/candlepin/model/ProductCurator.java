@@ -118,6 +118,80 @@ public class ProductCurator extends AbstractHibernateCurator<Product> {
         return getProductsByUuidCached(providedUuids);
     }
 
+    /**
+     * Fetches the provided products of the specified pools in bulk, indexed by pool ID. The
+     * products will be pulled from the product cache where possible. Pools without any provided
+     * products will not be present in the returned map.
+     *
+     * @param poolIds
+     *  A collection of IDs of the pools for which to fetch provided products
+     *
+     * @return
+     *  a map of pool IDs to the provided products of the respective pool
+     */
+    public Map<String, Set<Product>> getPoolProvidedProductsCached(Collection<String> poolIds) {
+        String sql = "SELECT pool_id, product_uuid FROM cp2_pool_provided_products " +
+            "WHERE pool_id IN (:poolIds)";
+        return this.getPoolProductsCached(sql, poolIds);
+    }
+
+    /**
+     * Fetches the derived provided products of the specified pools in bulk, indexed by pool ID.
+     * The products will be pulled from the product cache where possible. Pools without any derived
+     * provided products will not be present in the returned map.
+     *
+     * @param poolIds
+     *  A collection of IDs of the pools for which to fetch derived provided products
+     *
+     * @return
+     *  a map of pool IDs to the derived provided products of the respective pool
+     */
+    public Map<String, Set<Product>> getPoolDerivedProvidedProductsCached(Collection<String> poolIds) {
+        String sql = "SELECT pool_id, product_uuid FROM cp2_pool_derprov_products " +
+            "WHERE pool_id IN (:poolIds)";
+        return this.getPoolProductsCached(sql, poolIds);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Set<Product>> getPoolProductsCached(String sql, Collection<String> poolIds) {
+        Map<String, Set<String>> poolProductUuids = new HashMap<>();
+        Set<String> productUuids = new HashSet<>();
+
+        if (poolIds != null && !poolIds.isEmpty()) {
+            Query query = this.getEntityManager().createNativeQuery(sql);
+
+            for (List<String> block : Iterables.partition(new HashSet<>(poolIds), this.getInBlockSize())) {
+                query.setParameter("poolIds", block);
+
+                for (Object[] row : (List<Object[]>) query.getResultList()) {
+                    String poolId = (String) row[0];
+                    String productUuid = (String) row[1];
+
+                    poolProductUuids.computeIfAbsent(poolId, key -> new HashSet<>()).add(productUuid);
+                    productUuids.add(productUuid);
+                }
+            }
+        }
+
+        Map<String, Product> products = new HashMap<>();
+        for (Product product : this.getProductsByUuidCached(productUuids)) {
+            products.put(product.getUuid(), product);
+        }
+
+        Map<String, Set<Product>> poolProducts = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : poolProductUuids.entrySet()) {
+            Set<Product> productSet = new HashSet<>();
+
+            for (String uuid : entry.getValue()) {
+                productSet.add(products.get(uuid));
+            }
+
+            poolProducts.put(entry.getKey(), productSet);
+        }
+
+        return poolProducts;
+    }
+
     /**
      * Finds all provided products for a given poolId
      *
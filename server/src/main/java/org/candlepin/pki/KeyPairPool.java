@@ -0,0 +1,225 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.pki;
+
+import org.candlepin.common.config.Configuration;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.metrics.Counter;
+import org.candlepin.metrics.MetricFamily;
+import org.candlepin.metrics.MetricRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.KeyPair;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+
+
+/**
+ * The KeyPairPool keeps a bounded supply of pre-generated RSA key pairs, so that registration
+ * bursts do not pay for key generation on the request thread.
+ * <p></p>
+ * Whenever the number of pooled key pairs drops to the refill threshold, a configurable number of
+ * low-priority background threads generate key pairs until the pool is full again. Callers take
+ * from the pool and only fall back to generating a key pair synchronously when it is empty. A pool
+ * size of zero disables pooling entirely.
+ */
+@Singleton
+public class KeyPairPool {
+    private static final Logger log = LoggerFactory.getLogger(KeyPairPool.class);
+
+    private final PKIUtility pki;
+    private final int capacity;
+    private final int refillThreshold;
+    private final int threads;
+
+    private final BlockingQueue<KeyPair> pool;
+    private final AtomicInteger activeFillers;
+    private final ExecutorService executor;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    @Inject
+    public KeyPairPool(PKIUtility pki, Configuration config, MetricRegistry metricRegistry) {
+        if (pki == null) {
+            throw new IllegalArgumentException("pki is null");
+        }
+
+        if (config == null) {
+            throw new IllegalArgumentException("config is null");
+        }
+
+        this.pki = pki;
+        this.capacity = Math.max(0, config.getInt(ConfigProperties.KEYPAIR_POOL_SIZE));
+        this.refillThreshold = Math.min(this.capacity - 1,
+            Math.max(0, config.getInt(ConfigProperties.KEYPAIR_POOL_REFILL_THRESHOLD)));
+        this.threads = Math.max(1, config.getInt(ConfigProperties.KEYPAIR_POOL_THREADS));
+
+        this.pool = new ArrayBlockingQueue<>(Math.max(1, this.capacity));
+        this.activeFillers = new AtomicInteger();
+        this.executor = this.capacity > 0 ?
+            Executors.newFixedThreadPool(this.threads, new FillerFactory()) :
+            null;
+
+        MetricFamily<Counter> takes = metricRegistry.counters("candlepin_keypair_pool_takes_total",
+            "Key pairs requested from the key pair pool, by whether a pooled key pair was available",
+            "result");
+
+        this.hitCounter = takes.labels("hit");
+        this.missCounter = takes.labels("miss");
+
+        metricRegistry.addCollector(registry -> registry
+            .gauges("candlepin_keypair_pool_size", "Key pairs currently held by the key pair pool")
+            .labels()
+            .set(this.size()));
+    }
+
+    /**
+     * Thread factory for the background filler threads. Fillers run as daemons at the lowest
+     * priority, so that key generation yields to request threads.
+     */
+    private static class FillerFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "keypair-pool-" + this.count.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+
+            return thread;
+        }
+    }
+
+    /**
+     * Begins filling the pool in the background. Calling this method is optional, as the pool also
+     * begins filling the first time a key pair is taken from it, but doing so at startup allows the
+     * pool to be full before the first burst of registrations arrives.
+     */
+    public void start() {
+        this.refillIfNeeded();
+    }
+
+    /**
+     * Stops the background filler threads. Any key pairs remaining in the pool are discarded, and
+     * further requests are served by generating key pairs synchronously.
+     */
+    public void shutdown() {
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+
+            try {
+                this.executor.awaitTermination(5, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        this.pool.clear();
+    }
+
+    /**
+     * Takes a key pair from the pool, or generates one synchronously if the pool is empty. Each
+     * key pair is only ever returned once.
+     *
+     * @throws NoSuchAlgorithmException
+     *  if the pool is empty and a key pair could not be generated
+     *
+     * @return
+     *  a new key pair
+     */
+    public KeyPair take() throws NoSuchAlgorithmException {
+        KeyPair keyPair = this.pool.poll();
+
+        if (keyPair != null) {
+            this.hitCounter.inc();
+        }
+        else {
+            this.missCounter.inc();
+        }
+
+        this.refillIfNeeded();
+
+        return keyPair != null ? keyPair : this.pki.generateNewKeyPair();
+    }
+
+    /**
+     * Fetches the number of key pairs currently held by the pool.
+     *
+     * @return
+     *  the number of pooled key pairs
+     */
+    public int size() {
+        return this.pool.size();
+    }
+
+    /**
+     * Checks whether any filler threads are currently generating key pairs for the pool.
+     *
+     * @return
+     *  true if the pool is being refilled; false otherwise
+     */
+    boolean isFilling() {
+        return this.activeFillers.get() > 0;
+    }
+
+    private void refillIfNeeded() {
+        if (this.executor == null || this.executor.isShutdown() || this.pool.size() > this.refillThreshold) {
+            return;
+        }
+
+        // Only one generation of fillers runs at a time; they fill the pool to capacity before exiting
+        if (!this.activeFillers.compareAndSet(0, this.threads)) {
+            return;
+        }
+
+        log.debug("Refilling key pair pool from {} of {}", this.pool.size(), this.capacity);
+
+        for (int i = 0; i < this.threads; ++i) {
+            this.executor.execute(this::fill);
+        }
+    }
+
+    private void fill() {
+        try {
+            while (!Thread.currentThread().isInterrupted() && this.pool.remainingCapacity() > 0) {
+                if (!this.pool.offer(this.pki.generateNewKeyPair())) {
+                    break;
+                }
+            }
+        }
+        catch (Exception e) {
+            // Leave the pool as is; requests fall back to synchronous generation, and the next
+            // request to find the pool low will try again
+            log.error("Unable to generate key pair for the key pair pool", e);
+        }
+        finally {
+            this.activeFillers.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.impl.BeanAsArraySerializer;
+import com.fasterxml.jackson.databind.ser.impl.ObjectIdWriter;
+import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
+
+import java.io.IOException;
+import java.util.Set;
+
+
+
+/**
+ * Jackson bean serializer which writes an object previously serialized within the same
+ * serialization from its cached JSON, rather than serializing it again.
+ * <p></p>
+ * The cache is looked up from the {@link RulesSerializationCache} attribute of the
+ * serialization, and fragments are serialized with the uncached writer stored in its
+ * {@link ObjectWriter} attribute, so cached output is identical to uncached output. When either
+ * attribute is missing, objects are serialized normally. This is
+ * used by the rules object mapper, where the same pool DTOs appear many times within the
+ * arguments of a single rules call.
+ */
+class CachedFragmentSerializer extends BeanSerializerBase {
+
+    CachedFragmentSerializer(BeanSerializerBase src) {
+        super(src);
+    }
+
+    protected CachedFragmentSerializer(BeanSerializerBase src, ObjectIdWriter objectIdWriter,
+        Object filterId) {
+        super(src, objectIdWriter, filterId);
+    }
+
+    protected CachedFragmentSerializer(BeanSerializerBase src, Set<String> toIgnore) {
+        super(src, toIgnore.toArray(new String[0]));
+    }
+
+    @Override
+    public final void serialize(Object bean, JsonGenerator jgen, SerializerProvider provider)
+        throws IOException {
+
+        RulesSerializationCache cache = (RulesSerializationCache) provider
+            .getAttribute(RulesSerializationCache.class);
+        ObjectWriter fragmentWriter = (ObjectWriter) provider.getAttribute(ObjectWriter.class);
+
+        if (cache == null || fragmentWriter == null || _objectIdWriter != null) {
+            this.serializeBean(bean, jgen, provider);
+            return;
+        }
+
+        String fragment = cache.get(bean);
+        if (fragment == null) {
+            // The fragment writer carries no cache attribute, so this serializes the bean normally
+            fragment = fragmentWriter.writeValueAsString(bean);
+            cache.put(bean, fragment);
+        }
+
+        jgen.writeRawValue(fragment);
+    }
+
+    private void serializeBean(Object bean, JsonGenerator jgen, SerializerProvider provider)
+        throws IOException {
+
+        if (_objectIdWriter != null) {
+            jgen.setCurrentValue(bean);
+            _serializeWithObjectId(bean, jgen, provider, true);
+            return;
+        }
+
+        jgen.writeStartObject(bean);
+        if (_propertyFilterId != null) {
+            serializeFieldsFiltered(bean, jgen, provider);
+        }
+        else {
+            serializeFields(bean, jgen, provider);
+        }
+        jgen.writeEndObject();
+    }
+
+    @Override
+    public BeanSerializerBase withObjectIdWriter(ObjectIdWriter objectIdWriter) {
+        return new CachedFragmentSerializer(this, objectIdWriter, _propertyFilterId);
+    }
+
+    @Override
+    public BeanSerializerBase withFilterId(Object filterId) {
+        return new CachedFragmentSerializer(this, _objectIdWriter, filterId);
+    }
+
+    @Override
+    protected BeanSerializerBase withIgnorals(Set<String> toIgnore) {
+        return new CachedFragmentSerializer(this, toIgnore);
+    }
+
+    @Override
+    protected BeanSerializerBase asArraySerializer() {
+        if ((_objectIdWriter == null) && (_anyGetterWriter == null) && (_propertyFilterId == null)) {
+            return new BeanAsArraySerializer(this);
+        }
+
+        // already is one, so:
+        return this;
+    }
+}
@@ -28,6 +28,10 @@ import org.slf4j.LoggerFactory;
  * JsRunner - Responsible for running the javascript rules methods in all
  * namespaces.
  * Used by the various "Rules" classes.
+ * <p></p>
+ * Runners execute in the warmed scope of the thread which created them, and are therefore
+ * not safe to share between threads. The values applied to that scope by a context, and any
+ * globals assigned by the rules, are cleared once each call completes.
  */
 public class JsRunner {
 
@@ -35,12 +39,16 @@ public class JsRunner {
 
     private Object rulesNameSpace;
     private String namespace;
+    private JsRunnerThreadScope threadScope;
     private Scriptable scope;
+    private JsRunnerStatistics statistics;
 
     private boolean initialized = false;
 
-    public JsRunner(Scriptable scope) {
-        this.scope = scope;
+    JsRunner(JsRunnerThreadScope threadScope, JsRunnerStatistics statistics) {
+        this.threadScope = threadScope;
+        this.scope = threadScope.getScope();
+        this.statistics = statistics;
     }
 
     /**
@@ -55,25 +63,39 @@ public class JsRunner {
         this.namespace = namespace;
 
         if (!initialized) {
-
-            Context context = Context.enter();
             try {
-                Object func = ScriptableObject.getProperty(scope, namespace);
-                this.rulesNameSpace = unwrapReturnValue(((Function) func)
-                    .call(context, scope, scope, Context.emptyArgs));
-
+                this.rulesNameSpace = unwrapReturnValue(this.threadScope.getNamespace(namespace));
                 this.initialized = true;
             }
             catch (RhinoException ex) {
                 this.initialized = false;
                 throw new RuleParseException(ex);
             }
-            finally {
-                Context.exit();
-            }
         }
     }
 
+    /**
+     * Fetches the scope in which this runner executes rules. Runners created on the same thread
+     * for the same version of the rules share this scope.
+     *
+     * @return
+     *  the execution scope of this runner
+     */
+    Scriptable getScope() {
+        return this.scope;
+    }
+
+    /**
+     * Fetches the warmed thread environment in which this runner executes rules. Runners created
+     * on the same thread for the same version of the rules share this environment.
+     *
+     * @return
+     *  the thread scope of this runner
+     */
+    JsRunnerThreadScope getThreadScope() {
+        return this.threadScope;
+    }
+
     public void reinitTo(String namespace) {
         initialized = false;
         init(namespace);
@@ -90,17 +112,35 @@ public class JsRunner {
     @SuppressWarnings("unchecked")
     public <T> T invokeMethod(String method)
         throws NoSuchMethodException, RhinoException {
-        Scriptable localScope = Context.toObject(this.rulesNameSpace, scope);
-        Object func = ScriptableObject.getProperty(localScope, method);
-        if (!(func instanceof Function)) {
-            throw new NoSuchMethodException("no such javascript method: " + method);
-        }
-        Context context = Context.enter();
+        Context context = this.threadScope.enter();
         try {
-            return (T) unwrapReturnValue(((Function) func).call(context, scope,
-                localScope, Context.emptyArgs));
+            Scriptable localScope = Context.toObject(this.rulesNameSpace, scope);
+            Object func = ScriptableObject.getProperty(localScope, method);
+            if (!(func instanceof Function)) {
+                throw new NoSuchMethodException("no such javascript method: " + method);
+            }
+
+            boolean failed = true;
+            long start = System.nanoTime();
+            try {
+                T result = (T) unwrapReturnValue(((Function) func).call(context, scope,
+                    localScope, Context.emptyArgs));
+
+                failed = false;
+                return result;
+            }
+            finally {
+                long elapsed = System.nanoTime() - start;
+                this.statistics.record(this.namespace, method, elapsed, failed);
+
+                if (log.isDebugEnabled()) {
+                    log.debug("Executed rule {}.{} in {}us", this.namespace, method, elapsed / 1000);
+                }
+            }
         }
         finally {
+            // Drop the values applied for this call, so they are not visible to later calls
+            this.threadScope.clearGlobals();
             Context.exit();
         }
     }
@@ -14,6 +14,7 @@
  */
 package org.candlepin.policy.js;
 
+import org.candlepin.metrics.MetricRegistry;
 import org.candlepin.model.Rules;
 import org.candlepin.model.Rules.RulesSourceEnum;
 import org.candlepin.model.RulesCurator;
@@ -30,36 +31,39 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Date;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Reads/compiles our javascript rules and the standard js objects only
- * once across the JVM lifetime (and whenever the rules require a recompile), and creates
- * lightweight execution scopes per thread/request.
+ * once across the JVM lifetime (and whenever the rules require a recompile), and keeps a
+ * warmed execution scope per thread which is reused until the rules are recompiled. The values
+ * applied to that scope are cleared after each rules call, so no state leaks between runners on
+ * the same thread.
  */
 public class JsRunnerProvider implements Provider<JsRunner> {
     private static Logger log = LoggerFactory.getLogger(JsRunnerProvider.class);
 
     private RulesCurator rulesCurator;
     private Provider<JsRunnerRequestCache> cacheProvider;
-    private Script script;
-    private Scriptable scope;
+
     /**
-     * This date is basically a version of the rules that this
-     * JSRunnerProvider compiled. Note that in clustered environment,
-     * multiple nodes must compile same version of rules. Thats why
-     * this JsRunnerProvider uses database to make sure it compiles and
-     * uses the database dictated version.
+     * The currently compiled rules. A new instance is published whenever the rules are
+     * recompiled, which allows readers to fetch the rules without taking the script lock.
      */
-    private volatile Date currentRulesUpdated;
+    private volatile CompiledRules compiledRules;
 
-    // Store the version and source of the compiled rules:
-    private String rulesVersion;
-    private RulesSourceEnum rulesSource;
+    // Use this lock to serialize rule compilation
+    private Lock scriptLock = new ReentrantLock();
 
-    // Use this lock to access script, scope and updated
-    private ReadWriteLock scriptLock = new ReentrantReadWriteLock();
+    /**
+     * The warmed, per-thread execution environment for the current version of the rules.
+     * Each worker thread keeps its own context and scope, which are rebuilt only once the
+     * rules they were built against have been replaced.
+     */
+    private final ThreadLocal<JsRunnerThreadScope> threadScopes = new ThreadLocal<>();
+
+    private final JsRunnerStatistics statistics;
 
     /**
      * DynamicScopeContextFactory - replace the standard rhino context factory with one that
@@ -77,14 +81,47 @@ public class JsRunnerProvider implements Provider<JsRunner> {
         }
     }
 
+    /**
+     * Immutable snapshot of a single compilation of the rules.
+     */
+    static class CompiledRules {
+        /**
+         * This date is basically a version of the rules that this
+         * JSRunnerProvider compiled. Note that in clustered environment,
+         * multiple nodes must compile same version of rules. Thats why
+         * this JsRunnerProvider uses database to make sure it compiles and
+         * uses the database dictated version.
+         */
+        private final Date updated;
+        private final Scriptable scope;
+
+        // Store the version and source of the compiled rules:
+        private final String version;
+        private final RulesSourceEnum source;
+
+        CompiledRules(Date updated, Scriptable scope, String version, RulesSourceEnum source) {
+            this.updated = updated;
+            this.scope = scope;
+            this.version = version;
+            this.source = source;
+        }
+    }
+
     static {
         ContextFactory.initGlobal(new DynamicScopeContextFactory());
     }
 
-    @Inject
     public JsRunnerProvider(RulesCurator rulesCurator, Provider<JsRunnerRequestCache> cacheProvider) {
+        this(rulesCurator, cacheProvider, new MetricRegistry());
+    }
+
+    @Inject
+    public JsRunnerProvider(RulesCurator rulesCurator, Provider<JsRunnerRequestCache> cacheProvider,
+        MetricRegistry metricRegistry) {
+
         this.rulesCurator = rulesCurator;
         this.cacheProvider = cacheProvider;
+        this.statistics = new JsRunnerStatistics(metricRegistry);
 
         log.debug("Compiling rules for initial load");
         this.rulesCurator.updateDbRules();
@@ -102,12 +139,13 @@ public class JsRunnerProvider implements Provider<JsRunner> {
     }
 
     public void compileRules(boolean forceRefresh) {
-        scriptLock.writeLock().lock();
+        scriptLock.lock();
         try {
-            // Check to see if we need to recompile. we do this inside the write lock
+            // Check to see if we need to recompile. we do this inside the lock
             // just to avoid race conditions where we might double compile
             Date newUpdated = rulesCurator.getUpdated();
-            if (!forceRefresh && newUpdated.equals(this.currentRulesUpdated)) {
+            CompiledRules current = this.compiledRules;
+            if (!forceRefresh && current != null && newUpdated.equals(current.updated)) {
                 return;
             }
 
@@ -115,23 +153,24 @@ public class JsRunnerProvider implements Provider<JsRunner> {
 
             Context context = Context.enter();
             context.setOptimizationLevel(9);
-            scope = context.initStandardObjects(null, true);
+            Scriptable scope = context.initStandardObjects(null, true);
             try {
                 Rules rules = rulesCurator.getRules();
-                rulesVersion = rules.getVersion();
-                rulesSource = rules.getRulesSource();
-                script = context.compileString(
-                    rules.getRules(), "rules", 1, null);
+                Script script = context.compileString(rules.getRules(), "rules", 1, null);
                 script.exec(context, scope);
                 ((ScriptableObject) scope).sealObject();
-                this.currentRulesUpdated = newUpdated;
+
+                // Publishing the new rules implicitly invalidates every per-thread scope built
+                // against the previous version
+                this.compiledRules = new CompiledRules(newUpdated, scope, rules.getVersion(),
+                    rules.getRulesSource());
             }
             finally {
                 Context.exit();
             }
         }
         finally {
-            scriptLock.writeLock().unlock();
+            scriptLock.unlock();
         }
     }
 
@@ -147,42 +186,63 @@ public class JsRunnerProvider implements Provider<JsRunner> {
             updated = rulesCurator.getUpdated();
             cache.setUpdated(updated);
         }
-        /*
-         * Create a new thread/request local javascript scope for the JsRules,
-         * based on the preinitialized global one (which contains our js rules).
-         */
-        // Avoid a write lock if we can
-        if (!updated.equals(this.currentRulesUpdated)) {
+
+        // Avoid taking the lock if we can
+        CompiledRules rules = this.compiledRules;
+        if (!updated.equals(rules.updated)) {
             compileRules();
+            rules = this.compiledRules;
         }
-        Scriptable rulesScope;
-        scriptLock.readLock().lock();
-        try {
-            Context context = Context.enter();
-            rulesScope = context.newObject(scope);
-            rulesScope.setPrototype(scope);
-            rulesScope.setParentScope(null);
-            Context.exit();
-        }
-        finally {
-            scriptLock.readLock().unlock();
+
+        return new JsRunner(this.getThreadScope(rules), this.statistics);
+    }
+
+    /**
+     * Fetches the execution environment for the current thread, creating a new one if the thread
+     * does not yet have one, or if it was built against an older version of the rules.
+     *
+     * @param rules
+     *  the compiled rules the thread scope must be based on
+     *
+     * @return
+     *  the execution environment for the current thread
+     */
+    private JsRunnerThreadScope getThreadScope(CompiledRules rules) {
+        JsRunnerThreadScope threadScope = this.threadScopes.get();
+
+        if (threadScope == null || !threadScope.isBasedOn(rules.scope)) {
+            log.debug("Building rules scope for thread {}", Thread.currentThread().getName());
+
+            threadScope = new JsRunnerThreadScope(rules.scope);
+            this.threadScopes.set(threadScope);
         }
 
-        return new JsRunner(rulesScope);
+        return threadScope;
+    }
+
+    /**
+     * Fetches the invocation statistics for the rule functions executed by the runners
+     * created by this provider.
+     *
+     * @return
+     *  the rule invocation statistics for this provider
+     */
+    public JsRunnerStatistics getStatistics() {
+        return this.statistics;
     }
 
     public String getRulesVersion() {
-        if (rulesVersion == null) {
+        if (compiledRules == null) {
             compileRules();
         }
-        return rulesVersion;
+        return compiledRules.version;
     }
 
     public RulesSourceEnum getRulesSource() {
-        if (rulesSource == null) {
+        if (compiledRules == null) {
             compileRules();
         }
-        return rulesSource;
+        return compiledRules.source;
     }
 
 }
@@ -0,0 +1,189 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js;
+
+import org.candlepin.metrics.Counter;
+import org.candlepin.metrics.MetricFamily;
+import org.candlepin.metrics.MetricRegistry;
+import org.candlepin.metrics.Timer;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JsRunnerStatistics
+ *
+ * Collects invocation counts and latencies of the javascript rule functions executed through
+ * {@link JsRunner}. Statistics are keyed by "namespace.function" and are safe to update from
+ * any number of threads concurrently. Invocations are also recorded into the rules timers and
+ * failure counters of a MetricRegistry, labeled by namespace and function.
+ */
+public class JsRunnerStatistics {
+
+    /**
+     * The accumulated statistics of a single rule function.
+     */
+    public static class FunctionStatistics {
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+        private final Timer timer;
+        private final Counter failureCounter;
+
+        FunctionStatistics(Timer timer, Counter failureCounter) {
+            this.timer = timer;
+            this.failureCounter = failureCounter;
+        }
+
+        void record(long nanos, boolean failed) {
+            this.invocations.increment();
+            this.totalNanos.add(nanos);
+            this.maxNanos.accumulate(nanos);
+            this.timer.record(nanos);
+
+            if (failed) {
+                this.failures.increment();
+                this.failureCounter.inc();
+            }
+        }
+
+        public long getInvocations() {
+            return this.invocations.sum();
+        }
+
+        public long getFailures() {
+            return this.failures.sum();
+        }
+
+        public long getTotalTime(TimeUnit unit) {
+            return unit.convert(this.totalNanos.sum(), TimeUnit.NANOSECONDS);
+        }
+
+        public long getMaxTime(TimeUnit unit) {
+            return unit.convert(this.maxNanos.get(), TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Calculates the mean time spent in a single invocation of the function.
+         *
+         * @param unit
+         *  the time unit in which to return the mean time
+         *
+         * @return
+         *  the mean invocation time in the given unit, or zero if the function has not been
+         *  invoked yet
+         */
+        public long getMeanTime(TimeUnit unit) {
+            long count = this.invocations.sum();
+            return count > 0 ? unit.convert(this.totalNanos.sum() / count, TimeUnit.NANOSECONDS) : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("FunctionStatistics [invocations: %d, failures: %d, mean: %dus, max: %dus]",
+                this.getInvocations(), this.getFailures(), this.getMeanTime(TimeUnit.MICROSECONDS),
+                this.getMaxTime(TimeUnit.MICROSECONDS));
+        }
+    }
+
+    private final ConcurrentMap<String, FunctionStatistics> functions = new ConcurrentHashMap<>();
+
+    private final MetricFamily<Timer> timers;
+    private final MetricFamily<Counter> failureCounters;
+
+    public JsRunnerStatistics() {
+        this(new MetricRegistry());
+    }
+
+    public JsRunnerStatistics(MetricRegistry metricRegistry) {
+        this.timers = metricRegistry.timers("candlepin_rules_function_seconds",
+            "Time spent invoking javascript rule functions", "namespace", "function");
+
+        this.failureCounters = metricRegistry.counters("candlepin_rules_function_failures_total",
+            "Javascript rule function invocations which failed with an exception", "namespace", "function");
+    }
+
+    /**
+     * Records a single invocation of a rule function.
+     *
+     * @param namespace
+     *  the rules namespace in which the function was invoked
+     *
+     * @param function
+     *  the name of the invoked function
+     *
+     * @param nanos
+     *  the time spent in the function, in nanoseconds
+     *
+     * @param failed
+     *  whether or not the invocation failed with an exception
+     */
+    public void record(String namespace, String function, long nanos, boolean failed) {
+        String key = namespace != null ? namespace + "." + function : function;
+
+        // Impl note: computeIfAbsent locks even when the mapping is present on Java 8, so the
+        // common case is checked first with a plain get
+        FunctionStatistics stats = this.functions.get(key);
+        if (stats == null) {
+            String label = namespace != null ? namespace : "";
+
+            stats = this.functions.computeIfAbsent(key, k -> new FunctionStatistics(
+                this.timers.labels(label, function), this.failureCounters.labels(label, function)));
+        }
+
+        stats.record(nanos, failed);
+    }
+
+    /**
+     * Fetches the statistics of every rule function invoked so far, sorted by function key.
+     *
+     * @return
+     *  an unmodifiable map of function keys to their statistics
+     */
+    public Map<String, FunctionStatistics> getFunctionStatistics() {
+        return Collections.unmodifiableMap(new TreeMap<>(this.functions));
+    }
+
+    /**
+     * Fetches the statistics for the given rule function.
+     *
+     * @param namespace
+     *  the rules namespace of the function
+     *
+     * @param function
+     *  the name of the function
+     *
+     * @return
+     *  the statistics for the function, or null if the function has not been invoked
+     */
+    public FunctionStatistics getFunctionStatistics(String namespace, String function) {
+        return this.functions.get(namespace != null ? namespace + "." + function : function);
+    }
+
+    /**
+     * Clears all collected statistics.
+     */
+    public void reset() {
+        this.functions.clear();
+    }
+}
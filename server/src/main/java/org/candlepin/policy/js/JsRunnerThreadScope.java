@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js;
+
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.ContextFactory;
+import org.mozilla.javascript.Function;
+import org.mozilla.javascript.Scriptable;
+import org.mozilla.javascript.ScriptableObject;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JsRunnerThreadScope
+ *
+ * The warmed execution environment of a single thread for one compiled version of the rules.
+ * It holds the thread's Rhino {@link Context}, a thread local scope which uses the sealed
+ * rules scope as its prototype, and the namespace objects already resolved in that scope.
+ * <p></p>
+ * The thread local scope is shared by every runner created on the thread. The values applied
+ * to it by a context, and any globals assigned by the rules, only live for the duration of a
+ * single rules call, and are removed by {@link #clearGlobals()} once the call completes.
+ * <p></p>
+ * Instances are confined to the thread which created them and must not be shared.
+ */
+class JsRunnerThreadScope {
+
+    private final Scriptable rulesScope;
+    private final Context context;
+    private final ScriptableObject scope;
+    private final Map<String, Object> namespaces;
+
+    /**
+     * Creates a new thread scope based on the given compiled rules scope.
+     *
+     * @param rulesScope
+     *  the sealed global scope containing the compiled rules
+     */
+    JsRunnerThreadScope(Scriptable rulesScope) {
+        this.rulesScope = rulesScope;
+        this.namespaces = new HashMap<>();
+
+        this.context = Context.enter();
+        try {
+            this.scope = (ScriptableObject) this.context.newObject(rulesScope);
+            this.scope.setPrototype(rulesScope);
+            this.scope.setParentScope(null);
+        }
+        finally {
+            Context.exit();
+        }
+    }
+
+    /**
+     * Checks whether or not this thread scope was built from the given rules scope.
+     *
+     * @param rulesScope
+     *  the rules scope to check
+     *
+     * @return
+     *  true if this thread scope is based on the given rules scope; false otherwise
+     */
+    boolean isBasedOn(Scriptable rulesScope) {
+        return this.rulesScope == rulesScope;
+    }
+
+    /**
+     * Fetches the thread local scope in which rules are to be executed.
+     *
+     * @return
+     *  the thread local execution scope
+     */
+    Scriptable getScope() {
+        return this.scope;
+    }
+
+    /**
+     * Removes every value defined directly on the thread local scope, such as the values applied
+     * by a context or globals assigned by the rules, restoring the scope to its warmed state. The
+     * compiled rules and resolved namespaces are retained.
+     */
+    void clearGlobals() {
+        for (Object id : this.scope.getAllIds()) {
+            if (id instanceof String) {
+                this.scope.delete((String) id);
+            }
+            else if (id instanceof Number) {
+                this.scope.delete(((Number) id).intValue());
+            }
+        }
+    }
+
+    /**
+     * Enters the warmed context of this thread scope. Every call to this method must be paired
+     * with a call to {@link Context#exit()}.
+     *
+     * @return
+     *  the context associated with the current thread
+     */
+    Context enter() {
+        return ContextFactory.getGlobal().enterContext(this.context);
+    }
+
+    /**
+     * Fetches the object returned by the given rules namespace function, invoking the function
+     * only the first time the namespace is requested on this thread scope. The namespace functions
+     * return objects defined by the sealed rules, so the resolved objects hold no per-call state.
+     *
+     * @param namespace
+     *  the name of the namespace function to resolve
+     *
+     * @return
+     *  the (possibly wrapped) namespace object
+     */
+    Object getNamespace(String namespace) {
+        Object nsObject = this.namespaces.get(namespace);
+
+        if (nsObject == null) {
+            Context cx = this.enter();
+            try {
+                Object func = ScriptableObject.getProperty(this.scope, namespace);
+                nsObject = ((Function) func).call(cx, this.scope, this.scope, Context.emptyArgs);
+                this.namespaces.put(namespace, nsObject);
+            }
+            finally {
+                this.clearGlobals();
+                Context.exit();
+            }
+        }
+
+        return nsObject;
+    }
+}
@@ -15,18 +15,26 @@
 package org.candlepin.policy.js;
 
 import org.candlepin.common.exceptions.IseException;
+import org.candlepin.dto.rules.v1.PoolDTO;
 import org.candlepin.jackson.ProductCachedSerializationModule;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.AnnotationIntrospector;
+import com.fasterxml.jackson.databind.BeanDescription;
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationConfig;
 import com.fasterxml.jackson.databind.introspect.AnnotationIntrospectorPair;
 import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
 import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
 import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
 import com.fasterxml.jackson.datatype.hibernate5.Hibernate5Module;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.fasterxml.jackson.module.jaxb.JaxbAnnotationIntrospector;
@@ -35,8 +43,12 @@ import com.google.inject.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 /**
  * RulesObjectMapper
@@ -52,12 +64,21 @@ import java.util.Map.Entry;
  * expensive to create a jackson ObjectMapper and it is preferred
  * to have it instantiated once.
  *
+ * Rules DTOs which appear repeatedly within the arguments of a single rules call (pools, most
+ * notably, which are referenced by every entitlement drawn from them) are serialized once per
+ * call and written from a {@link RulesSerializationCache} afterward.
  */
 public class RulesObjectMapper {
 
     private static Logger log = LoggerFactory.getLogger(RulesObjectMapper.class);
 
+    /** The rules DTO classes whose serialized form is cached for the duration of a rules call */
+    private static final Set<Class<?>> CACHED_CLASSES = Collections.unmodifiableSet(new HashSet<>(
+        Arrays.asList(PoolDTO.class)));
+
     private ObjectMapper mapper;
+    private ObjectWriter fragmentWriter;
+    private boolean fragmentCaching;
 
     @Inject
     @SuppressWarnings("checkstyle:indentation")
@@ -88,6 +109,19 @@ public class RulesObjectMapper {
         mapper.registerModule(new Jdk8Module());
         mapper.registerModule(hbm);
         mapper.registerModule(poolCachedSerializationModule);
+        mapper.registerModule(new SimpleModule().setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public JsonSerializer<?> modifySerializer(SerializationConfig config,
+                BeanDescription beanDesc, JsonSerializer<?> serializer) {
+
+                if (CACHED_CLASSES.contains(beanDesc.getBeanClass()) &&
+                    serializer instanceof BeanSerializerBase) {
+                    return new CachedFragmentSerializer((BeanSerializerBase) serializer);
+                }
+
+                return serializer;
+            }
+        }));
 
         // Very important for deployments so new rules files can return additional
         // properties that this current server doesn't know how to serialize, but still
@@ -98,6 +132,10 @@ public class RulesObjectMapper {
         AnnotationIntrospector secondary = new JaxbAnnotationIntrospector(mapper.getTypeFactory());
         AnnotationIntrospector pair = new AnnotationIntrospectorPair(primary, secondary);
         this.mapper.setAnnotationIntrospector(pair);
+
+        // Cached fragments are serialized with the plain writer, so they match uncached output
+        this.fragmentWriter = this.mapper.writer();
+        this.fragmentCaching = true;
     }
 
     public String toJsonString(Map<String, Object> toSerialize) {
@@ -107,7 +145,7 @@ public class RulesObjectMapper {
         }
 
         try {
-            return this.mapper.writeValueAsString(mainNode);
+            return this.getWriter().writeValueAsString(mainNode);
         }
         catch (Exception e) {
             log.error("Unable to serialize objects to JSON.", e);
@@ -115,6 +153,47 @@ public class RulesObjectMapper {
         }
     }
 
+    /**
+     * Fetches the writer to use for serializing the arguments of a single rules call. Unless
+     * fragment caching is disabled, the writer is configured with a new serialization cache.
+     *
+     * @return
+     *  an ObjectWriter for serializing rules arguments
+     */
+    private ObjectWriter getWriter() {
+        ObjectWriter writer = this.mapper.writer();
+
+        if (this.fragmentCaching) {
+            writer = writer
+                .withAttribute(RulesSerializationCache.class, this.createSerializationCache())
+                .withAttribute(ObjectWriter.class, this.fragmentWriter);
+        }
+
+        return writer;
+    }
+
+    /**
+     * Creates the cache used to serialize the arguments of a single rules call.
+     *
+     * @return
+     *  a new, empty serialization cache
+     */
+    protected RulesSerializationCache createSerializationCache() {
+        return new RulesSerializationCache();
+    }
+
+    /**
+     * Sets whether or not DTOs appearing several times within the arguments of a rules call are
+     * serialized only once. Fragment caching is enabled by default; when disabled, every
+     * occurrence of a DTO is serialized.
+     *
+     * @param fragmentCaching
+     *  whether or not to cache the serialized DTOs of each rules call
+     */
+    public void setFragmentCaching(boolean fragmentCaching) {
+        this.fragmentCaching = fragmentCaching;
+    }
+
     public <T extends Object> T toObject(String json, Class<T> clazz) {
         try {
             return mapper.readValue(json, clazz);
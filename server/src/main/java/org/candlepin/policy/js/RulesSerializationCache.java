@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A cache of the JSON representations of the rules DTOs already written while serializing the
+ * arguments of a single rules call.
+ * <p></p>
+ * Entries are keyed by object identity, so a DTO instance appearing several times within the
+ * arguments of a call (a pool referenced by many entitlements, for instance) is serialized only
+ * once. A new cache is used for every call, so DTOs modified between calls are always serialized
+ * with their current state.
+ */
+public class RulesSerializationCache {
+
+    private final Map<Object, String> fragments;
+    private int hits;
+    private int misses;
+
+    public RulesSerializationCache() {
+        this.fragments = new IdentityHashMap<>();
+    }
+
+    /**
+     * Fetches the previously serialized JSON for the given object.
+     *
+     * @param object
+     *  the object for which to fetch the serialized JSON
+     *
+     * @return
+     *  the serialized JSON of the object, or null if the object has not been serialized yet
+     */
+    public String get(Object object) {
+        String fragment = this.fragments.get(object);
+
+        if (fragment != null) {
+            ++this.hits;
+        }
+        else {
+            ++this.misses;
+        }
+
+        return fragment;
+    }
+
+    /**
+     * Stores the serialized JSON of the given object.
+     *
+     * @param object
+     *  the object that was serialized
+     *
+     * @param fragment
+     *  the JSON representation of the object
+     */
+    public void put(Object object, String fragment) {
+        this.fragments.put(object, fragment);
+    }
+
+    public int size() {
+        return this.fragments.size();
+    }
+
+    public int getHits() {
+        return this.hits;
+    }
+
+    public int getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * Removes all cached fragments.
+     */
+    public void clear() {
+        this.fragments.clear();
+    }
+}
@@ -68,6 +68,7 @@ import org.candlepin.model.AsyncJobStatus;
 import org.candlepin.model.CandlepinQuery;
 import org.candlepin.model.CdnCurator;
 import org.candlepin.model.Certificate;
+import org.candlepin.model.CertificateSerial;
 import org.candlepin.model.Consumer;
 import org.candlepin.model.ConsumerCapability;
 import org.candlepin.model.ConsumerCurator;
@@ -1973,10 +1974,11 @@ public class ConsumerResource {
 
         // add content access cert if needed
         try {
-            ContentAccessCertificate cac = this.contentAccessManager.getCertificate(consumer);
-            if (cac != null) {
-                allCerts.add(new CertificateSerialDTO().setSerial(
-                    BigInteger.valueOf(cac.getSerial().getId())));
+            // Only the serial is needed here; the certificate payload is assembled when the client
+            // downloads its certificates
+            CertificateSerial cacSerial = this.contentAccessManager.getCertificateSerial(consumer);
+            if (cacSerial != null) {
+                allCerts.add(new CertificateSerialDTO().setSerial(BigInteger.valueOf(cacSerial.getId())));
             }
         }
         catch (IOException ioe) {
@@ -17,6 +17,7 @@ package org.candlepin.resource;
 import org.candlepin.async.JobConfig;
 import org.candlepin.async.JobException;
 import org.candlepin.async.JobManager;
+import org.candlepin.async.tasks.ContentAccessPayloadRefreshJob;
 import org.candlepin.async.tasks.RegenEnvEntitlementCertsJob;
 import org.candlepin.auth.Principal;
 import org.candlepin.auth.Verify;
@@ -371,7 +372,18 @@ public class EnvironmentResource {
 
     @Transactional
     private void clearContentAccessCerts(Environment env) {
-        ownerEnvContentAccessCurator.removeAllForEnvironment(env.getId());
+        // Flag the environment's payload for a background rebuild rather than discarding it, so
+        // consumers keep receiving the current payload until its replacement is ready
+        if (ownerEnvContentAccessCurator.markStaleForEnvironment(env.getId()) > 0) {
+            try {
+                this.jobManager.queueJob(ContentAccessPayloadRefreshJob.createJobConfig()
+                    .setOwner(env.getOwner()));
+            }
+            catch (JobException e) {
+                log.warn("Unable to queue content access payload refresh for environment: {}; the " +
+                    "stale payload will be rebuilt on the next scheduled refresh", env.getId(), e);
+            }
+        }
     }
 
     private Environment lookupEnvironment(String envId) {
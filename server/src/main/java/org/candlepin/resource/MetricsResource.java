@@ -0,0 +1,66 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.resource;
+
+import org.candlepin.common.exceptions.IseException;
+import org.candlepin.metrics.MetricRegistry;
+
+import com.google.inject.Inject;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.Authorization;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+
+/**
+ * The MetricsResource exposes the metrics collected by the MetricRegistry in the Prometheus text
+ * exposition format, for scraping by a monitoring system.
+ */
+@Path("/metrics")
+@Api(value = "metrics", authorizations = { @Authorization("basic") })
+public class MetricsResource {
+
+    private MetricRegistry registry;
+
+    @Inject
+    public MetricsResource(MetricRegistry registry) {
+        this.registry = registry;
+    }
+
+    @ApiOperation(notes = "Retrieves the current values of the server metrics in the Prometheus " +
+        "text exposition format", value = "getMetrics", response = String.class)
+    @GET
+    @Produces(MetricRegistry.CONTENT_TYPE)
+    public String getMetrics() {
+        // The output is rendered up front so that a failure is reported as an error response
+        // rather than a truncated scrape
+        StringWriter writer = new StringWriter();
+
+        try {
+            this.registry.write(writer);
+        }
+        catch (IOException e) {
+            throw new IseException(e.getMessage(), e);
+        }
+
+        return writer.toString();
+    }
+}
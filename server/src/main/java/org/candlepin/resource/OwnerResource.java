@@ -18,6 +18,7 @@ import org.candlepin.async.JobConfig;
 import org.candlepin.async.JobException;
 import org.candlepin.async.JobManager;
 import org.candlepin.async.tasks.HealEntireOrgJob;
+import org.candlepin.async.tasks.OwnerInfoRefreshJob;
 import org.candlepin.async.tasks.RefreshPoolsJob;
 import org.candlepin.async.tasks.UndoImportsJob;
 import org.candlepin.audit.Event;
@@ -30,6 +31,8 @@ import org.candlepin.auth.Access;
 import org.candlepin.auth.Principal;
 import org.candlepin.auth.SubResource;
 import org.candlepin.auth.Verify;
+import org.candlepin.auth.permissions.OwnerPermission;
+import org.candlepin.auth.permissions.Permission;
 import org.candlepin.common.config.Configuration;
 import org.candlepin.common.exceptions.BadRequestException;
 import org.candlepin.common.exceptions.CandlepinException;
@@ -77,12 +80,14 @@ import org.candlepin.model.Owner;
 import org.candlepin.model.OwnerCurator;
 import org.candlepin.model.OwnerInfo;
 import org.candlepin.model.OwnerInfoCurator;
+import org.candlepin.model.OwnerInfoSnapshotCurator;
 import org.candlepin.model.OwnerProductCurator;
 import org.candlepin.model.Pool;
 import org.candlepin.model.Pool.PoolType;
 import org.candlepin.model.PoolFilterBuilder;
 import org.candlepin.model.Product;
 import org.candlepin.model.Release;
+import org.candlepin.model.ResultIterator;
 import org.candlepin.model.SourceSubscription;
 import org.candlepin.model.SystemPurposeAttributeType;
 import org.candlepin.model.UeberCertificate;
@@ -110,6 +115,8 @@ import org.candlepin.util.Util;
 
 import ch.qos.logback.classic.Level;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
 
@@ -123,6 +130,7 @@ import io.swagger.annotations.Authorization;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.StringUtils;
+import org.hibernate.Session;
 import org.hibernate.exception.ConstraintViolationException;
 import org.jboss.resteasy.annotations.providers.jaxb.Wrapped;
 import org.jboss.resteasy.core.ResteasyContext;
@@ -164,6 +172,7 @@ import javax.ws.rs.core.Context;
 import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.StreamingOutput;
 
 
 
@@ -177,9 +186,11 @@ public class OwnerResource {
     private static Logger log = LoggerFactory.getLogger(OwnerResource.class);
 
     private static final Pattern AK_CHAR_FILTER = Pattern.compile("^[a-zA-Z0-9_-]+$");
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
 
     private OwnerCurator ownerCurator;
     private OwnerInfoCurator ownerInfoCurator;
+    private OwnerInfoSnapshotCurator ownerInfoSnapshotCurator;
     private ActivationKeyCurator activationKeyCurator;
     private OwnerServiceAdapter ownerService;
     private ConsumerCurator consumerCurator;
@@ -235,7 +246,8 @@ public class OwnerResource {
         ConsumerTypeValidator consumerTypeValidator,
         OwnerProductCurator ownerProductCurator,
         ModelTranslator translator,
-        JobManager jobManager) {
+        JobManager jobManager,
+        OwnerInfoSnapshotCurator ownerInfoSnapshotCurator) {
 
         this.ownerCurator = ownerCurator;
         this.ownerInfoCurator = ownerInfoCurator;
@@ -265,6 +277,7 @@ public class OwnerResource {
         this.ownerProductCurator = ownerProductCurator;
         this.translator = translator;
         this.jobManager = jobManager;
+        this.ownerInfoSnapshotCurator = ownerInfoSnapshotCurator;
     }
 
     /**
@@ -850,7 +863,10 @@ public class OwnerResource {
     }
 
     /**
-     * Retrieves the Owner Info for an Owner
+     * Retrieves the Owner Info for an Owner. For principals with access to all of the owner's
+     * consumers, the info is served from a snapshot maintained in the background, and may be
+     * somewhat behind the current state of the owner; its lastUpdated date records when it was
+     * computed.
      *
      * @param ownerKey Owner ID.
      * @return an OwnerInfo object
@@ -860,12 +876,60 @@ public class OwnerResource {
     @GET
     @Path("/{owner_key}/info")
     @Produces(MediaType.APPLICATION_JSON)
-    @ApiOperation(notes = "Retrieves the Owner Info for an Owner", value = "Get Owner Info")
+    @ApiOperation(notes = "Retrieves the Owner Info for an Owner. The info is refreshed periodically; " +
+        "its lastUpdated date records when it was computed.", value = "Get Owner Info")
     @ApiResponses({ @ApiResponse(code = 404, message = "An owner not found") })
     public OwnerInfo getOwnerInfo(@PathParam("owner_key")
-        @Verify(value = Owner.class, subResource = SubResource.CONSUMERS) String ownerKey) {
+        @Verify(value = Owner.class, subResource = SubResource.CONSUMERS) String ownerKey,
+        @Context Principal principal) {
         Owner owner = findOwnerByKey(ownerKey);
-        return ownerInfoCurator.getByOwner(owner);
+
+        // The snapshot is computed with full access, so it is only served to principals which
+        // would otherwise see the same values
+        boolean ownerWideAccess = this.hasOwnerWideAccess(principal, owner);
+
+        if (ownerWideAccess) {
+            OwnerInfo info = this.ownerInfoSnapshotCurator.getOwnerInfo(owner.getId());
+            if (info != null) {
+                return info;
+            }
+        }
+
+        OwnerInfo info = this.ownerInfoCurator.getByOwner(owner);
+        info.setLastUpdated(new Date());
+
+        if (ownerWideAccess) {
+            // No snapshot yet; have it built for the next request
+            try {
+                this.jobManager.queueJob(OwnerInfoRefreshJob.createJobConfig().setOwner(owner));
+            }
+            catch (JobException e) {
+                log.warn("Unable to queue owner info refresh for owner: {}", owner.getKey(), e);
+            }
+        }
+
+        return info;
+    }
+
+    private boolean hasOwnerWideAccess(Principal principal, Owner owner) {
+        if (principal == null) {
+            return false;
+        }
+
+        if (principal.hasFullAccess()) {
+            return true;
+        }
+
+        // Permission restrictions are combined with OR, so an owner permission grants visibility of
+        // all of the owner's consumers and pools regardless of any narrower permissions
+        for (Permission permission : principal.getPermissions()) {
+            if (permission instanceof OwnerPermission &&
+                owner.getKey().equals(((OwnerPermission) permission).getOwner().getKey())) {
+                return true;
+            }
+        }
+
+        return false;
     }
 
     /**
@@ -2098,27 +2162,10 @@ public class OwnerResource {
         String ownerKey) {
 
         Owner owner = findOwnerByKey(ownerKey);
-        List<Product> products = ownerProductCurator.getProductsByOwner(owner).list();
-
-        Map<String, Set<String>> dtoMap = new HashMap<>();
-        Arrays.stream(SystemPurposeAttributeType.values())
-            .forEach(x -> dtoMap.put(x.toString(), new LinkedHashSet<>()));
 
-        for (Product p : products) {
-            for (SystemPurposeAttributeType type : SystemPurposeAttributeType.values()) {
-                boolean slaExempt = Boolean.parseBoolean(
-                    p.getAttributeValue(Product.Attributes.SUPPORT_LEVEL_EXEMPT));
-                if (type == SystemPurposeAttributeType.SERVICE_LEVEL && slaExempt) {
-                    continue;
-                }
-                String purposeValue = p.getAttributeValue(type.toString());
-                Set<String> purposes = new LinkedHashSet<>();
-                if (purposeValue != null) {
-                    purposes = new LinkedHashSet<>(Arrays.asList(purposeValue.split("\\s*,\\s*")));
-                }
-                dtoMap.get(type.toString()).addAll(purposes);
-            }
-        }
+        // Only the system purpose attributes of the owner's products are read, rather than loading
+        // each product of the owner
+        Map<String, Set<String>> dtoMap = this.ownerProductCurator.getSyspurposeAttributesByOwner(owner);
 
         SystemPurposeAttributesDTO dto = new SystemPurposeAttributesDTO();
         dto.setOwner(translator.translate(owner, OwnerDTO.class));
@@ -2135,26 +2182,92 @@ public class OwnerResource {
     public SystemPurposeAttributesDTO getConsumersSyspurpose(
         @PathParam("owner_key") @Verify(Owner.class) String ownerKey) {
         Owner owner = findOwnerByKey(ownerKey);
-        List<String> consumerRoles = this.consumerCurator.getDistinctSyspurposeRolesByOwner(owner);
-        List<String> consumerUsages = this.consumerCurator.getDistinctSyspurposeUsageByOwner(owner);
-        List<String> consumerSLAs = this.consumerCurator.getDistinctSyspurposeServicelevelByOwner(owner);
-        List<String> consumerAddons = this.consumerCurator.getDistinctSyspurposeAddonsByOwner(owner);
+
+        // The values and their counts are aggregated by the database in a single pass over the
+        // owner's consumers, rather than loading the attributes of each consumer per attribute
+        Map<String, Map<String, Long>> counts = this.consumerCurator
+            .getSyspurposeAttributeCountsByOwner(owner);
 
         Map<String, Set<String>> dtoMap = new HashMap<>();
         Arrays.stream(SystemPurposeAttributeType.values())
             .forEach(x -> dtoMap.put(x.toString(), new LinkedHashSet<>()));
 
-        dtoMap.get(SystemPurposeAttributeType.ROLES.toString()).addAll(consumerRoles);
-        dtoMap.get(SystemPurposeAttributeType.USAGE.toString()).addAll(consumerUsages);
-        dtoMap.get(SystemPurposeAttributeType.SERVICE_LEVEL.toString()).addAll(consumerSLAs);
-        dtoMap.get(SystemPurposeAttributeType.ADDONS.toString()).addAll(consumerAddons);
+        for (Map.Entry<String, Map<String, Long>> entry : counts.entrySet()) {
+            dtoMap.get(entry.getKey()).addAll(entry.getValue().keySet());
+        }
 
         SystemPurposeAttributesDTO dto = new SystemPurposeAttributesDTO();
         dto.setOwner(translator.translate(owner, OwnerDTO.class));
         dto.setSystemPurposeAttributes(dtoMap);
+        dto.setSystemPurposeAttributeCounts(counts);
         return dto;
     }
 
+    @ApiOperation(notes = "Streams the number of the owner's consumers with each system purpose value, " +
+        "as an object mapping each system purpose attribute to an object mapping its values to their " +
+        "consumer counts. Suitable for owners with very large numbers of distinct values.",
+        value = "streamConsumersSyspurposeCounts")
+    @ApiResponses({@ApiResponse(code = 404, message = "Owner not found")})
+    @GET
+    @Path("{owner_key}/consumers_system_purpose/counts")
+    @Produces(MediaType.APPLICATION_JSON)
+    public StreamingOutput streamConsumersSyspurposeCounts(
+        @PathParam("owner_key") @Verify(Owner.class) String ownerKey) {
+        Owner owner = findOwnerByKey(ownerKey);
+
+        return stream -> {
+            // Use a separate session, as the request's session may be closed before or while the
+            // response is written
+            Session session = this.consumerCurator.openSession();
+
+            try (JsonGenerator generator = JSON_FACTORY.createGenerator(stream);
+                ResultIterator<Object[]> iterator =
+                    this.consumerCurator.iterateSyspurposeAttributeCountsByOwner(session, owner)) {
+
+                generator.writeStartObject();
+
+                Set<String> written = new HashSet<>();
+                String attribute = null;
+
+                // Rows are grouped by attribute, so each attribute's values may be written as they
+                // are read
+                while (iterator.hasNext()) {
+                    Object[] row = iterator.next();
+
+                    if (!row[0].equals(attribute)) {
+                        if (attribute != null) {
+                            generator.writeEndObject();
+                        }
+
+                        attribute = (String) row[0];
+                        written.add(attribute);
+                        generator.writeObjectFieldStart(attribute);
+                    }
+
+                    generator.writeNumberField((String) row[1], (Long) row[2]);
+                }
+
+                if (attribute != null) {
+                    generator.writeEndObject();
+                }
+
+                // Include attributes none of the consumers have set, as the aggregate endpoint does
+                for (SystemPurposeAttributeType type : SystemPurposeAttributeType.values()) {
+                    if (!written.contains(type.toString())) {
+                        generator.writeObjectFieldStart(type.toString());
+                        generator.writeEndObject();
+                    }
+                }
+
+                generator.writeEndObject();
+                generator.flush();
+            }
+            finally {
+                session.close();
+            }
+        };
+    }
+
     /**
      * Creates an Ueber Entitlement Certificate
      *
@@ -30,9 +30,10 @@ import org.candlepin.dto.api.v1.CdnDTO;
 import org.candlepin.dto.api.v1.CertificateDTO;
 import org.candlepin.dto.api.v1.EntitlementDTO;
 import org.candlepin.dto.api.v1.PoolDTO;
+import org.candlepin.model.CandlepinQuery;
 import org.candlepin.model.Consumer;
 import org.candlepin.model.ConsumerCurator;
-import org.candlepin.model.Entitlement;
+import org.candlepin.model.EntitlementCurator;
 import org.candlepin.model.Owner;
 import org.candlepin.model.OwnerCurator;
 import org.candlepin.model.Pool;
@@ -85,6 +86,7 @@ public class PoolResource {
 
     private ConsumerCurator consumerCurator;
     private OwnerCurator ownerCurator;
+    private EntitlementCurator entitlementCurator;
     private I18n i18n;
     private PoolManager poolManager;
     private CalculatedAttributesUtil calculatedAttributesUtil;
@@ -93,10 +95,11 @@ public class PoolResource {
     @Inject
     public PoolResource(ConsumerCurator consumerCurator, OwnerCurator ownerCurator,
         I18n i18n, PoolManager poolManager, CalculatedAttributesUtil calculatedAttributesUtil,
-        ModelTranslator translator) {
+        ModelTranslator translator, EntitlementCurator entitlementCurator) {
 
         this.consumerCurator = consumerCurator;
         this.ownerCurator = ownerCurator;
+        this.entitlementCurator = entitlementCurator;
         this.i18n = i18n;
         this.poolManager = poolManager;
         this.calculatedAttributesUtil = calculatedAttributesUtil;
@@ -297,7 +300,7 @@ public class PoolResource {
     @GET
     @Path("{pool_id}/entitlements")
     @Produces(MediaType.APPLICATION_JSON)
-    public List<EntitlementDTO> getPoolEntitlements(@PathParam("pool_id")
+    public CandlepinQuery<EntitlementDTO> getPoolEntitlements(@PathParam("pool_id")
         @Verify(value = Pool.class, subResource = SubResource.ENTITLEMENTS) String id,
         @Context Principal principal) {
 
@@ -307,12 +310,9 @@ public class PoolResource {
             throw new NotFoundException(i18n.tr("Subscription Pool with ID \"{0}\" could not be found.", id));
         }
 
-        List<EntitlementDTO> entitlementDTOs = new ArrayList<>();
-        for (Entitlement entitlement : pool.getEntitlements()) {
-            entitlementDTOs.add(this.translator.translate(entitlement, EntitlementDTO.class));
-        }
-
-        return entitlementDTOs;
+        // Stream the entitlements rather than translating the pool's entire entitlement collection
+        // up front, as pools may be consumed by a very large number of entitlements
+        return this.translator.translateQuery(this.entitlementCurator.listByPool(pool), EntitlementDTO.class);
     }
 
     /**
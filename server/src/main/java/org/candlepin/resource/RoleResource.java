@@ -15,6 +15,7 @@
 package org.candlepin.resource;
 
 import org.candlepin.auth.Access;
+import org.candlepin.auth.UserAuthCache;
 import org.candlepin.common.exceptions.ConflictException;
 import org.candlepin.common.exceptions.NotFoundException;
 import org.candlepin.dto.ModelTranslator;
@@ -66,16 +67,19 @@ public class RoleResource {
     private PermissionBlueprintCurator permissionCurator;
     private I18n i18n;
     private ModelTranslator modelTranslator;
+    private UserAuthCache userAuthCache;
 
     @Inject
     public RoleResource(UserServiceAdapter userService, OwnerCurator ownerCurator,
-        PermissionBlueprintCurator permCurator, I18n i18n, ModelTranslator modelTranslator) {
+        PermissionBlueprintCurator permCurator, I18n i18n, ModelTranslator modelTranslator,
+        UserAuthCache userAuthCache) {
 
         this.userService = userService;
         this.ownerCurator = ownerCurator;
         this.i18n = i18n;
         this.permissionCurator = permCurator;
         this.modelTranslator = modelTranslator;
+        this.userAuthCache = userAuthCache;
     }
 
     /**
@@ -155,6 +159,8 @@ public class RoleResource {
         }
 
         RoleInfo role = this.userService.createRole(dto);
+        this.userAuthCache.invalidateAll();
+
         return this.modelTranslator.translate(role, RoleDTO.class);
     }
 
@@ -175,6 +181,8 @@ public class RoleResource {
         this.fetchRoleByName(roleName);
 
         RoleInfo role = this.userService.updateRole(roleName, dto);
+        this.userAuthCache.invalidateAll();
+
         return this.modelTranslator.translate(role, RoleDTO.class);
     }
 
@@ -198,6 +206,8 @@ public class RoleResource {
         }
 
         RoleInfo role = this.userService.addPermissionToRole(roleName, permission);
+        this.userAuthCache.invalidateAll();
+
         return this.modelTranslator.translate(role, RoleDTO.class);
     }
 
@@ -213,6 +223,8 @@ public class RoleResource {
         this.fetchRoleByName(roleName);
 
         RoleInfo role = this.userService.removePermissionFromRole(roleName, permissionId);
+        this.userAuthCache.invalidateAll();
+
         return this.modelTranslator.translate(role, RoleDTO.class);
     }
 
@@ -234,6 +246,7 @@ public class RoleResource {
         this.fetchRoleByName(roleName);
 
         this.userService.deleteRole(roleName);
+        this.userAuthCache.invalidateAll();
     }
 
     @ApiOperation(notes = "Adds a User to a Role", value = "addUser")
@@ -252,6 +265,8 @@ public class RoleResource {
         this.fetchUserByUsername(username);
 
         RoleInfo role = this.userService.addUserToRole(roleName, username);
+        this.userAuthCache.invalidate(username);
+
         return this.modelTranslator.translate(role, RoleDTO.class);
     }
 
@@ -270,6 +285,8 @@ public class RoleResource {
         this.fetchUserByUsername(username);
 
         RoleInfo role = this.userService.removeUserFromRole(roleName, username);
+        this.userAuthCache.invalidate(username);
+
         return this.modelTranslator.translate(role, RoleDTO.class);
     }
 
@@ -15,6 +15,7 @@
 package org.candlepin.resource;
 
 import org.candlepin.auth.Principal;
+import org.candlepin.auth.UserAuthCache;
 import org.candlepin.auth.Verify;
 import org.candlepin.common.exceptions.BadRequestException;
 import org.candlepin.common.exceptions.ConflictException;
@@ -73,16 +74,18 @@ public class UserResource {
     private I18n i18n;
     private OwnerCurator ownerCurator;
     private ModelTranslator modelTranslator;
+    private UserAuthCache userAuthCache;
 
 
     @Inject
     public UserResource(UserServiceAdapter userService, I18n i18n, OwnerCurator ownerCurator,
-        ModelTranslator modelTranslator) {
+        ModelTranslator modelTranslator, UserAuthCache userAuthCache) {
 
         this.userService = userService;
         this.i18n = i18n;
         this.ownerCurator = ownerCurator;
         this.modelTranslator = modelTranslator;
+        this.userAuthCache = userAuthCache;
     }
 
     /**
@@ -203,8 +206,12 @@ public class UserResource {
         // We don't actually need the user, but we do this for quick verification and better error
         // generation
         UserInfo user = this.fetchUserByUsername(username);
+        UserInfo updated = userService.updateUser(username, dto);
 
-        return this.modelTranslator.translate(userService.updateUser(username, dto), UserDTO.class);
+        // Credentials, admin status or the username itself may have changed
+        this.userAuthCache.invalidate(username);
+
+        return this.modelTranslator.translate(updated, UserDTO.class);
     }
 
     @ApiOperation(notes = "Removes a User", value = "deleteUser")
@@ -216,6 +223,7 @@ public class UserResource {
         UserInfo user = this.fetchUserByUsername(username);
 
         userService.deleteUser(username);
+        this.userAuthCache.invalidate(username);
     }
 
     @ApiOperation(notes = "Retrieve a list of owners the user can register systems to. " +
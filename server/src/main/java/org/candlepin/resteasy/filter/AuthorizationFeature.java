@@ -45,7 +45,7 @@ import javax.ws.rs.ext.Provider;
 public class AuthorizationFeature implements DynamicFeature {
     private static final Logger log = LoggerFactory.getLogger(AuthorizationFeature.class);
 
-    private AbstractAuthorizationFilter authorizationFilter;
+    private VerifyAuthorizationFilter authorizationFilter;
     private AbstractAuthorizationFilter superAdminFilter;
     private AbstractAuthorizationFilter securityHoleFilter;
     private AnnotationLocator annotationLocator;
@@ -82,6 +82,9 @@ public class AuthorizationFeature implements DynamicFeature {
         }
         else {
             log.debug("Registering standard authorization on {}", name);
+
+            // Compile the method's authorization plan now, rather than on its first request
+            authorizationFilter.getAuthorizationPlan(method);
             context.register(authorizationFilter);
         }
     }
@@ -26,6 +26,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 
+import org.hibernate.FlushMode;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.criterion.Order;
@@ -45,10 +46,29 @@ import javax.ws.rs.core.StreamingOutput;
 /**
  * The CandlepinQueryInterceptor handles the streaming of a query and applies any paging
  * configuration.
+ * <p></p>
+ * Resources returning a CandlepinQuery, typically one translated to DTOs with
+ * ModelTranslator.translateQuery, have their results read from a cursor, translated and written
+ * one element at a time, rather than being collected into a list before serialization. Elements are
+ * written with the JSON provider's mapper, so any dynamic attribute filters of the request still
+ * apply.
  */
 @javax.ws.rs.ext.Provider
 public class CandlepinQueryInterceptor implements ContainerResponseFilter {
 
+    /**
+     * The number of elements to write between each clearing of the streaming session. Entities
+     * loaded while translating and serializing elements would otherwise accumulate in the session
+     * until the entire result had been written.
+     */
+    protected static final int SESSION_CLEAR_INTERVAL = 500;
+
+    /**
+     * The number of rows to fetch from the database per round trip while streaming a query. Note
+     * that MySQL Connector/J only honors the fetch size when connections use useCursorFetch=true.
+     */
+    protected static final int STREAM_FETCH_SIZE = 500;
+
     protected final JsonProvider jsonProvider;
     protected final Provider<EntityManager> emProvider;
 
@@ -60,7 +80,9 @@ public class CandlepinQueryInterceptor implements ContainerResponseFilter {
     }
 
     /**
-     * Opens a new session from the current session's session factory.
+     * Opens a new session from the current session's session factory. As the session is only used
+     * to read the streamed query, entities loaded by it, including any lazily loaded associations,
+     * are read-only and the session is never flushed.
      *
      * @return a newly opened session
      */
@@ -68,7 +90,11 @@ public class CandlepinQueryInterceptor implements ContainerResponseFilter {
         Session currentSession = (Session) this.emProvider.get().getDelegate();
         SessionFactory factory = currentSession.getSessionFactory();
 
-        return factory.openSession();
+        Session session = factory.openSession();
+        session.setDefaultReadOnly(true);
+        session.setHibernateFlushMode(FlushMode.MANUAL);
+
+        return session;
     }
 
     @Override
@@ -85,6 +111,7 @@ public class CandlepinQueryInterceptor implements ContainerResponseFilter {
                 // Use a separate session so we aren't at risk of lazy loading or interceptors closing
                 // our cursor mid-stream.
                 query.useSession(session);
+                query.setFetchSize(STREAM_FETCH_SIZE);
 
                 // Apply any paging config we may have
                 this.applyPaging(pageRequest, query);
@@ -148,9 +175,16 @@ public class CandlepinQueryInterceptor implements ContainerResponseFilter {
                 ResultIterator<Object> iterator = query.iterate()) {
 
                 generator.writeStartArray();
+                int count = 0;
 
                 while (iterator.hasNext()) {
                     mapper.writeValue(generator, iterator.next());
+
+                    // The session is used only for this stream, so nothing it holds is needed once
+                    // the element has been written; clear it regularly to keep memory use flat
+                    if (session != null && ++count % SESSION_CLEAR_INTERVAL == 0) {
+                        session.clear();
+                    }
                 }
 
                 generator.writeEndArray();
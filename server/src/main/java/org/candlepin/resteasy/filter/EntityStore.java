@@ -14,6 +14,7 @@
  */
 package org.candlepin.resteasy.filter;
 
+import org.candlepin.auth.Principal;
 import org.candlepin.model.Owner;
 import org.candlepin.model.Persisted;
 
@@ -29,4 +30,22 @@ interface EntityStore<E extends Persisted> {
     E lookup(String key);
     Collection<E> lookup(Collection<String> keys);
     Owner getOwner(E entity);
+
+    /**
+     * Retains an entity looked up by this store and verified for the given principal, so later
+     * lookups by the same key within the current request can reuse it. By default, verified
+     * entities are not retained.
+     *
+     * @param key
+     *  the key with which the entity was looked up
+     *
+     * @param entity
+     *  the verified entity
+     *
+     * @param principal
+     *  the principal for which the entity was verified
+     */
+    default void cache(String key, E entity, Principal principal) {
+        // Intentionally left empty
+    }
 }
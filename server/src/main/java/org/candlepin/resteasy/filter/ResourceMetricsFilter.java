@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.resteasy.filter;
+
+import org.candlepin.metrics.MetricFamily;
+import org.candlepin.metrics.MetricRegistry;
+import org.candlepin.metrics.Timer;
+
+import com.google.inject.Inject;
+
+import org.jboss.resteasy.core.ResteasyContext;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Priority;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.PreMatching;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * The ResourceMetricsFilter times each request from the moment it is received until its response
+ * filters run, recording the time against the resource method which handled it. Requests which
+ * could not be matched to a resource method are recorded as "unmatched".
+ * <p></p>
+ * Response entities are serialized after the response filters have run, so the time spent
+ * writing the response body is not included.
+ */
+@PreMatching
+@Provider
+@Priority(Priorities.AUTHENTICATION - 100)
+public class ResourceMetricsFilter implements ContainerRequestFilter, ContainerResponseFilter {
+    private static final String START_PROPERTY = ResourceMetricsFilter.class.getName() + ".start";
+    private static final String UNMATCHED = "unmatched";
+
+    private final MetricFamily<Timer> timers;
+    private final ConcurrentMap<Method, Timer> methodTimers;
+    private final Timer unmatchedTimer;
+
+    @Inject
+    public ResourceMetricsFilter(MetricRegistry registry) {
+        this.timers = registry.timers("candlepin_http_request_seconds",
+            "Time spent handling API requests, excluding response serialization", "resource", "method");
+
+        this.methodTimers = new ConcurrentHashMap<>();
+        this.unmatchedTimer = this.timers.labels(UNMATCHED, UNMATCHED);
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        requestContext.setProperty(START_PROPERTY, System.nanoTime());
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        Object start = requestContext.getProperty(START_PROPERTY);
+        if (!(start instanceof Long)) {
+            return;
+        }
+
+        this.getTimer().recordSince((Long) start);
+    }
+
+    private Timer getTimer() {
+        ResourceInfo resourceInfo = ResteasyContext.getContextData(ResourceInfo.class);
+        Method method = resourceInfo != null ? resourceInfo.getResourceMethod() : null;
+
+        if (method == null) {
+            return this.unmatchedTimer;
+        }
+
+        Timer timer = this.methodTimers.get(method);
+        if (timer == null) {
+            timer = this.methodTimers.computeIfAbsent(method, key ->
+                this.timers.labels(key.getDeclaringClass().getSimpleName(), key.getName()));
+        }
+
+        return timer;
+    }
+}
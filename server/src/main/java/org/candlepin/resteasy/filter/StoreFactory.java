@@ -14,6 +14,7 @@
  */
 package org.candlepin.resteasy.filter;
 
+import org.candlepin.auth.Principal;
 import org.candlepin.common.exceptions.GoneException;
 import org.candlepin.model.AsyncJobStatus;
 import org.candlepin.model.AsyncJobStatusCurator;
@@ -104,6 +105,11 @@ public class StoreFactory {
         public Owner getOwner(Owner entity) {
             return entity;
         }
+
+        @Override
+        public void cache(String key, Owner entity, Principal principal) {
+            this.ownerCurator.cacheIdentity(key, entity, principal);
+        }
     }
 
     private class EnvironmentStore implements EntityStore<Environment> {
@@ -160,6 +166,11 @@ public class StoreFactory {
         public Owner getOwner(Consumer entity) {
             return ownerCurator.findOwnerById(entity.getOwnerId());
         }
+
+        @Override
+        public void cache(String key, Consumer entity, Principal principal) {
+            consumerCurator.cacheIdentity(key, entity, principal);
+        }
     }
 
     private class EntitlementStore implements EntityStore<Entitlement> {
@@ -42,6 +42,7 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Priority;
 import javax.ws.rs.DELETE;
@@ -69,6 +70,9 @@ public class VerifyAuthorizationFilter extends AbstractAuthorizationFilter {
     private StoreFactory storeFactory;
     private AnnotationLocator annotationLocator;
 
+    // Authorization plans compiled for each resource method; see getAuthorizationPlan
+    private final Map<Method, AuthorizationPlan> plans;
+
     @Inject
     public VerifyAuthorizationFilter(javax.inject.Provider<I18n> i18nProvider, StoreFactory storeFactory,
         AnnotationLocator annotationLocator) {
@@ -76,6 +80,98 @@ public class VerifyAuthorizationFilter extends AbstractAuthorizationFilter {
         this.i18nProvider = i18nProvider;
         this.storeFactory = storeFactory;
         this.annotationLocator = annotationLocator;
+        this.plans = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * The source of a request value: the type of the JAX-RS parameter annotation, and the name of
+     * the parameter, query parameter or header it reads.
+     */
+    private static class ValueSource {
+        private final Class<? extends Annotation> type;
+        private final String name;
+
+        ValueSource(Class<? extends Annotation> type, String name) {
+            this.type = type;
+            this.name = name;
+        }
+    }
+
+    /**
+     * A Verify-annotated method parameter, and the sources from which its value is read
+     */
+    private static class VerifiedParameter {
+        private final Verify verify;
+        private final List<ValueSource> sources;
+
+        VerifiedParameter(Verify verify, List<ValueSource> sources) {
+            this.verify = verify;
+            this.sources = sources;
+        }
+    }
+
+    /**
+     * The authorization metadata of a resource method: its Verify-annotated parameters and the
+     * default access level required to invoke it. Plans are compiled once per method, allowing
+     * the filter to skip reflecting over the method's annotations on each request.
+     */
+    protected static class AuthorizationPlan {
+        private final List<VerifiedParameter> parameters;
+        private final Access defaultAccess;
+
+        AuthorizationPlan(List<VerifiedParameter> parameters, Access defaultAccess) {
+            this.parameters = parameters;
+            this.defaultAccess = defaultAccess;
+        }
+
+        public Access getDefaultAccess() {
+            return this.defaultAccess;
+        }
+    }
+
+    /**
+     * Fetches the authorization plan for the given resource method, compiling it if it has not
+     * yet been compiled. Plans for the methods protected by this filter are compiled at startup
+     * by the {@link AuthorizationFeature}.
+     *
+     * @param method
+     *  the resource method for which to fetch the authorization plan
+     *
+     * @return
+     *  the authorization plan for the given method
+     */
+    public AuthorizationPlan getAuthorizationPlan(Method method) {
+        return this.plans.computeIfAbsent(method, this::compileAuthorizationPlan);
+    }
+
+    private AuthorizationPlan compileAuthorizationPlan(Method method) {
+        List<VerifiedParameter> parameters = new ArrayList<>();
+
+        for (Annotation[] paramAnnotations : annotationLocator.getParameterAnnotations(method)) {
+            Verify verify = null;
+            List<ValueSource> sources = new ArrayList<>();
+
+            for (Annotation annotation : paramAnnotations) {
+                if (annotation instanceof Verify) {
+                    verify = (Verify) annotation;
+                }
+                else if (annotation instanceof PathParam) {
+                    sources.add(new ValueSource(PathParam.class, ((PathParam) annotation).value()));
+                }
+                else if (annotation instanceof QueryParam) {
+                    sources.add(new ValueSource(QueryParam.class, ((QueryParam) annotation).value()));
+                }
+                else if (annotation instanceof HeaderParam) {
+                    sources.add(new ValueSource(HeaderParam.class, ((HeaderParam) annotation).value()));
+                }
+            }
+
+            if (verify != null) {
+                parameters.add(new VerifiedParameter(verify, sources));
+            }
+        }
+
+        return new AuthorizationPlan(Collections.unmodifiableList(parameters), getDefaultAccess(method));
     }
 
     @Override
@@ -91,7 +187,8 @@ public class VerifyAuthorizationFilter extends AbstractAuthorizationFilter {
                 method.getName());
         }
 
-        Map<Verify, Object> argMap = getArguments(requestContext, method);
+        AuthorizationPlan plan = this.getAuthorizationPlan(method);
+        Map<Verify, Object> argMap = getArguments(requestContext, plan);
 
         // Couldn't find a match in Resteasy for method
         if (argMap.isEmpty()) {
@@ -102,9 +199,7 @@ public class VerifyAuthorizationFilter extends AbstractAuthorizationFilter {
             throw new IseException("Could not get parameters for " + method);
         }
 
-        Access defaultAccess = getDefaultAccess(method);
-
-        if (!hasAccess(argMap, principal, defaultAccess)) {
+        if (!hasAccess(argMap, principal, plan.getDefaultAccess())) {
             denyAccess(principal, method);
         }
     }
@@ -124,65 +219,59 @@ public class VerifyAuthorizationFilter extends AbstractAuthorizationFilter {
      *  a mapping of verify annotations to their respective arguments
      */
     protected Map<Verify, Object> getArguments(ContainerRequestContext requestContext, Method method) {
+        return this.getArguments(requestContext, this.getAuthorizationPlan(method));
+    }
 
+    private Map<Verify, Object> getArguments(ContainerRequestContext requestContext, AuthorizationPlan plan) {
         // LinkedHashMap preserves insertion order
         Map<Verify, Object> argMap = new LinkedHashMap<>();
 
-        Annotation[][] annotations = annotationLocator.getParameterAnnotations(method);
-
         Map<String, List<String>> pathParams = null;
         Map<String, List<String>> queryParams = null;
         Map<String, List<String>> headers = null;
 
-        for (int i = 0; i < annotations.length; ++i) {
-            Verify verify = null;
+        for (VerifiedParameter parameter : plan.parameters) {
+            Verify verify = parameter.verify;
             Object value = null;
 
-            for (Annotation annotation : annotations[i]) {
-                if (annotation instanceof Verify) {
-                    verify = (Verify) annotation;
-                }
-                else {
-                    List<String> values = null;
+            for (ValueSource source : parameter.sources) {
+                List<String> values;
 
-                    if (annotation instanceof PathParam) {
-                        if (pathParams == null) {
-                            pathParams = requestContext.getUriInfo().getPathParameters(true);
-                        }
-
-                        values = pathParams.get(((PathParam) annotation).value());
+                if (source.type == PathParam.class) {
+                    if (pathParams == null) {
+                        pathParams = requestContext.getUriInfo().getPathParameters(true);
                     }
-                    else if (annotation instanceof QueryParam) {
-                        if (queryParams == null) {
-                            queryParams = requestContext.getUriInfo().getQueryParameters(true);
-                        }
 
-                        values = queryParams.get(((QueryParam) annotation).value());
+                    values = pathParams.get(source.name);
+                }
+                else if (source.type == QueryParam.class) {
+                    if (queryParams == null) {
+                        queryParams = requestContext.getUriInfo().getQueryParameters(true);
                     }
-                    else if (annotation instanceof HeaderParam) {
-                        if (headers == null) {
-                            headers = requestContext.getHeaders();
-                        }
 
-                        values = headers.get(((HeaderParam) annotation).value());
+                    values = queryParams.get(source.name);
+                }
+                else {
+                    if (headers == null) {
+                        headers = requestContext.getHeaders();
                     }
 
-                    // This is technically incorrect, as we should be returning either the collection
-                    // or individual value based on the parameter typing. However, this works for the
-                    // purposes of performing the verification task.
-                    if (values != null) {
-                        value = values.size() > 1 ? values : values.get(0);
-                    }
+                    values = headers.get(source.name);
                 }
-            }
 
-            if (verify != null) {
-                if (!verify.nullable() && value == null) {
-                    throw new IllegalStateException("Null passed to a non-nullable Verify annotation.");
+                // This is technically incorrect, as we should be returning either the collection
+                // or individual value based on the parameter typing. However, this works for the
+                // purposes of performing the verification task.
+                if (values != null) {
+                    value = values.size() > 1 ? values : values.get(0);
                 }
+            }
 
-                argMap.put(verify, value);
+            if (!verify.nullable() && value == null) {
+                throw new IllegalStateException("Null passed to a non-nullable Verify annotation.");
             }
+
+            argMap.put(verify, value);
         }
 
         return argMap;
@@ -197,6 +286,7 @@ public class VerifyAuthorizationFilter extends AbstractAuthorizationFilter {
             Object obj = entry.getValue();
             Verify verify = entry.getKey();
             Class<? extends Persisted> verifyType = verify.value();
+            EntityStore store = storeFactory.getFor(verifyType);
 
             accessedObjects.addAll(getAccessedEntities(verify, obj));
 
@@ -216,7 +306,7 @@ public class VerifyAuthorizationFilter extends AbstractAuthorizationFilter {
 
                 hasAccess = true;
 
-                Owner entityOwner = ((EntityStore) storeFactory.getFor(verifyType)).getOwner(entity);
+                Owner entityOwner = store.getOwner(entity);
                 if (entityOwner != null) {
                     if (owner != null && !owner.equals(entityOwner)) {
                         log.error("Found entities from multiple orgs in a single request");
@@ -231,6 +321,13 @@ public class VerifyAuthorizationFilter extends AbstractAuthorizationFilter {
             if (!hasAccess) {
                 break;
             }
+
+            // Let the resource method reuse the verified entity instead of loading it again
+            if (obj instanceof String) {
+                for (Persisted entity : accessedObjects) {
+                    store.cache((String) obj, entity, principal);
+                }
+            }
         }
 
         if (hasAccess && owner != null) {
@@ -63,7 +63,10 @@ import java.net.URLEncoder;
 import java.security.GeneralSecurityException;
 import java.security.KeyPair;
 import java.security.cert.X509Certificate;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -151,14 +154,42 @@ public class DefaultEntitlementCertServiceAdapter extends BaseEntitlementCertSer
         return doEntitlementCertGeneration(consumer, products, poolQuantities, entitlements, save);
     }
 
-    private Set<Product> getDerivedProductsForDistributor(Pool pool, Consumer consumer) {
-        Set<Product> derivedProducts = new HashSet<>();
-        boolean derived = pool.hasAttribute(Pool.Attributes.DERIVED_POOL);
-        if (!derived && this.isManifestDistributor(consumer) && pool.getDerivedProduct() != null) {
-            derivedProducts.add(pool.getDerivedProduct());
-            derivedProducts.addAll(productCurator.getPoolDerivedProvidedProductsCached(pool));
+    /**
+     * Fetches the products to include in the certificates of the given pools in bulk, indexed by
+     * pool ID. If creating certificates for a distributor, the derived product and derived provided
+     * products of any non-derived pools are included as well, so that their content is available in
+     * the upstream certificate.
+     */
+    private Map<String, Set<Product>> getCertificateProducts(Consumer consumer, Collection<Pool> pools) {
+        Map<String, Pool> poolMap = new HashMap<>();
+        for (Pool pool : pools) {
+            poolMap.put(pool.getId(), pool);
+        }
+
+        Map<String, Set<Product>> products = new HashMap<>(
+            this.productCurator.getPoolProvidedProductsCached(poolMap.keySet()));
+
+        if (this.isManifestDistributor(consumer)) {
+            Set<String> distributedPoolIds = new HashSet<>();
+            for (Pool pool : pools) {
+                if (!pool.hasAttribute(Pool.Attributes.DERIVED_POOL) && pool.getDerivedProduct() != null) {
+                    distributedPoolIds.add(pool.getId());
+                }
+            }
+
+            if (!distributedPoolIds.isEmpty()) {
+                Map<String, Set<Product>> derivedProducts = this.productCurator
+                    .getPoolDerivedProvidedProductsCached(distributedPoolIds);
+
+                for (String poolId : distributedPoolIds) {
+                    Set<Product> poolProducts = products.computeIfAbsent(poolId, key -> new HashSet<>());
+                    poolProducts.add(poolMap.get(poolId).getDerivedProduct());
+                    poolProducts.addAll(derivedProducts.getOrDefault(poolId, Collections.emptySet()));
+                }
+            }
         }
-        return derivedProducts;
+
+        return products;
     }
 
     // TODO: productModels not used by V1 certificates. This whole v1/v3 split needs
@@ -170,15 +201,26 @@ public class DefaultEntitlementCertServiceAdapter extends BaseEntitlementCertSer
         KeyPair keyPair, boolean useContentPrefix)
         throws GeneralSecurityException, IOException {
 
+        Map<String, EnvironmentContent> promotedContent = getPromotedContent(consumer);
+        String contentPrefix = getContentPrefix(consumer, owner, useContentPrefix);
+
+        return this.createX509Certificate(consumer, owner, pool, ent, product, products, productModels,
+            serialNumber, keyPair, contentPrefix, promotedContent, shouldGenerateV3(consumer));
+    }
+
+    private X509Certificate createX509Certificate(Consumer consumer, Owner owner, Pool pool,
+        Entitlement ent, Product product, Set<Product> products,
+        List<org.candlepin.model.dto.Product> productModels, BigInteger serialNumber,
+        KeyPair keyPair, String contentPrefix, Map<String, EnvironmentContent> promotedContent,
+        boolean generateV3)
+        throws GeneralSecurityException, IOException {
+
         // oidutil is busted at the moment, so do this manually
         Set<X509ExtensionWrapper> extensions;
         Set<X509ByteExtensionWrapper> byteExtensions = new LinkedHashSet<>();
         products.add(product);
 
-        Map<String, EnvironmentContent> promotedContent = getPromotedContent(consumer);
-        String contentPrefix = getContentPrefix(consumer, owner, useContentPrefix);
-
-        if (shouldGenerateV3(consumer)) {
+        if (generateV3) {
             extensions = prepareV3Extensions();
             byteExtensions = prepareV3ByteExtensions(product, productModels, contentPrefix, promotedContent);
         }
@@ -441,6 +483,19 @@ public class DefaultEntitlementCertServiceAdapter extends BaseEntitlementCertSer
         KeyPair keyPair = keyPairCurator.getConsumerKeyPair(consumer);
         byte[] pemEncodedKeyPair = pki.getPemEncoded(keyPair.getPrivate());
 
+        // Resolve everything that depends only on the consumer once, and fetch the products of all
+        // of the pools in bulk, before generating any certificates
+        Map<String, EnvironmentContent> promotedContent = getPromotedContent(consumer);
+        String contentPrefix = getContentPrefix(consumer, owner, true);
+        boolean generateV3 = shouldGenerateV3(consumer);
+
+        Collection<Pool> pools = new ArrayList<>();
+        for (PoolQuantity poolQuantity : poolQuantities.values()) {
+            pools.add(poolQuantity.getPool());
+        }
+
+        Map<String, Set<Product>> poolProducts = this.getCertificateProducts(consumer, pools);
+
         Map<String, CertificateSerial> serialMap = new HashMap<>();
         for (Entry<String, PoolQuantity> entry : poolQuantities.entrySet()) {
             serialMap.put(entry.getKey(), new CertificateSerial(entry.getValue().getPool().getEndDate()));
@@ -462,17 +517,10 @@ public class DefaultEntitlementCertServiceAdapter extends BaseEntitlementCertSer
                 ent.getQuantity(),
                 ent.getId());
 
-            Set<Product> products = new HashSet<>(productCurator.getPoolProvidedProductsCached(pool));
-
-            // If creating a certificate for a distributor, we need
-            // to add any derived products as well so that their content
-            // is available in the upstream certificate.
-            products.addAll(getDerivedProductsForDistributor(pool, consumer));
+            Set<Product> products = new HashSet<>(
+                poolProducts.getOrDefault(pool.getId(), Collections.emptySet()));
             products.add(product);
 
-            Map<String, EnvironmentContent> promotedContent = getPromotedContent(consumer);
-            String contentPrefix = getContentPrefix(consumer, owner, true);
-
             log.info("Creating X509 cert for product: {}", product);
             log.debug("Provided products: {}", products);
             List<org.candlepin.model.dto.Product> productModels = v3extensionUtil.createProducts(product,
@@ -480,12 +528,12 @@ public class DefaultEntitlementCertServiceAdapter extends BaseEntitlementCertSer
 
             X509Certificate x509Cert = createX509Certificate(consumer, owner, pool, ent,
                 product, products, productModels,
-                BigInteger.valueOf(serial.getId()), keyPair, true);
+                BigInteger.valueOf(serial.getId()), keyPair, contentPrefix, promotedContent, generateV3);
 
             log.debug("Getting PEM encoded cert.");
             String pem = new String(this.pki.getPemEncoded(x509Cert));
 
-            if (shouldGenerateV3(consumer)) {
+            if (generateV3) {
                 log.debug("Generating v3 entitlement data");
 
                 byte[] payloadBytes = v3extensionUtil.createEntitlementDataPayload(productModels,
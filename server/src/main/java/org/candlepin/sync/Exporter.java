@@ -73,6 +73,9 @@ import java.util.zip.ZipOutputStream;
 public class Exporter {
     private static final String EXTENSIONS_BASE_DIR = "extensions";
 
+    /** The number of entitlements to fetch from the database per round trip while exporting */
+    private static final int EXPORT_FETCH_SIZE = 500;
+
     private static Logger log = LoggerFactory.getLogger(Exporter.class);
 
     private ObjectMapper mapper;
@@ -444,36 +447,50 @@ public class Exporter {
         File entCertDir = new File(baseDir.getCanonicalPath(), "entitlements");
         entCertDir.mkdir();
 
-        for (Entitlement ent : entitlementCurator.listByConsumer(consumer)) {
-            if (ent.isDirty()) {
-                log.error("Entitlement " + ent.getId() + " is marked as dirty.");
-                throw new ExportCreationException("Attempted to export dirty entitlements");
-            }
+        // The entitlements are only read, so they are loaded read-only to spare the session from
+        // keeping a snapshot of each of them for dirty checking
+        ResultIterator<Entitlement> iterator = this.entitlementCurator.listUnexpiredByConsumer(consumer)
+            .setReadOnly(true)
+            .setFetchSize(EXPORT_FETCH_SIZE)
+            .iterate();
 
-            if (!this.exportRules.canExport(ent)) {
-                if (log.isDebugEnabled()) {
-                    log.debug("Skipping export of entitlement with product: {}",
-                        ent.getPool().getProductId());
+        try {
+            while (iterator.hasNext()) {
+                Entitlement ent = iterator.next();
+
+                if (ent.isDirty()) {
+                    log.error("Entitlement " + ent.getId() + " is marked as dirty.");
+                    throw new ExportCreationException("Attempted to export dirty entitlements");
                 }
 
-                continue;
-            }
+                if (!this.exportRules.canExport(ent)) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Skipping export of entitlement with product: {}",
+                            ent.getPool().getProductId());
+                    }
 
-            if (log.isDebugEnabled()) {
-                log.debug("Exporting entitlement for product" + ent.getPool().getProductId());
-            }
-            FileWriter writer = null;
-            try {
-                File file = new File(entCertDir.getCanonicalPath(), ent.getId() + ".json");
-                writer = new FileWriter(file);
-                entExporter.export(mapper, writer, ent);
-            }
-            finally {
-                if (writer != null) {
-                    writer.close();
+                    continue;
+                }
+
+                if (log.isDebugEnabled()) {
+                    log.debug("Exporting entitlement for product" + ent.getPool().getProductId());
+                }
+                FileWriter writer = null;
+                try {
+                    File file = new File(entCertDir.getCanonicalPath(), ent.getId() + ".json");
+                    writer = new FileWriter(file);
+                    entExporter.export(mapper, writer, ent);
+                }
+                finally {
+                    if (writer != null) {
+                        writer.close();
+                    }
                 }
             }
         }
+        finally {
+            iterator.close();
+        }
     }
 
     private void exportProducts(File baseDir, Consumer consumer) throws IOException {
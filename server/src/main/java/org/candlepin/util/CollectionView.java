@@ -28,12 +28,17 @@ import java.util.Iterator;
  * Sets, and is in line with the contract on both methods, and implementations provided by the
  * Collections.unmodifiableCollection function.
  *
+ * An optional listener may be provided, which is notified whenever elements are removed from the
+ * backing collection through the view, allowing the owner of the collection to react to changes
+ * made through the view.
+ *
  * @param <E>
  *  The element type
  */
 public class CollectionView<E> implements Collection<E> {
 
     protected final Collection<E> collection;
+    protected final Runnable listener;
 
     /**
      * Creates a new CollectionView instance backed by the provided collection.
@@ -45,11 +50,46 @@ public class CollectionView<E> implements Collection<E> {
      *  if the provided collection is null
      */
     public CollectionView(Collection<E> collection) {
+        this(collection, null);
+    }
+
+    /**
+     * Creates a new CollectionView instance backed by the provided collection, which notifies the
+     * given listener whenever the backing collection is changed through the view.
+     *
+     * @param collection
+     *  The collection to use as the backing collection
+     *
+     * @param listener
+     *  The listener to notify of changes made through the view; may be null
+     *
+     * @throws IllegalArgumentException
+     *  if the provided collection is null
+     */
+    public CollectionView(Collection<E> collection, Runnable listener) {
         if (collection == null) {
             throw new IllegalArgumentException("collection is null");
         }
 
         this.collection = collection;
+        this.listener = listener;
+    }
+
+    /**
+     * Notifies the listener, if any, if the backing collection has been changed.
+     *
+     * @param changed
+     *  whether or not the backing collection has been changed
+     *
+     * @return
+     *  the changed flag provided
+     */
+    protected boolean notifyListener(boolean changed) {
+        if (changed && this.listener != null) {
+            this.listener.run();
+        }
+
+        return changed;
     }
 
     /**
@@ -82,7 +122,10 @@ public class CollectionView<E> implements Collection<E> {
      * {@inheritDoc}
      */
     public void clear() {
+        boolean changed = !this.collection.isEmpty();
+
         this.collection.clear();
+        this.notifyListener(changed);
     }
 
     /**
@@ -110,28 +153,47 @@ public class CollectionView<E> implements Collection<E> {
      * {@inheritDoc}
      */
     public Iterator<E> iterator() {
-        return this.collection.iterator();
+        if (this.listener == null) {
+            return this.collection.iterator();
+        }
+
+        Iterator<E> iterator = this.collection.iterator();
+
+        return new Iterator<E>() {
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            public E next() {
+                return iterator.next();
+            }
+
+            public void remove() {
+                iterator.remove();
+                notifyListener(true);
+            }
+        };
     }
 
     /**
      * {@inheritDoc}
      */
     public boolean remove(Object o) {
-        return this.collection.remove(o);
+        return this.notifyListener(this.collection.remove(o));
     }
 
     /**
      * {@inheritDoc}
      */
     public boolean removeAll(Collection<?> c) {
-        return this.collection.removeAll(c);
+        return this.notifyListener(this.collection.removeAll(c));
     }
 
     /**
      * {@inheritDoc}
      */
     public boolean retainAll(Collection<?> c) {
-        return this.collection.retainAll(c);
+        return this.notifyListener(this.collection.retainAll(c));
     }
 
     /**
@@ -0,0 +1,192 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.util;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+
+
+/**
+ * The EntityVersionBuilder calculates a 64-bit entity version from the content of an entity. It
+ * is used much like HashCodeBuilder, except that the resulting version is derived from a SHA-256
+ * digest of the appended values, making accidental collisions between different versions of an
+ * entity vanishingly unlikely. Entities which produce the same version may be treated as equal.
+ * <p></p>
+ * Every value is appended with a type marker and, where applicable, its length, so that values
+ * cannot run into one another (for instance, "ab" followed by "c" does not produce the same
+ * version as "a" followed by "bc"). Unordered collections are sorted before being appended, so
+ * the resulting version does not depend on their iteration order.
+ */
+public class EntityVersionBuilder {
+
+    private static final HashFunction HASH_FUNCTION = Hashing.sha256();
+
+    private static final byte NULL_MARKER = 0;
+    private static final byte VALUE_MARKER = 1;
+
+    private final Hasher hasher;
+
+    public EntityVersionBuilder() {
+        this.hasher = HASH_FUNCTION.newHasher();
+    }
+
+    /**
+     * Appends the given string to this builder.
+     *
+     * @param value
+     *  the string to append; may be null
+     *
+     * @return
+     *  a reference to this builder
+     */
+    public EntityVersionBuilder append(String value) {
+        if (value == null) {
+            this.hasher.putByte(NULL_MARKER);
+        }
+        else {
+            this.hasher.putByte(VALUE_MARKER)
+                .putInt(value.length())
+                .putString(value, StandardCharsets.UTF_8);
+        }
+
+        return this;
+    }
+
+    /**
+     * Appends the given long to this builder.
+     *
+     * @param value
+     *  the long to append; may be null
+     *
+     * @return
+     *  a reference to this builder
+     */
+    public EntityVersionBuilder append(Long value) {
+        if (value == null) {
+            this.hasher.putByte(NULL_MARKER);
+        }
+        else {
+            this.hasher.putByte(VALUE_MARKER)
+                .putLong(value);
+        }
+
+        return this;
+    }
+
+    /**
+     * Appends the given boolean to this builder.
+     *
+     * @param value
+     *  the boolean to append
+     *
+     * @return
+     *  a reference to this builder
+     */
+    public EntityVersionBuilder append(boolean value) {
+        this.hasher.putBoolean(value);
+        return this;
+    }
+
+    /**
+     * Appends the given collection of strings to this builder, without regard to the order of
+     * the elements in the collection. A null collection is treated as an empty collection.
+     *
+     * @param values
+     *  the collection of strings to append; may be null
+     *
+     * @return
+     *  a reference to this builder
+     */
+    public EntityVersionBuilder appendSet(Collection<String> values) {
+        List<String> sorted = values != null ? new ArrayList<>(values) : new ArrayList<>();
+        sorted.sort(Comparator.nullsFirst(Comparator.naturalOrder()));
+
+        this.hasher.putInt(sorted.size());
+        for (String value : sorted) {
+            this.append(value);
+        }
+
+        return this;
+    }
+
+    /**
+     * Appends the given versions to this builder, without regard to their order. This is used to
+     * include the versions of child entities in the version of their parent.
+     *
+     * @param versions
+     *  the versions to append
+     *
+     * @return
+     *  a reference to this builder
+     */
+    public EntityVersionBuilder appendSet(long... versions) {
+        long[] sorted = Arrays.copyOf(versions, versions.length);
+        Arrays.sort(sorted);
+
+        this.hasher.putInt(sorted.length);
+        for (long version : sorted) {
+            this.hasher.putLong(version);
+        }
+
+        return this;
+    }
+
+    /**
+     * Appends the entries of the given map to this builder, without regard to the order of the
+     * entries. A null map is treated as an empty map.
+     *
+     * @param values
+     *  the map to append; may be null
+     *
+     * @return
+     *  a reference to this builder
+     */
+    public EntityVersionBuilder appendMap(Map<String, String> values) {
+        Map<String, String> sorted = new TreeMap<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+        if (values != null) {
+            sorted.putAll(values);
+        }
+
+        this.hasher.putInt(sorted.size());
+        for (Map.Entry<String, String> entry : sorted.entrySet()) {
+            this.append(entry.getKey())
+                .append(entry.getValue());
+        }
+
+        return this;
+    }
+
+    /**
+     * Calculates the version of the values appended to this builder. This method may only be
+     * called once per builder.
+     *
+     * @return
+     *  the version of the values appended to this builder
+     */
+    public long build() {
+        return this.hasher.hash().asLong();
+    }
+}
@@ -14,8 +14,11 @@
  */
 package org.candlepin.util;
 
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -25,6 +28,9 @@ import java.util.Set;
  * The MapView is a pass-through map which restricts adding elements to the backing map, allowing
  * only reading and removing elements.
  *
+ * An optional listener may be provided, which is notified whenever mappings are removed from the
+ * backing map through the view or any of its collection views.
+ *
  * @param <K>
  *  The type of keys to be used by this map
  *
@@ -33,7 +39,57 @@ import java.util.Set;
  */
 public class MapView<K, V> implements Map<K, V> {
 
+    /**
+     * A view of the entries of an observed map, which provides immutable copies of the entries so
+     * values cannot be changed without notifying the listener.
+     */
+    private static class EntrySetView<K, V> extends SetView<Map.Entry<K, V>> {
+
+        public EntrySetView(Set<Map.Entry<K, V>> entries, Runnable listener) {
+            super(entries, listener);
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            Iterator<Map.Entry<K, V>> iterator = super.iterator();
+
+            return new Iterator<Map.Entry<K, V>>() {
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                public Map.Entry<K, V> next() {
+                    return new AbstractMap.SimpleImmutableEntry<>(iterator.next());
+                }
+
+                public void remove() {
+                    iterator.remove();
+                }
+            };
+        }
+
+        @Override
+        public Object[] toArray() {
+            return this.copyEntries().toArray();
+        }
+
+        @Override
+        public <T> T[] toArray(T[] a) {
+            return this.copyEntries().toArray(a);
+        }
+
+        private List<Map.Entry<K, V>> copyEntries() {
+            List<Map.Entry<K, V>> entries = new ArrayList<>(this.size());
+            for (Map.Entry<K, V> entry : this) {
+                entries.add(entry);
+            }
+
+            return entries;
+        }
+    }
+
     protected final Map<K, V> map;
+    protected final Runnable listener;
 
     /**
      * Creates a new MapView instance backed by the provided map.
@@ -45,18 +101,42 @@ public class MapView<K, V> implements Map<K, V> {
      *  if the provided map is null
      */
     public MapView(Map<K, V> map) {
+        this(map, null);
+    }
+
+    /**
+     * Creates a new MapView instance backed by the provided map, which notifies the given listener
+     * whenever the backing map is changed through the view.
+     *
+     * @param map
+     *  The map to use as the backing map
+     *
+     * @param listener
+     *  The listener to notify of changes made through the view; may be null
+     *
+     * @throws IllegalArgumentException
+     *  if the provided map is null
+     */
+    public MapView(Map<K, V> map, Runnable listener) {
         if (map == null) {
             throw new IllegalArgumentException("map is null");
         }
 
         this.map = map;
+        this.listener = listener;
     }
 
     /**
      * {@inheritDoc}
      */
     public void clear() {
+        boolean changed = !this.map.isEmpty();
+
         this.map.clear();
+
+        if (changed && this.listener != null) {
+            this.listener.run();
+        }
     }
 
     /**
@@ -82,6 +162,10 @@ public class MapView<K, V> implements Map<K, V> {
         // "The set supports element removal, which removes the corresponding mapping from the map,
         // via the Iterator.remove, Set.remove, removeAll, retainAll and clear operations. It does
         // not support the add or addAll operations."
+        if (this.listener != null) {
+            return new EntrySetView<>(this.map.entrySet(), this.listener);
+        }
+
         return this.map.entrySet();
     }
 
@@ -122,6 +206,10 @@ public class MapView<K, V> implements Map<K, V> {
         // "The set supports element removal, which removes the corresponding mapping from the map,
         // via the Iterator.remove, Set.remove, removeAll, retainAll and clear operations. It does
         // not support the add or addAll operations."
+        if (this.listener != null) {
+            return new SetView<>(this.map.keySet(), this.listener);
+        }
+
         return this.map.keySet();
     }
 
@@ -153,7 +241,14 @@ public class MapView<K, V> implements Map<K, V> {
      * {@inheritDoc}
      */
     public V remove(Object key) {
-        return this.map.remove(key);
+        boolean changed = this.map.containsKey(key);
+        V value = this.map.remove(key);
+
+        if (changed && this.listener != null) {
+            this.listener.run();
+        }
+
+        return value;
     }
 
     /**
@@ -172,6 +267,10 @@ public class MapView<K, V> implements Map<K, V> {
         // "The collection supports element removal, which removes the corresponding mapping from
         // the map, via the Iterator.remove, Collection.remove, removeAll, retainAll and clear
         // operations. It does not support the add or addAll operations."
+        if (this.listener != null) {
+            return new CollectionView<>(this.map.values(), this.listener);
+        }
+
         return this.map.values();
     }
 
@@ -43,6 +43,23 @@ public class SetView<E> extends CollectionView<E> implements Set<E> {
         super(set);
     }
 
+    /**
+     * Creates a new SetView instance backed by the provided set, which notifies the given listener
+     * whenever the backing set is changed through the view.
+     *
+     * @param set
+     *  The set to use as the backing set
+     *
+     * @param listener
+     *  The listener to notify of changes made through the view; may be null
+     *
+     * @throws IllegalArgumentException
+     *  if the provided set is null
+     */
+    public SetView(Set<E> set, Runnable listener) {
+        super(set, listener);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.async.tasks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.candlepin.async.JobArguments;
+import org.candlepin.async.JobConfig;
+import org.candlepin.async.JobExecutionContext;
+import org.candlepin.async.JobManager;
+import org.candlepin.controller.PoolManager;
+import org.candlepin.model.ConsumerCurator;
+import org.candlepin.model.Owner;
+import org.candlepin.model.OwnerCurator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Test suite for the ConsumerStatusRecalculationJob class
+ */
+public class ConsumerStatusRecalculationJobTest {
+
+    private PoolManager poolManager;
+    private ConsumerCurator consumerCurator;
+    private OwnerCurator ownerCurator;
+    private JobManager jobManager;
+
+    @BeforeEach
+    public void init() {
+        this.poolManager = mock(PoolManager.class);
+        this.consumerCurator = mock(ConsumerCurator.class);
+        this.ownerCurator = mock(OwnerCurator.class);
+        this.jobManager = mock(JobManager.class);
+    }
+
+    private ConsumerStatusRecalculationJob createJobInstance() {
+        return new ConsumerStatusRecalculationJob(this.poolManager, this.consumerCurator,
+            this.ownerCurator, this.jobManager);
+    }
+
+    private Owner createOwner(String id, String key) {
+        Owner owner = new Owner(key, key);
+        owner.setId(id);
+
+        return owner;
+    }
+
+    private JobExecutionContext createContext(String ownerKey) {
+        JobArguments arguments = mock(JobArguments.class);
+        doReturn(ownerKey).when(arguments).getAsString(ConsumerStatusRecalculationJob.OWNER_KEY);
+
+        JobExecutionContext context = mock(JobExecutionContext.class);
+        doReturn(arguments).when(context).getJobArguments();
+
+        return context;
+    }
+
+    @Test
+    public void testScheduledRunQueuesJobPerOwner() throws Exception {
+        Owner owner1 = this.createOwner("owner_id-1", "owner-1");
+        Owner owner2 = this.createOwner("owner_id-2", "owner-2");
+
+        when(this.consumerCurator.getOwnerIdsWithComplianceDirtyConsumers())
+            .thenReturn(Arrays.asList(owner1.getId(), owner2.getId()));
+        when(this.ownerCurator.findOwnerById(owner1.getId())).thenReturn(owner1);
+        when(this.ownerCurator.findOwnerById(owner2.getId())).thenReturn(owner2);
+
+        JobExecutionContext context = this.createContext(null);
+        this.createJobInstance().execute(context);
+
+        ArgumentCaptor<JobConfig> captor = ArgumentCaptor.forClass(JobConfig.class);
+        verify(this.jobManager, times(2)).queueJob(captor.capture());
+        verify(this.poolManager, never()).recalculateFlaggedConsumerStatuses(anyString());
+
+        List<JobConfig> configs = captor.getAllValues();
+        assertEquals(ConsumerStatusRecalculationJob.JOB_KEY, configs.get(0).getJobKey());
+        assertEquals("owner-1", configs.get(0).getJobArguments()
+            .getAsString(ConsumerStatusRecalculationJob.OWNER_KEY));
+        assertEquals("owner-2", configs.get(1).getJobArguments()
+            .getAsString(ConsumerStatusRecalculationJob.OWNER_KEY));
+    }
+
+    @Test
+    public void testScheduledRunWithoutFlaggedConsumers() throws Exception {
+        when(this.consumerCurator.getOwnerIdsWithComplianceDirtyConsumers())
+            .thenReturn(Collections.emptyList());
+
+        JobExecutionContext context = this.createContext(null);
+        this.createJobInstance().execute(context);
+
+        verify(this.jobManager, never()).queueJob(any(JobConfig.class));
+        verify(context).setJobResult("Status recalculation requested for %d of %d owners", 0, 0);
+    }
+
+    @Test
+    public void testOwnerRunRecalculatesFlaggedConsumers() throws Exception {
+        Owner owner = this.createOwner("owner_id", "owner_key");
+
+        when(this.ownerCurator.getByKey(owner.getKey())).thenReturn(owner);
+        when(this.poolManager.recalculateFlaggedConsumerStatuses(owner.getId())).thenReturn(3);
+
+        JobExecutionContext context = this.createContext(owner.getKey());
+        this.createJobInstance().execute(context);
+
+        verify(this.poolManager).recalculateFlaggedConsumerStatuses(owner.getId());
+        verify(this.jobManager, never()).queueJob(any(JobConfig.class));
+        verify(context).setJobResult("Status recalculated for %d consumers of owner %s", 3, owner.getKey());
+    }
+
+    @Test
+    public void testOwnerRunWithDeletedOwner() throws Exception {
+        JobExecutionContext context = this.createContext("missing_owner");
+        this.createJobInstance().execute(context);
+
+        verify(this.poolManager, never()).recalculateFlaggedConsumerStatuses(anyString());
+    }
+}
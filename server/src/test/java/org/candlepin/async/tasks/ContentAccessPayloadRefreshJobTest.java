@@ -0,0 +1,158 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.async.tasks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.candlepin.async.JobArguments;
+import org.candlepin.async.JobConfig;
+import org.candlepin.async.JobExecutionContext;
+import org.candlepin.async.JobExecutionException;
+import org.candlepin.async.JobManager;
+import org.candlepin.controller.ContentAccessManager;
+import org.candlepin.model.Owner;
+import org.candlepin.model.OwnerCurator;
+import org.candlepin.model.OwnerEnvContentAccessCurator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Test suite for the ContentAccessPayloadRefreshJob class
+ */
+public class ContentAccessPayloadRefreshJobTest {
+
+    private ContentAccessManager contentAccessManager;
+    private OwnerEnvContentAccessCurator ownerEnvContentAccessCurator;
+    private OwnerCurator ownerCurator;
+    private JobManager jobManager;
+
+    @BeforeEach
+    public void init() {
+        this.contentAccessManager = mock(ContentAccessManager.class);
+        this.ownerEnvContentAccessCurator = mock(OwnerEnvContentAccessCurator.class);
+        this.ownerCurator = mock(OwnerCurator.class);
+        this.jobManager = mock(JobManager.class);
+    }
+
+    private ContentAccessPayloadRefreshJob createJobInstance() {
+        return new ContentAccessPayloadRefreshJob(this.contentAccessManager,
+            this.ownerEnvContentAccessCurator, this.ownerCurator, this.jobManager);
+    }
+
+    private Owner createOwner(String id, String key) {
+        Owner owner = new Owner(key, key);
+        owner.setId(id);
+
+        return owner;
+    }
+
+    private JobExecutionContext createContext(String ownerKey) {
+        JobArguments arguments = mock(JobArguments.class);
+        doReturn(ownerKey).when(arguments).getAsString(ContentAccessPayloadRefreshJob.OWNER_KEY);
+
+        JobExecutionContext context = mock(JobExecutionContext.class);
+        doReturn(arguments).when(context).getJobArguments();
+
+        return context;
+    }
+
+    @Test
+    public void testScheduledRunQueuesJobPerOwner() throws Exception {
+        Owner owner1 = this.createOwner("owner_id-1", "owner-1");
+        Owner owner2 = this.createOwner("owner_id-2", "owner-2");
+
+        when(this.ownerEnvContentAccessCurator.getOwnerIdsWithStaleContentAccess())
+            .thenReturn(Arrays.asList(owner1.getId(), owner2.getId()));
+        when(this.ownerCurator.findOwnerById(owner1.getId())).thenReturn(owner1);
+        when(this.ownerCurator.findOwnerById(owner2.getId())).thenReturn(owner2);
+
+        JobExecutionContext context = this.createContext(null);
+        this.createJobInstance().execute(context);
+
+        ArgumentCaptor<JobConfig> captor = ArgumentCaptor.forClass(JobConfig.class);
+        verify(this.jobManager, times(2)).queueJob(captor.capture());
+        verify(this.contentAccessManager, never()).rebuildStaleContentAccess(any(Owner.class));
+
+        List<JobConfig> configs = captor.getAllValues();
+        assertEquals(ContentAccessPayloadRefreshJob.JOB_KEY, configs.get(0).getJobKey());
+        assertEquals("owner-1", configs.get(0).getJobArguments()
+            .getAsString(ContentAccessPayloadRefreshJob.OWNER_KEY));
+        assertEquals("owner-2", configs.get(1).getJobArguments()
+            .getAsString(ContentAccessPayloadRefreshJob.OWNER_KEY));
+    }
+
+    @Test
+    public void testScheduledRunWithoutStalePayloads() throws Exception {
+        when(this.ownerEnvContentAccessCurator.getOwnerIdsWithStaleContentAccess())
+            .thenReturn(Collections.emptyList());
+
+        JobExecutionContext context = this.createContext(null);
+        this.createJobInstance().execute(context);
+
+        verify(this.jobManager, never()).queueJob(any(JobConfig.class));
+        verify(context).setJobResult("Content access payload refresh requested for %d of %d owners", 0, 0);
+    }
+
+    @Test
+    public void testOwnerRunRebuildsStalePayloads() throws Exception {
+        Owner owner = this.createOwner("owner_id", "owner_key");
+
+        when(this.ownerCurator.getByKey(owner.getKey())).thenReturn(owner);
+        when(this.contentAccessManager.rebuildStaleContentAccess(owner)).thenReturn(2);
+
+        JobExecutionContext context = this.createContext(owner.getKey());
+        this.createJobInstance().execute(context);
+
+        verify(this.contentAccessManager).rebuildStaleContentAccess(owner);
+        verify(this.jobManager, never()).queueJob(any(JobConfig.class));
+        verify(context).setJobResult("Rebuilt %d content access payloads for owner %s", 2, owner.getKey());
+    }
+
+    @Test
+    public void testOwnerRunWithDeletedOwner() throws Exception {
+        JobExecutionContext context = this.createContext("missing_owner");
+        this.createJobInstance().execute(context);
+
+        verify(this.contentAccessManager, never()).rebuildStaleContentAccess(any(Owner.class));
+    }
+
+    @Test
+    public void testOwnerRunFailsWhenPayloadCannotBeBuilt() throws Exception {
+        Owner owner = this.createOwner("owner_id", "owner_key");
+
+        when(this.ownerCurator.getByKey(owner.getKey())).thenReturn(owner);
+        doThrow(new IOException("bad payload")).when(this.contentAccessManager)
+            .rebuildStaleContentAccess(owner);
+
+        JobExecutionContext context = this.createContext(owner.getKey());
+        assertThrows(JobExecutionException.class, () -> this.createJobInstance().execute(context));
+    }
+}
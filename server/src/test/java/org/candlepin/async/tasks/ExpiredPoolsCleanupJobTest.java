@@ -16,6 +16,7 @@ package org.candlepin.async.tasks;
 
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import org.candlepin.async.JobExecutionContext;
 import org.candlepin.controller.PoolManager;
@@ -48,4 +49,15 @@ public class ExpiredPoolsCleanupJobTest {
         verify(this.poolManager).cleanupExpiredPools();
     }
 
+    @Test
+    public void executeReportsDeletedPools() throws Exception {
+        JobExecutionContext context = mock(JobExecutionContext.class);
+        when(this.poolManager.cleanupExpiredPools()).thenReturn(42);
+
+        ExpiredPoolsCleanupJob job = this.createJobInstance();
+        job.execute(context);
+
+        verify(context).setJobResult("Expired pools cleanup completed successfully; %d pools deleted", 42);
+    }
+
 }
@@ -0,0 +1,206 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.async.tasks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.candlepin.async.JobArguments;
+import org.candlepin.async.JobConfig;
+import org.candlepin.async.JobExecutionContext;
+import org.candlepin.async.JobExecutionException;
+import org.candlepin.async.JobManager;
+import org.candlepin.config.CandlepinCommonTestConfig;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.model.Owner;
+import org.candlepin.model.OwnerCurator;
+import org.candlepin.model.OwnerInfo;
+import org.candlepin.model.OwnerInfoCurator;
+import org.candlepin.model.OwnerInfoSnapshotCurator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Test suite for the OwnerInfoRefreshJob class
+ */
+public class OwnerInfoRefreshJobTest {
+
+    private CandlepinCommonTestConfig config;
+    private OwnerInfoCurator ownerInfoCurator;
+    private OwnerInfoSnapshotCurator ownerInfoSnapshotCurator;
+    private OwnerCurator ownerCurator;
+    private JobManager jobManager;
+
+    @BeforeEach
+    public void init() {
+        this.config = new CandlepinCommonTestConfig();
+        this.ownerInfoCurator = mock(OwnerInfoCurator.class);
+        this.ownerInfoSnapshotCurator = mock(OwnerInfoSnapshotCurator.class);
+        this.ownerCurator = mock(OwnerCurator.class);
+        this.jobManager = mock(JobManager.class);
+    }
+
+    private OwnerInfoRefreshJob createJobInstance() {
+        return new OwnerInfoRefreshJob(this.config, this.ownerInfoCurator, this.ownerInfoSnapshotCurator,
+            this.ownerCurator, this.jobManager);
+    }
+
+    private Owner createOwner(String id, String key) {
+        Owner owner = new Owner(key, key);
+        owner.setId(id);
+
+        return owner;
+    }
+
+    private JobExecutionContext createContext(String ownerKey) {
+        JobArguments arguments = mock(JobArguments.class);
+        doReturn(ownerKey).when(arguments).getAsString(OwnerInfoRefreshJob.OWNER_KEY);
+
+        JobExecutionContext context = mock(JobExecutionContext.class);
+        doReturn(arguments).when(context).getJobArguments();
+
+        return context;
+    }
+
+    @Test
+    public void testScheduledRunQueuesJobPerOwner() throws Exception {
+        Owner owner1 = this.createOwner("owner_id-1", "owner-1");
+        Owner owner2 = this.createOwner("owner_id-2", "owner-2");
+
+        when(this.ownerInfoSnapshotCurator.getOwnerIdsToRefresh(any(Date.class)))
+            .thenReturn(Arrays.asList(owner1.getId(), owner2.getId()));
+        when(this.ownerCurator.findOwnerById(owner1.getId())).thenReturn(owner1);
+        when(this.ownerCurator.findOwnerById(owner2.getId())).thenReturn(owner2);
+
+        JobExecutionContext context = this.createContext(null);
+        this.createJobInstance().execute(context);
+
+        ArgumentCaptor<JobConfig> captor = ArgumentCaptor.forClass(JobConfig.class);
+        verify(this.jobManager, times(2)).queueJob(captor.capture());
+        verify(this.ownerInfoCurator, never()).getByOwner(any(Owner.class));
+
+        List<JobConfig> configs = captor.getAllValues();
+        assertEquals(OwnerInfoRefreshJob.JOB_KEY, configs.get(0).getJobKey());
+        assertEquals("owner-1", configs.get(0).getJobArguments()
+            .getAsString(OwnerInfoRefreshJob.OWNER_KEY));
+        assertEquals("owner-2", configs.get(1).getJobArguments()
+            .getAsString(OwnerInfoRefreshJob.OWNER_KEY));
+    }
+
+    @Test
+    public void testScheduledRunUsesMaxSnapshotAge() throws Exception {
+        this.config.setProperty(ConfigProperties.jobConfig(OwnerInfoRefreshJob.JOB_KEY,
+            OwnerInfoRefreshJob.CFG_MAX_SNAPSHOT_AGE), "30");
+
+        Date before = new Date(System.currentTimeMillis() - 30 * 60 * 1000);
+        this.createJobInstance().execute(this.createContext(null));
+        Date after = new Date(System.currentTimeMillis() - 30 * 60 * 1000);
+
+        ArgumentCaptor<Date> captor = ArgumentCaptor.forClass(Date.class);
+        verify(this.ownerInfoSnapshotCurator).getOwnerIdsToRefresh(captor.capture());
+
+        Date cutoff = captor.getValue();
+        assertTrue(!cutoff.before(before) && !cutoff.after(after));
+    }
+
+    @Test
+    public void testScheduledRunFailsWithInvalidMaxSnapshotAge() {
+        this.config.setProperty(ConfigProperties.jobConfig(OwnerInfoRefreshJob.JOB_KEY,
+            OwnerInfoRefreshJob.CFG_MAX_SNAPSHOT_AGE), "0");
+
+        JobExecutionContext context = this.createContext(null);
+        assertThrows(JobExecutionException.class, () -> this.createJobInstance().execute(context));
+    }
+
+    @Test
+    public void testOwnerRunStoresInfoWithClaimedGeneration() throws Exception {
+        Owner owner = this.createOwner("owner_id", "owner_key");
+        OwnerInfo info = new OwnerInfo();
+
+        when(this.ownerCurator.getByKey(owner.getKey())).thenReturn(owner);
+        when(this.ownerInfoSnapshotCurator.claimGeneration(owner.getId())).thenReturn(4);
+        when(this.ownerInfoCurator.getByOwner(owner)).thenReturn(info);
+        when(this.ownerInfoSnapshotCurator.storeOwnerInfo(owner.getId(), 4, info)).thenReturn(true);
+
+        JobExecutionContext context = this.createContext(owner.getKey());
+        this.createJobInstance().execute(context);
+
+        InOrder order = inOrder(this.ownerInfoSnapshotCurator, this.ownerInfoCurator);
+        order.verify(this.ownerInfoSnapshotCurator).claimGeneration(owner.getId());
+        order.verify(this.ownerInfoCurator).getByOwner(owner);
+        order.verify(this.ownerInfoSnapshotCurator).storeOwnerInfo(owner.getId(), 4, info);
+
+        verify(this.ownerInfoSnapshotCurator, never()).markStale(anyString());
+        verify(this.jobManager, never()).queueJob(any(JobConfig.class));
+        verify(context).setJobResult("Owner info snapshot refreshed for owner %s", owner.getKey());
+    }
+
+    @Test
+    public void testOwnerRunCreatesMissingSnapshot() throws Exception {
+        Owner owner = this.createOwner("owner_id", "owner_key");
+        OwnerInfo info = new OwnerInfo();
+
+        when(this.ownerCurator.getByKey(owner.getKey())).thenReturn(owner);
+        when(this.ownerInfoCurator.getByOwner(owner)).thenReturn(info);
+
+        this.createJobInstance().execute(this.createContext(owner.getKey()));
+
+        verify(this.ownerInfoSnapshotCurator).storeOwnerInfo(owner.getId(), 0, info);
+    }
+
+    @Test
+    public void testOwnerRunFlagsSnapshotAgainOnFailure() throws Exception {
+        Owner owner = this.createOwner("owner_id", "owner_key");
+
+        when(this.ownerCurator.getByKey(owner.getKey())).thenReturn(owner);
+        when(this.ownerInfoCurator.getByOwner(owner)).thenThrow(new IllegalStateException("failure"));
+
+        JobExecutionContext context = this.createContext(owner.getKey());
+        assertThrows(IllegalStateException.class, () -> this.createJobInstance().execute(context));
+
+        verify(this.ownerInfoSnapshotCurator).claimGeneration(owner.getId());
+        verify(this.ownerInfoSnapshotCurator).markStale(owner.getId());
+        verify(this.ownerInfoSnapshotCurator, never())
+            .storeOwnerInfo(anyString(), anyInt(), any(OwnerInfo.class));
+    }
+
+    @Test
+    public void testOwnerRunWithDeletedOwner() throws Exception {
+        JobExecutionContext context = this.createContext("missing_owner");
+        this.createJobInstance().execute(context);
+
+        verify(this.ownerInfoCurator, never()).getByOwner(any(Owner.class));
+        verify(this.ownerInfoSnapshotCurator, never())
+            .storeOwnerInfo(anyString(), anyInt(), any(OwnerInfo.class));
+    }
+}
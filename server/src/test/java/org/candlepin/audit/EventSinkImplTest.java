@@ -35,6 +35,7 @@ import org.candlepin.config.CandlepinCommonTestConfig;
 import org.candlepin.controller.mode.CandlepinModeManager;
 import org.candlepin.controller.mode.CandlepinModeManager.Mode;
 import org.candlepin.guice.PrincipalProvider;
+import org.candlepin.metrics.MetricRegistry;
 import org.candlepin.model.Consumer;
 import org.candlepin.model.Owner;
 import org.candlepin.model.Pool;
@@ -114,7 +115,7 @@ public class EventSinkImplTest {
      */
     private EventSinkImpl createEventSink(final ClientSessionFactory sessionFactory) throws Exception {
         EventSinkImpl sink = new EventSinkImpl(eventFilter, factory, mapper,
-            new CandlepinCommonTestConfig(), this.amqSessionFactory, mockModeManager);
+            new CandlepinCommonTestConfig(), this.amqSessionFactory, mockModeManager, new MetricRegistry());
         return sink;
     }
 
@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.audit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.candlepin.model.OwnerInfoSnapshotCurator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Test suite for the OwnerInfoListener class
+ */
+public class OwnerInfoListenerTest {
+
+    private OwnerInfoSnapshotCurator ownerInfoSnapshotCurator;
+    private OwnerInfoListener listener;
+
+    @BeforeEach
+    public void init() {
+        this.ownerInfoSnapshotCurator = mock(OwnerInfoSnapshotCurator.class);
+        this.listener = new OwnerInfoListener(this.ownerInfoSnapshotCurator);
+    }
+
+    private Event mockEvent(Event.Target target, String ownerId) {
+        return this.mockEvent(target, Event.Type.CREATED, ownerId);
+    }
+
+    private Event mockEvent(Event.Target target, Event.Type type, String ownerId) {
+        Event event = mock(Event.class);
+        when(event.getTarget()).thenReturn(target);
+        when(event.getType()).thenReturn(type);
+        when(event.getOwnerId()).thenReturn(ownerId);
+
+        return event;
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = Event.Target.class, names = { "CONSUMER", "ENTITLEMENT", "POOL", "COMPLIANCE" })
+    public void testEventFlagsSnapshot(Event.Target target) {
+        this.listener.onEvent(this.mockEvent(target, "owner_id"));
+
+        verify(this.ownerInfoSnapshotCurator).markStale("owner_id");
+    }
+
+    @Test
+    public void testProductModificationFlagsSnapshot() {
+        this.listener.onEvent(this.mockEvent(Event.Target.PRODUCT, Event.Type.MODIFIED, "owner_id"));
+
+        verify(this.ownerInfoSnapshotCurator).markStale("owner_id");
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = Event.Type.class, names = { "CREATED", "DELETED" })
+    public void testProductCreationAndDeletionAreIgnored(Event.Type type) {
+        this.listener.onEvent(this.mockEvent(Event.Target.PRODUCT, type, "owner_id"));
+
+        verify(this.ownerInfoSnapshotCurator, never()).markStale(anyString());
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = Event.Target.class,
+        names = { "USER", "ROLE", "EXPORT", "RULES", "GUESTID", "SUBSCRIPTION" })
+    public void testUnrelatedEventIsIgnored(Event.Target target) {
+        this.listener.onEvent(this.mockEvent(target, "owner_id"));
+
+        verify(this.ownerInfoSnapshotCurator, never()).markStale(anyString());
+    }
+
+    @Test
+    public void testEventWithoutOwnerIsIgnored() {
+        this.listener.onEvent(this.mockEvent(Event.Target.CONSUMER, null));
+
+        verify(this.ownerInfoSnapshotCurator, never()).markStale(anyString());
+    }
+
+    @Test
+    public void testFailureToFlagSnapshotDoesNotFailEvent() {
+        doThrow(new IllegalStateException("database unavailable")).when(this.ownerInfoSnapshotCurator)
+            .markStale("owner_id");
+
+        // Should not throw, as that would roll back and redeliver the event
+        this.listener.onEvent(this.mockEvent(Event.Target.CONSUMER, "owner_id"));
+    }
+}
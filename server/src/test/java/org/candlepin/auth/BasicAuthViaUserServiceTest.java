@@ -15,12 +15,19 @@
 package org.candlepin.auth;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import org.candlepin.auth.permissions.OwnerPermission;
 import org.candlepin.auth.permissions.PermissionFactory;
+import org.candlepin.common.exceptions.BadRequestException;
 import org.candlepin.common.exceptions.NotAuthorizedException;
 import org.candlepin.model.Owner;
 import org.candlepin.model.User;
@@ -41,6 +48,7 @@ import org.xnap.commons.i18n.I18n;
 import org.xnap.commons.i18n.I18nFactory;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
@@ -58,6 +66,7 @@ public class BasicAuthViaUserServiceTest {
     @Mock private Injector injector;
     @Mock private Provider<I18n> mockI18n;
     @Mock private PermissionFactory mockPermissionFactory;
+    private UserAuthCache userAuthCache;
     private BasicAuth auth;
 
     @Before
@@ -76,7 +85,8 @@ public class BasicAuthViaUserServiceTest {
         I18n i18n = I18nFactory.getI18n(getClass(), Locale.US, I18nFactory.FALLBACK);
         when(mockI18n.get()).thenReturn(i18n);
 
-        this.auth = new BasicAuth(userService, mockI18n, mockPermissionFactory);
+        this.userAuthCache = new UserAuthCache(60000, 10);
+        this.auth = new BasicAuth(userService, mockI18n, mockPermissionFactory, this.userAuthCache);
     }
 
     /**
@@ -166,6 +176,111 @@ public class BasicAuthViaUserServiceTest {
         assertEquals(expected, this.auth.getPrincipal(request));
     }
 
+    @Test
+    public void cachedCredentialsReused() throws Exception {
+        setUserAndPassword("user", "redhat");
+        when(userService.validateUser("user", "redhat")).thenReturn(true);
+        when(userService.findByLogin("user")).thenReturn(new User());
+
+        Principal principal = this.auth.getPrincipal(request);
+        assertEquals(principal, this.auth.getPrincipal(request));
+
+        verify(userService, times(1)).validateUser("user", "redhat");
+    }
+
+    @Test
+    public void permissionsBuiltOnceForCachedCredentials() throws Exception {
+        setUserAndPassword("user", "redhat");
+        User user = new User();
+        when(userService.validateUser("user", "redhat")).thenReturn(true);
+        when(userService.findByLogin("user")).thenReturn(user);
+
+        Principal principal = this.auth.getPrincipal(request);
+        assertNotSame(principal, this.auth.getPrincipal(request));
+
+        verify(userService, times(1)).findByLogin("user");
+        verify(mockPermissionFactory, times(1)).createUserPermissions(user);
+    }
+
+    @Test
+    public void cachedPrincipalKeepsPermissions() throws Exception {
+        Owner owner = new Owner("user", "user");
+        OwnerPermission permission = new OwnerPermission(owner, Access.ALL);
+
+        setUserAndPassword("user", "redhat");
+        User user = new User();
+        when(userService.validateUser("user", "redhat")).thenReturn(true);
+        when(userService.findByLogin("user")).thenReturn(user);
+        when(mockPermissionFactory.createUserPermissions(user))
+            .thenReturn(Collections.singletonList(permission));
+
+        this.auth.getPrincipal(request);
+        Principal principal = this.auth.getPrincipal(request);
+
+        assertTrue(principal.getPermissions().contains(permission));
+        assertEquals(Collections.singletonList(owner), ((UserPrincipal) principal).getOwners());
+    }
+
+    @Test
+    public void cachedSuperAdminPrincipal() throws Exception {
+        setUserAndPassword("admin", "redhat");
+        when(userService.validateUser("admin", "redhat")).thenReturn(true);
+        when(userService.findByLogin("admin")).thenReturn(new User("admin", "redhat", true));
+
+        this.auth.getPrincipal(request);
+        Principal principal = this.auth.getPrincipal(request);
+
+        assertTrue(principal.hasFullAccess());
+        verify(userService, times(1)).findByLogin("admin");
+    }
+
+    @Test
+    public void cachedPrincipalRequiresMatchingPassword() throws Exception {
+        when(userService.validateUser("user", "redhat")).thenReturn(true);
+        when(userService.validateUser("user", "wrong")).thenReturn(false);
+        when(userService.findByLogin("user")).thenReturn(new User());
+
+        setUserAndPassword("user", "redhat");
+        assertNotNull(this.auth.getPrincipal(request));
+
+        headerMap.clear();
+        setUserAndPassword("user", "wrong");
+        try {
+            this.auth.getPrincipal(request);
+            fail("Expected NotAuthorizedException");
+        }
+        catch (NotAuthorizedException e) {
+            // expected
+        }
+
+        verify(userService).validateUser("user", "wrong");
+    }
+
+    @Test
+    public void invalidatedCredentialsRevalidated() throws Exception {
+        setUserAndPassword("user", "redhat");
+        when(userService.validateUser("user", "redhat")).thenReturn(true);
+        when(userService.findByLogin("user")).thenReturn(new User());
+
+        this.auth.getPrincipal(request);
+        this.userAuthCache.invalidate("user");
+        this.auth.getPrincipal(request);
+
+        verify(userService, times(2)).validateUser("user", "redhat");
+        verify(userService, times(2)).findByLogin("user");
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void deletedUserRejectedAfterInvalidation() throws Exception {
+        setUserAndPassword("user", "redhat");
+        when(userService.validateUser("user", "redhat")).thenReturn(true);
+        when(userService.findByLogin("user")).thenReturn(new User()).thenReturn(null);
+
+        this.auth.getPrincipal(request);
+        this.userAuthCache.invalidateAll();
+        this.auth.getPrincipal(request);
+    }
+
     // TODO:  Add in owner creation/retrieval tests?
 
     private void setUserAndPassword(String username, String password) {
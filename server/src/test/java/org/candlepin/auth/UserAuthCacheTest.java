@@ -0,0 +1,198 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.auth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.candlepin.auth.permissions.OwnerPermission;
+import org.candlepin.auth.permissions.Permission;
+import org.candlepin.model.Owner;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+
+
+/**
+ * Test suite for the UserAuthCache class
+ */
+public class UserAuthCacheTest {
+
+    private static final long TTL = 60000;
+
+    private long now;
+    private UserAuthCache cache;
+
+    @BeforeEach
+    public void init() {
+        this.now = 1000000;
+        this.cache = this.createCache(TTL, 3);
+    }
+
+    private UserAuthCache createCache(long ttl, int maxEntries) {
+        return new UserAuthCache(ttl, maxEntries) {
+            @Override
+            protected long currentTimeMillis() {
+                return now;
+            }
+        };
+    }
+
+    private void cache(String username, String password) {
+        this.cache.putPrincipal(this.cache.getGeneration(), username, password, false, null);
+    }
+
+    private boolean isCached(String username, String password) {
+        return this.cache.getPrincipal(username, password) != null;
+    }
+
+    @Test
+    public void testCachedWithMatchingPassword() {
+        this.cache("user", "password");
+
+        assertTrue(this.isCached("user", "password"));
+    }
+
+    @Test
+    public void testNotCachedWithWrongPassword() {
+        this.cache("user", "password");
+
+        assertFalse(this.isCached("user", "passwort"));
+        assertFalse(this.isCached("user", ""));
+        assertFalse(this.isCached("user", null));
+        assertFalse(this.isCached("other", "password"));
+    }
+
+    @Test
+    public void testCachedWithNullPassword() {
+        this.cache("user", null);
+
+        assertTrue(this.isCached("user", null));
+        assertFalse(this.isCached("user", ""));
+    }
+
+    @Test
+    public void testEntriesExpire() {
+        this.cache("user", "password");
+
+        this.now += TTL - 1;
+        assertTrue(this.isCached("user", "password"));
+
+        this.now += 1;
+        assertFalse(this.isCached("user", "password"));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntriesDiscarded() {
+        this.cache("user1", "password");
+        this.cache("user2", "password");
+        this.cache("user3", "password");
+
+        // Touch the first entry so the second becomes the eldest
+        this.cache.getPrincipal("user1", "password");
+        this.cache("user4", "password");
+
+        assertTrue(this.isCached("user1", "password"));
+        assertFalse(this.isCached("user2", "password"));
+        assertTrue(this.isCached("user3", "password"));
+        assertTrue(this.isCached("user4", "password"));
+    }
+
+    @Test
+    public void testInvalidate() {
+        this.cache("user1", "password");
+        this.cache("user2", "password");
+
+        this.cache.invalidate("user1");
+
+        assertFalse(this.isCached("user1", "password"));
+        assertTrue(this.isCached("user2", "password"));
+    }
+
+    @Test
+    public void testCredentialsNotCachedAfterConcurrentInvalidation() {
+        long generation = this.cache.getGeneration();
+        this.cache.invalidate("other");
+
+        this.cache.putPrincipal(generation, "user", "password", false, null);
+
+        assertFalse(this.isCached("user", "password"));
+    }
+
+    @Test
+    public void testDisabledCache() {
+        this.cache = this.createCache(0, 3);
+        assertFalse(this.cache.isEnabled());
+
+        this.cache("user", "password");
+        assertFalse(this.isCached("user", "password"));
+    }
+
+    @Test
+    public void testPrincipalCreatedFromCachedPermissions() {
+        Permission permission = new OwnerPermission(new Owner("owner", "owner"), Access.ALL);
+        List<Permission> permissions = new ArrayList<>();
+        permissions.add(permission);
+
+        this.cache.putPrincipal(this.cache.getGeneration(), "user", "password", false, permissions);
+
+        // Later changes to the provided collection must not affect the cached permissions
+        permissions.clear();
+
+        UserPrincipal principal = this.cache.getPrincipal("user", "password");
+        assertNotNull(principal);
+        assertEquals("user", principal.getUsername());
+        assertFalse(principal.hasFullAccess());
+        assertTrue(principal.getPermissions().contains(permission));
+    }
+
+    @Test
+    public void testEachLookupCreatesNewPrincipal() {
+        this.cache.putPrincipal(this.cache.getGeneration(), "user", "password", false,
+            Collections.singletonList(new OwnerPermission(new Owner("owner", "owner"), Access.ALL)));
+
+        UserPrincipal principal = this.cache.getPrincipal("user", "password");
+        assertNotSame(principal, this.cache.getPrincipal("user", "password"));
+        assertEquals(principal.getPermissions().size(),
+            this.cache.getPrincipal("user", "password").getPermissions().size());
+    }
+
+    @Test
+    public void testSuperAdminPrincipal() {
+        this.cache.putPrincipal(this.cache.getGeneration(), "admin", "password", true, null);
+
+        assertTrue(this.cache.getPrincipal("admin", "password").hasFullAccess());
+    }
+
+    @Test
+    public void testInvalidateAll() {
+        this.cache("user1", "password");
+        this.cache("user2", "password");
+
+        this.cache.invalidateAll();
+
+        assertNull(this.cache.getPrincipal("user1", "password"));
+        assertNull(this.cache.getPrincipal("user2", "password"));
+    }
+}
@@ -42,6 +42,9 @@ public class CandlepinCommonTestConfig extends MapConfiguration {
             setProperty(ConfigProperties.SYNC_WORK_DIR, "/tmp");
             setProperty(ConfigProperties.ACTIVEMQ_LARGE_MSG_SIZE, "0");
 
+            // Don't burn CPU generating key pairs in the background during tests
+            setProperty(ConfigProperties.KEYPAIR_POOL_SIZE, "0");
+
             setProperty(DatabaseConfigFactory.IN_OPERATOR_BLOCK_SIZE, "10");
             setProperty(DatabaseConfigFactory.CASE_OPERATOR_BLOCK_SIZE, "10");
             setProperty(DatabaseConfigFactory.BATCH_BLOCK_SIZE, "10");
@@ -18,6 +18,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import static org.mockito.Mockito.*;
 
+import org.candlepin.async.JobManager;
 import org.candlepin.audit.EventSink;
 import org.candlepin.common.config.Configuration;
 import org.candlepin.config.CandlepinCommonTestConfig;
@@ -74,8 +75,10 @@ import org.mockito.quality.Strictness;
 
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.math.BigInteger;
 import java.security.KeyPair;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -103,6 +106,7 @@ public class ContentAccessManagerTest {
     @Mock private EnvironmentCurator mockEnvironmentCurator;
     @Mock private EntitlementCurator mockEntitlementCurator;
     @Mock private OwnerProductCurator mockOwnerProductCurator;
+    @Mock private JobManager mockJobManager;
     private PKIUtility pkiUtility;
     private ObjectMapper objMapper;
     private X509V3ExtensionUtil x509V3ExtensionUtil;
@@ -164,7 +168,7 @@ public class ContentAccessManagerTest {
             this.mockKeyPairCurator, this.mockCertSerialCurator, this.mockOwnerCurator,
             this.mockOwnerEnvContentAccessCurator, this.mockConsumerCurator,
             this.mockConsumerTypeCurator, this.mockEnvironmentCurator, this.mockContentAccessCertCurator,
-            this.mockOwnerProductCurator, this.mockEventSink);
+            this.mockOwnerProductCurator, this.mockEventSink, this.mockJobManager);
     }
 
     private Owner mockOwner() {
@@ -654,4 +658,42 @@ public class ContentAccessManagerTest {
         verify(this.x509V3ExtensionUtil, times(1)).mapProduct(any(Product.class), any(Product.class),
             eq(expectedPrefix), any(Map.class), any(Consumer.class), any(Pool.class), any(Set.class));
     }
+
+    @Test
+    public void testGetCertificateSerialUsesStoredSerial() throws Exception {
+        Owner owner = this.mockOwner();
+        Consumer consumer = this.mockConsumer(owner);
+
+        CertificateSerial serial = new CertificateSerial(Util.tomorrow());
+        serial.setId(1234L);
+        doReturn(serial).when(this.mockContentAccessCertCurator).getSerialForConsumer(eq(consumer));
+
+        ContentAccessManager manager = this.createManager();
+        assertSame(serial, manager.getCertificateSerial(consumer));
+
+        // Neither the certificate nor the payload should be built just to report the serial
+        verify(this.pkiUtility, never()).createX509Certificate(anyString(), anySet(), anySet(),
+            any(Date.class), any(Date.class), any(KeyPair.class), any(BigInteger.class),
+            nullable(String.class));
+        verifyZeroInteractions(this.mockOwnerEnvContentAccessCurator);
+    }
+
+    @Test
+    public void testGetCertificateSerialGeneratesCertificateWhenExpired() throws Exception {
+        Owner owner = this.mockOwner();
+        Consumer consumer = this.mockConsumer(owner);
+
+        CertificateSerial serial = new CertificateSerial(Util.yesterday());
+        serial.setId(1234L);
+        doReturn(serial).when(this.mockContentAccessCertCurator).getSerialForConsumer(eq(consumer));
+
+        ContentAccessManager manager = this.createManager();
+        CertificateSerial result = manager.getCertificateSerial(consumer);
+
+        assertNotNull(result);
+        assertNotEquals(serial.getId(), result.getId());
+        assertNotNull(consumer.getContentAccessCert());
+        assertSame(result, consumer.getContentAccessCert().getSerial());
+        verifyZeroInteractions(this.mockOwnerEnvContentAccessCurator);
+    }
 }
@@ -57,13 +57,15 @@ public class ContentManagerTest extends DatabaseTestFixture {
     public void setup() throws Exception {
         this.mockEntCertGenerator = mock(EntitlementCertificateGenerator.class);
 
+        SharedEntityIndex sharedEntityIndex = new SharedEntityIndex(1000);
+
         this.productManager = new ProductManager(
             this.mockEntCertGenerator, this.ownerContentCurator, this.ownerProductCurator,
-            this.productCurator);
+            this.productCurator, sharedEntityIndex);
 
         this.contentManager = new ContentManager(
             this.contentCurator, this.mockEntCertGenerator, this.ownerContentCurator,
-            this.productCurator, this.productManager, this.modelTranslator);
+            this.productCurator, this.productManager, this.modelTranslator, sharedEntityIndex);
     }
 
     @Test
@@ -19,8 +19,10 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyCollection;
 import static org.mockito.Mockito.anyMap;
 import static org.mockito.Mockito.anySet;
+import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
@@ -70,6 +72,7 @@ import org.xnap.commons.i18n.I18nFactory;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -464,35 +467,103 @@ public class EntitlerTest {
 
     @Test
     public void testUnmappedGuestRevocation() {
-        Pool pool1 = createValidPool("1");
-        Pool pool2 = createExpiredPool("2");
-        CandlepinQuery cqmock = mock(CandlepinQuery.class);
-        when(cqmock.iterator()).thenReturn(entsOf(pool1, pool2).iterator());
-        when(entitlementCurator.findByPoolAttribute(eq("unmapped_guests_only"), eq("true")))
-            .thenReturn(cqmock);
+        Pool pool = createExpiredPool("2");
+        Entitlement entitlement = entOf(pool);
+
+        when(entitlementCurator.getOwnerIdsWithExpiredUnmappedGuestEntitlements(any(Date.class)))
+            .thenReturn(Collections.singletonList("2-id"));
+        when(entitlementCurator.getExpiredUnmappedGuestEntitlementIds(eq("2-id"), any(Date.class),
+            nullable(String.class), eq(1000))).thenReturn(Collections.singletonList(entitlement.getId()));
+        mockListAllByIds(entitlement);
+        when(config.getInt(ConfigProperties.ENTITLER_BULK_SIZE)).thenReturn(1000);
+
+        int total = entitler.revokeUnmappedGuestEntitlements();
+
+        assertEquals(1, total);
+        verify(entitlementCurator).markDependentEntitlementsDirty(
+            eq(Collections.singletonList(entitlement.getId())));
+        verify(pm).revokeEntitlements(eq(Collections.singletonList(entitlement)), nullable(Set.class),
+            eq(false));
+        verify(pm).recalculateConsumerStatuses(
+            eq(Collections.singleton(entitlement.getConsumer().getId())), eq(true));
+        verify(pm, never()).recalculateConsumerStatuses(anyCollection());
+        verify(pm).recalculateFlaggedConsumerStatuses(eq("2-id"));
+    }
+
+    @Test
+    public void unmappedGuestRevocationShouldDeferStatusesAboveThreshold() {
+        Pool pool = createExpiredPool("2");
+        Entitlement entitlement = entOf(pool);
+
+        when(entitlementCurator.getOwnerIdsWithExpiredUnmappedGuestEntitlements(any(Date.class)))
+            .thenReturn(Collections.singletonList("2-id"));
+        when(entitlementCurator.getExpiredUnmappedGuestEntitlementIds(eq("2-id"), any(Date.class),
+            nullable(String.class), eq(1000))).thenReturn(Collections.singletonList(entitlement.getId()));
+        mockListAllByIds(entitlement);
         when(config.getInt(ConfigProperties.ENTITLER_BULK_SIZE)).thenReturn(1000);
+        when(pm.deferStatusRecalculation(1)).thenReturn(true);
 
         int total = entitler.revokeUnmappedGuestEntitlements();
 
         assertEquals(1, total);
-        verify(pm).revokeEntitlements(Collections.singletonList(entOf(pool2)));
+        verify(pm).recalculateConsumerStatuses(
+            eq(Collections.singleton(entitlement.getConsumer().getId())), eq(true));
+        verify(pm, never()).recalculateFlaggedConsumerStatuses(anyString());
     }
 
     @Test
     public void unmappedGuestRevocationShouldBePartitioned() {
         Pool pool1 = createExpiredPool("1");
         Pool pool2 = createExpiredPool("2");
-        CandlepinQuery cqmock = mock(CandlepinQuery.class);
-        when(cqmock.iterator()).thenReturn(entsOf(pool1, pool2).iterator());
-        when(entitlementCurator.findByPoolAttribute(eq("unmapped_guests_only"), eq("true")))
-            .thenReturn(cqmock);
+        Entitlement ent1 = entOf(pool1);
+        Entitlement ent2 = entOf(pool2);
+
+        // Both entitlements belong to the same owner for the purposes of this test
+        when(entitlementCurator.getOwnerIdsWithExpiredUnmappedGuestEntitlements(any(Date.class)))
+            .thenReturn(Collections.singletonList("owner-id"));
+        when(entitlementCurator.getExpiredUnmappedGuestEntitlementIds(eq("owner-id"), any(Date.class),
+            nullable(String.class), eq(1))).thenAnswer(iom -> {
+                String checkpoint = iom.getArgument(2);
+
+                if (checkpoint == null) {
+                    return Collections.singletonList(ent1.getId());
+                }
+
+                return ent1.getId().equals(checkpoint) ? Collections.singletonList(ent2.getId()) :
+                    Collections.emptyList();
+            });
+        mockListAllByIds(ent1, ent2);
         when(config.getInt(ConfigProperties.ENTITLER_BULK_SIZE)).thenReturn(1);
 
         int total = entitler.revokeUnmappedGuestEntitlements();
 
         assertEquals(2, total);
-        verify(pm).revokeEntitlements(Collections.singletonList(entOf(pool1)));
-        verify(pm).revokeEntitlements(Collections.singletonList(entOf(pool2)));
+        verify(pm).revokeEntitlements(eq(Collections.singletonList(ent1)), nullable(Set.class), eq(false));
+        verify(pm).revokeEntitlements(eq(Collections.singletonList(ent2)), nullable(Set.class), eq(false));
+
+        // Each block flags its own consumers for the status recalculation job
+        verify(pm).recalculateConsumerStatuses(eq(Collections.singleton(ent1.getConsumer().getId())),
+            eq(true));
+        verify(pm).recalculateConsumerStatuses(eq(Collections.singleton(ent2.getConsumer().getId())),
+            eq(true));
+        verify(pm, never()).recalculateConsumerStatuses(anyCollection());
+
+        // The consumers of both blocks are counted once against the deferral threshold
+        verify(pm).deferStatusRecalculation(2);
+        verify(pm).recalculateFlaggedConsumerStatuses(eq("owner-id"));
+    }
+
+    private void mockListAllByIds(Entitlement... entitlements) {
+        when(entitlementCurator.listAllByIds(anyCollection())).thenAnswer(iom -> {
+            Collection<String> ids = iom.getArgument(0);
+            List<Entitlement> output = Arrays.stream(entitlements)
+                .filter(ent -> ids.contains(ent.getId()))
+                .collect(Collectors.toList());
+
+            CandlepinQuery cqmock = mock(CandlepinQuery.class);
+            when(cqmock.list()).thenReturn(output);
+            return cqmock;
+        });
     }
 
     @Test
@@ -668,6 +739,7 @@ public class EntitlerTest {
 
         Consumer c;
         c = TestUtil.createConsumer(owner);
+        c.setId(id + "-consumer-id");
         c.setCreated(twelveHoursAgo);
 
         Entitlement entitlement = TestUtil.createEntitlement(owner, c, pool, null);
@@ -116,6 +116,7 @@ import org.candlepin.service.SubscriptionServiceAdapter;
 import org.candlepin.service.model.SubscriptionInfo;
 import org.candlepin.test.MockResultIterator;
 import org.candlepin.test.TestUtil;
+import org.candlepin.util.Util;
 
 import org.hamcrest.core.IsCollectionContaining;
 import org.junit.jupiter.api.BeforeEach;
@@ -1128,6 +1129,85 @@ public class PoolManagerTest {
         verify(mockPoolCurator).batchDelete(eq(poolsWithSourceAsSet), any());
     }
 
+    @Test
+    public void testBatchRevokeDefersStatusRecalculationAboveThreshold() throws Exception {
+        Consumer c1 = TestUtil.createConsumer(owner);
+        c1.setId("consumer-1");
+        Consumer c2 = TestUtil.createConsumer(owner);
+        c2.setId("consumer-2");
+
+        Entitlement e1 = new Entitlement(pool, c1, owner, 1);
+        Entitlement e2 = new Entitlement(pool, c2, owner, 1);
+        List<Entitlement> entsToDelete = Arrays.asList(e1, e2);
+
+        Map<Consumer, List<Entitlement>> consumerEnts = new HashMap<>();
+        consumerEnts.put(c1, Collections.singletonList(e1));
+        consumerEnts.put(c2, Collections.singletonList(e2));
+        when(entitlementCurator.getDistinctConsumers(entsToDelete)).thenReturn(consumerEnts);
+
+        when(mockConfig.getInt(ConfigProperties.CONSUMER_STATUS_DEFER_THRESHOLD, 0)).thenReturn(1);
+        when(mockPoolCurator.lockAndLoad(eq(pool))).thenReturn(pool);
+
+        manager.revokeEntitlements(entsToDelete);
+
+        verify(consumerCuratorMock).markComplianceDirty(eq(Util.asSet(c1.getId(), c2.getId())));
+        verify(complianceRules, never()).getStatus(any(Consumer.class));
+    }
+
+    @Test
+    public void testBatchRevokeRecalculatesStatusAtThreshold() throws Exception {
+        Consumer c1 = TestUtil.createConsumer(owner);
+        c1.setId("consumer-1");
+
+        Entitlement e1 = new Entitlement(pool, c1, owner, 1);
+        List<Entitlement> entsToDelete = Arrays.asList(e1);
+
+        Map<Consumer, List<Entitlement>> consumerEnts = new HashMap<>();
+        consumerEnts.put(c1, Collections.singletonList(e1));
+        when(entitlementCurator.getDistinctConsumers(entsToDelete)).thenReturn(consumerEnts);
+
+        when(mockConfig.getInt(ConfigProperties.CONSUMER_STATUS_DEFER_THRESHOLD, 0)).thenReturn(1);
+        when(mockPoolCurator.lockAndLoad(eq(pool))).thenReturn(pool);
+
+        manager.revokeEntitlements(entsToDelete);
+
+        verify(consumerCuratorMock, never()).markComplianceDirty(any());
+        verify(complianceRules).getStatus(eq(c1));
+    }
+
+    @Test
+    public void testDeferredStatusRecalculationFlagsConsumers() {
+        manager.recalculateConsumerStatuses(Arrays.asList("consumer-1", "consumer-2"), true);
+
+        verify(consumerCuratorMock).markComplianceDirty(eq(Arrays.asList("consumer-1", "consumer-2")));
+        verify(consumerCuratorMock, never()).getConsumers(anyCollection());
+    }
+
+    @Test
+    public void testRecalculateFlaggedConsumerStatusesProcessesAllBlocks() {
+        List<String> firstBlock = new ArrayList<>();
+        for (int i = 0; i < 1000; ++i) {
+            firstBlock.add(String.format("consumer-%04d", i));
+        }
+
+        List<String> secondBlock = Arrays.asList("consumer-1000", "consumer-1001");
+
+        when(consumerCuratorMock.getComplianceDirtyConsumerIds("owner_id", null, 1000))
+            .thenReturn(firstBlock);
+        when(consumerCuratorMock.getComplianceDirtyConsumerIds("owner_id", "consumer-0999", 1000))
+            .thenReturn(secondBlock);
+
+        Consumer consumer = TestUtil.createConsumer(owner);
+        when(consumerCuratorMock.getConsumers(eq(secondBlock))).thenReturn(Arrays.asList(consumer));
+
+        int count = manager.recalculateFlaggedConsumerStatuses("owner_id");
+
+        assertEquals(1002, count);
+        verify(consumerCuratorMock).clearComplianceDirty(eq(firstBlock));
+        verify(consumerCuratorMock).clearComplianceDirty(eq(secondBlock));
+        verify(complianceRules).getStatus(eq(consumer));
+    }
+
     @SuppressWarnings({ "unchecked", "rawtypes" })
     @Test
     public void testEntitleWithADate() throws Exception {
@@ -1352,8 +1432,10 @@ public class PoolManagerTest {
         List<Pool> pools = new LinkedList<>();
         pools.add(p);
 
-        when(mockPoolCurator.lockAndLoad(any(Pool.class))).thenReturn(p);
-        when(mockPoolCurator.listExpiredPools(anyInt())).thenReturn(pools);
+        when(mockPoolCurator.lockAndLoad(anyCollection())).thenReturn(pools);
+        when(mockPoolCurator.getExpiredPoolIds(anyInt())).thenReturn(Arrays.asList(p.getId()));
+        when(mockPoolCurator.getPoolIdsWithDependents(anyCollection()))
+            .thenReturn(Util.asSet(p.getId()));
         when(mockPoolCurator.entitlementsIn(p)).thenReturn(new ArrayList<>(p.getEntitlements()));
         Subscription sub = new Subscription();
         sub.setId(p.getSubscriptionId());
@@ -1363,10 +1445,11 @@ public class PoolManagerTest {
         ValidationResult result = new ValidationResult();
         when(preHelper.getResult()).thenReturn(result);
 
-        manager.cleanupExpiredPools();
+        assertEquals(1, manager.cleanupExpiredPools());
 
-        // And the pool should be deleted:
-        when(mockPoolCurator.lockAndLoad(anyCollection())).thenReturn(pools);
+        // Pools with entitlements should go through the full deletion path
+        verify(mockPoolCurator).batchDelete(eq(pools), anySetOf(String.class));
+        verify(mockPoolCurator, never()).bulkDeleteByIds(anyCollection());
     }
 
     @Test
@@ -1376,7 +1459,9 @@ public class PoolManagerTest {
         List<Pool> pools = Arrays.asList(p);
 
         when(mockPoolCurator.lockAndLoad(anyCollection())).thenReturn(pools);
-        when(mockPoolCurator.listExpiredPools(anyInt())).thenReturn(pools);
+        when(mockPoolCurator.getExpiredPoolIds(anyInt())).thenReturn(Arrays.asList(p.getId()));
+        when(mockPoolCurator.getPoolIdsWithDependents(anyCollection()))
+            .thenReturn(Util.asSet(p.getId()));
         when(mockPoolCurator.entitlementsIn(p)).thenReturn(new ArrayList<>(p.getEntitlements()));
         Subscription sub = new Subscription();
         sub.setId(p.getSubscriptionId());
@@ -1394,6 +1479,31 @@ public class PoolManagerTest {
         // verify(mockSubAdapter, never()).deleteSubscription(any(String.class));
     }
 
+    @Test
+    public void testCleanupExpiredPoolsWithoutDependentsUsesBulkDeletion() {
+        Pool p1 = TestUtil.createPool(owner, product);
+        p1.setId("pool-1");
+        Pool p2 = TestUtil.createPool(owner, product);
+        p2.setId("pool-2");
+        List<String> poolIds = Arrays.asList(p1.getId(), p2.getId());
+
+        when(mockPoolCurator.getExpiredPoolIds(anyInt())).thenReturn(poolIds);
+        when(mockPoolCurator.getPoolIdsWithDependents(anyCollection())).thenReturn(new HashSet<>());
+        when(mockPoolCurator.getPoolEventDetails(anyCollection())).thenReturn(Arrays.asList(
+            new Object[] { p1.getId(), owner.getId(), product.getName() },
+            new Object[] { p2.getId(), owner.getId(), product.getName() }));
+        when(mockPoolCurator.bulkDeleteByIds(anyCollection())).thenReturn(2);
+
+        assertEquals(2, manager.cleanupExpiredPools());
+
+        verify(mockPoolCurator).bulkDeleteByIds(eq(poolIds));
+        verify(mockPoolCurator, never()).lockAndLoad(anyCollection());
+        verify(mockPoolCurator, never()).batchDelete(anyCollection(), anyCollection());
+        verify(eventFactory).poolDeleted(p1.getId(), owner.getId(), product.getName());
+        verify(eventFactory).poolDeleted(p2.getId(), owner.getId(), product.getName());
+        verify(mockEventSink, times(2)).queueEvent((Event) any());
+    }
+
     private Pool createPoolWithEntitlements() {
         Pool newPool = TestUtil.createPool(owner, product);
         Entitlement e1 = new Entitlement(newPool, TestUtil.createConsumer(owner), owner, 1);
@@ -1934,7 +2044,10 @@ public class PoolManagerTest {
 
         List<Entitlement> entsDeleted = arg.getValue();
         assertThat(entsDeleted, IsCollectionContaining.hasItem(derivedEnt));
-        assertEquals(2, derivedPool.getConsumed().intValue());
+
+        // Consumed quantities are adjusted by the database and the pools refreshed afterward
+        verify(mockPoolCurator).decrementConsumedForEntitlements(eq(Util.asSet("1")));
+        verify(mockPoolCurator).refresh(eq(Util.asSet(derivedPool)));
     }
 
     @Test
@@ -2012,9 +2125,12 @@ public class PoolManagerTest {
         List<Entitlement> entsDeleted = arg.getValue();
         assertThat(entsDeleted, IsCollectionContaining.hasItems(derivedEnt, derivedEnt2, derivedEnt3));
 
-        assertEquals(1, derivedPool.getConsumed().intValue());
-        assertEquals(1, derivedPool2.getConsumed().intValue());
-        assertEquals(2, derivedPool3.getConsumed().intValue());
+        // Consumed quantities are adjusted by the database and the pools refreshed afterward
+        verify(mockPoolCurator).decrementConsumedForEntitlements(eq(Util.asSet("1", "2", "3")));
+        verify(mockPoolCurator).refresh(eq(Util.asSet(derivedPool, derivedPool2)));
+
+        // The consumer shared by all three entitlements is written out once
+        verify(consumerCuratorMock).updateAll(eq(Util.asSet(consumer)), eq(true), eq(false));
     }
 
     @Test
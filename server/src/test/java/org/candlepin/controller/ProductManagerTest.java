@@ -21,10 +21,14 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.Mockito.anyBoolean;
 import static org.mockito.Mockito.anyCollectionOf;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
@@ -35,6 +39,7 @@ import org.candlepin.dto.api.v1.ProductDTO;
 import org.candlepin.model.Branding;
 import org.candlepin.model.Content;
 import org.candlepin.model.Owner;
+import org.candlepin.model.OwnerProductCurator;
 import org.candlepin.model.Pool;
 import org.candlepin.model.Product;
 import org.candlepin.test.DatabaseTestFixture;
@@ -59,13 +64,15 @@ public class ProductManagerTest extends DatabaseTestFixture {
 
     private EntitlementCertificateGenerator mockEntCertGenerator;
     private ProductManager productManager;
+    private SharedEntityIndex sharedEntityIndex;
 
     @BeforeEach
     public void setup() throws Exception {
         this.mockEntCertGenerator = mock(EntitlementCertificateGenerator.class);
+        this.sharedEntityIndex = new SharedEntityIndex(1000);
 
         this.productManager = new ProductManager(this.mockEntCertGenerator, this.ownerContentCurator,
-            this.ownerProductCurator, this.productCurator);
+            this.ownerProductCurator, this.productCurator, this.sharedEntityIndex);
     }
 
     @Test
@@ -553,6 +560,81 @@ public class ProductManagerTest extends DatabaseTestFixture {
         assertEquals(1, this.ownerProductCurator.getProductById(owner, "p1").getBranding().size());
     }
 
+    @Test
+    public void testImportProductsReusesIndexedProductForAnotherOwner() {
+        Owner owner1 = this.createOwner("test-owner-1", "Test Owner 1");
+        Owner owner2 = this.createOwner("test-owner-2", "Test Owner 2");
+
+        Map<String, Product> productData = new HashMap<>();
+        productData.put("p1", TestUtil.createProduct("p1", "prod1"));
+
+        Product imported = this.productManager.importProducts(owner1, productData, new HashMap<>())
+            .getCreatedEntities()
+            .get("p1");
+
+        assertNotNull(imported);
+        assertEquals(1, this.sharedEntityIndex.size());
+
+        // Import again through a curator which records its calls, to ensure the shared version is
+        // resolved by the index rather than by a version lookup
+        OwnerProductCurator ownerProductCurator = mock(OwnerProductCurator.class,
+            delegatesTo(this.ownerProductCurator));
+        ProductManager productManager = new ProductManager(this.mockEntCertGenerator,
+            this.ownerContentCurator, ownerProductCurator, this.productCurator, this.sharedEntityIndex);
+
+        Product shared = productManager.importProducts(owner2, productData, new HashMap<>())
+            .getCreatedEntities()
+            .get("p1");
+
+        verify(ownerProductCurator, never()).getProductsByVersions(any(Owner.class), anyMap());
+        assertEquals(imported.getUuid(), shared.getUuid());
+        assertEquals(imported.getUuid(), this.ownerProductCurator.getProductById(owner2, "p1").getUuid());
+    }
+
+    @Test
+    public void testImportProductsIgnoresIndexedProductWithDifferentState() {
+        Owner owner1 = this.createOwner("test-owner-1", "Test Owner 1");
+        Owner owner2 = this.createOwner("test-owner-2", "Test Owner 2");
+        Product existing = this.createProduct("p1", "existing product", owner1);
+        Product product = TestUtil.createProduct("p1", "prod1");
+
+        // Point the index at a product which does not match the imported state
+        this.sharedEntityIndex.put(Product.class, "p1", product.getEntityVersion(), existing.getUuid());
+
+        Map<String, Product> productData = new HashMap<>();
+        productData.put("p1", product);
+
+        Product imported = this.productManager.importProducts(owner2, productData, new HashMap<>())
+            .getCreatedEntities()
+            .get("p1");
+
+        assertNotNull(imported);
+        assertNotEquals(existing.getUuid(), imported.getUuid());
+        assertEquals("prod1", imported.getName());
+        assertEquals(imported.getUuid(),
+            this.sharedEntityIndex.getUuid(Product.class, "p1", product.getEntityVersion()));
+    }
+
+    @Test
+    public void testImportProductsIgnoresStaleIndexEntries() {
+        Owner owner = this.createOwner("test-owner", "Test Owner");
+        Product product = TestUtil.createProduct("p1", "prod1");
+
+        this.sharedEntityIndex.put(Product.class, "p1", product.getEntityVersion(), "missing-uuid");
+
+        Map<String, Product> productData = new HashMap<>();
+        productData.put("p1", product);
+
+        Product imported = this.productManager.importProducts(owner, productData, new HashMap<>())
+            .getCreatedEntities()
+            .get("p1");
+
+        assertNotNull(imported);
+        assertNotEquals("missing-uuid", imported.getUuid());
+        assertEquals(imported.getUuid(),
+            this.sharedEntityIndex.getUuid(Product.class, "p1", product.getEntityVersion()));
+    }
+
     @Test
     public void testImportProductsUpdatesProductWhenAddingBranding() {
         Owner owner = this.createOwner("test-owner", "Test Owner");
@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.candlepin.model.Content;
+import org.candlepin.model.Product;
+
+import org.junit.jupiter.api.Test;
+
+
+
+/**
+ * Test suite for the SharedEntityIndex class
+ */
+public class SharedEntityIndexTest {
+
+    @Test
+    public void testGetUuid() {
+        SharedEntityIndex index = new SharedEntityIndex(10);
+        index.put(Product.class, "p1", 1L, "uuid-1");
+
+        assertEquals("uuid-1", index.getUuid(Product.class, "p1", 1L));
+        assertNull(index.getUuid(Product.class, "p1", 2L));
+        assertNull(index.getUuid(Product.class, "p2", 1L));
+        assertNull(index.getUuid(Content.class, "p1", 1L));
+    }
+
+    @Test
+    public void testPutReplacesExistingEntry() {
+        SharedEntityIndex index = new SharedEntityIndex(10);
+        index.put(Content.class, "c1", 1L, "uuid-1");
+        index.put(Content.class, "c1", 1L, "uuid-2");
+
+        assertEquals("uuid-2", index.getUuid(Content.class, "c1", 1L));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testEvict() {
+        SharedEntityIndex index = new SharedEntityIndex(10);
+        index.put(Product.class, "p1", 1L, "uuid-1");
+        index.put(Product.class, "p2", 1L, "uuid-2");
+
+        index.evict(Product.class, "p1", 1L);
+
+        assertNull(index.getUuid(Product.class, "p1", 1L));
+        assertEquals("uuid-2", index.getUuid(Product.class, "p2", 1L));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntriesDiscarded() {
+        SharedEntityIndex index = new SharedEntityIndex(2);
+        index.put(Product.class, "p1", 1L, "uuid-1");
+        index.put(Product.class, "p2", 1L, "uuid-2");
+
+        // Touch the first entry so the second becomes the eldest
+        index.getUuid(Product.class, "p1", 1L);
+        index.put(Product.class, "p3", 1L, "uuid-3");
+
+        assertEquals("uuid-1", index.getUuid(Product.class, "p1", 1L));
+        assertNull(index.getUuid(Product.class, "p2", 1L));
+        assertEquals("uuid-3", index.getUuid(Product.class, "p3", 1L));
+    }
+
+    @Test
+    public void testClear() {
+        SharedEntityIndex index = new SharedEntityIndex(10);
+        index.put(Product.class, "p1", 1L, "uuid-1");
+        index.put(Content.class, "c1", 1L, "uuid-2");
+
+        index.clear();
+
+        assertEquals(0, index.size());
+        assertNull(index.getUuid(Product.class, "p1", 1L));
+    }
+
+    @Test
+    public void testDisabledIndex() {
+        SharedEntityIndex index = new SharedEntityIndex(0);
+        assertFalse(index.isEnabled());
+
+        index.put(Product.class, "p1", 1L, "uuid-1");
+        assertNull(index.getUuid(Product.class, "p1", 1L));
+    }
+}
@@ -16,6 +16,7 @@ package org.candlepin.dto;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 
@@ -23,6 +24,9 @@ import org.candlepin.model.ModelEntity;
 
 import org.junit.Test;
 
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
 
 /**
  * Test suite for the ProductData class
@@ -320,4 +324,83 @@ public class SimpleModelTranslatorTest {
         assertSame(entity, dto.getSourceObject());
     }
 
+    @Test
+    public void testResolvedTranslatorUpdatedOnRegistration() {
+        ModelTranslator modelTranslator = new SimpleModelTranslator();
+        ObjectTranslator translator1 = new TestTranslator();
+        ObjectTranslator translator2 = new TestTranslator();
+
+        modelTranslator.registerTranslator(translator1, ModelEntity.class, TestDTO.class);
+
+        ModelEntity entity = new TestModelEntity() {};
+        assertSame(translator1, modelTranslator.translate(entity, TestDTO.class).getObjectTranslator());
+
+        modelTranslator.registerTranslator(translator2, TestModelEntity.class, TestDTO.class);
+        assertSame(translator2, modelTranslator.translate(entity, TestDTO.class).getObjectTranslator());
+
+        modelTranslator.unregisterTranslator(translator2);
+        assertSame(translator1, modelTranslator.translate(entity, TestDTO.class).getObjectTranslator());
+    }
+
+    @Test
+    public void testMemoizedTranslationReusesOutputForUnchangedSource() {
+        SimpleModelTranslator modelTranslator = new SimpleModelTranslator();
+        TranslationCache cache = new TranslationCache();
+        AtomicInteger version = new AtomicInteger(1);
+
+        modelTranslator.setTranslationCacheProvider(() -> cache);
+        ObjectTranslator translator = new TestTranslator();
+        modelTranslator.registerTranslator(translator, ModelEntity.class, TestDTO.class);
+        modelTranslator.registerMemoization(ModelEntity.class, TestDTO.class, (src) -> version.get());
+
+        ModelEntity entity = new TestModelEntity() {};
+        ModelEntity other = new TestModelEntity() {};
+
+        TestDTO dto1 = modelTranslator.translate(entity, TestDTO.class);
+        TestDTO dto2 = modelTranslator.translate(entity, TestDTO.class);
+        TestDTO dto3 = modelTranslator.getStreamMapper(ModelEntity.class, TestDTO.class).apply(entity);
+        TestDTO otherDto = modelTranslator.translate(other, TestDTO.class);
+
+        assertSame(dto1, dto2);
+        assertSame(dto1, dto3);
+        assertNotSame(dto1, otherDto);
+        assertSame(other, otherDto.getSourceObject());
+
+        // Changing the version of the source should result in a new translation
+        version.incrementAndGet();
+        TestDTO dto4 = modelTranslator.translate(entity, TestDTO.class);
+
+        assertNotSame(dto1, dto4);
+        assertSame(dto4, modelTranslator.translate(entity, TestDTO.class));
+        assertEquals(3, cache.getHits());
+    }
+
+    @Test
+    public void testTranslationsNotMemoizedWithoutCache() {
+        SimpleModelTranslator modelTranslator = new SimpleModelTranslator();
+        ObjectTranslator translator = new TestTranslator();
+        modelTranslator.registerTranslator(translator, ModelEntity.class, TestDTO.class);
+        modelTranslator.registerMemoization(ModelEntity.class, TestDTO.class, Function.identity());
+
+        ModelEntity entity = new TestModelEntity() {};
+
+        assertNotSame(modelTranslator.translate(entity, TestDTO.class),
+            modelTranslator.translate(entity, TestDTO.class));
+    }
+
+    @Test
+    public void testTranslationsNotMemoizedWithoutRegistration() {
+        SimpleModelTranslator modelTranslator = new SimpleModelTranslator();
+        TranslationCache cache = new TranslationCache();
+
+        modelTranslator.setTranslationCacheProvider(() -> cache);
+        ObjectTranslator translator = new TestTranslator();
+        modelTranslator.registerTranslator(translator, ModelEntity.class, TestDTO.class);
+
+        ModelEntity entity = new TestModelEntity() {};
+
+        assertNotSame(modelTranslator.translate(entity, TestDTO.class),
+            modelTranslator.translate(entity, TestDTO.class));
+        assertEquals(0, cache.getMisses());
+    }
 }
@@ -17,6 +17,7 @@ package org.candlepin.dto.api.v1;
 import org.candlepin.dto.AbstractDTOTest;
 import org.candlepin.model.SystemPurposeAttributeType;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -56,8 +57,17 @@ public class SystemPurposeAttributesDTOTest extends AbstractDTOTest<SystemPurpos
         attributes.put(SystemPurposeAttributeType.ADDONS.toString(), attrSet);
         attributes.put(SystemPurposeAttributeType.ROLES.toString(), attrSet2);
 
+        Map<String, Map<String, Long>> counts = new HashMap<>();
+        Map<String, Long> addonCounts = new HashMap<>();
+        addonCounts.put("EUS", 3L);
+        addonCounts.put("Awesome Mode", 1L);
+
+        counts.put(SystemPurposeAttributeType.ADDONS.toString(), addonCounts);
+        counts.put(SystemPurposeAttributeType.ROLES.toString(), Collections.singletonMap("Server", 4L));
+
         this.values.put("Owner", owner);
         this.values.put("SystemPurposeAttributes", attributes);
+        this.values.put("SystemPurposeAttributeCounts", counts);
     }
 
     @Override
@@ -16,6 +16,7 @@ package org.candlepin.dto.rules.v1;
 
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -26,9 +27,12 @@ import org.candlepin.model.Pool;
 import org.candlepin.model.Product;
 import org.candlepin.model.ProvidedProduct;
 
+import org.junit.Test;
+
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -131,6 +135,49 @@ public class PoolTranslatorTest extends AbstractTranslatorTest<Pool, PoolDTO, Po
         }
     }
 
+    @Test
+    public void testSourceVersionChangesWithTranslatedFields() {
+        Pool source = this.initSourceObject();
+        List<Object> version = PoolTranslator.getSourceVersion(source);
+
+        assertEquals(version, PoolTranslator.getSourceVersion(source));
+
+        source.setConsumed(source.getConsumed() + 1);
+        List<Object> consumedVersion = PoolTranslator.getSourceVersion(source);
+        assertNotEquals(version, consumedVersion);
+
+        source.setAttribute("new_attribute", "value");
+        List<Object> attributeVersion = PoolTranslator.getSourceVersion(source);
+        assertNotEquals(consumedVersion, attributeVersion);
+
+        Product provided = new Product();
+        provided.setId("provided-product-id-2");
+        provided.setName("provided-product-name-2");
+        source.addProvidedProduct(provided);
+        assertNotEquals(attributeVersion, PoolTranslator.getSourceVersion(source));
+    }
+
+    @Test
+    public void testSourceVersionDistinguishesValuesWithEqualHashCodes() {
+        // "Aa" and "BB" share a hash code, as do the attribute maps containing them
+        Pool source = this.initSourceObject();
+        source.setAttribute("Aa", "value");
+        List<Object> version = PoolTranslator.getSourceVersion(source);
+
+        source.removeAttribute("Aa");
+        source.setAttribute("BB", "value");
+        assertNotEquals(version, PoolTranslator.getSourceVersion(source));
+    }
+
+    @Test
+    public void testSourceVersionIsNotChangedByLaterModifications() {
+        Pool source = this.initSourceObject();
+        List<Object> version = PoolTranslator.getSourceVersion(source);
+
+        source.getEndDate().setTime(source.getEndDate().getTime() + 1000);
+        assertNotEquals(version, PoolTranslator.getSourceVersion(source));
+    }
+
     /**
      * Verifies that the pool's sets of products are translated properly.
      *
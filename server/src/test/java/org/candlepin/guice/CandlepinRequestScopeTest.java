@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.guice;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+import com.google.inject.Key;
+import com.google.inject.OutOfScopeException;
+import com.google.inject.Provider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+
+
+/**
+ * Test suite for the CandlepinRequestScope class
+ */
+public class CandlepinRequestScopeTest {
+
+    private CandlepinRequestScope scope;
+
+    @BeforeEach
+    public void init() {
+        this.scope = new CandlepinRequestScope();
+    }
+
+    @Test
+    public void testScopedObjectsAreReusedWithinScope() {
+        Provider<Object> provider = this.scope.scope(Key.get(Object.class), Object::new);
+
+        this.scope.enter();
+        try {
+            Object first = provider.get();
+            assertSame(first, provider.get());
+        }
+        finally {
+            this.scope.exit();
+        }
+
+        this.scope.enter();
+        try {
+            Object first = provider.get();
+            this.scope.enter();
+            try {
+                assertNotSame(first, provider.get());
+            }
+            finally {
+                this.scope.exit();
+            }
+        }
+        finally {
+            this.scope.exit();
+        }
+    }
+
+    @Test
+    public void testScopedObjectsCannotBeAccessedOutOfScope() {
+        Provider<Object> provider = this.scope.scope(Key.get(Object.class), Object::new);
+
+        assertThrows(OutOfScopeException.class, provider::get);
+    }
+
+    @Test
+    public void testExitListenersAreNotifiedOnExit() {
+        CandlepinRequestScope.ExitListener listener = mock(CandlepinRequestScope.ExitListener.class);
+        Provider<CandlepinRequestScope.ExitListener> provider = this.scope
+            .scope(Key.get(CandlepinRequestScope.ExitListener.class), () -> listener);
+
+        this.scope.enter();
+        try {
+            provider.get();
+            verifyZeroInteractions(listener);
+        }
+        finally {
+            this.scope.exit();
+        }
+
+        verify(listener).onScopeExit();
+    }
+
+    @Test
+    public void testFailingExitListenersDoNotPreventExit() {
+        CandlepinRequestScope.ExitListener listener = mock(CandlepinRequestScope.ExitListener.class);
+        doThrow(new IllegalStateException("failure")).when(listener).onScopeExit();
+
+        Provider<CandlepinRequestScope.ExitListener> provider = this.scope
+            .scope(Key.get(CandlepinRequestScope.ExitListener.class), () -> listener);
+
+        this.scope.enter();
+        provider.get();
+        this.scope.exit();
+
+        verify(listener).onScopeExit();
+        assertThrows(OutOfScopeException.class, provider::get);
+    }
+}
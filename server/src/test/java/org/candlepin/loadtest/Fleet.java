@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.loadtest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+
+/**
+ * The Fleet class records the synthetic organizations seeded for a load-test run, and the
+ * identifiers of the subscriptions, pools, consumers and hypervisors within them which the
+ * workloads operate on. A fleet is populated once, before any workload runs, and is only read
+ * afterward.
+ */
+public class Fleet {
+
+    /**
+     * A single seeded organization
+     */
+    public static class Org {
+        private final String key;
+        private final List<String> subscriptionIds;
+        private final List<String> engineeringProductIds;
+        private final List<String> poolIds;
+        private final List<String> consumerUuids;
+        private final Map<String, List<String>> hypervisorGuests;
+
+        public Org(String key) {
+            this.key = key;
+            this.subscriptionIds = new ArrayList<>();
+            this.engineeringProductIds = new ArrayList<>();
+            this.poolIds = new ArrayList<>();
+            this.consumerUuids = new ArrayList<>();
+            this.hypervisorGuests = new LinkedHashMap<>();
+        }
+
+        public String getKey() {
+            return this.key;
+        }
+
+        public List<String> getSubscriptionIds() {
+            return this.subscriptionIds;
+        }
+
+        /**
+         * Fetches the IDs of the engineering products provided by the subscriptions of this
+         * organization; consumers install products from this list so that they may be covered.
+         *
+         * @return
+         *  the IDs of the engineering products available to this organization
+         */
+        public List<String> getEngineeringProductIds() {
+            return this.engineeringProductIds;
+        }
+
+        public List<String> getPoolIds() {
+            return this.poolIds;
+        }
+
+        public List<String> getConsumerUuids() {
+            return this.consumerUuids;
+        }
+
+        /**
+         * Fetches the hypervisors of this organization, mapped to the virt UUIDs of their guests.
+         *
+         * @return
+         *  a map of hypervisor IDs to the guest IDs of each hypervisor
+         */
+        public Map<String, List<String>> getHypervisorGuests() {
+            return this.hypervisorGuests;
+        }
+    }
+
+    private final List<Org> orgs;
+    private final List<String> consumerUuids;
+    private final Map<String, Org> consumerOrgs;
+
+    public Fleet() {
+        this.orgs = new ArrayList<>();
+        this.consumerUuids = new ArrayList<>();
+        this.consumerOrgs = new LinkedHashMap<>();
+    }
+
+    public Org addOrg(String key) {
+        Org org = new Org(key);
+        this.orgs.add(org);
+
+        return org;
+    }
+
+    public void addConsumer(Org org, String uuid) {
+        org.getConsumerUuids().add(uuid);
+
+        this.consumerUuids.add(uuid);
+        this.consumerOrgs.put(uuid, org);
+    }
+
+    public List<Org> getOrgs() {
+        return this.orgs;
+    }
+
+    public List<String> getConsumerUuids() {
+        return this.consumerUuids;
+    }
+
+    public Org getConsumerOrg(String uuid) {
+        return this.consumerOrgs.get(uuid);
+    }
+}
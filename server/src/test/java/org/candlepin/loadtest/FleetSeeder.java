@@ -0,0 +1,366 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.loadtest;
+
+import org.candlepin.controller.PoolManager;
+import org.candlepin.dto.api.v1.ConsumerDTO;
+import org.candlepin.dto.api.v1.ConsumerInstalledProductDTO;
+import org.candlepin.dto.api.v1.ConsumerTypeDTO;
+import org.candlepin.dto.api.v1.GuestIdDTO;
+import org.candlepin.hostedtest.HostedTestSubscriptionServiceAdapter;
+import org.candlepin.model.ConsumerType.ConsumerTypeEnum;
+import org.candlepin.model.ConsumerTypeCurator;
+import org.candlepin.model.Owner;
+import org.candlepin.model.OwnerCurator;
+import org.candlepin.model.Pool;
+import org.candlepin.model.PoolCurator;
+import org.candlepin.model.Product;
+import org.candlepin.model.dto.ContentData;
+import org.candlepin.model.dto.ProductData;
+import org.candlepin.model.dto.Subscription;
+import org.candlepin.resource.ConsumerResource;
+import org.candlepin.resource.HypervisorResource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+
+
+/**
+ * The FleetSeeder class populates a load-test environment with a synthetic fleet. Products and
+ * content are defined once in the upstream served by the HostedTestSubscriptionServiceAdapter and
+ * shared by every organization; each organization then receives its own subscriptions, which are
+ * refreshed into pools, and its own registered consumers and hypervisors.
+ * <p></p>
+ * The shape of the fleet is drawn from a random number generator seeded from the configuration,
+ * so that two runs with the same settings seed identical fleets and their results may be compared.
+ */
+public class FleetSeeder {
+    private static Logger log = LoggerFactory.getLogger(FleetSeeder.class);
+
+    private static final String PREFIX = "loadtest";
+    static final long SUBSCRIPTION_QUANTITY = 1000000L;
+
+    private final LoadTestEnvironment environment;
+    private final LoadTestConfig config;
+    private final Random random;
+
+    private final List<ProductData> engineeringProducts;
+    private final List<ProductData> skuProducts;
+
+    public FleetSeeder(LoadTestEnvironment environment, LoadTestConfig config) {
+        if (environment == null) {
+            throw new IllegalArgumentException("environment is null");
+        }
+
+        if (config == null) {
+            throw new IllegalArgumentException("config is null");
+        }
+
+        this.environment = environment;
+        this.config = config;
+        this.random = new Random(config.getLong(LoadTestConfig.SEED));
+
+        this.engineeringProducts = new ArrayList<>();
+        this.skuProducts = new ArrayList<>();
+    }
+
+    /**
+     * Seeds the fleet described by the configuration of this seeder.
+     *
+     * @throws Exception
+     *  if any part of the fleet could not be seeded
+     *
+     * @return
+     *  the seeded fleet
+     */
+    public Fleet seed() throws Exception {
+        Fleet fleet = new Fleet();
+
+        this.environment.executeInTransaction(() -> {
+            ConsumerTypeCurator consumerTypeCurator = this.environment.getInstance(ConsumerTypeCurator.class);
+            consumerTypeCurator.getByLabel(ConsumerTypeEnum.SYSTEM.getLabel(), true);
+            consumerTypeCurator.getByLabel(ConsumerTypeEnum.HYPERVISOR.getLabel(), true);
+
+            return null;
+        });
+
+        log.info("Seeding upstream products and content...");
+        this.seedProducts();
+
+        int owners = this.config.getInt(LoadTestConfig.OWNERS);
+        for (int i = 0; i < owners; ++i) {
+            String ownerKey = String.format("%s-org-%d", PREFIX, i);
+            log.info("Seeding organization {} of {}: {}", i + 1, owners, ownerKey);
+
+            Fleet.Org org = fleet.addOrg(ownerKey);
+            Owner owner = this.environment.executeInTransaction(() -> this.environment
+                .getInstance(OwnerCurator.class)
+                .create(new Owner(ownerKey, ownerKey)));
+
+            this.seedSubscriptions(org, owner);
+            this.refreshPools(org, owner);
+            this.seedConsumers(fleet, org);
+            this.seedHypervisors(org);
+        }
+
+        return fleet;
+    }
+
+    private HostedTestSubscriptionServiceAdapter getUpstream() {
+        return this.environment.getInstance(HostedTestSubscriptionServiceAdapter.class);
+    }
+
+    private void seedProducts() {
+        HostedTestSubscriptionServiceAdapter upstream = this.getUpstream();
+
+        int products = this.config.getInt(LoadTestConfig.PRODUCTS);
+        int contentPerProduct = this.config.getInt(LoadTestConfig.CONTENT_PER_PRODUCT);
+
+        for (int i = 0; i < products; ++i) {
+            ProductData product = new ProductData(String.format("%s-eng-%d", PREFIX, i),
+                String.format("Load Test Engineering Product %d", i));
+
+            product.setAttribute(Product.Attributes.VERSION, String.format("%d.%d", i % 9 + 1, i % 4));
+            product.setAttribute(Product.Attributes.ARCHITECTURE, "x86_64,ppc64le,aarch64");
+
+            for (int j = 0; j < contentPerProduct; ++j) {
+                String contentId = String.format("%s-content-%d-%d", PREFIX, i, j);
+                String label = String.format("%s-repo-%d-%d", PREFIX, i, j);
+
+                ContentData content = new ContentData(contentId, label, "yum", label, "Load Test");
+                content.setContentUrl(String.format("/content/dist/%s/%d/%d/$basearch/os", PREFIX, i, j));
+                content.setGpgUrl("file:///etc/pki/rpm-gpg/RPM-GPG-KEY-loadtest");
+                content.setArches("x86_64,ppc64le,aarch64");
+                content.setMetadataExpiration(86400L);
+
+                upstream.createContent(content);
+                product.addContent(content, this.random.nextBoolean());
+            }
+
+            upstream.createProduct(product);
+            this.engineeringProducts.add(product);
+        }
+
+        int subscriptions = this.config.getInt(LoadTestConfig.SUBSCRIPTIONS);
+        for (int i = 0; i < subscriptions; ++i) {
+            ProductData sku = new ProductData(String.format("%s-sku-%d", PREFIX, i),
+                String.format("Load Test Subscription %d", i));
+
+            sku.setAttribute(Product.Attributes.TYPE, "MKT");
+            sku.setAttribute(Product.Attributes.SUPPORT_LEVEL, i % 2 == 0 ? "Premium" : "Standard");
+            sku.setAttribute(Product.Attributes.SOCKETS, String.valueOf(2 << (i % 3)));
+            sku.setAttribute(Pool.Attributes.MULTI_ENTITLEMENT, "yes");
+            sku.setAttribute(Product.Attributes.STACKING_ID, String.format("%s-stack-%d", PREFIX, i));
+
+            // Every other subscription is a virt subscription, generating guest pools for the
+            // hypervisor workloads
+            if (i % 2 == 1) {
+                sku.setAttribute(Product.Attributes.VIRT_LIMIT, "unlimited");
+            }
+
+            upstream.createProduct(sku);
+            this.skuProducts.add(sku);
+        }
+    }
+
+    private void seedSubscriptions(Fleet.Org org, Owner owner) {
+        HostedTestSubscriptionServiceAdapter upstream = this.getUpstream();
+
+        int providedPerSku = Math.min(this.config.getInt(LoadTestConfig.PRODUCTS_PER_SUBSCRIPTION),
+            this.engineeringProducts.size());
+
+        Calendar calendar = Calendar.getInstance();
+        calendar.add(Calendar.DAY_OF_YEAR, -30);
+        Date startDate = calendar.getTime();
+        calendar.add(Calendar.YEAR, 1);
+        Date endDate = calendar.getTime();
+
+        Set<String> engineeringProductIds = new LinkedHashSet<>();
+
+        for (int i = 0; i < this.skuProducts.size(); ++i) {
+            Set<ProductData> provided = new LinkedHashSet<>();
+            while (provided.size() < providedPerSku) {
+                int index = this.random.nextInt(this.engineeringProducts.size());
+                provided.add(this.engineeringProducts.get(index));
+            }
+
+            Subscription subscription = new Subscription(owner, this.skuProducts.get(i), provided,
+                SUBSCRIPTION_QUANTITY, startDate, endDate, new Date());
+
+            subscription.setId(String.format("%s-sub-%d", org.getKey(), i));
+            subscription.setContractNumber(String.valueOf(1000000 + i));
+            subscription.setAccountNumber(String.valueOf(2000000 + i));
+            subscription.setOrderNumber(String.format("%s-order-%d", org.getKey(), i));
+
+            upstream.createSubscription(subscription);
+
+            org.getSubscriptionIds().add(subscription.getId());
+            provided.forEach(product -> engineeringProductIds.add(product.getId()));
+        }
+
+        org.getEngineeringProductIds().addAll(engineeringProductIds);
+    }
+
+    private void refreshPools(Fleet.Org org, Owner owner) throws Exception {
+        List<String> poolIds = this.environment.executeInTransaction(() -> {
+            PoolManager poolManager = this.environment.getInstance(PoolManager.class);
+            poolManager.getRefresher(this.getUpstream(), true)
+                .add(owner)
+                .run();
+
+            List<String> output = new ArrayList<>();
+            for (Pool pool : this.environment.getInstance(PoolCurator.class).listByOwner(owner).list()) {
+                // Only regular pools may be bound by any consumer
+                if (pool.getType() == Pool.PoolType.NORMAL) {
+                    output.add(pool.getId());
+                }
+            }
+
+            return output;
+        });
+
+        org.getPoolIds().addAll(poolIds);
+    }
+
+    private void seedConsumers(Fleet fleet, Fleet.Org org) throws Exception {
+        ConsumerResource consumerResource = this.environment.getInstance(ConsumerResource.class);
+
+        int consumers = this.config.getInt(LoadTestConfig.CONSUMERS);
+        for (int i = 0; i < consumers; ++i) {
+            ConsumerDTO dto = buildSystemConsumer(String.format("%s-system-%d", org.getKey(), i), org,
+                this.config.getInt(LoadTestConfig.INSTALLED_PRODUCTS), this.random);
+
+            ConsumerDTO created = this.environment.execute(() -> consumerResource.create(dto,
+                this.environment.getPrincipal(), null, org.getKey(), null, true));
+
+            fleet.addConsumer(org, created.getUuid());
+        }
+    }
+
+    private void seedHypervisors(Fleet.Org org) throws Exception {
+        HypervisorResource hypervisorResource = this.environment.getInstance(HypervisorResource.class);
+
+        int hypervisors = this.config.getInt(LoadTestConfig.HYPERVISORS);
+        int guestsPerHypervisor = this.config.getInt(LoadTestConfig.GUESTS_PER_HYPERVISOR);
+
+        for (int i = 0; i < hypervisors; ++i) {
+            String hypervisorId = String.format("%s-hypervisor-%d", org.getKey(), i);
+
+            List<String> guests = new ArrayList<>();
+            for (int j = 0; j < guestsPerHypervisor; ++j) {
+                guests.add(String.format("%s-guest-%d-%d", org.getKey(), i, j));
+            }
+
+            org.getHypervisorGuests().put(hypervisorId, guests);
+        }
+
+        if (!org.getHypervisorGuests().isEmpty()) {
+            Map<String, List<GuestIdDTO>> mapping = buildHypervisorMapping(org.getHypervisorGuests());
+
+            this.environment.execute(() -> hypervisorResource.hypervisorUpdate(mapping,
+                this.environment.getPrincipal(), org.getKey(), true));
+        }
+    }
+
+    /**
+     * Builds the registration of a system consumer with typical facts and a random selection of
+     * the products available to the given organization installed.
+     *
+     * @param name
+     *  the name of the consumer
+     *
+     * @param org
+     *  the organization in which the consumer is to be registered
+     *
+     * @param installedProducts
+     *  the number of products installed on the consumer
+     *
+     * @param random
+     *  the random number generator from which to select the installed products
+     *
+     * @return
+     *  a consumer DTO suitable for registration
+     */
+    public static ConsumerDTO buildSystemConsumer(String name, Fleet.Org org, int installedProducts,
+        Random random) {
+
+        ConsumerDTO dto = new ConsumerDTO()
+            .setName(name)
+            .setType(new ConsumerTypeDTO().setLabel(ConsumerTypeEnum.SYSTEM.getLabel()));
+
+        Map<String, String> facts = new HashMap<>();
+        facts.put("cpu.cpu_socket(s)", String.valueOf(1 << random.nextInt(3)));
+        facts.put("cpu.core(s)_per_socket", String.valueOf(2 << random.nextInt(3)));
+        facts.put("memory.memtotal", String.valueOf((4 << random.nextInt(4)) * 1024 * 1024));
+        facts.put("uname.machine", "x86_64");
+        facts.put("distribution.name", "Load Test Linux");
+        facts.put("distribution.version", "8.2");
+        facts.put("system.certificate_version", "3.4");
+        facts.put("virt.is_guest", "false");
+        dto.setFacts(facts);
+
+        List<String> productIds = org.getEngineeringProductIds();
+        Set<String> installed = new LinkedHashSet<>();
+        int count = Math.min(installedProducts, productIds.size());
+
+        while (installed.size() < count) {
+            installed.add(productIds.get(random.nextInt(productIds.size())));
+        }
+
+        for (String productId : installed) {
+            dto.addInstalledProduct(new ConsumerInstalledProductDTO(productId, productId));
+        }
+
+        return dto;
+    }
+
+    /**
+     * Converts a mapping of hypervisors to guest IDs into the form accepted by the hypervisor
+     * resource.
+     *
+     * @param hypervisorGuests
+     *  a mapping of hypervisor IDs to the guest IDs of each hypervisor
+     *
+     * @return
+     *  a mapping of hypervisor IDs to guest ID DTOs
+     */
+    public static Map<String, List<GuestIdDTO>> buildHypervisorMapping(
+        Map<String, List<String>> hypervisorGuests) {
+
+        Map<String, List<GuestIdDTO>> mapping = new HashMap<>();
+
+        for (Map.Entry<String, List<String>> entry : hypervisorGuests.entrySet()) {
+            List<GuestIdDTO> guests = new ArrayList<>();
+            for (String guestId : entry.getValue()) {
+                guests.add(new GuestIdDTO(guestId));
+            }
+
+            mapping.put(entry.getKey(), guests);
+        }
+
+        return mapping;
+    }
+}
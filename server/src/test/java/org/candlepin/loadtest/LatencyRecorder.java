@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.loadtest;
+
+import java.util.Arrays;
+
+
+
+/**
+ * The LatencyRecorder class collects the latencies of the operations performed by a single
+ * load-test thread. Recorders are not thread-safe; each thread records into its own recorder, and
+ * the recorders of every thread are merged once the threads have finished.
+ */
+public class LatencyRecorder {
+
+    private static final int INITIAL_CAPACITY = 4096;
+
+    private long[] latencies;
+    private int count;
+    private int errors;
+
+    public LatencyRecorder() {
+        this.latencies = new long[INITIAL_CAPACITY];
+        this.count = 0;
+        this.errors = 0;
+    }
+
+    /**
+     * Records the latency of a successful operation.
+     *
+     * @param nanos
+     *  the latency of the operation, in nanoseconds
+     */
+    public void record(long nanos) {
+        if (this.count == this.latencies.length) {
+            this.latencies = Arrays.copyOf(this.latencies, this.latencies.length * 2);
+        }
+
+        this.latencies[this.count++] = nanos;
+    }
+
+    /**
+     * Records a failed operation. Failed operations are counted, but their latencies are not
+     * included in the latency distribution.
+     */
+    public void recordError() {
+        ++this.errors;
+    }
+
+    /**
+     * Merges the operations recorded by the given recorder into this recorder.
+     *
+     * @param other
+     *  the recorder to merge into this recorder
+     *
+     * @return
+     *  this recorder
+     */
+    public LatencyRecorder merge(LatencyRecorder other) {
+        if (this.count + other.count > this.latencies.length) {
+            this.latencies = Arrays.copyOf(this.latencies, this.count + other.count);
+        }
+
+        System.arraycopy(other.latencies, 0, this.latencies, this.count, other.count);
+        this.count += other.count;
+        this.errors += other.errors;
+
+        return this;
+    }
+
+    public int getCount() {
+        return this.count;
+    }
+
+    public int getErrors() {
+        return this.errors;
+    }
+
+    /**
+     * Summarizes the recorded operations as a workload result.
+     *
+     * @param workload
+     *  the name of the workload the operations belong to
+     *
+     * @param threads
+     *  the number of threads which performed the operations
+     *
+     * @param elapsedNanos
+     *  the wall-clock time over which the operations were performed, in nanoseconds
+     *
+     * @return
+     *  the result of the workload
+     */
+    public WorkloadResult summarize(String workload, int threads, long elapsedNanos) {
+        long[] sorted = Arrays.copyOf(this.latencies, this.count);
+        Arrays.sort(sorted);
+
+        long total = 0;
+        for (long latency : sorted) {
+            total += latency;
+        }
+
+        WorkloadResult result = new WorkloadResult();
+
+        result.setWorkload(workload);
+        result.setThreads(threads);
+        result.setOperations(this.count);
+        result.setErrors(this.errors);
+        result.setElapsedMillis(toMillis(elapsedNanos));
+        result.setThroughput(elapsedNanos > 0 ? this.count / (elapsedNanos / 1_000_000_000.0) : 0);
+
+        if (this.count > 0) {
+            result.setMeanMillis(toMillis(total / (double) this.count));
+            result.setP50Millis(toMillis(percentile(sorted, 50)));
+            result.setP90Millis(toMillis(percentile(sorted, 90)));
+            result.setP95Millis(toMillis(percentile(sorted, 95)));
+            result.setP99Millis(toMillis(percentile(sorted, 99)));
+            result.setMaxMillis(toMillis(sorted[sorted.length - 1]));
+        }
+
+        return result;
+    }
+
+    /**
+     * Fetches the given percentile from a sorted array of latencies using the nearest-rank method.
+     */
+    private static long percentile(long[] sorted, int percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    private static double toMillis(double nanos) {
+        return Math.round(nanos / 1000.0) / 1000.0;
+    }
+}
@@ -0,0 +1,180 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+
+
+/**
+ * The LoadTestConfig class holds the settings of a load-test run: the size of the synthetic fleet
+ * to seed, the workloads to drive and how hard to drive them. Settings are read from properties
+ * prefixed with "loadtest.", falling back to defaults sized for a short run on a workstation.
+ */
+public class LoadTestConfig {
+
+    public static final String PREFIX = "loadtest.";
+
+    public static final String LABEL = "label";
+    public static final String OUTPUT_DIR = "output";
+    public static final String SEED = "seed";
+    public static final String BROKER = "broker";
+
+    public static final String OWNERS = "owners";
+    public static final String PRODUCTS = "products";
+    public static final String CONTENT_PER_PRODUCT = "content_per_product";
+    public static final String SUBSCRIPTIONS = "subscriptions";
+    public static final String PRODUCTS_PER_SUBSCRIPTION = "products_per_subscription";
+    public static final String CONSUMERS = "consumers";
+    public static final String INSTALLED_PRODUCTS = "installed_products";
+    public static final String HYPERVISORS = "hypervisors";
+    public static final String GUESTS_PER_HYPERVISOR = "guests_per_hypervisor";
+
+    public static final String WORKLOADS = "workloads";
+    public static final String THREADS = "threads";
+    public static final String WARMUP_SECONDS = "warmup";
+    public static final String DURATION_SECONDS = "duration";
+
+    private static final Map<String, String> DEFAULTS;
+
+    static {
+        Map<String, String> defaults = new LinkedHashMap<>();
+
+        defaults.put(LABEL, "unlabeled");
+        defaults.put(OUTPUT_DIR, "build/loadtest");
+        defaults.put(SEED, "8675309");
+        defaults.put(BROKER, "true");
+
+        defaults.put(OWNERS, "4");
+        defaults.put(PRODUCTS, "50");
+        defaults.put(CONTENT_PER_PRODUCT, "10");
+        defaults.put(SUBSCRIPTIONS, "20");
+        defaults.put(PRODUCTS_PER_SUBSCRIPTION, "4");
+        defaults.put(CONSUMERS, "100");
+        defaults.put(INSTALLED_PRODUCTS, "3");
+        defaults.put(HYPERVISORS, "10");
+        defaults.put(GUESTS_PER_HYPERVISOR, "8");
+
+        defaults.put(WORKLOADS, String.join(",", Workloads.NAMES));
+        defaults.put(THREADS, "8");
+        defaults.put(WARMUP_SECONDS, "5");
+        defaults.put(DURATION_SECONDS, "30");
+
+        DEFAULTS = Collections.unmodifiableMap(defaults);
+    }
+
+    private final Map<String, String> settings;
+
+    /**
+     * Creates a new load-test configuration from the "loadtest." prefixed entries of the given
+     * properties. Entries which are not present use their default values.
+     *
+     * @param properties
+     *  the properties from which to read the configuration
+     */
+    public LoadTestConfig(Properties properties) {
+        this.settings = new LinkedHashMap<>(DEFAULTS);
+
+        for (String key : DEFAULTS.keySet()) {
+            String value = properties.getProperty(PREFIX + key);
+
+            if (value != null && !value.trim().isEmpty()) {
+                this.settings.put(key, value.trim());
+            }
+        }
+    }
+
+    /**
+     * Creates a new load-test configuration from the system properties.
+     *
+     * @return
+     *  a load-test configuration built from the system properties
+     */
+    public static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(System.getProperties());
+    }
+
+    public String getString(String key) {
+        return this.settings.get(key);
+    }
+
+    public int getInt(String key) {
+        String value = this.settings.get(key);
+
+        try {
+            int result = Integer.parseInt(value);
+            if (result < 0) {
+                throw new NumberFormatException();
+            }
+
+            return result;
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("%s%s must be a non-negative integer: %s",
+                PREFIX, key, value), e);
+        }
+    }
+
+    public long getLong(String key) {
+        String value = this.settings.get(key);
+
+        try {
+            return Long.parseLong(value);
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("%s%s must be an integer: %s",
+                PREFIX, key, value), e);
+        }
+    }
+
+    public boolean getBoolean(String key) {
+        return Boolean.parseBoolean(this.settings.get(key));
+    }
+
+    /**
+     * Fetches the names of the workloads to run, in the order in which they should be run.
+     *
+     * @return
+     *  a list of the names of the workloads to run
+     */
+    public List<String> getWorkloads() {
+        List<String> workloads = new ArrayList<>();
+
+        for (String name : Arrays.asList(this.settings.get(WORKLOADS).split(","))) {
+            if (!name.trim().isEmpty()) {
+                workloads.add(name.trim());
+            }
+        }
+
+        return workloads;
+    }
+
+    /**
+     * Fetches every setting of this configuration, including defaulted settings, for inclusion in
+     * the results of a run.
+     *
+     * @return
+     *  an unmodifiable map of every setting of this configuration
+     */
+    public Map<String, String> getSettings() {
+        return Collections.unmodifiableMap(this.settings);
+    }
+}
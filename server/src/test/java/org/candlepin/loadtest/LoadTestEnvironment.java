@@ -0,0 +1,335 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.loadtest;
+
+import org.candlepin.TestingModules;
+import org.candlepin.audit.ActiveMQContextListener;
+import org.candlepin.audit.ArtemisMessageSource;
+import org.candlepin.audit.ArtemisMessageSourceReceiverFactory;
+import org.candlepin.audit.EventSink;
+import org.candlepin.audit.EventSinkImpl;
+import org.candlepin.audit.MessageSource;
+import org.candlepin.audit.MessageSourceReceiverFactory;
+import org.candlepin.auth.Principal;
+import org.candlepin.auth.UserPrincipal;
+import org.candlepin.config.CandlepinCommonTestConfig;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.DatabaseConfigFactory;
+import org.candlepin.guice.CandlepinRequestScope;
+import org.candlepin.guice.TestPrincipalProviderSetter;
+import org.candlepin.hostedtest.AdapterOverrideModule;
+import org.candlepin.junit.LiquibaseExtension;
+import org.candlepin.messaging.CPMContextListener;
+import org.candlepin.messaging.CPMSessionFactory;
+import org.candlepin.messaging.impl.artemis.ArtemisContextListener;
+import org.candlepin.messaging.impl.artemis.ArtemisSessionFactory;
+import org.candlepin.policy.js.entitlement.Enforcer;
+import org.candlepin.policy.js.entitlement.EntitlementRules;
+import org.candlepin.resteasy.AnnotationLocator;
+import org.candlepin.service.EntitlementCertServiceAdapter;
+import org.candlepin.service.impl.DefaultEntitlementCertServiceAdapter;
+import org.candlepin.util.DateSource;
+import org.candlepin.util.DateSourceImpl;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Singleton;
+import com.google.inject.persist.PersistFilter;
+import com.google.inject.persist.UnitOfWork;
+import com.google.inject.util.Modules;
+
+import org.hibernate.cfg.beanvalidation.BeanValidationEventListener;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+
+import javax.inject.Provider;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+
+
+
+/**
+ * The LoadTestEnvironment class boots an in-process Candlepin server for load testing: an embedded
+ * HSQLDB database created from the Liquibase changelog, the server's Guice modules with the
+ * upstream served by the HostedTestSubscriptionServiceAdapter, and, unless disabled, the in-VM
+ * Artemis broker receiving the events the server emits.
+ * <p></p>
+ * The environment runs the production implementations of the components the unit test modules
+ * stub out on the hot paths being measured: the entitlement rules, entitlement certificate
+ * generation and the system clock. Operations are executed as they would be for a REST request:
+ * within a request scope and unit of work, with the events queued by the operation dispatched on
+ * success.
+ */
+public class LoadTestEnvironment implements AutoCloseable {
+    private static Logger log = LoggerFactory.getLogger(LoadTestEnvironment.class);
+
+    public static final String ADMIN_USERNAME = "loadtest-admin";
+
+    private static final String BROKER_CONFIG = "/loadtest/broker.xml";
+
+    private final LoadTestConfig loadTestConfig;
+
+    private LiquibaseExtension database;
+    private Injector parentInjector;
+    private Injector injector;
+    private CPMContextListener cpmContextListener;
+    private ActiveMQContextListener activeMQContextListener;
+
+    private UnitOfWork unitOfWork;
+    private CandlepinRequestScope requestScope;
+    private Principal principal;
+
+    public LoadTestEnvironment(LoadTestConfig loadTestConfig) {
+        if (loadTestConfig == null) {
+            throw new IllegalArgumentException("loadTestConfig is null");
+        }
+
+        this.loadTestConfig = loadTestConfig;
+    }
+
+    /**
+     * Creates the database and boots the server components. This must be called before any
+     * operation is executed against the environment.
+     *
+     * @throws Exception
+     *  if the database or any server component could not be started
+     */
+    public void start() throws Exception {
+        log.info("Creating embedded database...");
+        this.database = new LiquibaseExtension();
+        this.database.beforeAll(null);
+
+        CandlepinCommonTestConfig config = this.buildServerConfig();
+        boolean broker = config.getBoolean(ConfigProperties.ACTIVEMQ_ENABLED);
+
+        log.info("Starting server components...");
+        this.parentInjector = Guice.createInjector(new TestingModules.JpaModule());
+        insertValidationEventListeners(this.parentInjector);
+
+        this.injector = this.parentInjector.createChildInjector(Modules
+            .override(new TestingModules.StandardTest(config))
+            .with(new LoadTestModule(broker)));
+
+        this.injector.getInstance(AnnotationLocator.class).init();
+
+        this.unitOfWork = this.injector.getInstance(UnitOfWork.class);
+        this.requestScope = this.injector.getInstance(CandlepinRequestScope.class);
+
+        // Eagerly created components, such as the rules provider, may have implicitly started a
+        // unit of work on this thread while loading; end it so operations start from a clean slate.
+        this.unitOfWork.end();
+
+        if (broker) {
+            log.info("Starting in-VM Artemis broker...");
+            this.cpmContextListener = this.injector.getInstance(CPMContextListener.class);
+            this.cpmContextListener.initialize(this.injector);
+
+            this.activeMQContextListener = this.injector.getInstance(ActiveMQContextListener.class);
+            this.activeMQContextListener.contextInitialized(this.injector);
+        }
+
+        // Every load-test thread acts as the same super admin
+        this.principal = new UserPrincipal(ADMIN_USERNAME, Collections.emptyList(), true);
+        TestPrincipalProviderSetter.get().setPrincipal(this.principal);
+    }
+
+    private CandlepinCommonTestConfig buildServerConfig() throws Exception {
+        CandlepinCommonTestConfig config = new CandlepinCommonTestConfig();
+
+        // Size database operations as the server does in production, rather than with the small
+        // blocks the unit tests use to exercise block handling
+        DatabaseConfigFactory.POSTGRESQL_CONFIG.forEach(config::setProperty);
+
+        // The hosted test adapter serves the upstream data, as it does for the spec tests
+        config.setProperty(ConfigProperties.STANDALONE, "false");
+
+        String brokerConfig = new File(LoadTestEnvironment.class.getResource(BROKER_CONFIG).toURI())
+            .getPath();
+
+        config.setProperty(ConfigProperties.ACTIVEMQ_ENABLED,
+            String.valueOf(this.loadTestConfig.getBoolean(LoadTestConfig.BROKER)));
+        config.setProperty(ConfigProperties.ACTIVEMQ_EMBEDDED, "true");
+        config.setProperty(ConfigProperties.ACTIVEMQ_SERVER_CONFIG_PATH, brokerConfig);
+
+        return config;
+    }
+
+    /**
+     * Hibernate's bean validation listeners are not created through Guice, so they must be
+     * inserted after the fact, as the servlet context listener does for the server.
+     */
+    private static void insertValidationEventListeners(Injector injector) {
+        Provider<EntityManagerFactory> emfProvider = injector.getProvider(EntityManagerFactory.class);
+        SessionFactoryImpl sessionFactoryImpl = (SessionFactoryImpl) emfProvider.get();
+        EventListenerRegistry registry = sessionFactoryImpl
+            .getServiceRegistry()
+            .getService(EventListenerRegistry.class);
+
+        Provider<BeanValidationEventListener> listenerProvider =
+            injector.getProvider(BeanValidationEventListener.class);
+
+        registry.getEventListenerGroup(EventType.PRE_INSERT).appendListener(listenerProvider.get());
+        registry.getEventListenerGroup(EventType.PRE_UPDATE).appendListener(listenerProvider.get());
+        registry.getEventListenerGroup(EventType.PRE_DELETE).appendListener(listenerProvider.get());
+    }
+
+    /**
+     * Executes the given operation as the server executes a REST request: within a new request
+     * scope and unit of work, dispatching the events the operation queued if it completes
+     * successfully, and discarding them otherwise. Transactions are left to the operation itself.
+     *
+     * @param operation
+     *  the operation to execute
+     *
+     * @throws Exception
+     *  if the operation fails
+     *
+     * @return
+     *  the result of the operation
+     */
+    public <T> T execute(Callable<T> operation) throws Exception {
+        this.requestScope.enter();
+        this.unitOfWork.begin();
+
+        try {
+            EventSink sink = this.injector.getInstance(EventSink.class);
+
+            try {
+                T result = operation.call();
+                sink.sendEvents();
+
+                return result;
+            }
+            catch (Exception e) {
+                sink.rollback();
+                throw e;
+            }
+        }
+        finally {
+            this.unitOfWork.end();
+            this.requestScope.exit();
+        }
+    }
+
+    /**
+     * Executes the given operation as a request, as with the execute method, wrapping the
+     * operation in a single transaction as the server does for its asynchronous jobs.
+     *
+     * @param operation
+     *  the operation to execute
+     *
+     * @throws Exception
+     *  if the operation fails
+     *
+     * @return
+     *  the result of the operation
+     */
+    public <T> T executeInTransaction(Callable<T> operation) throws Exception {
+        return this.execute(() -> {
+            EntityTransaction transaction = this.getEntityManager().getTransaction();
+            transaction.begin();
+
+            try {
+                T result = operation.call();
+                transaction.commit();
+
+                return result;
+            }
+            catch (Exception e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+
+                throw e;
+            }
+        });
+    }
+
+    public <T> T getInstance(Class<T> type) {
+        return this.injector.getInstance(type);
+    }
+
+    public EntityManager getEntityManager() {
+        return this.injector.getInstance(EntityManager.class);
+    }
+
+    public Principal getPrincipal() {
+        return this.principal;
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (this.activeMQContextListener != null) {
+            this.activeMQContextListener.contextDestroyed(this.injector);
+        }
+
+        if (this.cpmContextListener != null) {
+            this.cpmContextListener.shutdown();
+            this.cpmContextListener.destroy();
+        }
+
+        if (this.parentInjector != null) {
+            this.parentInjector.getInstance(PersistFilter.class).destroy();
+
+            EntityManagerFactory emf = this.parentInjector.getInstance(EntityManagerFactory.class);
+            if (emf.isOpen()) {
+                emf.close();
+            }
+        }
+
+        TestPrincipalProviderSetter.get().setPrincipal(null);
+
+        if (this.database != null) {
+            this.database.afterAll(null);
+        }
+    }
+
+    /**
+     * Overrides the unit test bindings which would stub out the code under load.
+     */
+    private static class LoadTestModule extends AbstractModule {
+        private final boolean broker;
+
+        LoadTestModule(boolean broker) {
+            this.broker = broker;
+        }
+
+        @Override
+        protected void configure() {
+            bind(DateSource.class).to(DateSourceImpl.class).asEagerSingleton();
+            bind(Enforcer.class).to(EntitlementRules.class);
+            bind(EntitlementCertServiceAdapter.class).to(DefaultEntitlementCertServiceAdapter.class);
+
+            install(new AdapterOverrideModule());
+
+            if (this.broker) {
+                bind(CPMContextListener.class).to(ArtemisContextListener.class).in(Singleton.class);
+                bind(CPMSessionFactory.class).to(ArtemisSessionFactory.class).in(Singleton.class);
+                bind(MessageSource.class).to(ArtemisMessageSource.class);
+                bind(MessageSourceReceiverFactory.class).to(ArtemisMessageSourceReceiverFactory.class);
+                bind(EventSink.class).to(EventSinkImpl.class);
+            }
+        }
+    }
+}
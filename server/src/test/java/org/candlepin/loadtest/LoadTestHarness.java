@@ -0,0 +1,224 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+
+/**
+ * The LoadTestHarness drives the workloads defined by the Workloads class against an in-process
+ * server seeded with a synthetic fleet, and reports the throughput and latency percentiles of
+ * each workload.
+ * <p></p>
+ * Each workload is first run for a warmup period, the results of which are discarded, and then
+ * for the measured duration, with every thread issuing operations back to back. Results are
+ * logged and written as JSON to the configured output directory, labeled so that runs made
+ * against different commits with the same settings may be compared. The harness is normally
+ * started through the loadTest Gradle task, which passes any "loadtest." prefixed project
+ * properties through to the LoadTestConfig.
+ */
+public class LoadTestHarness {
+    private static Logger log = LoggerFactory.getLogger(LoadTestHarness.class);
+
+    private final LoadTestConfig config;
+
+    public LoadTestHarness(LoadTestConfig config) {
+        if (config == null) {
+            throw new IllegalArgumentException("config is null");
+        }
+
+        this.config = config;
+    }
+
+    /**
+     * Boots the environment, seeds the fleet and runs each configured workload in turn.
+     *
+     * @throws Exception
+     *  if the environment could not be started or seeded, or the results could not be written
+     *
+     * @return
+     *  the results of each workload, in the order in which they were run
+     */
+    public List<WorkloadResult> run() throws Exception {
+        // Resolve the workloads before doing any heavy lifting, so typos fail fast
+        List<String> names = this.config.getWorkloads();
+        for (String name : names) {
+            if (!Workloads.NAMES.contains(name)) {
+                throw new IllegalArgumentException(String.format("Unknown workload: %s; expected one of %s",
+                    name, Workloads.NAMES));
+            }
+        }
+
+        List<WorkloadResult> results = new ArrayList<>();
+
+        try (LoadTestEnvironment environment = new LoadTestEnvironment(this.config)) {
+            environment.start();
+
+            long seedStart = System.nanoTime();
+            Fleet fleet = new FleetSeeder(environment, this.config).seed();
+            log.info("Seeded fleet in {}ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - seedStart));
+
+            for (String name : names) {
+                Workload workload = Workloads.create(name, environment, fleet, this.config);
+                WorkloadResult result = this.runWorkload(workload, names.indexOf(name));
+
+                log.info("{}", result);
+                results.add(result);
+            }
+        }
+
+        this.writeResults(results);
+        return results;
+    }
+
+    private WorkloadResult runWorkload(Workload workload, int index) throws Exception {
+        int threads = Math.max(1, Math.min(this.config.getInt(LoadTestConfig.THREADS),
+            workload.getMaxThreads()));
+
+        long warmup = TimeUnit.SECONDS.toNanos(this.config.getInt(LoadTestConfig.WARMUP_SECONDS));
+        long duration = TimeUnit.SECONDS.toNanos(this.config.getInt(LoadTestConfig.DURATION_SECONDS));
+
+        log.info("Running workload {} on {} threads: {}s warmup, {}s measured", workload.getName(), threads,
+            TimeUnit.NANOSECONDS.toSeconds(warmup), TimeUnit.NANOSECONDS.toSeconds(duration));
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicBoolean errorLogged = new AtomicBoolean(false);
+
+        try {
+            CountDownLatch ready = new CountDownLatch(threads);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<LatencyRecorder>> futures = new ArrayList<>();
+
+            for (int i = 0; i < threads; ++i) {
+                int thread = i;
+
+                // Seed each thread distinctly, but identically across runs
+                Random random = new Random(this.config.getLong(LoadTestConfig.SEED) + 31L * index + thread);
+
+                futures.add(executor.submit(() -> {
+                    ready.countDown();
+                    start.await();
+
+                    long begin = System.nanoTime();
+                    drive(workload, thread, random, new LatencyRecorder(), begin + warmup, errorLogged);
+
+                    return drive(workload, thread, random, new LatencyRecorder(), begin + warmup + duration,
+                        errorLogged);
+                }));
+            }
+
+            ready.await();
+            long begin = System.nanoTime();
+            start.countDown();
+
+            LatencyRecorder merged = new LatencyRecorder();
+            for (Future<LatencyRecorder> future : futures) {
+                merged.merge(future.get());
+            }
+
+            // Operations in flight when the measured period ends are allowed to finish, so the
+            // elapsed time is taken once every thread has stopped
+            long elapsed = System.nanoTime() - begin - warmup;
+            return merged.summarize(workload.getName(), threads, elapsed);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static LatencyRecorder drive(Workload workload, int thread, Random random,
+        LatencyRecorder recorder, long deadline, AtomicBoolean errorLogged) {
+
+        while (System.nanoTime() < deadline) {
+            long start = System.nanoTime();
+
+            try {
+                workload.execute(thread, random);
+                recorder.record(System.nanoTime() - start);
+            }
+            catch (Exception e) {
+                recorder.recordError();
+
+                if (errorLogged.compareAndSet(false, true)) {
+                    log.warn("Operation of workload {} failed; further failures will only be counted",
+                        workload.getName(), e);
+                }
+            }
+        }
+
+        return recorder;
+    }
+
+    private void writeResults(List<WorkloadResult> results) throws Exception {
+        Date timestamp = new Date();
+        String label = this.config.getString(LoadTestConfig.LABEL);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", label);
+        report.put("timestamp", new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ").format(timestamp));
+        report.put("settings", this.config.getSettings());
+        report.put("results", results);
+
+        File directory = new File(this.config.getString(LoadTestConfig.OUTPUT_DIR));
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalStateException("Unable to create output directory: " + directory);
+        }
+
+        String filename = String.format("loadtest-%s-%s.json", label.replaceAll("[^\\w.-]", "_"),
+            new SimpleDateFormat("yyyyMMdd-HHmmss").format(timestamp));
+        File output = new File(directory, filename);
+
+        new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT)
+            .writeValue(output, report);
+
+        log.info("Load test results written to {}", output.getAbsolutePath());
+    }
+
+    public static void main(String[] args) {
+        int status = 0;
+
+        try {
+            new LoadTestHarness(LoadTestConfig.fromSystemProperties()).run();
+        }
+        catch (Exception e) {
+            log.error("Load test failed", e);
+            status = 1;
+        }
+
+        // The broker and database may leave non-daemon threads behind
+        System.exit(status);
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.loadtest;
+
+import java.util.Random;
+
+
+
+/**
+ * The Workload interface defines a single kind of operation driven against the server by the
+ * load-test harness. Each execution of a workload is timed as one operation.
+ */
+public interface Workload {
+
+    /**
+     * Fetches the name of this workload, as used to select it and to report its results.
+     *
+     * @return
+     *  the name of this workload
+     */
+    String getName();
+
+    /**
+     * Fetches the maximum number of threads which may execute this workload concurrently. Workloads
+     * which would otherwise contend on a single resource, such as an organization, limit their
+     * concurrency to the number of such resources.
+     *
+     * @return
+     *  the maximum number of threads which may execute this workload
+     */
+    default int getMaxThreads() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Executes a single operation of this workload.
+     *
+     * @param thread
+     *  the index of the thread executing the operation, from zero to one less than the number of
+     *  threads executing the workload
+     *
+     * @param random
+     *  the random number generator of the thread executing the operation
+     *
+     * @throws Exception
+     *  if the operation fails
+     */
+    void execute(int thread, Random random) throws Exception;
+}
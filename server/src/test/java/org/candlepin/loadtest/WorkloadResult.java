@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.loadtest;
+
+
+
+/**
+ * The WorkloadResult class holds the throughput and latency distribution measured for a single
+ * workload of a load-test run. Latencies are in milliseconds; throughput is in operations per
+ * second.
+ */
+public class WorkloadResult {
+
+    private String workload;
+    private int threads;
+    private int operations;
+    private int errors;
+    private double elapsedMillis;
+    private double throughput;
+    private double meanMillis;
+    private double p50Millis;
+    private double p90Millis;
+    private double p95Millis;
+    private double p99Millis;
+    private double maxMillis;
+
+    public String getWorkload() {
+        return this.workload;
+    }
+
+    public void setWorkload(String workload) {
+        this.workload = workload;
+    }
+
+    public int getThreads() {
+        return this.threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getOperations() {
+        return this.operations;
+    }
+
+    public void setOperations(int operations) {
+        this.operations = operations;
+    }
+
+    public int getErrors() {
+        return this.errors;
+    }
+
+    public void setErrors(int errors) {
+        this.errors = errors;
+    }
+
+    public double getElapsedMillis() {
+        return this.elapsedMillis;
+    }
+
+    public void setElapsedMillis(double elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public double getThroughput() {
+        return this.throughput;
+    }
+
+    public void setThroughput(double throughput) {
+        this.throughput = throughput;
+    }
+
+    public double getMeanMillis() {
+        return this.meanMillis;
+    }
+
+    public void setMeanMillis(double meanMillis) {
+        this.meanMillis = meanMillis;
+    }
+
+    public double getP50Millis() {
+        return this.p50Millis;
+    }
+
+    public void setP50Millis(double p50Millis) {
+        this.p50Millis = p50Millis;
+    }
+
+    public double getP90Millis() {
+        return this.p90Millis;
+    }
+
+    public void setP90Millis(double p90Millis) {
+        this.p90Millis = p90Millis;
+    }
+
+    public double getP95Millis() {
+        return this.p95Millis;
+    }
+
+    public void setP95Millis(double p95Millis) {
+        this.p95Millis = p95Millis;
+    }
+
+    public double getP99Millis() {
+        return this.p99Millis;
+    }
+
+    public void setP99Millis(double p99Millis) {
+        this.p99Millis = p99Millis;
+    }
+
+    public double getMaxMillis() {
+        return this.maxMillis;
+    }
+
+    public void setMaxMillis(double maxMillis) {
+        this.maxMillis = maxMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-18s %3d threads %8d ops %5d errors %9.1f ops/s   " +
+            "mean %8.2f  p50 %8.2f  p90 %8.2f  p95 %8.2f  p99 %8.2f  max %9.2f ms",
+            this.workload, this.threads, this.operations, this.errors, this.throughput, this.meanMillis,
+            this.p50Millis, this.p90Millis, this.p95Millis, this.p99Millis, this.maxMillis);
+    }
+}
@@ -0,0 +1,376 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.loadtest;
+
+import org.candlepin.controller.PoolManager;
+import org.candlepin.dto.api.v1.ConsumerDTO;
+import org.candlepin.dto.api.v1.GuestIdDTO;
+import org.candlepin.hostedtest.HostedTestSubscriptionServiceAdapter;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerCurator;
+import org.candlepin.model.Owner;
+import org.candlepin.model.OwnerCurator;
+import org.candlepin.model.dto.Subscription;
+import org.candlepin.resource.ConsumerResource;
+import org.candlepin.resource.HypervisorResource;
+import org.candlepin.resource.OwnerResource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+
+
+/**
+ * The Workloads class defines the workloads the load-test harness can drive. Each workload
+ * invokes the server's resources as the corresponding REST request would, against the consumers
+ * and organizations of a seeded fleet:
+ * <ul>
+ *  <li>register: registers a new system consumer with installed products</li>
+ *  <li>checkin: fetches a consumer, its certificate serials and its compliance status, and
+ *      updates its check-in time, as a client does on each check-in</li>
+ *  <li>bind: binds a consumer to a specific pool of its organization</li>
+ *  <li>heal: auto-attaches a consumer to cover its installed products</li>
+ *  <li>hypervisor_update: reports the guests of every hypervisor of an organization, with one
+ *      guest migrated between hypervisors</li>
+ *  <li>refresh: refreshes the pools of an organization after a change to one of its upstream
+ *      subscriptions</li>
+ *  <li>owner_info: fetches the consumption summary of an organization</li>
+ * </ul>
+ */
+public class Workloads {
+
+    public static final String REGISTER = "register";
+    public static final String CHECKIN = "checkin";
+    public static final String BIND = "bind";
+    public static final String HEAL = "heal";
+    public static final String HYPERVISOR_UPDATE = "hypervisor_update";
+    public static final String REFRESH = "refresh";
+    public static final String OWNER_INFO = "owner_info";
+
+    /** The names of every available workload, in the order in which they are run by default */
+    public static final List<String> NAMES = Collections.unmodifiableList(Arrays.asList(
+        REGISTER, CHECKIN, BIND, HEAL, HYPERVISOR_UPDATE, REFRESH, OWNER_INFO));
+
+    private Workloads() {
+        // Intentionally left empty
+    }
+
+    /**
+     * Creates the workload with the given name.
+     *
+     * @param name
+     *  the name of the workload to create
+     *
+     * @param environment
+     *  the environment against which the workload is to be driven
+     *
+     * @param fleet
+     *  the fleet seeded into the environment
+     *
+     * @param config
+     *  the configuration of the load-test run
+     *
+     * @throws IllegalArgumentException
+     *  if name does not identify a workload
+     *
+     * @return
+     *  the workload with the given name
+     */
+    public static Workload create(String name, LoadTestEnvironment environment, Fleet fleet,
+        LoadTestConfig config) {
+
+        switch (name) {
+            case REGISTER:
+                return new RegisterWorkload(environment, fleet, config);
+
+            case CHECKIN:
+                return new CheckInWorkload(environment, fleet);
+
+            case BIND:
+                return new BindWorkload(environment, fleet);
+
+            case HEAL:
+                return new HealWorkload(environment, fleet);
+
+            case HYPERVISOR_UPDATE:
+                return new HypervisorUpdateWorkload(environment, fleet);
+
+            case REFRESH:
+                return new RefreshWorkload(environment, fleet);
+
+            case OWNER_INFO:
+                return new OwnerInfoWorkload(environment, fleet);
+
+            default:
+                throw new IllegalArgumentException(String.format("Unknown workload: %s; expected one of %s",
+                    name, NAMES));
+        }
+    }
+
+    private static <T> T pick(List<T> list, Random random) {
+        if (list.isEmpty()) {
+            throw new IllegalStateException("The seeded fleet has nothing to operate on");
+        }
+
+        return list.get(random.nextInt(list.size()));
+    }
+
+    private static class RegisterWorkload implements Workload {
+        private final LoadTestEnvironment environment;
+        private final Fleet fleet;
+        private final int installedProducts;
+        private final ConsumerResource consumerResource;
+
+        RegisterWorkload(LoadTestEnvironment environment, Fleet fleet, LoadTestConfig config) {
+            this.environment = environment;
+            this.fleet = fleet;
+            this.installedProducts = config.getInt(LoadTestConfig.INSTALLED_PRODUCTS);
+            this.consumerResource = environment.getInstance(ConsumerResource.class);
+        }
+
+        @Override
+        public String getName() {
+            return REGISTER;
+        }
+
+        @Override
+        public void execute(int thread, Random random) throws Exception {
+            Fleet.Org org = pick(this.fleet.getOrgs(), random);
+
+            String name = String.format("%s-registered-%d-%d", org.getKey(), thread, random.nextInt());
+            ConsumerDTO dto = FleetSeeder.buildSystemConsumer(name, org, this.installedProducts, random);
+
+            this.environment.execute(() -> this.consumerResource.create(dto,
+                this.environment.getPrincipal(), null, org.getKey(), null, true));
+        }
+    }
+
+    private static class CheckInWorkload implements Workload {
+        private final LoadTestEnvironment environment;
+        private final Fleet fleet;
+        private final ConsumerResource consumerResource;
+        private final ConsumerCurator consumerCurator;
+
+        CheckInWorkload(LoadTestEnvironment environment, Fleet fleet) {
+            this.environment = environment;
+            this.fleet = fleet;
+            this.consumerResource = environment.getInstance(ConsumerResource.class);
+            this.consumerCurator = environment.getInstance(ConsumerCurator.class);
+        }
+
+        @Override
+        public String getName() {
+            return CHECKIN;
+        }
+
+        @Override
+        public void execute(int thread, Random random) throws Exception {
+            String uuid = pick(this.fleet.getConsumerUuids(), random);
+
+            this.environment.execute(() -> {
+                this.consumerResource.getConsumer(uuid);
+                this.consumerResource.getEntitlementCertificateSerials(uuid);
+                this.consumerResource.getComplianceStatus(uuid, null);
+
+                Consumer consumer = this.consumerCurator.findByUuid(uuid);
+                this.consumerCurator.updateLastCheckin(consumer, new Date());
+
+                return null;
+            });
+        }
+    }
+
+    private static class BindWorkload implements Workload {
+        private final LoadTestEnvironment environment;
+        private final Fleet fleet;
+        private final ConsumerResource consumerResource;
+
+        BindWorkload(LoadTestEnvironment environment, Fleet fleet) {
+            this.environment = environment;
+            this.fleet = fleet;
+            this.consumerResource = environment.getInstance(ConsumerResource.class);
+        }
+
+        @Override
+        public String getName() {
+            return BIND;
+        }
+
+        @Override
+        public void execute(int thread, Random random) throws Exception {
+            String uuid = pick(this.fleet.getConsumerUuids(), random);
+            String poolId = pick(this.fleet.getConsumerOrg(uuid).getPoolIds(), random);
+
+            this.environment.execute(() -> this.consumerResource.bind(uuid, poolId, null, 1, null, null,
+                false, null, null));
+        }
+    }
+
+    private static class HealWorkload implements Workload {
+        private final LoadTestEnvironment environment;
+        private final Fleet fleet;
+        private final ConsumerResource consumerResource;
+
+        HealWorkload(LoadTestEnvironment environment, Fleet fleet) {
+            this.environment = environment;
+            this.fleet = fleet;
+            this.consumerResource = environment.getInstance(ConsumerResource.class);
+        }
+
+        @Override
+        public String getName() {
+            return HEAL;
+        }
+
+        @Override
+        public void execute(int thread, Random random) throws Exception {
+            String uuid = pick(this.fleet.getConsumerUuids(), random);
+
+            this.environment.execute(() -> this.consumerResource.bind(uuid, null, null, null, null, null,
+                false, null, null));
+        }
+    }
+
+    /**
+     * Hypervisor updates replace the guest mappings of an entire organization, so concurrent
+     * updates of a single organization would contend with each other rather than with the rest of
+     * the server. Each thread is therefore assigned its own organization.
+     */
+    private static class HypervisorUpdateWorkload implements Workload {
+        private final LoadTestEnvironment environment;
+        private final Fleet fleet;
+        private final HypervisorResource hypervisorResource;
+
+        HypervisorUpdateWorkload(LoadTestEnvironment environment, Fleet fleet) {
+            this.environment = environment;
+            this.fleet = fleet;
+            this.hypervisorResource = environment.getInstance(HypervisorResource.class);
+        }
+
+        @Override
+        public String getName() {
+            return HYPERVISOR_UPDATE;
+        }
+
+        @Override
+        public int getMaxThreads() {
+            return this.fleet.getOrgs().size();
+        }
+
+        @Override
+        public void execute(int thread, Random random) throws Exception {
+            Fleet.Org org = this.fleet.getOrgs().get(thread);
+
+            Map<String, List<String>> hypervisorGuests = new LinkedHashMap<>();
+            org.getHypervisorGuests()
+                .forEach((id, guests) -> hypervisorGuests.put(id, new ArrayList<>(guests)));
+
+            // Migrate a guest between hypervisors so that every report carries a change
+            List<String> hypervisorIds = new ArrayList<>(hypervisorGuests.keySet());
+            List<String> source = hypervisorGuests.get(pick(hypervisorIds, random));
+            if (hypervisorIds.size() > 1 && !source.isEmpty()) {
+                String guestId = source.remove(random.nextInt(source.size()));
+                hypervisorGuests.get(pick(hypervisorIds, random)).add(guestId);
+            }
+
+            Map<String, List<GuestIdDTO>> mapping = FleetSeeder.buildHypervisorMapping(hypervisorGuests);
+
+            this.environment.execute(() -> this.hypervisorResource.hypervisorUpdate(mapping,
+                this.environment.getPrincipal(), org.getKey(), true));
+        }
+    }
+
+    /**
+     * Refreshes lock the pools of the organization being refreshed; as with hypervisor updates,
+     * each thread is assigned its own organization.
+     */
+    private static class RefreshWorkload implements Workload {
+        private final LoadTestEnvironment environment;
+        private final Fleet fleet;
+        private final HostedTestSubscriptionServiceAdapter upstream;
+        private final PoolManager poolManager;
+        private final OwnerCurator ownerCurator;
+
+        RefreshWorkload(LoadTestEnvironment environment, Fleet fleet) {
+            this.environment = environment;
+            this.fleet = fleet;
+            this.upstream = environment.getInstance(HostedTestSubscriptionServiceAdapter.class);
+            this.poolManager = environment.getInstance(PoolManager.class);
+            this.ownerCurator = environment.getInstance(OwnerCurator.class);
+        }
+
+        @Override
+        public String getName() {
+            return REFRESH;
+        }
+
+        @Override
+        public int getMaxThreads() {
+            return this.fleet.getOrgs().size();
+        }
+
+        @Override
+        public void execute(int thread, Random random) throws Exception {
+            Fleet.Org org = this.fleet.getOrgs().get(thread);
+
+            // Change the quantity of one subscription upstream so the refresh has work to do
+            Subscription update = new Subscription();
+            update.setQuantity(FleetSeeder.SUBSCRIPTION_QUANTITY + random.nextInt(1000));
+            this.upstream.updateSubscription(pick(org.getSubscriptionIds(), random), update);
+
+            // This is the work performed by the refresh pools job queued by the owner resource
+            this.environment.executeInTransaction(() -> {
+                Owner owner = this.ownerCurator.getByKey(org.getKey());
+
+                this.poolManager.getRefresher(this.upstream, true)
+                    .add(owner)
+                    .run();
+
+                return null;
+            });
+        }
+    }
+
+    private static class OwnerInfoWorkload implements Workload {
+        private final LoadTestEnvironment environment;
+        private final Fleet fleet;
+        private final OwnerResource ownerResource;
+
+        OwnerInfoWorkload(LoadTestEnvironment environment, Fleet fleet) {
+            this.environment = environment;
+            this.fleet = fleet;
+            this.ownerResource = environment.getInstance(OwnerResource.class);
+        }
+
+        @Override
+        public String getName() {
+            return OWNER_INFO;
+        }
+
+        @Override
+        public void execute(int thread, Random random) throws Exception {
+            Fleet.Org org = pick(this.fleet.getOrgs(), random);
+
+            this.environment.execute(() -> this.ownerResource.getOwnerInfo(org.getKey(),
+                this.environment.getPrincipal()));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.matcher.Matchers;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+
+
+/**
+ * Test suite for the MethodTimingInterceptor class
+ */
+public class MethodTimingInterceptorTest {
+
+    /**
+     * Intercepted class with public methods calling each other
+     */
+    public static class TimedService {
+        public int outer() {
+            return this.inner() + 1;
+        }
+
+        public int inner() {
+            return 1;
+        }
+
+        public void fail() {
+            throw new IllegalStateException("failure");
+        }
+    }
+
+    private MetricFamily<Timer> family;
+    private TimedService service;
+
+    @BeforeEach
+    public void init() {
+        this.family = new MetricRegistry().timers("test_seconds", "help", "class", "method");
+
+        this.service = Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bindInterceptor(Matchers.subclassesOf(TimedService.class),
+                    MethodTimingInterceptor.publicMethods(), new MethodTimingInterceptor(family));
+            }
+        }).getInstance(TimedService.class);
+    }
+
+    private long getCount(String method) {
+        Timer timer = this.family.getChildren().get(Arrays.asList("TimedService", method));
+        return timer != null ? timer.getCount() : 0;
+    }
+
+    @Test
+    public void testInvocationsAreTimedByClassAndMethod() {
+        this.service.inner();
+        this.service.inner();
+
+        assertEquals(2, this.getCount("inner"));
+    }
+
+    @Test
+    public void testOnlyOutermostInvocationIsTimed() {
+        assertEquals(2, this.service.outer());
+
+        assertEquals(1, this.getCount("outer"));
+        assertEquals(0, this.getCount("inner"));
+
+        // Once the outer invocation completes, calls are timed again
+        this.service.inner();
+        assertEquals(1, this.getCount("inner"));
+    }
+
+    @Test
+    public void testFailedInvocationsAreTimed() {
+        assertThrows(IllegalStateException.class, this.service::fail);
+        assertEquals(1, this.getCount("fail"));
+
+        this.service.inner();
+        assertTrue(this.getCount("inner") > 0);
+    }
+}
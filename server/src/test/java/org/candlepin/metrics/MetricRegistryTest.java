@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+
+
+/**
+ * Test suite for the MetricRegistry class
+ */
+public class MetricRegistryTest {
+
+    private MetricRegistry registry;
+
+    @BeforeEach
+    public void init() {
+        this.registry = new MetricRegistry();
+    }
+
+    private String write() throws IOException {
+        StringWriter writer = new StringWriter();
+        this.registry.write(writer);
+
+        return writer.toString();
+    }
+
+    @Test
+    public void testFamiliesAreReusedByName() {
+        MetricFamily<Counter> family = this.registry.counters("test_total", "help", "a");
+
+        assertSame(family, this.registry.counters("test_total", "other help", "a"));
+        assertSame(family.labels("x"), family.labels("x"));
+    }
+
+    @Test
+    public void testConflictingRegistrationIsRejected() {
+        this.registry.counters("test_total", "help", "a");
+
+        assertThrows(IllegalStateException.class, () -> this.registry.gauges("test_total", "help", "a"));
+        assertThrows(IllegalStateException.class, () -> this.registry.counters("test_total", "help", "b"));
+    }
+
+    @Test
+    public void testInvalidNamesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> this.registry.counters("bad-name", "help"));
+        assertThrows(IllegalArgumentException.class, () -> this.registry.timers("test", "help", "le"));
+    }
+
+    @Test
+    public void testLabelCountMustMatch() {
+        MetricFamily<Counter> family = this.registry.counters("test_total", "help", "a", "b");
+
+        assertThrows(IllegalArgumentException.class, () -> family.labels("x"));
+    }
+
+    @Test
+    public void testCountersAndGaugesAreWritten() throws IOException {
+        this.registry.counters("test_total", "A counter", "type").labels("b\"c").inc(3);
+        this.registry.gauges("test_gauge", "A gauge").labels().set(-2);
+
+        String output = this.write();
+
+        assertTrue(output.contains("# HELP test_total A counter\n# TYPE test_total counter\n"));
+        assertTrue(output.contains("test_total{type=\"b\\\"c\"} 3\n"));
+        assertTrue(output.contains("# TYPE test_gauge gauge\ntest_gauge -2\n"));
+        assertTrue(output.indexOf("test_gauge") < output.indexOf("test_total"));
+    }
+
+    @Test
+    public void testTimersAreWrittenAsHistograms() throws IOException {
+        Timer timer = this.registry.timer("test_seconds", "A timer");
+        timer.record(TimeUnit.MILLISECONDS.toNanos(3));
+        timer.record(TimeUnit.SECONDS.toNanos(2));
+
+        String output = this.write();
+
+        assertTrue(output.contains("# TYPE test_seconds histogram\n"));
+        assertTrue(output.contains("test_seconds_bucket{le=\"0.001\"} 0\n"));
+        assertTrue(output.contains("test_seconds_bucket{le=\"0.005\"} 1\n"));
+        assertTrue(output.contains("test_seconds_bucket{le=\"2.5\"} 2\n"));
+        assertTrue(output.contains("test_seconds_bucket{le=\"+Inf\"} 2\n"));
+        assertTrue(output.contains("test_seconds_sum 2.003\n"));
+        assertTrue(output.contains("test_seconds_count 2\n"));
+    }
+
+    @Test
+    public void testCollectorsRunBeforeWriting() throws IOException {
+        this.registry.addCollector(reg -> reg.gauges("test_gauge", "A gauge").labels().set(7));
+        this.registry.addCollector(reg -> {
+            throw new IllegalStateException("collector failure");
+        });
+
+        assertTrue(this.write().contains("test_gauge 7\n"));
+    }
+
+    @Test
+    public void testTimerCountsAreCumulative() {
+        Timer timer = new Timer();
+        timer.record(0);
+        timer.record(TimeUnit.MINUTES.toNanos(10));
+
+        long[] counts = timer.getCumulativeCounts();
+
+        assertEquals(1, counts[0]);
+        assertEquals(1, counts[counts.length - 2]);
+        assertEquals(2, counts[counts.length - 1]);
+        assertEquals(2, timer.getCount());
+    }
+}
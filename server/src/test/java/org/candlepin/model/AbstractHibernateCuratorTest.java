@@ -35,6 +35,7 @@ import org.junit.jupiter.params.provider.MethodSource;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
@@ -63,6 +64,13 @@ public class AbstractHibernateCuratorTest extends DatabaseTestFixture {
             return super.bulkSQLUpdate(table, column, values, criteria);
         }
 
+        @Override
+        public <T> List<T> bulkSQLKeyLookup(String sql, String[] columns, Collection<Object[]> keys,
+            Map<String, Object> parameters) {
+
+            return super.bulkSQLKeyLookup(sql, columns, keys, parameters);
+        }
+
         @Override
         public E lockAndLoad(Class<E> entityClass, Serializable id) {
             return super.lockAndLoad(entityClass, id);
@@ -365,6 +373,46 @@ public class AbstractHibernateCuratorTest extends DatabaseTestFixture {
         }
     }
 
+    protected Object[] largeKeySetSizes() {
+        int inBlockSize = getConfigForParameters().getInt(DatabaseConfigFactory.IN_OPERATOR_BLOCK_SIZE);
+
+        return Stream.of(1, inBlockSize - 1, inBlockSize, inBlockSize + 1, (int) (inBlockSize * 2.5))
+            .map(count -> new Object[] { count })
+            .toArray();
+    }
+
+    @ParameterizedTest
+    @MethodSource("largeKeySetSizes")
+    public void testBulkSQLKeyLookupWithLargeKeySets(int count) {
+        Owner owner = this.createOwner();
+        List<Object[]> keys = new LinkedList<>();
+
+        for (int i = 1; i <= count; ++i) {
+            this.createContent("c" + i, "content-" + i, owner);
+
+            // Only keys for even content match both columns
+            keys.add(new Object[] { "c" + i, (i % 2 == 0 ? "content-" : "other-") + i });
+        }
+
+        String sql = "SELECT content_id FROM " + Content.DB_TABLE + " WHERE {keys} AND type = :type";
+        List<String> ids = this.testContentCurator.bulkSQLKeyLookup(sql,
+            new String[] { "content_id", "name" }, keys, Collections.singletonMap("type", "test-type"));
+
+        assertEquals(count / 2, ids.size());
+        for (String id : ids) {
+            assertEquals(0, Integer.parseInt(id.substring(1)) % 2);
+        }
+    }
+
+    @Test
+    public void testBulkSQLKeyLookupWithNoKeys() {
+        String sql = "SELECT content_id FROM " + Content.DB_TABLE + " WHERE {keys}";
+        List<String> ids = this.testContentCurator.bulkSQLKeyLookup(sql,
+            new String[] { "content_id", "name" }, Collections.emptyList(), null);
+
+        assertTrue(ids.isEmpty());
+    }
+
     @Test
     public void testLockAndLoadWithSingleId() {
         Owner owner = this.createOwner("owner_key-1", "owner-1");
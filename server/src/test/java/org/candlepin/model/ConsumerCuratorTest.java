@@ -381,15 +381,15 @@ public class ConsumerCuratorTest extends DatabaseTestFixture {
     }
 
     @Test
-    public void testGetDistinctSyspurposeRolesByOwnerReturnsAllRoles() {
+    public void testGetSyspurposeAttributeCountsByOwnerCountsAllRoles() {
         Consumer c1 = new Consumer("c1", "u1", owner, ct);
         c1.setRole("role1");
         Consumer c2 = new Consumer("c2", "u1", owner, ct);
         c2.setRole("role2");
         Consumer c3 = new Consumer("c3", "u1", owner, ct);
         c3.setRole("common_role");
-        Consumer c4 = new Consumer("c3", "u1", owner, ct);
-        c3.setRole("common_role");
+        Consumer c4 = new Consumer("c4", "u1", owner, ct);
+        c4.setRole("common_role");
 
         consumerCurator.create(c1);
         consumerCurator.create(c2);
@@ -397,17 +397,17 @@ public class ConsumerCuratorTest extends DatabaseTestFixture {
         consumerCurator.create(c4);
         consumerCurator.flush();
 
-        List<String> result = consumerCurator.getDistinctSyspurposeRolesByOwner(owner);
+        Map<String, Long> expected = new HashMap<>();
+        expected.put("role1", 1L);
+        expected.put("role2", 1L);
+        expected.put("common_role", 2L);
 
-        // Make sure 'common_role' is not duplicated in the result
-        assertEquals(3, result.size());
-        assertTrue(result.contains("role1"));
-        assertTrue(result.contains("role2"));
-        assertTrue(result.contains("common_role"));
+        Map<String, Map<String, Long>> result = consumerCurator.getSyspurposeAttributeCountsByOwner(owner);
+        assertEquals(expected, result.get(SystemPurposeAttributeType.ROLES.toString()));
     }
 
     @Test
-    public void testGetDistinctSyspurposeRolesByOwnerDoesNotReturnNullOrEmpty() {
+    public void testGetSyspurposeAttributeCountsByOwnerSkipsNullOrEmptyRoles() {
         Consumer c1 = new Consumer("c1", "u1", owner, ct);
         c1.setRole("role1");
         Consumer c2 = new Consumer("c2", "u1", owner, ct);
@@ -420,25 +420,21 @@ public class ConsumerCuratorTest extends DatabaseTestFixture {
         consumerCurator.create(c3);
         consumerCurator.flush();
 
-        List<String> result = consumerCurator.getDistinctSyspurposeRolesByOwner(owner);
-
-        // Make sure the result does not contain null or empty roles.
-        assertEquals(1, result.size());
-        assertTrue(result.contains("role1"));
-        assertFalse(result.contains(""));
-        assertFalse(result.contains(null));
+        Map<String, Map<String, Long>> result = consumerCurator.getSyspurposeAttributeCountsByOwner(owner);
+        assertEquals(Collections.singletonMap("role1", 1L),
+            result.get(SystemPurposeAttributeType.ROLES.toString()));
     }
 
     @Test
-    public void testGetDistinctSyspurposeUsageByOwnerReturnsAllUsages() {
+    public void testGetSyspurposeAttributeCountsByOwnerCountsAllUsages() {
         Consumer c1 = new Consumer("c1", "u1", owner, ct);
         c1.setUsage("usage1");
         Consumer c2 = new Consumer("c2", "u1", owner, ct);
         c2.setUsage("usage2");
         Consumer c3 = new Consumer("c3", "u1", owner, ct);
         c3.setUsage("common_usage");
-        Consumer c4 = new Consumer("c3", "u1", owner, ct);
-        c3.setUsage("common_usage");
+        Consumer c4 = new Consumer("c4", "u1", owner, ct);
+        c4.setUsage("common_usage");
 
         consumerCurator.create(c1);
         consumerCurator.create(c2);
@@ -446,17 +442,17 @@ public class ConsumerCuratorTest extends DatabaseTestFixture {
         consumerCurator.create(c4);
         consumerCurator.flush();
 
-        List<String> result = consumerCurator.getDistinctSyspurposeUsageByOwner(owner);
+        Map<String, Long> expected = new HashMap<>();
+        expected.put("usage1", 1L);
+        expected.put("usage2", 1L);
+        expected.put("common_usage", 2L);
 
-        // Make sure 'common_usage' is not duplicated in the result
-        assertEquals(3, result.size());
-        assertTrue(result.contains("usage1"));
-        assertTrue(result.contains("usage2"));
-        assertTrue(result.contains("common_usage"));
+        Map<String, Map<String, Long>> result = consumerCurator.getSyspurposeAttributeCountsByOwner(owner);
+        assertEquals(expected, result.get(SystemPurposeAttributeType.USAGE.toString()));
     }
 
     @Test
-    public void testGetDistinctSyspurposeUsageByOwnerDoesNotReturnNullOrEmpty() {
+    public void testGetSyspurposeAttributeCountsByOwnerSkipsNullOrEmptyUsages() {
         Consumer c1 = new Consumer("c1", "u1", owner, ct);
         c1.setUsage("usage1");
         Consumer c2 = new Consumer("c2", "u1", owner, ct);
@@ -469,25 +465,21 @@ public class ConsumerCuratorTest extends DatabaseTestFixture {
         consumerCurator.create(c3);
         consumerCurator.flush();
 
-        List<String> result = consumerCurator.getDistinctSyspurposeUsageByOwner(owner);
-
-        // Make sure the result does not contain null or empty usages.
-        assertEquals(1, result.size());
-        assertTrue(result.contains("usage1"));
-        assertFalse(result.contains(""));
-        assertFalse(result.contains(null));
+        Map<String, Map<String, Long>> result = consumerCurator.getSyspurposeAttributeCountsByOwner(owner);
+        assertEquals(Collections.singletonMap("usage1", 1L),
+            result.get(SystemPurposeAttributeType.USAGE.toString()));
     }
 
     @Test
-    public void testGetDistinctSyspurposeServiceLevelByOwnerReturnsAllServiceLevels() {
+    public void testGetSyspurposeAttributeCountsByOwnerCountsAllServiceLevels() {
         Consumer c1 = new Consumer("c1", "u1", owner, ct);
         c1.setServiceLevel("sla1");
         Consumer c2 = new Consumer("c2", "u1", owner, ct);
         c2.setServiceLevel("sla2");
         Consumer c3 = new Consumer("c3", "u1", owner, ct);
         c3.setServiceLevel("common_sla");
-        Consumer c4 = new Consumer("c3", "u1", owner, ct);
-        c3.setServiceLevel("common_sla");
+        Consumer c4 = new Consumer("c4", "u1", owner, ct);
+        c4.setServiceLevel("common_sla");
 
         consumerCurator.create(c1);
         consumerCurator.create(c2);
@@ -495,17 +487,17 @@ public class ConsumerCuratorTest extends DatabaseTestFixture {
         consumerCurator.create(c4);
         consumerCurator.flush();
 
-        List<String> result = consumerCurator.getDistinctSyspurposeServicelevelByOwner(owner);
+        Map<String, Long> expected = new HashMap<>();
+        expected.put("sla1", 1L);
+        expected.put("sla2", 1L);
+        expected.put("common_sla", 2L);
 
-        // Make sure 'common_sla' is not duplicated in the result
-        assertEquals(3, result.size());
-        assertTrue(result.contains("sla1"));
-        assertTrue(result.contains("sla2"));
-        assertTrue(result.contains("common_sla"));
+        Map<String, Map<String, Long>> result = consumerCurator.getSyspurposeAttributeCountsByOwner(owner);
+        assertEquals(expected, result.get(SystemPurposeAttributeType.SERVICE_LEVEL.toString()));
     }
 
     @Test
-    public void testGetDistinctSyspurposeServiceLevelByOwnerDoesNotReturnNullOrEmpty() {
+    public void testGetSyspurposeAttributeCountsByOwnerSkipsNullOrEmptyServiceLevels() {
         Consumer c1 = new Consumer("c1", "u1", owner, ct);
         c1.setServiceLevel("sla1");
         Consumer c2 = new Consumer("c2", "u1", owner, ct);
@@ -518,70 +510,141 @@ public class ConsumerCuratorTest extends DatabaseTestFixture {
         consumerCurator.create(c3);
         consumerCurator.flush();
 
-        List<String> result = consumerCurator.getDistinctSyspurposeServicelevelByOwner(owner);
-
-        // Make sure the result does not contain null or empty SLAs.
-        assertEquals(1, result.size());
-        assertTrue(result.contains("sla1"));
-        assertFalse(result.contains(""));
-        assertFalse(result.contains(null));
+        Map<String, Map<String, Long>> result = consumerCurator.getSyspurposeAttributeCountsByOwner(owner);
+        assertEquals(Collections.singletonMap("sla1", 1L),
+            result.get(SystemPurposeAttributeType.SERVICE_LEVEL.toString()));
     }
 
     @Test
-    public void testGetDistinctSyspurposeAddonsByOwnerReturnsAllAddons() {
+    public void testGetSyspurposeAttributeCountsByOwnerCountsAllAddons() {
         Consumer c1 = new Consumer("c1", "u1", owner, ct);
-        Set<String> addons = new HashSet<>();
-        addons.add("addon1");
-        c1.setAddOns(addons);
+        c1.setAddOns(new HashSet<>(Arrays.asList("addon1")));
         Consumer c2 = new Consumer("c2", "u1", owner, ct);
-        Set<String> addons2 = new HashSet<>();
-        addons.add("addon2");
-        addons.add("common_addon");
-        c2.setAddOns(addons2);
+        c2.setAddOns(new HashSet<>(Arrays.asList("addon2", "common_addon")));
         Consumer c3 = new Consumer("c3", "u1", owner, ct);
-        Set<String> addons3 = new HashSet<>();
-        addons.add("addon3");
-        addons.add("common_addon");
-        c3.setAddOns(addons3);
+        c3.setAddOns(new HashSet<>(Arrays.asList("addon3", "common_addon")));
 
         consumerCurator.create(c1);
         consumerCurator.create(c2);
         consumerCurator.create(c3);
         consumerCurator.flush();
 
-        List<String> result = consumerCurator.getDistinctSyspurposeAddonsByOwner(owner);
+        Map<String, Long> expected = new HashMap<>();
+        expected.put("addon1", 1L);
+        expected.put("addon2", 1L);
+        expected.put("addon3", 1L);
+        expected.put("common_addon", 2L);
 
-        // Make sure 'common_addon' is not duplicated in the result
-        assertEquals(4, result.size());
-        assertTrue(result.contains("addon1"));
-        assertTrue(result.contains("addon2"));
-        assertTrue(result.contains("addon3"));
-        assertTrue(result.contains("common_addon"));
+        Map<String, Map<String, Long>> result = consumerCurator.getSyspurposeAttributeCountsByOwner(owner);
+        assertEquals(expected, result.get(SystemPurposeAttributeType.ADDONS.toString()));
     }
 
     @Test
-    public void testGetDistinctSyspurposeAddonsByOwnerDoesNotReturnNullOrEmpty() {
+    public void testGetSyspurposeAttributeCountsByOwnerSkipsEmptyAddons() {
         Consumer c1 = new Consumer("c1", "u1", owner, ct);
-        Set<String> addons = new HashSet<>();
-        addons.add("addon1");
-        c1.setAddOns(addons);
+        c1.setAddOns(new HashSet<>(Arrays.asList("addon1")));
         Consumer c2 = new Consumer("c2", "u1", owner, ct);
-        Set<String> addons2 = new HashSet<>();
-        addons.add(null);
-        addons.add("");
-        c2.setAddOns(addons2);
+        c2.setAddOns(new HashSet<>(Arrays.asList("")));
 
         consumerCurator.create(c1);
         consumerCurator.create(c2);
         consumerCurator.flush();
 
-        List<String> result = consumerCurator.getDistinctSyspurposeAddonsByOwner(owner);
+        Map<String, Map<String, Long>> result = consumerCurator.getSyspurposeAttributeCountsByOwner(owner);
+        assertEquals(Collections.singletonMap("addon1", 1L),
+            result.get(SystemPurposeAttributeType.ADDONS.toString()));
+    }
 
-        // Make sure the result does not contain null or empty addons.
-        assertEquals(1, result.size());
-        assertTrue(result.contains("addon1"));
-        assertFalse(result.contains(""));
-        assertFalse(result.contains(null));
+    private void createSyspurposeConsumers() {
+        Consumer c1 = new Consumer("c1", "u1", owner, ct);
+        c1.setRole("role1");
+        c1.setUsage("usage1");
+        c1.setServiceLevel("sla1");
+        c1.setAddOns(new HashSet<>(Arrays.asList("addon1", "common_addon")));
+        Consumer c2 = new Consumer("c2", "u1", owner, ct);
+        c2.setRole("role1");
+        c2.setUsage("");
+        c2.setAddOns(new HashSet<>(Arrays.asList("addon2", "common_addon", "")));
+        Consumer c3 = new Consumer("c3", "u1", owner, ct);
+        c3.setRole("role2");
+
+        // Consumers of other owners should not be counted
+        Owner other = this.createOwner();
+        Consumer c4 = new Consumer("c4", "u1", other, ct);
+        c4.setRole("role1");
+        c4.setAddOns(Collections.singleton("addon1"));
+
+        consumerCurator.create(c1);
+        consumerCurator.create(c2);
+        consumerCurator.create(c3);
+        consumerCurator.create(c4);
+        consumerCurator.flush();
+    }
+
+    private Map<String, Map<String, Long>> getExpectedSyspurposeCounts() {
+        Map<String, Map<String, Long>> expected = new HashMap<>();
+
+        Map<String, Long> roles = new HashMap<>();
+        roles.put("role1", 2L);
+        roles.put("role2", 1L);
+        expected.put(SystemPurposeAttributeType.ROLES.toString(), roles);
+        expected.put(SystemPurposeAttributeType.USAGE.toString(), Collections.singletonMap("usage1", 1L));
+        expected.put(SystemPurposeAttributeType.SERVICE_LEVEL.toString(),
+            Collections.singletonMap("sla1", 1L));
+
+        Map<String, Long> addons = new HashMap<>();
+        addons.put("addon1", 1L);
+        addons.put("addon2", 1L);
+        addons.put("common_addon", 2L);
+        expected.put(SystemPurposeAttributeType.ADDONS.toString(), addons);
+
+        return expected;
+    }
+
+    @Test
+    public void testGetSyspurposeAttributeCountsByOwner() {
+        this.createSyspurposeConsumers();
+
+        Map<String, Map<String, Long>> result = consumerCurator.getSyspurposeAttributeCountsByOwner(owner);
+
+        assertEquals(this.getExpectedSyspurposeCounts(), result);
+    }
+
+    @Test
+    public void testGetSyspurposeAttributeCountsByOwnerIncludesUnsetAttributes() {
+        Map<String, Map<String, Long>> result = consumerCurator.getSyspurposeAttributeCountsByOwner(owner);
+
+        assertEquals(SystemPurposeAttributeType.values().length, result.size());
+        for (SystemPurposeAttributeType type : SystemPurposeAttributeType.values()) {
+            assertTrue(result.get(type.toString()).isEmpty());
+        }
+    }
+
+    @Test
+    public void testIterateSyspurposeAttributeCountsByOwner() {
+        this.createSyspurposeConsumers();
+
+        Map<String, Map<String, Long>> result = new HashMap<>();
+        String lastAttribute = null;
+
+        try (ResultIterator<Object[]> iterator = consumerCurator
+            .iterateSyspurposeAttributeCountsByOwner(consumerCurator.currentSession(), owner)) {
+
+            while (iterator.hasNext()) {
+                Object[] row = iterator.next();
+                String attribute = (String) row[0];
+
+                // Rows should be grouped by attribute
+                if (!attribute.equals(lastAttribute)) {
+                    assertFalse(result.containsKey(attribute));
+                    lastAttribute = attribute;
+                }
+
+                result.computeIfAbsent(attribute, key -> new HashMap<>()).put((String) row[1], (Long) row[2]);
+            }
+        }
+
+        assertEquals(this.getExpectedSyspurposeCounts(), result);
     }
 
     @Test
@@ -1505,6 +1568,38 @@ public class ConsumerCuratorTest extends DatabaseTestFixture {
         assertTrue(results.isEmpty());
     }
 
+    @Test
+    public void testComplianceDirtyFlagging() {
+        Owner owner2 = this.createOwner("owner-2");
+
+        Consumer consumer1 = this.createConsumer(owner);
+        Consumer consumer2 = this.createConsumer(owner);
+        Consumer consumer3 = this.createConsumer(owner);
+        Consumer consumer4 = this.createConsumer(owner2);
+
+        int flagged = consumerCurator.markComplianceDirty(
+            Arrays.asList(consumer1.getId(), consumer2.getId(), consumer4.getId()));
+        assertEquals(3, flagged);
+
+        List<String> ownerIds = consumerCurator.getOwnerIdsWithComplianceDirtyConsumers();
+        assertEquals(2, ownerIds.size());
+        assertTrue(ownerIds.containsAll(Arrays.asList(owner.getId(), owner2.getId())));
+
+        List<String> expected = Arrays.asList(consumer1.getId(), consumer2.getId());
+        Collections.sort(expected);
+
+        List<String> block = consumerCurator.getComplianceDirtyConsumerIds(owner.getId(), null, 1);
+        assertEquals(expected.subList(0, 1), block);
+
+        block = consumerCurator.getComplianceDirtyConsumerIds(owner.getId(), block.get(0), 10);
+        assertEquals(expected.subList(1, 2), block);
+
+        consumerCurator.clearComplianceDirty(Arrays.asList(consumer1.getId(), consumer3.getId()));
+
+        block = consumerCurator.getComplianceDirtyConsumerIds(owner.getId(), null, 10);
+        assertEquals(Arrays.asList(consumer2.getId()), block);
+    }
+
     @Test
     public void testConsumerDeleteCascadesToContentTag() {
         Consumer c = new Consumer("testConsumer", "testUser", owner, ct);
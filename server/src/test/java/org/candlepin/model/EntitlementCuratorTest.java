@@ -601,6 +601,47 @@ public class EntitlementCuratorTest extends DatabaseTestFixture {
         assertThat(results, Matchers.hasItems(e1, e2));
     }
 
+    @Test
+    public void testGetExpiredUnmappedGuestEntitlementIds() {
+        Date now = new Date();
+        Date past = new Date(now.getTime() - 3600000L);
+
+        Product product = this.createProduct(owner);
+
+        Pool unmappedPool = TestUtil.createPool(owner, product);
+        unmappedPool.setAttribute(Pool.Attributes.UNMAPPED_GUESTS_ONLY, "true");
+        poolCurator.create(unmappedPool);
+
+        Pool regularPool = TestUtil.createPool(owner, product);
+        poolCurator.create(regularPool);
+
+        Entitlement expired = createEntitlement(owner, consumer, unmappedPool,
+            createEntitlementCertificate("key", "certificate"));
+        expired.setEndDateOverride(past);
+        entitlementCurator.create(expired);
+
+        Entitlement valid = createEntitlement(owner, consumer, unmappedPool,
+            createEntitlementCertificate("key", "certificate"));
+        entitlementCurator.create(valid);
+
+        Entitlement expiredRegular = createEntitlement(owner, consumer, regularPool,
+            createEntitlementCertificate("key", "certificate"));
+        expiredRegular.setEndDateOverride(past);
+        entitlementCurator.create(expiredRegular);
+
+        List<String> ownerIds = entitlementCurator.getOwnerIdsWithExpiredUnmappedGuestEntitlements(now);
+        assertEquals(Arrays.asList(owner.getId()), ownerIds);
+
+        List<String> entIds = entitlementCurator.getExpiredUnmappedGuestEntitlementIds(owner.getId(), now,
+            null, 10);
+        assertEquals(Arrays.asList(expired.getId()), entIds);
+
+        // Resuming after the last ID should yield nothing further
+        entIds = entitlementCurator.getExpiredUnmappedGuestEntitlementIds(owner.getId(), now,
+            expired.getId(), 10);
+        assertTrue(entIds.isEmpty());
+    }
+
     private Entitlement bind(Consumer consumer, Pool pool) {
         EntitlementCertificate cert = createEntitlementCertificate("key", "certificate");
         Entitlement ent = createEntitlement(owner, consumer, pool, cert);
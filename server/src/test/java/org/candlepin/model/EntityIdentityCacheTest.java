@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.model;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+
+import org.candlepin.auth.Principal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+
+
+/**
+ * Test suite for the EntityIdentityCache class
+ */
+public class EntityIdentityCacheTest {
+
+    private EntityIdentityCache cache;
+    private Principal principal;
+
+    @BeforeEach
+    public void init() {
+        this.cache = new EntityIdentityCache();
+        this.principal = mock(Principal.class);
+    }
+
+    @Test
+    public void testGetReturnsEntityCachedForPrincipal() {
+        Consumer consumer = new Consumer();
+        this.cache.put(Consumer.class, "uuid", consumer, this.principal);
+
+        assertSame(consumer, this.cache.get(Consumer.class, "uuid", this.principal));
+    }
+
+    @Test
+    public void testGetIgnoresEntitiesCachedForOtherPrincipals() {
+        this.cache.put(Consumer.class, "uuid", new Consumer(), this.principal);
+
+        assertNull(this.cache.get(Consumer.class, "uuid", mock(Principal.class)));
+        assertNull(this.cache.get(Consumer.class, "uuid", null));
+    }
+
+    @Test
+    public void testEntitiesAreKeyedByType() {
+        Owner owner = new Owner("key");
+        this.cache.put(Owner.class, "key", owner, this.principal);
+
+        assertNull(this.cache.get(Consumer.class, "key", this.principal));
+        assertSame(owner, this.cache.get(Owner.class, "key", this.principal));
+    }
+
+    @Test
+    public void testEvict() {
+        this.cache.put(Consumer.class, "uuid", new Consumer(), this.principal);
+        this.cache.evict(Consumer.class, "uuid");
+
+        assertNull(this.cache.get(Consumer.class, "uuid", this.principal));
+    }
+
+    @Test
+    public void testNullEntitiesAreNotCached() {
+        this.cache.put(Consumer.class, "uuid", null, this.principal);
+
+        assertNull(this.cache.get(Consumer.class, "uuid", this.principal));
+    }
+}
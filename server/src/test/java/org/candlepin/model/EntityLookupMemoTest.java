@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+
+
+/**
+ * Test suite for the EntityLookupMemo class
+ */
+public class EntityLookupMemoTest {
+
+    private EntityLookupMemo memo;
+
+    @BeforeEach
+    public void init() {
+        this.memo = new EntityLookupMemo();
+    }
+
+    @Test
+    public void testGetReturnsMemoizedEntity() {
+        Owner owner = new Owner("key");
+        this.memo.put(Owner.class, "owner_id", owner);
+
+        assertSame(owner, this.memo.get(Owner.class, "owner_id"));
+    }
+
+    @Test
+    public void testEntitiesAreKeyedByType() {
+        ConsumerType type = new ConsumerType("system");
+        this.memo.put(ConsumerType.class, "id", type);
+
+        assertNull(this.memo.get(Owner.class, "id"));
+        assertSame(type, this.memo.get(ConsumerType.class, "id"));
+    }
+
+    @Test
+    public void testNullEntitiesAreNotMemoized() {
+        this.memo.put(Owner.class, "owner_id", null);
+
+        assertNull(this.memo.get(Owner.class, "owner_id"));
+        assertEquals(0, this.memo.size());
+    }
+
+    @Test
+    public void testLookupsAndLoadsAreCountedPerType() {
+        this.memo.get(Owner.class, "owner_id");
+        this.memo.put(Owner.class, "owner_id", new Owner("key"));
+        this.memo.get(Owner.class, "owner_id");
+        this.memo.get(Owner.class, "owner_id");
+        this.memo.get(ConsumerType.class, "type_id");
+
+        assertEquals(3, this.memo.getLookups(Owner.class));
+        assertEquals(1, this.memo.getLoads(Owner.class));
+        assertEquals(1, this.memo.getLookups(ConsumerType.class));
+        assertEquals(0, this.memo.getLoads(ConsumerType.class));
+    }
+
+    @Test
+    public void testClearRetainsCounts() {
+        this.memo.get(Owner.class, "owner_id");
+        this.memo.put(Owner.class, "owner_id", new Owner("key"));
+        this.memo.clear();
+
+        assertNull(this.memo.get(Owner.class, "owner_id"));
+        assertEquals(2, this.memo.getLookups(Owner.class));
+        assertEquals(1, this.memo.getLoads(Owner.class));
+    }
+}
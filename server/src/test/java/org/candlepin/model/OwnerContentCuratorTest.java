@@ -603,10 +603,10 @@ public class OwnerContentCuratorTest extends DatabaseTestFixture {
         Content content4 = this.createContent("p2", "p2", owner2);
 
         List<Content> contentList1 = this.ownerContentCurator.getContentByVersions(owner1,
-            Collections.<String, Integer>singletonMap(content1.getId(), content1.getEntityVersion())).list();
+            Collections.<String, Long>singletonMap(content1.getId(), content1.getEntityVersion()));
 
         List<Content> contentList2 = this.ownerContentCurator.getContentByVersions(owner2,
-            Collections.<String, Integer>singletonMap(content2.getId(), content2.getEntityVersion())).list();
+            Collections.<String, Long>singletonMap(content2.getId(), content2.getEntityVersion()));
 
         // contentList1 should contain only content2 and content3
         // contentList2 should contain only content1 and content3
@@ -640,10 +640,10 @@ public class OwnerContentCuratorTest extends DatabaseTestFixture {
         Content content4 = this.createContent("p2", "p2", owner2);
 
         List<Content> contentList1 = this.ownerContentCurator.getContentByVersions(null,
-            Collections.<String, Integer>singletonMap(content1.getId(), content1.getEntityVersion())).list();
+            Collections.<String, Long>singletonMap(content1.getId(), content1.getEntityVersion()));
 
         List<Content> contentList2 = this.ownerContentCurator.getContentByVersions(null,
-            Collections.<String, Integer>singletonMap(content2.getId(), content2.getEntityVersion())).list();
+            Collections.<String, Long>singletonMap(content2.getId(), content2.getEntityVersion()));
 
         // Both lists should contain both content1, 2 and 3
 
@@ -681,14 +681,14 @@ public class OwnerContentCuratorTest extends DatabaseTestFixture {
         Content p8 = this.createContent("p3", "p3", owner2);
         Content p9 = this.createContent("p3", "p3", owner3);
 
-        Map<String, Integer> versions = new HashMap<>();
+        Map<String, Long> versions = new HashMap<>();
         versions.put(p1.getId(), p1.getEntityVersion());
         versions.put(p4.getId(), p4.getEntityVersion());
         versions.put("bad_id", p7.getEntityVersion());
 
-        List<Content> contentList1 = this.ownerContentCurator.getContentByVersions(owner1, versions).list();
-        List<Content> contentList2 = this.ownerContentCurator.getContentByVersions(owner2, versions).list();
-        List<Content> contentList3 = this.ownerContentCurator.getContentByVersions(null, versions).list();
+        List<Content> contentList1 = this.ownerContentCurator.getContentByVersions(owner1, versions);
+        List<Content> contentList2 = this.ownerContentCurator.getContentByVersions(owner2, versions);
+        List<Content> contentList3 = this.ownerContentCurator.getContentByVersions(null, versions);
 
         // List 1 should contain content 2, 3, 5 and 6
         // List 2 should contain content 1, 3, 4 and 6
@@ -726,18 +726,18 @@ public class OwnerContentCuratorTest extends DatabaseTestFixture {
     public void testGetContentByVersionsNoVersionInfo() {
         Owner owner1 = this.createOwner();
 
-        List<Content> contentList1 = this.ownerContentCurator.getContentByVersions(owner1, null).list();
+        List<Content> contentList1 = this.ownerContentCurator.getContentByVersions(owner1, null);
         assertEquals(0, contentList1.size());
 
         List<Content> contentList2 = this.ownerContentCurator.getContentByVersions(owner1,
-            Collections.<String, Integer>emptyMap()).list();
+            Collections.<String, Long>emptyMap());
         assertEquals(0, contentList2.size());
 
-        List<Content> contentList3 = this.ownerContentCurator.getContentByVersions(null, null).list();
+        List<Content> contentList3 = this.ownerContentCurator.getContentByVersions(null, null);
         assertEquals(0, contentList3.size());
 
         List<Content> contentList4 = this.ownerContentCurator.getContentByVersions(null,
-            Collections.<String, Integer>emptyMap()).list();
+            Collections.<String, Long>emptyMap());
         assertEquals(0, contentList4.size());
     }
 }
@@ -18,6 +18,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -336,4 +337,32 @@ public class OwnerCuratorTest extends DatabaseTestFixture {
 
         assertNull(actual);
     }
+
+    @Test
+    public void testFindOwnerByIdIsMemoizedPerRequest() {
+        Owner owner = this.createOwner("test_key");
+        EntityLookupMemo memo = this.injector.getInstance(EntityLookupMemo.class);
+        int lookups = memo.getLookups(Owner.class);
+        int loads = memo.getLoads(Owner.class);
+
+        assertSame(owner, this.ownerCurator.findOwnerById(owner.getId()));
+        assertSame(owner, this.ownerCurator.findOwnerById(owner.getId()));
+
+        assertEquals(lookups + 2, memo.getLookups(Owner.class));
+        assertEquals(loads + 1, memo.getLoads(Owner.class));
+    }
+
+    @Test
+    public void testFindOwnerByIdReloadsDetachedOwners() {
+        Owner owner = this.createOwner("test_key");
+        this.ownerCurator.findOwnerById(owner.getId());
+
+        this.ownerCurator.flush();
+        this.ownerCurator.clear();
+
+        Owner actual = this.ownerCurator.findOwnerById(owner.getId());
+
+        assertNotNull(actual);
+        assertTrue(this.getEntityManager().contains(actual));
+    }
 }
@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.candlepin.test.DatabaseTestFixture;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.inject.Inject;
+
+/**
+ * Test suite for the OwnerEnvContentAccessCurator class
+ */
+public class OwnerEnvContentAccessCuratorTest extends DatabaseTestFixture {
+    @Inject private OwnerEnvContentAccessCurator ownerEnvContentAccessCurator;
+
+    private OwnerEnvContentAccess createContentAccess(Owner owner, Environment environment, String json) {
+        OwnerEnvContentAccess oeca = new OwnerEnvContentAccess(owner, environment, json);
+        oeca = this.ownerEnvContentAccessCurator.create(oeca);
+        this.ownerEnvContentAccessCurator.refresh(oeca);
+
+        return oeca;
+    }
+
+    private OwnerEnvContentAccess reload(OwnerEnvContentAccess oeca) {
+        this.ownerEnvContentAccessCurator.refresh(oeca);
+        return oeca;
+    }
+
+    @Test
+    public void testNewPayloadIsNotStale() {
+        Owner owner = this.createOwner();
+        OwnerEnvContentAccess oeca = this.createContentAccess(owner, null, "payload");
+
+        assertEquals(0, oeca.getGeneration());
+        assertEquals(0, oeca.getBuiltGeneration());
+        assertFalse(oeca.isStale());
+        assertEquals(Collections.emptyList(), this.ownerEnvContentAccessCurator
+            .getOwnerIdsWithStaleContentAccess());
+    }
+
+    @Test
+    public void testMarkStaleForOwner() {
+        Owner owner1 = this.createOwner();
+        Owner owner2 = this.createOwner();
+        Environment environment = this.createEnvironment(owner1, "env_id");
+
+        OwnerEnvContentAccess oeca1 = this.createContentAccess(owner1, null, "payload");
+        OwnerEnvContentAccess oeca2 = this.createContentAccess(owner1, environment, "payload");
+        OwnerEnvContentAccess oeca3 = this.createContentAccess(owner2, null, "payload");
+
+        assertEquals(2, this.ownerEnvContentAccessCurator.markStaleForOwner(owner1.getId()));
+
+        assertTrue(this.reload(oeca1).isStale());
+        assertTrue(this.reload(oeca2).isStale());
+        assertFalse(this.reload(oeca3).isStale());
+
+        assertEquals(Collections.singletonList(owner1.getId()), this.ownerEnvContentAccessCurator
+            .getOwnerIdsWithStaleContentAccess());
+        assertEquals(2, this.ownerEnvContentAccessCurator.getStaleContentAccess(owner1.getId()).size());
+    }
+
+    @Test
+    public void testMarkStaleForEnvironment() {
+        Owner owner = this.createOwner();
+        Environment environment = this.createEnvironment(owner, "env_id");
+
+        OwnerEnvContentAccess oeca1 = this.createContentAccess(owner, null, "payload");
+        OwnerEnvContentAccess oeca2 = this.createContentAccess(owner, environment, "payload");
+
+        assertEquals(1, this.ownerEnvContentAccessCurator.markStaleForEnvironment(environment.getId()));
+
+        assertFalse(this.reload(oeca1).isStale());
+        assertTrue(this.reload(oeca2).isStale());
+
+        List<OwnerEnvContentAccess> stale = this.ownerEnvContentAccessCurator
+            .getStaleContentAccess(owner.getId());
+
+        assertEquals(1, stale.size());
+        assertEquals(oeca2.getId(), stale.get(0).getId());
+    }
+
+    @Test
+    public void testSwapContentJsonReplacesStalePayload() {
+        Owner owner = this.createOwner();
+        OwnerEnvContentAccess oeca = this.createContentAccess(owner, null, "old payload");
+
+        this.ownerEnvContentAccessCurator.markStaleForOwner(owner.getId());
+        int generation = this.reload(oeca).getGeneration();
+
+        assertTrue(this.ownerEnvContentAccessCurator
+            .swapContentJson(oeca.getId(), generation, "new payload"));
+
+        this.reload(oeca);
+        assertEquals("new payload", oeca.getContentJson());
+        assertEquals(generation, oeca.getBuiltGeneration());
+        assertFalse(oeca.isStale());
+    }
+
+    @Test
+    public void testSwapContentJsonDoesNotReplaceNewerPayload() {
+        Owner owner = this.createOwner();
+        OwnerEnvContentAccess oeca = this.createContentAccess(owner, null, "old payload");
+
+        // Two changes land; the rebuild for the second completes before the one for the first
+        this.ownerEnvContentAccessCurator.markStaleForOwner(owner.getId());
+        int first = this.reload(oeca).getGeneration();
+        this.ownerEnvContentAccessCurator.markStaleForOwner(owner.getId());
+        int second = this.reload(oeca).getGeneration();
+
+        assertTrue(this.ownerEnvContentAccessCurator.swapContentJson(oeca.getId(), second, "newest payload"));
+        assertFalse(this.ownerEnvContentAccessCurator.swapContentJson(oeca.getId(), first, "older payload"));
+
+        this.reload(oeca);
+        assertEquals("newest payload", oeca.getContentJson());
+        assertFalse(oeca.isStale());
+    }
+
+    @Test
+    public void testPayloadFlaggedDuringRebuildRemainsStale() {
+        Owner owner = this.createOwner();
+        OwnerEnvContentAccess oeca = this.createContentAccess(owner, null, "old payload");
+
+        this.ownerEnvContentAccessCurator.markStaleForOwner(owner.getId());
+        int generation = this.reload(oeca).getGeneration();
+
+        // Another change lands while the rebuild is in progress
+        this.ownerEnvContentAccessCurator.markStaleForOwner(owner.getId());
+
+        assertTrue(this.ownerEnvContentAccessCurator
+            .swapContentJson(oeca.getId(), generation, "new payload"));
+        assertTrue(this.reload(oeca).isStale());
+    }
+}
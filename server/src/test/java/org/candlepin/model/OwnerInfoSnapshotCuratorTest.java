@@ -0,0 +1,179 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.candlepin.test.DatabaseTestFixture;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Date;
+
+import javax.inject.Inject;
+
+/**
+ * Test suite for the OwnerInfoSnapshotCurator class
+ */
+public class OwnerInfoSnapshotCuratorTest extends DatabaseTestFixture {
+    @Inject private OwnerInfoSnapshotCurator ownerInfoSnapshotCurator;
+
+    private OwnerInfo createOwnerInfo(int systems) {
+        OwnerInfo info = new OwnerInfo();
+        info.addTypeTotal(new ConsumerType(ConsumerType.ConsumerTypeEnum.SYSTEM), systems, systems * 2);
+        info.addToEntitlementsConsumedByFamily("family", 3, 1);
+        info.setConsumerCountByComplianceStatus("valid", systems);
+
+        return info;
+    }
+
+    private OwnerInfoSnapshot reload(Owner owner) {
+        OwnerInfoSnapshot snapshot = this.ownerInfoSnapshotCurator.getByOwnerId(owner.getId());
+        this.ownerInfoSnapshotCurator.refresh(snapshot);
+
+        return snapshot;
+    }
+
+    @Test
+    public void testGetOwnerInfoWithoutSnapshot() {
+        Owner owner = this.createOwner();
+
+        assertNull(this.ownerInfoSnapshotCurator.getOwnerInfo(owner.getId()));
+    }
+
+    @Test
+    public void testStoreAndFetchOwnerInfo() throws Exception {
+        Owner owner = this.createOwner();
+
+        assertTrue(this.ownerInfoSnapshotCurator.storeOwnerInfo(owner.getId(), 0, this.createOwnerInfo(5)));
+
+        OwnerInfo info = this.ownerInfoSnapshotCurator.getOwnerInfo(owner.getId());
+        assertNotNull(info);
+        assertNotNull(info.getLastUpdated());
+        assertEquals(5, info.getConsumerCounts().get("system"));
+        assertEquals(10, info.getEntitlementsConsumedByType().get("system"));
+        assertEquals(5, info.getConsumerCountByStatus("valid"));
+        assertEquals(new OwnerInfo.ConsumptionTypeCounts(3, 1),
+            info.getEntitlementsConsumedByFamily().get("family"));
+    }
+
+    @Test
+    public void testMarkStale() throws Exception {
+        Owner owner1 = this.createOwner();
+        Owner owner2 = this.createOwner();
+
+        this.ownerInfoSnapshotCurator.storeOwnerInfo(owner1.getId(), 0, this.createOwnerInfo(1));
+        this.ownerInfoSnapshotCurator.storeOwnerInfo(owner2.getId(), 0, this.createOwnerInfo(1));
+
+        assertEquals(1, this.ownerInfoSnapshotCurator.markStale(owner1.getId()));
+
+        assertTrue(this.reload(owner1).isStale());
+        assertFalse(this.reload(owner2).isStale());
+
+        // Snapshots built within the last hour are only refreshed once flagged
+        Date cutoff = new Date(System.currentTimeMillis() - 60 * 60 * 1000);
+        assertEquals(Collections.singletonList(owner1.getId()),
+            this.ownerInfoSnapshotCurator.getOwnerIdsToRefresh(cutoff));
+    }
+
+    @Test
+    public void testMarkStaleLeavesStaleSnapshotAsIs() throws Exception {
+        Owner owner = this.createOwner();
+        this.ownerInfoSnapshotCurator.storeOwnerInfo(owner.getId(), 0, this.createOwnerInfo(1));
+
+        assertEquals(1, this.ownerInfoSnapshotCurator.markStale(owner.getId()));
+        assertEquals(0, this.ownerInfoSnapshotCurator.markStale(owner.getId()));
+
+        assertEquals(Integer.valueOf(1), this.reload(owner).getGeneration());
+    }
+
+    @Test
+    public void testClaimGenerationAllowsEventsDuringRebuild() throws Exception {
+        Owner owner = this.createOwner();
+        this.ownerInfoSnapshotCurator.storeOwnerInfo(owner.getId(), 0, this.createOwnerInfo(1));
+        this.ownerInfoSnapshotCurator.markStale(owner.getId());
+
+        int generation = this.ownerInfoSnapshotCurator.claimGeneration(owner.getId());
+        assertEquals(1, generation);
+        assertFalse(this.reload(owner).isStale());
+
+        // An event received while the snapshot is being rebuilt flags it again
+        assertEquals(1, this.ownerInfoSnapshotCurator.markStale(owner.getId()));
+        this.ownerInfoSnapshotCurator.storeOwnerInfo(owner.getId(), generation, this.createOwnerInfo(2));
+
+        assertTrue(this.reload(owner).isStale());
+    }
+
+    @Test
+    public void testClaimGenerationWithoutSnapshot() {
+        assertEquals(0, this.ownerInfoSnapshotCurator.claimGeneration(this.createOwner().getId()));
+    }
+
+    @Test
+    public void testGetOwnerIdsToRefreshIncludesAgedSnapshots() throws Exception {
+        Owner owner = this.createOwner();
+        this.ownerInfoSnapshotCurator.storeOwnerInfo(owner.getId(), 0, this.createOwnerInfo(1));
+
+        Date cutoff = new Date(System.currentTimeMillis() + 60 * 1000);
+        assertEquals(Collections.singletonList(owner.getId()),
+            this.ownerInfoSnapshotCurator.getOwnerIdsToRefresh(cutoff));
+    }
+
+    @Test
+    public void testStoreReplacesSnapshotOfSameOrOlderGeneration() throws Exception {
+        Owner owner = this.createOwner();
+        this.ownerInfoSnapshotCurator.storeOwnerInfo(owner.getId(), 0, this.createOwnerInfo(1));
+
+        this.ownerInfoSnapshotCurator.markStale(owner.getId());
+        int generation = this.reload(owner).getGeneration();
+
+        assertTrue(this.ownerInfoSnapshotCurator.storeOwnerInfo(owner.getId(), generation,
+            this.createOwnerInfo(2)));
+        assertFalse(this.reload(owner).isStale());
+
+        // Rebuilds without any intervening events still replace the snapshot
+        assertTrue(this.ownerInfoSnapshotCurator.storeOwnerInfo(owner.getId(), generation,
+            this.createOwnerInfo(3)));
+
+        this.ownerInfoSnapshotCurator.clear();
+        assertEquals(3, this.ownerInfoSnapshotCurator.getOwnerInfo(owner.getId()).getConsumerCounts()
+            .get("system"));
+    }
+
+    @Test
+    public void testStoreDoesNotReplaceNewerSnapshot() throws Exception {
+        Owner owner = this.createOwner();
+        this.ownerInfoSnapshotCurator.storeOwnerInfo(owner.getId(), 0, this.createOwnerInfo(1));
+
+        this.ownerInfoSnapshotCurator.markStale(owner.getId());
+        int first = this.reload(owner).getGeneration();
+        this.ownerInfoSnapshotCurator.markStale(owner.getId());
+        int second = this.reload(owner).getGeneration();
+
+        assertTrue(this.ownerInfoSnapshotCurator.storeOwnerInfo(owner.getId(), second,
+            this.createOwnerInfo(2)));
+        assertFalse(this.ownerInfoSnapshotCurator.storeOwnerInfo(owner.getId(), first,
+            this.createOwnerInfo(3)));
+
+        this.ownerInfoSnapshotCurator.clear();
+        assertEquals(2, this.ownerInfoSnapshotCurator.getOwnerInfo(owner.getId()).getConsumerCounts()
+            .get("system"));
+    }
+}
@@ -33,9 +33,11 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 
 
@@ -611,10 +613,10 @@ public class OwnerProductCuratorTest extends DatabaseTestFixture {
         Product product4 = this.createProduct("p2", "p2", owner2);
 
         List<Product> productList1 = this.ownerProductCurator.getProductsByVersions(owner1,
-            Collections.<String, Integer>singletonMap(product1.getId(), product1.getEntityVersion())).list();
+            Collections.<String, Long>singletonMap(product1.getId(), product1.getEntityVersion()));
 
         List<Product> productList2 = this.ownerProductCurator.getProductsByVersions(owner2,
-            Collections.<String, Integer>singletonMap(product2.getId(), product2.getEntityVersion())).list();
+            Collections.<String, Long>singletonMap(product2.getId(), product2.getEntityVersion()));
 
         // productList1 should contain only product2 and product3
         // productList2 should contain only product1 and product3
@@ -648,10 +650,10 @@ public class OwnerProductCuratorTest extends DatabaseTestFixture {
         Product product4 = this.createProduct("p2", "p2", owner2);
 
         List<Product> productList1 = this.ownerProductCurator.getProductsByVersions(null,
-            Collections.<String, Integer>singletonMap(product1.getId(), product1.getEntityVersion())).list();
+            Collections.<String, Long>singletonMap(product1.getId(), product1.getEntityVersion()));
 
         List<Product> productList2 = this.ownerProductCurator.getProductsByVersions(null,
-            Collections.<String, Integer>singletonMap(product2.getId(), product2.getEntityVersion())).list();
+            Collections.<String, Long>singletonMap(product2.getId(), product2.getEntityVersion()));
 
         // Both lists should contain both products1, 2 and 3
 
@@ -689,14 +691,14 @@ public class OwnerProductCuratorTest extends DatabaseTestFixture {
         Product p8 = this.createProduct("p3", "p3", owner2);
         Product p9 = this.createProduct("p3", "p3", owner3);
 
-        Map<String, Integer> versions = new HashMap<>();
+        Map<String, Long> versions = new HashMap<>();
         versions.put(p1.getId(), p1.getEntityVersion());
         versions.put(p4.getId(), p4.getEntityVersion());
         versions.put("bad_id", p7.getEntityVersion());
 
-        List<Product> productList1 = this.ownerProductCurator.getProductsByVersions(owner1, versions).list();
-        List<Product> productList2 = this.ownerProductCurator.getProductsByVersions(owner2, versions).list();
-        List<Product> productList3 = this.ownerProductCurator.getProductsByVersions(null, versions).list();
+        List<Product> productList1 = this.ownerProductCurator.getProductsByVersions(owner1, versions);
+        List<Product> productList2 = this.ownerProductCurator.getProductsByVersions(owner2, versions);
+        List<Product> productList3 = this.ownerProductCurator.getProductsByVersions(null, versions);
 
         // List 1 should contain products 2, 3, 5 and 6
         // List 2 should contain products 1, 3, 4 and 6
@@ -734,18 +736,64 @@ public class OwnerProductCuratorTest extends DatabaseTestFixture {
     public void testGetProductsByVersionsNoVersionInfo() {
         Owner owner1 = this.createOwner();
 
-        List<Product> productList1 = this.ownerProductCurator.getProductsByVersions(owner1, null).list();
+        List<Product> productList1 = this.ownerProductCurator.getProductsByVersions(owner1, null);
         assertEquals(0, productList1.size());
 
         List<Product> productList2 = this.ownerProductCurator.getProductsByVersions(owner1,
-            Collections.<String, Integer>emptyMap()).list();
+            Collections.<String, Long>emptyMap());
         assertEquals(0, productList2.size());
 
-        List<Product> productList3 = this.ownerProductCurator.getProductsByVersions(null, null).list();
+        List<Product> productList3 = this.ownerProductCurator.getProductsByVersions(null, null);
         assertEquals(0, productList3.size());
 
         List<Product> productList4 = this.ownerProductCurator.getProductsByVersions(null,
-            Collections.<String, Integer>emptyMap()).list();
+            Collections.<String, Long>emptyMap());
         assertEquals(0, productList4.size());
     }
+
+    @Test
+    public void testGetSyspurposeAttributesByOwner() {
+        Owner owner1 = this.createOwner();
+        Owner owner2 = this.createOwner();
+
+        Product product1 = TestUtil.createProduct("p1", "p1");
+        product1.setAttribute(Product.Attributes.ADDONS, "hello, world");
+        product1.setAttribute(Product.Attributes.USAGE, "production");
+        product1.setAttribute(Product.Attributes.SUPPORT_LEVEL, "Premium");
+        this.createProduct(product1, owner1);
+
+        Product product2 = TestUtil.createProduct("p2", "p2");
+        product2.setAttribute(Product.Attributes.ADDONS, "hello,earth");
+        product2.setAttribute(Product.Attributes.SUPPORT_LEVEL, "Layered");
+        product2.setAttribute(Product.Attributes.SUPPORT_LEVEL_EXEMPT, "true");
+        this.createProduct(product2, owner1);
+
+        Product product3 = TestUtil.createProduct("p3", "p3");
+        product3.setAttribute(Product.Attributes.ROLES, "other-role");
+        product3.setAttribute(Product.Attributes.USAGE, "development");
+        this.createProduct(product3, owner2);
+
+        Map<String, Set<String>> result = this.ownerProductCurator.getSyspurposeAttributesByOwner(owner1);
+
+        assertEquals(4, result.size());
+        assertEquals(new HashSet<>(Arrays.asList("hello", "world", "earth")),
+            result.get(SystemPurposeAttributeType.ADDONS.toString()));
+        assertEquals(Collections.singleton("production"),
+            result.get(SystemPurposeAttributeType.USAGE.toString()));
+        assertEquals(Collections.singleton("Premium"),
+            result.get(SystemPurposeAttributeType.SERVICE_LEVEL.toString()));
+        assertEquals(Collections.emptySet(), result.get(SystemPurposeAttributeType.ROLES.toString()));
+    }
+
+    @Test
+    public void testGetSyspurposeAttributesByOwnerWithoutProducts() {
+        Owner owner = this.createOwner();
+
+        Map<String, Set<String>> result = this.ownerProductCurator.getSyspurposeAttributesByOwner(owner);
+
+        assertEquals(4, result.size());
+        for (SystemPurposeAttributeType type : SystemPurposeAttributeType.values()) {
+            assertEquals(Collections.emptySet(), result.get(type.toString()));
+        }
+    }
 }
@@ -2401,6 +2401,126 @@ public class PoolCuratorTest extends DatabaseTestFixture {
         assertSame(e, pool4.getSourceEntitlement());
     }
 
+    @Test
+    public void testDecrementConsumedForEntitlements() {
+        Date startDate = TestUtil.createDate(2010, 3, 2);
+        Date endDate = TestUtil.createDate(Calendar.getInstance().get(Calendar.YEAR) + 1, 3, 2);
+        Consumer distributor = this.createMockConsumer(owner, true);
+
+        Pool pool1 = createPool(owner, product, 20L, startDate, endDate);
+        pool1.setConsumed(10L);
+        pool1.setExported(4L);
+        poolCurator.create(pool1);
+
+        Pool pool2 = createPool(owner, product, 20L, startDate, endDate);
+        pool2.setConsumed(3L);
+        poolCurator.create(pool2);
+
+        Entitlement e1 = new Entitlement(pool1, consumer, owner, 5);
+        e1.setId("test-entitlement-id-1");
+        entitlementCurator.create(e1);
+
+        Entitlement e2 = new Entitlement(pool1, distributor, owner, 4);
+        e2.setId("test-entitlement-id-2");
+        entitlementCurator.create(e2);
+
+        Entitlement e3 = new Entitlement(pool2, consumer, owner, 3);
+        e3.setId("test-entitlement-id-3");
+        entitlementCurator.create(e3);
+
+        int updated = this.poolCurator.decrementConsumedForEntitlements(
+            Arrays.asList(e1.getId(), e2.getId()));
+
+        assertEquals(1, updated);
+
+        this.poolCurator.refresh(pool1, pool2);
+        assertEquals(1L, pool1.getConsumed().longValue());
+        assertEquals(0L, pool1.getExported().longValue());
+        assertEquals(3L, pool2.getConsumed().longValue());
+    }
+
+    @Test
+    public void testGetPoolIdsWithDependents() {
+        Date startDate = TestUtil.createDate(2010, 3, 2);
+        Date endDate = TestUtil.createDate(Calendar.getInstance().get(Calendar.YEAR) + 1, 3, 2);
+
+        Pool pool1 = createPool(owner, product, 20L, startDate, endDate);
+        poolCurator.create(pool1);
+
+        Entitlement e = new Entitlement(pool1, consumer, owner, 5);
+        e.setId("test-entitlement-id-1");
+        entitlementCurator.create(e);
+
+        Pool pool2 = createPool(owner, product, 20L, startDate, endDate);
+        poolCurator.create(pool2);
+
+        Set<String> output = this.poolCurator.getPoolIdsWithDependents(
+            Arrays.asList(pool1.getId(), pool2.getId()));
+
+        assertEquals(Collections.singleton(pool1.getId()), output);
+    }
+
+    @Test
+    public void testBulkDeleteByIds() {
+        Date startDate = TestUtil.createDate(2010, 3, 2);
+        Date endDate = TestUtil.createDate(Calendar.getInstance().get(Calendar.YEAR) + 1, 3, 2);
+
+        Pool pool1 = createPool(owner, product, 20L, startDate, endDate);
+        pool1.setAttribute("test_attrib", "test_value");
+        poolCurator.create(pool1);
+
+        Pool pool2 = createPool(owner, product, 20L, startDate, endDate);
+        poolCurator.create(pool2);
+
+        Pool pool3 = createPool(owner, product, 20L, startDate, endDate);
+        poolCurator.create(pool3);
+
+        List<String> poolIds = Arrays.asList(pool1.getId(), pool2.getId());
+        List<Object[]> details = this.poolCurator.getPoolEventDetails(poolIds);
+        assertEquals(2, details.size());
+
+        for (Object[] row : details) {
+            assertTrue(poolIds.contains(row[0]));
+            assertEquals(owner.getId(), row[1]);
+            assertEquals(product.getName(), row[2]);
+        }
+
+        assertEquals(2, this.poolCurator.bulkDeleteByIds(poolIds));
+        this.poolCurator.clear();
+
+        assertNull(this.poolCurator.get(pool1.getId()));
+        assertNull(this.poolCurator.get(pool2.getId()));
+        assertNotNull(this.poolCurator.get(pool3.getId()));
+    }
+
+    @Test
+    public void testBulkDeleteByIdsRevokesCertificateSerials() {
+        Date startDate = TestUtil.createDate(2010, 3, 2);
+        Date endDate = TestUtil.createDate(Calendar.getInstance().get(Calendar.YEAR) + 1, 3, 2);
+
+        CertificateSerial serial = new CertificateSerial(endDate);
+        this.certSerialCurator.create(serial);
+
+        SubscriptionsCertificate cert = new SubscriptionsCertificate();
+        cert.setKey("key");
+        cert.setCert("cert");
+        cert.setSerial(serial);
+
+        Pool pool = createPool(owner, product, 20L, startDate, endDate);
+        pool.setCertificate(cert);
+        poolCurator.create(pool);
+
+        assertEquals(1, this.poolCurator.bulkDeleteByIds(Collections.singletonList(pool.getId())));
+
+        // The deleted pool must not linger in the session
+        assertFalse(this.poolCurator.getEntityManager().contains(pool));
+        this.poolCurator.clear();
+
+        CertificateSerial revoked = this.certSerialCurator.get(serial.getId());
+        assertNotNull(revoked);
+        assertTrue(revoked.isRevoked());
+    }
+
     @Test
     public void testGetExistingPoolIdsByIds() {
         Date startDate = TestUtil.createDate(2010, 3, 2);
@@ -182,6 +182,41 @@ public class ProductTest {
         assertEquals(lhs.getEntityVersion(), rhs.getEntityVersion());
     }
 
+    @Test
+    public void testEntityVersionReflectsChangesMadeThroughViews() {
+        Product product = new Product("test_prod", "Test Product");
+        product.setAttribute("attrib", "value");
+
+        long version = product.getEntityVersion();
+        product.getAttributes().remove("attrib");
+
+        assertNotEquals(version, product.getEntityVersion());
+    }
+
+    @Test
+    public void testEntityVersionReflectsContentChanges() {
+        Content content = new Content("test_content", "Test Content", "yum", "label", "vendor");
+        Product product = new Product("test_prod", "Test Product");
+        product.addContent(content, true);
+
+        long version = product.getEntityVersion();
+        content.setVendor("updated vendor");
+
+        assertNotEquals(version, product.getEntityVersion());
+    }
+
+    @Test
+    public void testEntityVersionReflectsBrandingChanges() {
+        Branding branding = new Branding(null, "eng_prod_id", "eng_prod_name", "OS");
+        Product product = new Product("test_prod", "Test Product");
+        product.addBranding(branding);
+
+        long version = product.getEntityVersion();
+        branding.setName("updated name");
+
+        assertNotEquals(version, product.getEntityVersion());
+    }
+
     @ParameterizedTest
     @MethodSource("getValuesForEqualityAndReplication")
     public void testEntityVersion(String valueName, Object value1, Object value2) throws Exception {
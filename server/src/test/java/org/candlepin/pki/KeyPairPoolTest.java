@@ -0,0 +1,163 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.pki;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.candlepin.config.CandlepinCommonTestConfig;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.metrics.MetricRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.security.KeyPair;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+
+
+/**
+ * Test suite for the KeyPairPool class
+ */
+public class KeyPairPoolTest {
+
+    private PKIUtility pki;
+    private CandlepinCommonTestConfig config;
+    private MetricRegistry registry;
+    private KeyPairPool pool;
+
+    @BeforeEach
+    public void init() throws Exception {
+        this.pki = mock(PKIUtility.class);
+        when(this.pki.generateNewKeyPair()).thenAnswer(invocation -> new KeyPair(null, null));
+
+        this.config = new CandlepinCommonTestConfig();
+        this.registry = new MetricRegistry();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        if (this.pool != null) {
+            this.pool.shutdown();
+        }
+    }
+
+    private KeyPairPool buildPool(int size, int threshold) {
+        this.config.setProperty(ConfigProperties.KEYPAIR_POOL_SIZE, String.valueOf(size));
+        this.config.setProperty(ConfigProperties.KEYPAIR_POOL_REFILL_THRESHOLD, String.valueOf(threshold));
+        this.config.setProperty(ConfigProperties.KEYPAIR_POOL_THREADS, "2");
+
+        this.pool = new KeyPairPool(this.pki, this.config, this.registry);
+        return this.pool;
+    }
+
+    private void awaitSize(KeyPairPool pool, int size) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+        // Wait for the fillers to exit as well, so later takes cannot race with the current fill
+        while ((pool.size() < size || pool.isFilling()) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertEquals(size, pool.size());
+    }
+
+    @Test
+    public void testStartFillsPool() throws Exception {
+        KeyPairPool pool = this.buildPool(5, 2);
+        pool.start();
+
+        this.awaitSize(pool, 5);
+    }
+
+    @Test
+    public void testTakeUsesPooledKeyPairs() throws Exception {
+        KeyPairPool pool = this.buildPool(5, 0);
+        pool.start();
+        this.awaitSize(pool, 5);
+
+        Set<KeyPair> taken = new HashSet<>();
+        for (int i = 0; i < 5; ++i) {
+            taken.add(pool.take());
+        }
+
+        // Each pooled key pair is handed out exactly once
+        assertEquals(5, taken.size());
+    }
+
+    @Test
+    public void testTakeRefillsPoolAtThreshold() throws Exception {
+        KeyPairPool pool = this.buildPool(4, 2);
+        pool.start();
+        this.awaitSize(pool, 4);
+
+        pool.take();
+        pool.take();
+
+        this.awaitSize(pool, 4);
+        verify(this.pki, times(6)).generateNewKeyPair();
+    }
+
+    @Test
+    public void testDisabledPoolGeneratesSynchronously() throws Exception {
+        KeyPair expected = new KeyPair(null, null);
+        when(this.pki.generateNewKeyPair()).thenReturn(expected);
+
+        KeyPairPool pool = this.buildPool(0, 0);
+        pool.start();
+
+        assertSame(expected, pool.take());
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    public void testTakeFallsBackWhenPoolIsEmpty() throws Exception {
+        KeyPairPool pool = this.buildPool(2, 1);
+
+        // Not started, so the first take finds the pool empty
+        assertNotNull(pool.take());
+
+        StringWriter writer = new StringWriter();
+        this.registry.write(writer);
+
+        assertTrue(writer.toString().contains("candlepin_keypair_pool_takes_total{result=\"miss\"} 1\n"));
+    }
+
+    @Test
+    public void testShutdownDiscardsPooledKeyPairs() throws Exception {
+        KeyPairPool pool = this.buildPool(3, 1);
+        pool.start();
+        this.awaitSize(pool, 3);
+
+        pool.shutdown();
+        assertEquals(0, pool.size());
+
+        KeyPair first = pool.take();
+        assertNotSame(first, pool.take());
+        assertEquals(0, pool.size());
+    }
+}
@@ -14,6 +14,11 @@
  */
 package org.candlepin.policy.js;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -32,8 +37,13 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.mozilla.javascript.ScriptableObject;
 
 import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 /**
  * JsRunnerProviderTest
  */
@@ -100,4 +110,137 @@ public class JsRunnerProviderTest {
         verify(rulesCurator, times(3)).getUpdated();
     }
 
+    private static final String TEST_RULES = "function test_name_space() { return TestNamespace; }\n" +
+        "var TestNamespace = { get_value: function() { return value; },\n" +
+        "  get_applied: function() { return typeof value === 'undefined' ? null : value; },\n" +
+        "  set_leaked: function() { leaked = value; return leaked; },\n" +
+        "  get_leaked: function() { return typeof leaked === 'undefined' ? null : leaked; } };";
+
+    @Test
+    public void threadScopeIsReusedUntilRulesAreRecompiled() {
+        when(cacheProvider.get()).thenReturn(new JsRunnerRequestCache());
+        when(rules.getRules()).thenReturn(TEST_RULES);
+        provider.compileRules(true);
+
+        JsRunner runner1 = provider.get();
+        JsRunner runner2 = provider.get();
+        assertSame(runner1.getThreadScope(), runner2.getThreadScope());
+
+        provider.compileRules(true);
+        JsRunner runner3 = provider.get();
+        assertNotSame(runner1.getThreadScope(), runner3.getThreadScope());
+    }
+
+    @Test
+    public void runnersOnTheSameThreadShareTheWarmedScope() {
+        when(cacheProvider.get()).thenReturn(new JsRunnerRequestCache());
+        when(rules.getRules()).thenReturn(TEST_RULES);
+        provider.compileRules(true);
+
+        JsRunner runner1 = provider.get();
+        runner1.init("test_name_space");
+
+        JsRunner runner2 = provider.get();
+        runner2.init("test_name_space");
+
+        assertSame(runner1.getScope(), runner2.getScope());
+        assertSame(runner1.getThreadScope().getNamespace("test_name_space"),
+            runner2.getThreadScope().getNamespace("test_name_space"));
+    }
+
+    @Test
+    public void runnersOnTheSameThreadDoNotShareGlobals() {
+        when(cacheProvider.get()).thenReturn(new JsRunnerRequestCache());
+        when(rules.getRules()).thenReturn(TEST_RULES);
+        provider.compileRules(true);
+
+        JsRunner runner1 = provider.get();
+        runner1.init("test_name_space");
+
+        ArgumentJsContext context = new ArgumentJsContext();
+        context.put("value", "value-1");
+        assertEquals("value-1", runner1.invokeRule("set_leaked", context));
+
+        JsRunner runner2 = provider.get();
+        runner2.init("test_name_space");
+
+        assertNull(runner2.invokeRule("get_applied"));
+        assertNull(runner2.invokeRule("get_leaked"));
+    }
+
+    @Test
+    public void globalsAreClearedAfterEachCall() {
+        when(cacheProvider.get()).thenReturn(new JsRunnerRequestCache());
+        when(rules.getRules()).thenReturn(TEST_RULES);
+        provider.compileRules(true);
+
+        JsRunner runner = provider.get();
+        runner.init("test_name_space");
+
+        ArgumentJsContext context = new ArgumentJsContext();
+        context.put("value", "value-1");
+        assertEquals("value-1", runner.invokeRule("set_leaked", context));
+
+        assertNull(runner.invokeRule("get_applied"));
+        assertNull(runner.invokeRule("get_leaked"));
+        assertEquals(0, ((ScriptableObject) runner.getScope()).getAllIds().length);
+    }
+
+    @Test
+    public void globalsAreClearedAfterFailedCall() {
+        when(cacheProvider.get()).thenReturn(new JsRunnerRequestCache());
+        when(rules.getRules()).thenReturn(TEST_RULES);
+        provider.compileRules(true);
+
+        JsRunner runner = provider.get();
+        runner.init("test_name_space");
+
+        ArgumentJsContext context = new ArgumentJsContext();
+        context.put("value", "value-1");
+        assertNull(runner.invokeRule("no_such_rule", context));
+
+        assertNull(runner.invokeRule("get_applied"));
+    }
+
+    @Test
+    public void threadScopesAreNotSharedBetweenThreads() throws Exception {
+        when(cacheProvider.get()).thenReturn(new JsRunnerRequestCache());
+        when(rules.getRules()).thenReturn(TEST_RULES);
+        provider.compileRules(true);
+
+        JsRunner runner1 = provider.get();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<JsRunner> future = executor.submit(() -> provider.get());
+            assertNotSame(runner1.getThreadScope(), future.get().getThreadScope());
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void invocationsAreRecordedPerFunction() {
+        when(cacheProvider.get()).thenReturn(new JsRunnerRequestCache());
+        when(rules.getRules()).thenReturn(TEST_RULES);
+        provider.compileRules(true);
+
+        JsRunner runner = provider.get();
+        runner.init("test_name_space");
+
+        for (int i = 0; i < 3; ++i) {
+            ArgumentJsContext context = new ArgumentJsContext();
+            context.put("value", "value-" + i);
+
+            assertEquals("value-" + i, runner.invokeRule("get_value", context));
+        }
+
+        JsRunnerStatistics.FunctionStatistics stats = provider.getStatistics()
+            .getFunctionStatistics("test_name_space", "get_value");
+
+        assertNotNull(stats);
+        assertEquals(3, stats.getInvocations());
+        assertEquals(0, stats.getFailures());
+    }
 }
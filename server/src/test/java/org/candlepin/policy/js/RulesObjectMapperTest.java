@@ -14,8 +14,10 @@
  */
 package org.candlepin.policy.js;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 
+import org.candlepin.dto.rules.v1.PoolDTO;
 import org.candlepin.jackson.ProductCachedSerializationModule;
 import org.candlepin.model.Consumer;
 import org.candlepin.model.Entitlement;
@@ -34,6 +36,7 @@ import org.junit.Test;
 import org.mockito.Mockito;
 
 import java.io.InputStream;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -155,4 +158,75 @@ public class RulesObjectMapperTest {
         // Just need this to parse without error:
         ComplianceStatus cs = objMapper.toObject(json, ComplianceStatus.class);
     }
+
+    @Test
+    public void testRepeatedPoolsAreSerializedOncePerCall() {
+        RulesObjectMapper uncachedMapper = new RulesObjectMapper(
+            new ProductCachedSerializationModule(Mockito.mock(ProductCurator.class)));
+        uncachedMapper.setFragmentCaching(false);
+
+        List<RulesSerializationCache> caches = new LinkedList<>();
+        RulesObjectMapper cachedMapper = new RulesObjectMapper(
+            new ProductCachedSerializationModule(Mockito.mock(ProductCurator.class))) {
+
+            @Override
+            protected RulesSerializationCache createSerializationCache() {
+                RulesSerializationCache cache = super.createSerializationCache();
+                caches.add(cache);
+                return cache;
+            }
+        };
+
+        PoolDTO pool1 = new PoolDTO().setId("pool-1").setProductId("prod-1").setQuantity(10L);
+        PoolDTO pool2 = new PoolDTO().setId("pool-2").setProductId("prod-2").setQuantity(5L);
+        pool1.setAttributes(Collections.singletonMap("multi-entitlement", "yes"));
+
+        context.put("pools", new Object[] { pool1, pool2 });
+        context.put("pool", pool1);
+
+        String expected = uncachedMapper.toJsonString(context);
+
+        assertEquals(expected, cachedMapper.toJsonString(context));
+        assertEquals(1, caches.size());
+        assertEquals(2, caches.get(0).size());
+        assertEquals(1, caches.get(0).getHits());
+
+        // Each call serializes its arguments with a new cache
+        assertEquals(expected, cachedMapper.toJsonString(context));
+        assertEquals(2, caches.size());
+        assertEquals(1, caches.get(1).getHits());
+    }
+
+    @Test
+    public void testModifiedPoolsAreSerializedAgainOnNextCall() {
+        PoolDTO pool = new PoolDTO().setId("pool-1").setProductId("prod-1");
+        context.put("pools", new Object[] { pool });
+        context.put("pool", pool);
+
+        String output = objMapper.toJsonString(context);
+        pool.setProductId("prod-2");
+
+        String updated = objMapper.toJsonString(context);
+        assertFalse(output.equals(updated));
+        assertFalse(updated.contains("prod-1"));
+    }
+
+    @Test
+    public void testPoolsAreSerializedWithoutFragmentCaching() {
+        RulesObjectMapper uncachedMapper = new RulesObjectMapper(
+            new ProductCachedSerializationModule(Mockito.mock(ProductCurator.class))) {
+
+            @Override
+            protected RulesSerializationCache createSerializationCache() {
+                throw new AssertionError("fragment caching is disabled");
+            }
+        };
+        uncachedMapper.setFragmentCaching(false);
+
+        PoolDTO pool = new PoolDTO().setId("pool-1").setProductId("prod-1");
+        context.put("pools", new Object[] { pool });
+        context.put("pool", pool);
+
+        assertEquals(objMapper.toJsonString(context), uncachedMapper.toJsonString(context));
+    }
 }
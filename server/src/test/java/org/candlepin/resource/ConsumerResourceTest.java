@@ -27,6 +27,7 @@ import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.nullable;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -369,6 +370,25 @@ public class ConsumerResourceTest {
         verifyCertificateSerialNumbers(serials);
     }
 
+    @Test
+    public void testGetCertSerialsIncludesContentAccessSerialWithoutBuildingCertificate() throws Exception {
+        Consumer consumer = createConsumer(createOwner());
+
+        when(mockEntitlementCertServiceAdapter.listEntitlementSerialIds(consumer))
+            .thenReturn(Arrays.asList(1L, 2L));
+        when(mockEntitlementCurator.listByConsumer(consumer)).thenReturn(new ArrayList<>());
+        CertificateSerial cacSerial = new CertificateSerial(Util.tomorrow());
+        cacSerial.setId(42L);
+        when(mockContentAccessManager.getCertificateSerial(consumer)).thenReturn(cacSerial);
+
+        List<CertificateSerialDTO> serials = consumerResource
+            .getEntitlementCertificateSerials(consumer.getUuid());
+
+        assertEquals(3, serials.size());
+        assertEquals(BigInteger.valueOf(42L), serials.get(2).getSerial());
+        verify(mockContentAccessManager, never()).getCertificate(any(Consumer.class));
+    }
+
     @Test
     public void testExceptionFromCertGen() throws Exception {
         Consumer consumer = createConsumer(createOwner());
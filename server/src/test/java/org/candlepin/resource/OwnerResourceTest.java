@@ -18,11 +18,13 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -33,6 +35,7 @@ import org.candlepin.async.JobConfig;
 import org.candlepin.async.JobException;
 import org.candlepin.async.JobManager;
 import org.candlepin.async.tasks.ImportJob;
+import org.candlepin.async.tasks.OwnerInfoRefreshJob;
 import org.candlepin.audit.EventAdapter;
 import org.candlepin.audit.EventFactory;
 import org.candlepin.audit.EventSink;
@@ -82,12 +85,15 @@ import org.candlepin.model.ImportRecord;
 import org.candlepin.model.ImportRecordCurator;
 import org.candlepin.model.Owner;
 import org.candlepin.model.OwnerCurator;
+import org.candlepin.model.OwnerInfo;
 import org.candlepin.model.OwnerInfoCurator;
+import org.candlepin.model.OwnerInfoSnapshotCurator;
 import org.candlepin.model.OwnerProductCurator;
 import org.candlepin.model.PermissionBlueprint;
 import org.candlepin.model.Pool;
 import org.candlepin.model.Product;
 import org.candlepin.model.ProductCurator;
+import org.candlepin.model.ResultIterator;
 import org.candlepin.model.Role;
 import org.candlepin.model.SystemPurposeAttributeType;
 import org.candlepin.model.UeberCertificate;
@@ -112,15 +118,21 @@ import org.candlepin.util.ContentOverrideValidator;
 import org.candlepin.util.ServiceLevelValidator;
 import org.candlepin.util.Util;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.hibernate.Session;
 import org.hibernate.exception.ConstraintViolationException;
 import org.jboss.resteasy.plugins.providers.multipart.InputPart;
 import org.jboss.resteasy.plugins.providers.multipart.MultipartInput;
 import org.jboss.resteasy.specimpl.MultivaluedMapImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.xnap.commons.i18n.I18n;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.text.ParseException;
@@ -128,9 +140,11 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -169,6 +183,7 @@ public class OwnerResourceTest extends DatabaseTestFixture {
     private ImportRecordCurator mockImportRecordCurator;
     private OwnerCurator mockOwnerCurator;
     private OwnerInfoCurator mockOwnerInfoCurator;
+    private OwnerInfoSnapshotCurator mockOwnerInfoSnapshotCurator;
     private OwnerProductCurator mockOwnerProductCurator;
     private ProductCurator mockProductCurator;
     private UeberCertificateCurator mockUeberCertCurator;
@@ -218,6 +233,7 @@ public class OwnerResourceTest extends DatabaseTestFixture {
         this.mockImportRecordCurator = mock(ImportRecordCurator.class);
         this.mockOwnerCurator = mock(OwnerCurator.class);
         this.mockOwnerInfoCurator = mock(OwnerInfoCurator.class);
+        this.mockOwnerInfoSnapshotCurator = mock(OwnerInfoSnapshotCurator.class);
         this.mockOwnerProductCurator = mock(OwnerProductCurator.class);
         this.mockProductCurator = mock(ProductCurator.class);
         this.mockUeberCertCurator = mock(UeberCertificateCurator.class);
@@ -250,7 +266,7 @@ public class OwnerResourceTest extends DatabaseTestFixture {
             this.mockUeberCertificateGenerator, this.mockEnvironmentCurator, this.calculatedAttributesUtil,
             this.contentOverrideValidator, this.serviceLevelValidator, this.ownerServiceAdapter, this.config,
             this.resolverUtil, this.consumerTypeValidator, this.mockOwnerProductCurator, this.modelTranslator,
-            this.mockJobManager);
+            this.mockJobManager, this.mockOwnerInfoSnapshotCurator);
     }
 
     // TODO: This test does not belong here; it does not hit the resource at all
@@ -1018,6 +1034,61 @@ public class OwnerResourceTest extends DatabaseTestFixture {
         assertThrows(BadRequestException.class, () -> resource.createActivationKey(owner.getKey(), key));
     }
 
+    @Test
+    public void testGetOwnerInfoServesSnapshot() throws Exception {
+        Owner o = new Owner("owner-key");
+        o.setId("owner-id");
+        OwnerInfo snapshot = new OwnerInfo();
+
+        when(this.mockOwnerCurator.getByKey(eq(o.getKey()))).thenReturn(o);
+        when(this.mockOwnerInfoSnapshotCurator.getOwnerInfo(eq(o.getId()))).thenReturn(snapshot);
+
+        Principal principal = new UserPrincipal("admin", Collections.emptyList(), true);
+        OwnerInfo info = this.buildOwnerResource().getOwnerInfo(o.getKey(), principal);
+
+        assertSame(snapshot, info);
+        verify(this.mockOwnerInfoCurator, never()).getByOwner(any(Owner.class));
+        verify(this.mockJobManager, never()).queueJob(any(JobConfig.class));
+    }
+
+    @Test
+    public void testGetOwnerInfoWithoutSnapshotComputesInfoAndQueuesRefresh() throws Exception {
+        Owner o = new Owner("owner-key");
+        o.setId("owner-id");
+        OwnerInfo computed = new OwnerInfo();
+
+        when(this.mockOwnerCurator.getByKey(eq(o.getKey()))).thenReturn(o);
+        when(this.mockOwnerInfoCurator.getByOwner(eq(o))).thenReturn(computed);
+
+        Principal principal = new UserPrincipal("admin", Collections.emptyList(), true);
+        OwnerInfo info = this.buildOwnerResource().getOwnerInfo(o.getKey(), principal);
+
+        assertSame(computed, info);
+        assertNotNull(info.getLastUpdated());
+
+        ArgumentCaptor<JobConfig> captor = ArgumentCaptor.forClass(JobConfig.class);
+        verify(this.mockJobManager).queueJob(captor.capture());
+        assertEquals(OwnerInfoRefreshJob.JOB_KEY, captor.getValue().getJobKey());
+    }
+
+    @Test
+    public void testGetOwnerInfoWithRestrictedAccessComputesInfo() throws Exception {
+        Owner o = new Owner("owner-key");
+        o.setId("owner-id");
+        OwnerInfo computed = new OwnerInfo();
+
+        when(this.mockOwnerCurator.getByKey(eq(o.getKey()))).thenReturn(o);
+        when(this.mockOwnerInfoCurator.getByOwner(eq(o))).thenReturn(computed);
+
+        // A user limited to their own consumers must not be served the owner-wide snapshot
+        Principal principal = new UserPrincipal("user", Collections.emptyList(), false);
+        OwnerInfo info = this.buildOwnerResource().getOwnerInfo(o.getKey(), principal);
+
+        assertSame(computed, info);
+        verify(this.mockOwnerInfoSnapshotCurator, never()).getOwnerInfo(anyString());
+        verify(this.mockJobManager, never()).queueJob(any(JobConfig.class));
+    }
+
     private Pool doTestEntitlementsRevocationCommon(long subQ, int e1, int e2) throws ParseException {
         Product prod = this.createProduct(owner);
 
@@ -1335,7 +1406,7 @@ public class OwnerResourceTest extends DatabaseTestFixture {
             ownerCurator, null, null, i18n, this.mockEventSink, eventFactory, null, null,
             this.mockManifestManager, null, null, null, null, importRecordCurator, null, null, null, null,
             null, contentOverrideValidator, serviceLevelValidator, null, null, null, null, null,
-            this.modelTranslator, this.mockJobManager);
+            this.modelTranslator, this.mockJobManager, null);
 
         MultipartInput input = mock(MultipartInput.class);
         InputPart part = mock(InputPart.class);
@@ -1368,7 +1439,7 @@ public class OwnerResourceTest extends DatabaseTestFixture {
             this.mockOwnerCurator, null, null, i18n, this.mockEventSink, eventFactory, null, null,
             this.mockManifestManager, null, null, null, null, importRecordCurator, null, null, null, null,
             null, contentOverrideValidator, serviceLevelValidator, null, null, null, null, null,
-            this.modelTranslator, this.mockJobManager);
+            this.modelTranslator, this.mockJobManager, null);
 
         MultipartInput input = mock(MultipartInput.class);
         InputPart part = mock(InputPart.class);
@@ -1412,7 +1483,7 @@ public class OwnerResourceTest extends DatabaseTestFixture {
             ownerCurator, null, null, i18n, this.mockEventSink, eventFactory, null, contentAccessManager,
             this.mockManifestManager, null, null, null, null, importRecordCurator, null, null, null, null,
             null, contentOverrideValidator, serviceLevelValidator, null, null, null, null, null,
-            this.modelTranslator, this.mockJobManager);
+            this.modelTranslator, this.mockJobManager, null);
 
         MultipartInput input = mock(MultipartInput.class);
         InputPart part = mock(InputPart.class);
@@ -1720,24 +1791,18 @@ public class OwnerResourceTest extends DatabaseTestFixture {
         when(this.mockOwnerCurator.getByKey(eq(owner.getKey())))
             .thenReturn(owner);
 
-        CandlepinQuery mockQuery = mock(CandlepinQuery.class);
-        when(this.mockOwnerProductCurator.getProductsByOwner(eq(owner)))
-            .thenReturn(mockQuery);
-
-        Product p1 = TestUtil.createProduct();
-        Product p2 = TestUtil.createProduct();
-        Product p3 = TestUtil.createProduct();
-
-        p1.setAttribute(SystemPurposeAttributeType.ADDONS.toString(), "hello, world");
-        p2.setAttribute(SystemPurposeAttributeType.ADDONS.toString(), "hello, earth");
-        p3.setAttribute(SystemPurposeAttributeType.ADDONS.toString(), "earth, world");
+        Map<String, Set<String>> values = new HashMap<>();
+        for (SystemPurposeAttributeType type : SystemPurposeAttributeType.values()) {
+            values.put(type.toString(), new HashSet<>());
+        }
 
-        p1.setAttribute(SystemPurposeAttributeType.USAGE.toString(), "production");
-        p2.setAttribute(SystemPurposeAttributeType.USAGE.toString(), "production");
-        p3.setAttribute(SystemPurposeAttributeType.USAGE.toString(), "development");
+        values.get(SystemPurposeAttributeType.ADDONS.toString())
+            .addAll(Arrays.asList("hello", "earth", "world"));
+        values.get(SystemPurposeAttributeType.USAGE.toString())
+            .addAll(Arrays.asList("production", "development"));
 
-        List<Product> dummyProducts = new ArrayList<>(Arrays.asList(p1, p2, p3));
-        when(mockQuery.list()).thenReturn(dummyProducts);
+        when(this.mockOwnerProductCurator.getSyspurposeAttributesByOwner(eq(owner)))
+            .thenReturn(values);
 
         SystemPurposeAttributesDTO result = resource.getSyspurpose(owner.getKey());
 
@@ -1751,69 +1816,104 @@ public class OwnerResourceTest extends DatabaseTestFixture {
             .get(SystemPurposeAttributeType.USAGE.toString());
         Set<String> expectedUsage = new HashSet<>(Arrays.asList("production", "development"));
         assertEquals(expectedUsage, usage);
+
+        // The values are read from the product attributes, without loading the products
+        verify(this.mockOwnerProductCurator, never()).getProductsByOwner(any(Owner.class));
+    }
+
+    private Map<String, Map<String, Long>> buildSyspurposeCounts() {
+        Map<String, Map<String, Long>> counts = new HashMap<>();
+
+        Map<String, Long> roles = new HashMap<>();
+        roles.put("role1", 3L);
+        roles.put("role2", 1L);
+        counts.put(SystemPurposeAttributeType.ROLES.toString(), roles);
+
+        Map<String, Long> usages = new HashMap<>();
+        usages.put("usage1", 2L);
+        counts.put(SystemPurposeAttributeType.USAGE.toString(), usages);
+
+        Map<String, Long> addons = new HashMap<>();
+        addons.put("addon1", 4L);
+        addons.put("addon2", 5L);
+        counts.put(SystemPurposeAttributeType.ADDONS.toString(), addons);
+
+        counts.put(SystemPurposeAttributeType.SERVICE_LEVEL.toString(), new HashMap<>());
+
+        return counts;
     }
 
     @Test
     public void testReturnConsumerSysPurposeValuesForOwner() throws Exception {
         Owner owner = TestUtil.createOwner();
+        Map<String, Map<String, Long>> counts = this.buildSyspurposeCounts();
 
         when(this.mockOwnerCurator.getByKey(eq(owner.getKey())))
             .thenReturn(owner);
-
-        List<String> mockRoles = new ArrayList<>();
-        mockRoles.add("role1");
-        mockRoles.add("role2");
-        mockRoles.add("role3");
-
-        List<String> mockUsages = new ArrayList<>();
-        mockUsages.add("usage1");
-        mockUsages.add("usage2");
-        mockUsages.add("usage3");
-
-        List<String> mockSLAs = new ArrayList<>();
-        mockSLAs.add("sla1");
-        mockSLAs.add("sla2");
-        mockSLAs.add("sla3");
-
-        List<String> mockAddons = new ArrayList<>();
-        mockAddons.add("addon1");
-        mockAddons.add("addon2");
-        mockAddons.add("addon3");
-
-        when(this.mockConsumerCurator.getDistinctSyspurposeRolesByOwner(eq(owner)))
-            .thenReturn(mockRoles);
-        when(this.mockConsumerCurator.getDistinctSyspurposeServicelevelByOwner(eq(owner)))
-            .thenReturn(mockSLAs);
-        when(this.mockConsumerCurator.getDistinctSyspurposeUsageByOwner(eq(owner)))
-            .thenReturn(mockUsages);
-        when(this.mockConsumerCurator.getDistinctSyspurposeAddonsByOwner(eq(owner)))
-            .thenReturn(mockAddons);
+        when(this.mockConsumerCurator.getSyspurposeAttributeCountsByOwner(eq(owner)))
+            .thenReturn(counts);
 
         OwnerResource resource = this.buildOwnerResource();
 
         SystemPurposeAttributesDTO result = resource.getConsumersSyspurpose(owner.getKey());
 
         assertEquals(modelTranslator.translate(owner, OwnerDTO.class), result.getOwner());
+        assertEquals(counts, result.getSystemPurposeAttributeCounts());
+
         Set<String> addons = result.getSystemPurposeAttributes()
             .get(SystemPurposeAttributeType.ADDONS.toString());
-        Set<String> expectedAddOns = new HashSet<>(Arrays.asList("addon1", "addon2", "addon3"));
-        assertEquals(expectedAddOns, addons);
+        assertEquals(new HashSet<>(Arrays.asList("addon1", "addon2")), addons);
 
         Set<String> usage = result.getSystemPurposeAttributes()
             .get(SystemPurposeAttributeType.USAGE.toString());
-
-        Set<String> expectedUsage = new HashSet<>(Arrays.asList("usage1", "usage2", "usage3"));
-        assertEquals(expectedUsage, usage);
+        assertEquals(Collections.singleton("usage1"), usage);
 
         Set<String> roles = result.getSystemPurposeAttributes()
             .get(SystemPurposeAttributeType.ROLES.toString());
-        Set<String> expectedRoles = new HashSet<>(Arrays.asList("role1", "role2", "role3"));
-        assertEquals(expectedRoles, roles);
+        assertEquals(new HashSet<>(Arrays.asList("role1", "role2")), roles);
 
         Set<String> serviceLevelAgreements = result.getSystemPurposeAttributes()
             .get(SystemPurposeAttributeType.SERVICE_LEVEL.toString());
-        Set<String> expectedSLAs = new HashSet<>(Arrays.asList("sla1", "sla2", "sla3"));
-        assertEquals(expectedSLAs, serviceLevelAgreements);
+        assertTrue(serviceLevelAgreements.isEmpty());
+    }
+
+    @Test
+    public void testStreamConsumerSysPurposeCountsForOwner() throws Exception {
+        Owner owner = TestUtil.createOwner();
+        Session session = mock(Session.class);
+
+        List<Object[]> rows = Arrays.asList(
+            new Object[] { SystemPurposeAttributeType.ROLES.toString(), "role1", 3L },
+            new Object[] { SystemPurposeAttributeType.ROLES.toString(), "role2", 1L },
+            new Object[] { SystemPurposeAttributeType.ADDONS.toString(), "addon1", 4L });
+
+        ResultIterator<Object[]> iterator = mock(ResultIterator.class);
+        Iterator<Object[]> source = rows.iterator();
+        doAnswer(iom -> source.hasNext()).when(iterator).hasNext();
+        doAnswer(iom -> source.next()).when(iterator).next();
+
+        when(this.mockOwnerCurator.getByKey(eq(owner.getKey())))
+            .thenReturn(owner);
+        when(this.mockConsumerCurator.openSession())
+            .thenReturn(session);
+        when(this.mockConsumerCurator.iterateSyspurposeAttributeCountsByOwner(eq(session), eq(owner)))
+            .thenReturn(iterator);
+
+        OwnerResource resource = this.buildOwnerResource();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        resource.streamConsumersSyspurposeCounts(owner.getKey()).write(output);
+
+        Map<String, Map<String, Long>> result = new ObjectMapper()
+            .readValue(output.toByteArray(), new TypeReference<Map<String, Map<String, Long>>>() {});
+
+        Map<String, Map<String, Long>> expected = this.buildSyspurposeCounts();
+        expected.get(SystemPurposeAttributeType.USAGE.toString()).clear();
+        expected.get(SystemPurposeAttributeType.ADDONS.toString()).remove("addon2");
+
+        assertEquals(expected, result);
+        verify(iterator).close();
+        verify(session).close();
     }
 
     @Test
@@ -98,7 +98,7 @@ public class PoolResourceTest extends DatabaseTestFixture {
              TestUtil.createDate(START_YEAR, 1, 1), TestUtil.createDate(END_YEAR, 1, 1));
 
         poolResource = new PoolResource(consumerCurator, ownerCurator, i18n,
-            poolManager, attrUtil, this.modelTranslator);
+            poolManager, attrUtil, this.modelTranslator, this.entitlementCurator);
 
         // Consumer system with too many cpu cores:
         failConsumer = this.createConsumer(createOwner());
@@ -313,7 +313,7 @@ public class PoolResourceTest extends DatabaseTestFixture {
 
     @Test
     public void testEmptyEntitlementList() {
-        List<EntitlementDTO> ents = poolResource.getPoolEntitlements(pool1.getId(),  adminPrincipal);
+        List<EntitlementDTO> ents = poolResource.getPoolEntitlements(pool1.getId(), adminPrincipal).list();
         assertEquals(0, ents.size());
     }
 
@@ -18,7 +18,9 @@ import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Mockito.*;
 
 import org.candlepin.common.paging.PageRequest;
+import org.candlepin.model.CandlepinQuery;
 import org.candlepin.model.Owner;
+import org.candlepin.model.ResultIterator;
 import org.candlepin.resteasy.JsonProvider;
 import org.candlepin.test.DatabaseTestFixture;
 import org.candlepin.test.SessionWrapper;
@@ -28,6 +30,7 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.inject.Provider;
 
+import org.hibernate.FlushMode;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.criterion.Order;
@@ -40,6 +43,8 @@ import org.mockito.ArgumentCaptor;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -104,6 +109,11 @@ public class CandlepinQueryInterceptorTest extends DatabaseTestFixture {
         when(mockSessionFactory.openSession()).thenReturn(this.session);
         doNothing().when(this.session).close();
 
+        // The interceptor configures its sessions for reading only; keep that from leaking into the
+        // wrapped session used by the rest of the test
+        doNothing().when(this.session).setDefaultReadOnly(anyBoolean());
+        doNothing().when(this.session).setHibernateFlushMode(any(FlushMode.class));
+
         // Create some owners to play with
         for (int i = 0; i < 5; ++i) {
             this.createOwner("test-owner-" + (i + 1), "Test Owner " + (i + 1));
@@ -137,6 +147,57 @@ public class CandlepinQueryInterceptorTest extends DatabaseTestFixture {
         verify(this.mockJsonGenerator, times(1)).writeEndArray();
     }
 
+    @Test
+    public void testStreamingSessionIsClearedPeriodically() throws IOException {
+        int elements = CandlepinQueryInterceptor.SESSION_CLEAR_INTERVAL * 2 + 1;
+        Iterator<Object> source = Collections.nCopies(elements, new Object()).iterator();
+
+        ResultIterator<Object> iterator = mock(ResultIterator.class);
+        doAnswer(iom -> source.hasNext()).when(iterator).hasNext();
+        doAnswer(iom -> source.next()).when(iterator).next();
+
+        CandlepinQuery query = mock(CandlepinQuery.class);
+        doReturn(iterator).when(query).iterate();
+        doNothing().when(this.session).clear();
+
+        CandlepinQueryInterceptor cqi = new CandlepinQueryInterceptor(this.mockJsonProvider, this.emProvider);
+
+        ContainerRequestContext requestContext = mock(ContainerRequestContext.class);
+        ContainerResponseContext responseContext = mock(ContainerResponseContext.class);
+        doReturn(query).when(responseContext).getEntity();
+
+        cqi.filter(requestContext, responseContext);
+
+        ArgumentCaptor<StreamingOutput> captor = ArgumentCaptor.forClass(StreamingOutput.class);
+        verify(responseContext, times(1)).setEntity(captor.capture());
+
+        ((StreamingOutput) captor.getValue()).write(this.mockOutputStream);
+
+        verify(this.mockObjectMapper, times(elements)).writeValue(eq(this.mockJsonGenerator), any());
+        verify(this.session, times(2)).clear();
+        verify(query).useSession(eq(this.session));
+        verify(iterator).close();
+    }
+
+    @Test
+    public void testStreamingSessionIsReadOnly() throws IOException {
+        CandlepinQuery query = mock(CandlepinQuery.class);
+        doReturn(mock(ResultIterator.class)).when(query).iterate();
+
+        CandlepinQueryInterceptor cqi = new CandlepinQueryInterceptor(this.mockJsonProvider, this.emProvider);
+
+        ContainerRequestContext requestContext = mock(ContainerRequestContext.class);
+        ContainerResponseContext responseContext = mock(ContainerResponseContext.class);
+        doReturn(query).when(responseContext).getEntity();
+
+        cqi.filter(requestContext, responseContext);
+
+        verify(this.session).setDefaultReadOnly(eq(true));
+        verify(this.session).setHibernateFlushMode(eq(FlushMode.MANUAL));
+        verify(query).useSession(eq(this.session));
+        verify(query).setFetchSize(eq(CandlepinQueryInterceptor.STREAM_FETCH_SIZE));
+    }
+
     private static Stream<Object[]> paramsForPaginatedContentTest() {
         return Stream.of(
             new Object[] { 1, 5, "key", PageRequest.Order.ASCENDING },
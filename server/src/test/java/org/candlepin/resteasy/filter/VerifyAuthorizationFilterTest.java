@@ -14,9 +14,12 @@
  */
 package org.candlepin.resteasy.filter;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
+import org.candlepin.auth.Access;
 import org.candlepin.auth.Principal;
 import org.candlepin.auth.SSLAuth;
 import org.candlepin.auth.Verify;
@@ -192,6 +195,16 @@ public class VerifyAuthorizationFilterTest extends DatabaseTestFixture {
         assertThrows(ForbiddenException.class, () -> interceptor.filter(mockRequestContext));
     }
 
+    @Test
+    public void testAuthorizationPlanIsCompiledOnce() throws Exception {
+        Method method = FakeResource.class.getMethod("someMethod", String.class);
+
+        VerifyAuthorizationFilter.AuthorizationPlan plan = interceptor.getAuthorizationPlan(method);
+
+        assertSame(plan, interceptor.getAuthorizationPlan(method));
+        assertEquals(Access.CREATE, plan.getDefaultAccess());
+    }
+
     /**
      * FakeResource simply to create a Method object to pass down into
      * the interceptor.
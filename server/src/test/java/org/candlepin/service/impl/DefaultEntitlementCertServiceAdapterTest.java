@@ -22,12 +22,15 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyBoolean;
+import static org.mockito.Mockito.anyCollection;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.argThat;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.nullable;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
@@ -52,6 +55,7 @@ import org.candlepin.model.KeyPairCurator;
 import org.candlepin.model.Owner;
 import org.candlepin.model.OwnerCurator;
 import org.candlepin.model.Pool;
+import org.candlepin.model.PoolQuantity;
 import org.candlepin.model.Product;
 import org.candlepin.model.ProductContent;
 import org.candlepin.model.ProductCurator;
@@ -1685,6 +1689,82 @@ public class DefaultEntitlementCertServiceAdapterTest {
         assertTrue(!cert.getCert().contains("ENTITLEMENT DATA"));
     }
 
+    @Test
+    public void testCertGenerationFetchesPoolProductsInBulk() throws Exception {
+        ConsumerType ctype = new ConsumerType(ConsumerType.ConsumerTypeEnum.CANDLEPIN);
+        ctype.setId("manifest-type");
+        consumer.setType(ctype);
+        when(mockConsumerTypeCurator.getConsumerType(consumer)).thenReturn(ctype);
+
+        when(keyPairCurator.getConsumerKeyPair(any(Consumer.class))).thenReturn(keyPair);
+        when(serialCurator.saveOrUpdateAll(any(), anyBoolean(), anyBoolean())).then(invocation -> {
+            Iterable<CertificateSerial> serials = invocation.getArgument(0);
+            serials.forEach(serial -> serial.setId(Util.generateUniqueLong()));
+            return serials;
+        });
+
+        when(mockedPKI
+            .createX509Certificate(any(String.class), any(Set.class), any(Set.class), any(Date.class),
+                any(Date.class), any(KeyPair.class), any(BigInteger.class), nullable(String.class)))
+            .thenReturn(mock(X509Certificate.class));
+        when(mockedPKI.getPemEncoded(any(X509Certificate.class))).thenReturn("".getBytes());
+        when(mockedPKI.getPemEncoded(any(PrivateKey.class))).thenReturn("".getBytes());
+
+        Product providedProduct = TestUtil.createProduct("provided", "provided product");
+        Product derivedProduct = TestUtil.createProduct("derived", "derived product");
+        Product derivedProvided = TestUtil.createProduct("derived_provided", "derived provided product");
+
+        pool.setId("pool1");
+        pool.setDerivedProduct(derivedProduct);
+
+        Pool pool2 = new Pool();
+        pool2.setId("pool2");
+        pool2.setQuantity(1L);
+        pool2.setProduct(product);
+        pool2.setStartDate(pool.getStartDate());
+        pool2.setEndDate(pool.getEndDate());
+
+        Entitlement entitlement2 = new Entitlement();
+        entitlement2.setQuantity(1);
+        entitlement2.setConsumer(consumer);
+        entitlement2.setPool(pool2);
+        entitlement2.setOwner(owner);
+
+        Map<String, Set<Product>> providedProducts = new HashMap<>();
+        providedProducts.put("pool1", new HashSet<>(Arrays.asList(providedProduct)));
+        providedProducts.put("pool2", new HashSet<>(Arrays.asList(providedProduct)));
+        when(productCurator.getPoolProvidedProductsCached(anyCollection())).thenReturn(providedProducts);
+
+        Map<String, Set<Product>> derivedProvidedProducts = new HashMap<>();
+        derivedProvidedProducts.put("pool1", new HashSet<>(Arrays.asList(derivedProvided)));
+        when(productCurator.getPoolDerivedProvidedProductsCached(anyCollection()))
+            .thenReturn(derivedProvidedProducts);
+
+        Map<String, PoolQuantity> poolQuantities = new HashMap<>();
+        poolQuantities.put("pool1", new PoolQuantity(pool, 1));
+        poolQuantities.put("pool2", new PoolQuantity(pool2, 1));
+
+        Map<String, Entitlement> entitlements = new HashMap<>();
+        entitlements.put("pool1", entitlement);
+        entitlements.put("pool2", entitlement2);
+
+        Map<String, Product> products = new HashMap<>();
+        products.put("pool1", product);
+        products.put("pool2", product);
+
+        Map<String, EntitlementCertificate> certs = certServiceAdapter.generateEntitlementCerts(consumer,
+            poolQuantities, entitlements, products, false);
+
+        assertEquals(2, certs.size());
+        verify(productCurator).getPoolProvidedProductsCached(
+            eq(new HashSet<>(Arrays.asList("pool1", "pool2"))));
+        verify(productCurator).getPoolDerivedProvidedProductsCached(
+            eq(new HashSet<>(Arrays.asList("pool1"))));
+        verify(productCurator, never()).getPoolProvidedProductsCached(any(Pool.class));
+        verify(productCurator, never()).getPoolDerivedProvidedProductsCached(any(Pool.class));
+        verify(mockEnvironmentCurator, times(1)).getConsumerEnvironment(consumer);
+    }
+
     @Test
     public void testContentExtension() throws IOException {
         Set<Product> products = new HashSet<>();
@@ -70,6 +70,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.io.FileUtils;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.Answers;
 
 import java.io.BufferedReader;
 import java.io.File;
@@ -164,6 +165,14 @@ public class ExporterTest {
         exportExtensionAdapter = mock(ExportExtensionAdapter.class);
 
         when(exportRules.canExport(any(Entitlement.class))).thenReturn(Boolean.TRUE);
+        this.mockEntitlementQuery(new ArrayList<>());
+    }
+
+    private void mockEntitlementQuery(List<Entitlement> entitlements) {
+        CandlepinQuery<Entitlement> query = mock(CandlepinQuery.class, Answers.RETURNS_SELF);
+        when(query.iterate()).thenReturn(new MockResultIterator(entitlements.iterator()));
+
+        when(ec.listUnexpiredByConsumer(any(Consumer.class))).thenReturn(query);
     }
 
     private KeyPair createKeyPair() {
@@ -314,7 +323,7 @@ public class ExporterTest {
         when(pprov.get()).thenReturn(principal);
         when(principal.getUsername()).thenReturn("testUser");
 
-        when(ec.listByConsumer(consumer)).thenReturn(entitlements);
+        this.mockEntitlementQuery(entitlements);
         when(ent.isDirty()).thenReturn(true);
         idcert.setSerial(new CertificateSerial(10L, new Date()));
         idcert.setKey("euh0876puhapodifbvj094");
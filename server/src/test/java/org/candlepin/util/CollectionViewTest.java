@@ -293,4 +293,42 @@ public class CollectionViewTest {
         }
     }
 
+    @Test
+    public void testListenerNotifiedOfRemovals() {
+        int[] notifications = new int[1];
+        CollectionView<String> view = new CollectionView<>(this.source, () -> ++notifications[0]);
+        this.source.addAll(Arrays.asList("a", "b", "c", "d", "e"));
+
+        view.remove("a");
+        view.removeAll(Arrays.asList("b"));
+        view.retainAll(Arrays.asList("c", "d"));
+
+        Iterator<String> iterator = view.iterator();
+        iterator.next();
+        iterator.remove();
+
+        view.clear();
+
+        assertEquals(5, notifications[0]);
+        assertTrue(this.source.isEmpty());
+    }
+
+    @Test
+    public void testListenerNotNotifiedWithoutChanges() {
+        int[] notifications = new int[1];
+        CollectionView<String> view = new CollectionView<>(this.source, () -> ++notifications[0]);
+        this.source.add("a");
+
+        view.remove("b");
+        view.removeAll(Arrays.asList("b"));
+        view.retainAll(Arrays.asList("a"));
+        view.contains("a");
+        view.iterator().next();
+
+        this.source.clear();
+        view.clear();
+
+        assertEquals(0, notifications[0]);
+    }
+
 }
@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+
+/**
+ * Test suite for the EntityVersionBuilder class
+ */
+public class EntityVersionBuilderTest {
+
+    @Test
+    public void testVersionIsStable() {
+        long lhs = new EntityVersionBuilder().append("value").append(5L).append(true).build();
+        long rhs = new EntityVersionBuilder().append("value").append(5L).append(true).build();
+
+        assertEquals(lhs, rhs);
+    }
+
+    @Test
+    public void testAdjacentValuesDoNotRunTogether() {
+        long lhs = new EntityVersionBuilder().append("ab").append("c").build();
+        long rhs = new EntityVersionBuilder().append("a").append("bc").build();
+
+        assertNotEquals(lhs, rhs);
+    }
+
+    @Test
+    public void testNullIsDistinctFromEmpty() {
+        long lhs = new EntityVersionBuilder().append((String) null).build();
+        long rhs = new EntityVersionBuilder().append("").build();
+
+        assertNotEquals(lhs, rhs);
+    }
+
+    @Test
+    public void testSetsAreOrderIndependent() {
+        long lhs = new EntityVersionBuilder().appendSet(Arrays.asList("a", "b", "c")).build();
+        long rhs = new EntityVersionBuilder().appendSet(Arrays.asList("c", "a", "b")).build();
+
+        assertEquals(lhs, rhs);
+
+        lhs = new EntityVersionBuilder().appendSet(1L, 2L, 3L).build();
+        rhs = new EntityVersionBuilder().appendSet(3L, 1L, 2L).build();
+
+        assertEquals(lhs, rhs);
+    }
+
+    @Test
+    public void testMapsAreOrderIndependent() {
+        Map<String, String> map1 = new LinkedHashMap<>();
+        map1.put("a", "1");
+        map1.put("b", "2");
+
+        Map<String, String> map2 = new LinkedHashMap<>();
+        map2.put("b", "2");
+        map2.put("a", "1");
+
+        assertEquals(new EntityVersionBuilder().appendMap(map1).build(),
+            new EntityVersionBuilder().appendMap(map2).build());
+    }
+
+    @Test
+    public void testMapKeysAndValuesAreDistinguished() {
+        Map<String, String> map1 = new HashMap<>();
+        map1.put("a", "b");
+
+        Map<String, String> map2 = new HashMap<>();
+        map2.put("b", "a");
+
+        assertNotEquals(new EntityVersionBuilder().appendMap(map1).build(),
+            new EntityVersionBuilder().appendMap(map2).build());
+    }
+}
@@ -24,6 +24,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 
 
@@ -353,4 +354,39 @@ public class MapViewTest {
         assertEquals(this.source.values(), this.testobj.values());
     }
 
+    @Test
+    public void testListenerNotifiedOfRemovals() {
+        int[] notifications = new int[1];
+        MapView<String, String> view = new MapView<>(this.source, () -> ++notifications[0]);
+
+        for (int i = 0; i < 6; ++i) {
+            this.source.put("k" + i, "v" + i);
+        }
+
+        view.remove("k0");
+        view.remove("k0");
+        view.keySet().remove("k1");
+        view.values().remove("v2");
+
+        Iterator<Map.Entry<String, String>> iterator = view.entrySet().iterator();
+        iterator.next();
+        iterator.remove();
+
+        assertEquals(4, notifications[0]);
+
+        view.clear();
+        view.clear();
+
+        assertEquals(5, notifications[0]);
+        assertTrue(this.source.isEmpty());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testObservedEntriesCannotBeChanged() {
+        MapView<String, String> view = new MapView<>(this.source, () -> { });
+        this.source.put("k1", "v1");
+
+        view.entrySet().iterator().next().setValue("v2");
+    }
+
 }